@@ -0,0 +1,88 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * In-process CAS server for the end-to-end benchmarks, built on the {@link PublicTestHttpServer} used by the tests.
+ * Every request, whatever its path, is answered with the configured response after the configured latency.
+ * <p>
+ * Requests are served one at a time on a new connection each, as by a CAS server that closes its connections, so
+ * the latency adds up when requests are made concurrently.
+ *
+ * @since 4.0.4
+ */
+public final class StubCasServer {
+
+    private final PublicTestHttpServer server;
+
+    private final int port;
+
+    private StubCasServer(final int port) {
+        this.port = port;
+        this.server = PublicTestHttpServer.instance(port);
+    }
+
+    /**
+     * Starts the stub server, or returns the one already running on the given port.
+     *
+     * @param port the port to listen on.
+     * @param response the response to every request.
+     * @param latency milliseconds to wait before responding.
+     * @return the running server.
+     */
+    public static StubCasServer start(final int port, final String response, final long latency) {
+        final var stub = new StubCasServer(port);
+        stub.setResponse(response);
+        stub.setLatency(latency);
+        return stub;
+    }
+
+    /**
+     * @return the prefix of the CAS server URL, to configure validators and filters with.
+     */
+    public String getCasServerUrlPrefix() {
+        return "http://localhost:" + this.port + "/cas";
+    }
+
+    public void setResponse(final String response) {
+        this.server.content = response.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void setLatency(final long latency) {
+        this.server.latency = latency;
+    }
+
+    /**
+     * Stops the server, which cannot be restarted on the same port in this JVM.
+     *
+     * @throws IOException if the server cannot be reached.
+     */
+    public void stop() throws IOException {
+        try (var socket = new Socket("localhost", this.port)) {
+            final OutputStream out = socket.getOutputStream();
+            out.write("STOP\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.authentication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each {@link UrlPatternMatcherStrategy}, which the authentication filter runs on every request to decide
+ * whether it is ignored, against a URL that matches the pattern and one that does not.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlPatternMatcherStrategyBenchmark {
+
+    private static final String MATCHING_URL = "https://app.example.org/app/static/css/site.css?v=42";
+
+    private static final String OTHER_URL = "https://app.example.org/app/secure/account/settings?tab=profile&ticket=ST-1";
+
+    @Param({"CONTAINS", "REGEX", "FULL_REGEX", "EXACT"})
+    private String matcherType;
+
+    private UrlPatternMatcherStrategy matcher;
+
+    @Setup
+    public void setUp() {
+        this.matcher = switch (this.matcherType) {
+            case "CONTAINS" -> new ContainsPatternUrlPatternMatcherStrategy();
+            case "REGEX" -> new RegexUrlPatternMatcherStrategy();
+            case "FULL_REGEX" -> new EntireRegionRegexUrlPatternMatcherStrategy();
+            default -> new ExactUrlPatternMatcherStrategy();
+        };
+        this.matcher.setPattern(switch (this.matcherType) {
+            case "CONTAINS" -> "/static/";
+            case "REGEX" -> "/static/|\\.(css|js|png)$";
+            case "FULL_REGEX" -> "https://app\\.example\\.org/app/static/.*";
+            default -> MATCHING_URL;
+        });
+        if (!this.matcher.matches(MATCHING_URL) || this.matcher.matches(OTHER_URL)) {
+            throw new IllegalStateException("Unexpected result from " + this.matcherType);
+        }
+    }
+
+    @Benchmark
+    public boolean matchingUrl() {
+        return this.matcher.matches(MATCHING_URL);
+    }
+
+    @Benchmark
+    public boolean otherUrl() {
+        return this.matcher.matches(OTHER_URL);
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.metrics;
+
+import org.apereo.cas.client.validation.Cas30ServiceTicketValidator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of recording a validation, with its response size and error code, in the
+ * {@link InMemoryCasClientMetrics}, from several threads at once.
+ * <p>
+ * Run with <code>-prof gc</code> to check that recording does not allocate, i.e. <code>gc.alloc.rate.norm</code> is 0.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class InMemoryCasClientMetricsBenchmark {
+
+    private final InMemoryCasClientMetrics metrics = new InMemoryCasClientMetrics();
+
+    private long duration;
+
+    @Benchmark
+    public void recordSuccess() {
+        final var value = this.duration++ & 0xFFFFF;
+        this.metrics.recordValidation(Cas30ServiceTicketValidator.class, CasClientMetrics.Outcome.SUCCESS, value);
+        this.metrics.recordResponseSize(Cas30ServiceTicketValidator.class, value);
+    }
+
+    @Benchmark
+    public void recordFailure() {
+        this.metrics.recordValidation(Cas30ServiceTicketValidator.class, CasClientMetrics.Outcome.FAILURE, this.duration++ & 0xFFFFF);
+        this.metrics.recordValidationErrorCode("INVALID_TICKET");
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.DESedeKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of saving and then retrieving a proxy granting ticket in the
+ * {@link EhcacheBackedProxyGrantingTicketStorageImpl}, as done for every proxy callback and validation, with and
+ * without encryption of the stored tickets.
+ * <p>
+ * {@link #legacyEncryptDecrypt()} repeats the encryption done before ciphers were pooled, which looked up a new
+ * {@link Cipher} for every ticket, for comparison with the <code>DESede</code> runs.  It converts the ciphertext
+ * through ISO-8859-1 rather than the platform charset, which could not decrypt the ticket back.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ProxyGrantingTicketStorageBenchmark {
+
+    private static final String PROXY_GRANTING_TICKET = "PGT-1-ahD8XZkPBcvLnEr0LtgvZ3rs3xUBTyNgIYl4vS9KDlbF9VoPBb8AebsSWkeYnm0PUPk-cas.example.org";
+
+    private static final String DESEDE_KEY = "123456789012345678901234";
+
+    private static final String AES_KEY = "0123456789abcdef";
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Param({"none", "DESede", "AES/GCM/NoPadding"})
+    private String cipherAlgorithm;
+
+    private EhcacheBackedProxyGrantingTicketStorageImpl storage;
+
+    private Key legacyKey;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.storage = new EhcacheBackedProxyGrantingTicketStorageImpl();
+        if ("DESede".equals(this.cipherAlgorithm)) {
+            this.storage.setSecretKey(DESEDE_KEY);
+        } else if (!"none".equals(this.cipherAlgorithm)) {
+            this.storage.setCipherAlgorithm(this.cipherAlgorithm);
+            this.storage.setSecretKey(AES_KEY);
+        }
+        this.legacyKey = SecretKeyFactory.getInstance("DESede").generateSecret(new DESedeKeySpec(DESEDE_KEY.getBytes()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.storage.destroy();
+    }
+
+    @Benchmark
+    public String saveAndRetrieve() {
+        final var proxyGrantingTicketIou = "PGTIOU-" + this.sequence.incrementAndGet();
+        this.storage.save(proxyGrantingTicketIou, PROXY_GRANTING_TICKET);
+        return this.storage.retrieve(proxyGrantingTicketIou);
+    }
+
+    @Benchmark
+    public String legacyEncryptDecrypt() throws Exception {
+        final var encryptCipher = Cipher.getInstance("DESede");
+        encryptCipher.init(Cipher.ENCRYPT_MODE, this.legacyKey);
+        final var encrypted = new String(encryptCipher.doFinal(PROXY_GRANTING_TICKET.getBytes()), StandardCharsets.ISO_8859_1);
+
+        final var decryptCipher = Cipher.getInstance("DESede");
+        decryptCipher.init(Cipher.DECRYPT_MODE, this.legacyKey);
+        return new String(decryptCipher.doFinal(encrypted.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the in-memory {@link ProxyGrantingTicketStorageImpl}, the default storage, as proxy callbacks save tickets
+ * that validations then retrieve, while a clean-up thread expires the tickets that were never retrieved.  Every
+ * tenth ticket is left to expire.  {@link ProxyGrantingTicketStorageBenchmark} measures the Ehcache storage.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProxyGrantingTicketStorageImplBenchmark {
+
+    private static final String PROXY_GRANTING_TICKET = "PGT-1-ahD8XZkPBcvLnEr0LtgvZ3rs3xUBTyNgIYl4vS9KDlbF9VoPBb8AebsSWkeYnm0PUPk-cas.example.org";
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ProxyGrantingTicketStorageImpl storage;
+
+    @Setup
+    public void setUp() {
+        this.storage = new ProxyGrantingTicketStorageImpl(100);
+    }
+
+    @Benchmark
+    @Group("storage")
+    @GroupThreads(3)
+    public String saveAndRetrieve() {
+        final var sequence = this.sequence.incrementAndGet();
+        final var proxyGrantingTicketIou = "PGTIOU-" + sequence;
+        this.storage.save(proxyGrantingTicketIou, PROXY_GRANTING_TICKET);
+        return sequence % 10 == 0 ? null : this.storage.retrieve(proxyGrantingTicketIou);
+    }
+
+    @Benchmark
+    @Group("storage")
+    @GroupThreads(1)
+    public void cleanUp() {
+        this.storage.cleanUp();
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures contention on the {@link SessionMappingStorage} when many threads log in and out at once.  Each operation
+ * maps a new session, as done on login, and then removes it either by session id, as done when the session is
+ * destroyed, or by mapping id, as done on a single logout request.
+ * <p>
+ * Run {@link #main(String[])} to measure the storages at 1 to 64 threads, or pass <code>-t</code> to the JMH runner.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionMappingStorageBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+
+    @Param({"hashMap", "concurrent"})
+    private String storageType;
+
+    private SessionMappingStorage storage;
+
+    @Setup
+    public void setUp() {
+        this.storage = "hashMap".equals(this.storageType)
+            ? new HashMapBackedSessionMappingStorage() : new ConcurrentSessionMappingStorage();
+    }
+
+    @Benchmark
+    public HttpSessionHandle loginAndDestroySession(final ThreadSessions sessions) {
+        final var handle = sessions.next();
+        this.storage.addSessionById(handle.mappingId, handle.session);
+        this.storage.removeBySessionById(handle.session.getId());
+        return handle;
+    }
+
+    @Benchmark
+    public Object loginAndSingleLogout(final ThreadSessions sessions) {
+        final var handle = sessions.next();
+        this.storage.addSessionById(handle.mappingId, handle.session);
+        return this.storage.removeSessionByMappingId(handle.mappingId);
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        for (final var threads : THREAD_COUNTS) {
+            new Runner(new OptionsBuilder()
+                .include(SessionMappingStorageBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build()).run();
+        }
+    }
+
+    /**
+     * Per-thread ring of sessions, created up front so that the benchmark measures the storage rather than
+     * the allocation of sessions.
+     */
+    @State(Scope.Thread)
+    public static class ThreadSessions {
+
+        private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+        private final HttpSessionHandle[] handles = new HttpSessionHandle[1024];
+
+        private int index;
+
+        @Setup
+        public void setUp() {
+            final var thread = THREAD_IDS.incrementAndGet();
+            for (var i = 0; i < this.handles.length; i++) {
+                this.handles[i] = new HttpSessionHandle("ST-" + thread + '-' + i,
+                    new MockHttpSession(null, "session-" + thread + '-' + i));
+            }
+        }
+
+        HttpSessionHandle next() {
+            final var handle = this.handles[this.index];
+            this.index = (this.index + 1) & (this.handles.length - 1);
+            return handle;
+        }
+    }
+
+    /**
+     * A session and the service ticket it was created for.
+     */
+    public static final class HttpSessionHandle {
+
+        private final String mappingId;
+
+        private final MockHttpSession session;
+
+        HttpSessionHandle(final String mappingId, final MockHttpSession session) {
+            this.mappingId = mappingId;
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WebUtils#constructServiceUrl} as done for every request that is redirected to, or validated
+ * against, the CAS server, along with the {@link URIBuilder} operations it is built on.  The request carries the
+ * requested number of query parameters besides the service ticket, which is removed from the service URL.  With
+ * several server names, the one matching the <code>Host</code> header of the request is chosen.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceUrlBenchmark {
+
+    @Param({"0", "5", "20"})
+    private int parameterCount;
+
+    @Param({"https://app.example.org", "app1.example.org app.example.org:8443"})
+    private String serverName;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private String requestUrl;
+
+    private String queryString;
+
+    @Setup
+    public void setUp() {
+        final var query = new StringBuilder("ticket=ST-1-ahD8XZkPBcvLnEr0LtgvZ3rs3xU-cas.example.org");
+        for (var i = 0; i < this.parameterCount; i++) {
+            query.append("&param").append(i).append("=value%20").append(i);
+        }
+        this.queryString = query.toString();
+        this.requestUrl = "https://app.example.org:8443/app/secure/page.html";
+
+        this.request = new MockHttpServletRequest("GET", "/app/secure/page.html");
+        this.request.setScheme("https");
+        this.request.setSecure(true);
+        this.request.setServerName("app.example.org");
+        this.request.setServerPort(8443);
+        this.request.addHeader("Host", "app.example.org:8443");
+        this.request.setQueryString(this.queryString);
+        this.response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String constructServiceUrl() {
+        return WebUtils.constructServiceUrl(this.request, this.response, null, this.serverName, "service", "ticket", false);
+    }
+
+    @Benchmark
+    public String constructEncodedServiceUrl() {
+        return WebUtils.constructServiceUrl(this.request, this.response, null, this.serverName, "service", "ticket", true);
+    }
+
+    @Benchmark
+    public URI buildUri() {
+        final var builder = new URIBuilder(this.requestUrl, true);
+        builder.setParameters(this.queryString);
+        return builder.build();
+    }
+
+    @Benchmark
+    public String addParameters() {
+        final var builder = new URIBuilder(this.requestUrl, true);
+        for (var i = 0; i < this.parameterCount; i++) {
+            builder.addParameter("param" + i, "value " + i);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.StubCasServer;
+import org.apereo.cas.client.authentication.AuthenticationFilter;
+import org.apereo.cas.client.util.AssertionHolder;
+import org.apereo.cas.client.util.AssertionThreadLocalFilter;
+import org.apereo.cas.client.util.HttpServletRequestWrapperFilter;
+import org.apereo.cas.client.validation.json.Cas30JsonProxyReceivingTicketValidationFilter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures a request carrying a service ticket through the filter chain of a protected application, from the
+ * authentication filter through ticket validation against an in-process {@link StubCasServer} to the servlet, which
+ * reads the authenticated user and one of the attributes.  The stub server answers with the requested number of
+ * attributes after the requested latency.  The validation filter does not redirect after validation, so that the
+ * request reaches the servlet.
+ * <p>
+ * Pass <code>-p streamResponses=true</code> or <code>-p useHttpClient=true</code> to the JMH runner to measure the
+ * other ways of reading the response.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterChainBenchmark {
+
+    private static final int PORT = 18088;
+
+    private static final String SERVER_NAME = "http://app.example.org";
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Param({"CAS30", "CAS30_JSON"})
+    private ValidationResponses.Protocol protocol;
+
+    @Param({"10", "100"})
+    private int attributeCount;
+
+    @Param({"0", "10"})
+    private long latency;
+
+    @Param("false")
+    private boolean streamResponses;
+
+    @Param("false")
+    private boolean useHttpClient;
+
+    private StubCasServer server;
+
+    private Filter[] filters;
+
+    private HttpServlet servlet;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.server = StubCasServer.start(PORT, ValidationResponses.build(this.protocol, this.attributeCount), this.latency);
+
+        final var authenticationConfig = new MockFilterConfig();
+        authenticationConfig.addInitParameter("casServerLoginUrl", this.server.getCasServerUrlPrefix() + "/login");
+        authenticationConfig.addInitParameter("serverName", SERVER_NAME);
+        final var authenticationFilter = new AuthenticationFilter();
+        authenticationFilter.init(authenticationConfig);
+
+        final var validationConfig = new MockFilterConfig();
+        validationConfig.addInitParameter("casServerUrlPrefix", this.server.getCasServerUrlPrefix());
+        validationConfig.addInitParameter("serverName", SERVER_NAME);
+        validationConfig.addInitParameter("redirectAfterValidation", "false");
+        validationConfig.addInitParameter("streamResponses", String.valueOf(this.streamResponses));
+        validationConfig.addInitParameter("useHttpClient", String.valueOf(this.useHttpClient));
+        final var validationFilter = this.protocol == ValidationResponses.Protocol.CAS30_JSON
+            ? new Cas30JsonProxyReceivingTicketValidationFilter() : new Cas30ProxyReceivingTicketValidationFilter();
+        validationFilter.init(validationConfig);
+
+        final var wrapperFilter = new HttpServletRequestWrapperFilter();
+        wrapperFilter.init(new MockFilterConfig());
+        this.filters = new Filter[]{authenticationFilter, validationFilter, wrapperFilter, new AssertionThreadLocalFilter()};
+        this.servlet = new ApplicationServlet();
+
+        // fail fast rather than measure failed validations
+        final var response = validateTicket();
+        if (response.getStatus() != HttpServletResponse.SC_OK || !"casuser".equals(response.getContentAsString())) {
+            throw new IllegalStateException("Ticket validation failed with status " + response.getStatus());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (final var filter : this.filters) {
+            filter.destroy();
+        }
+        this.server.stop();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse validateTicket() throws Exception {
+        final var ticket = "ST-" + this.sequence.incrementAndGet() + "-ahD8XZkPBcvLnEr0LtgvZ3rs3xU-cas.example.org";
+        final var request = new MockHttpServletRequest("GET", "/app/secure/page.html");
+        request.setServerName("app.example.org");
+        request.setQueryString("ticket=" + ticket);
+        request.setParameter("ticket", ticket);
+        final var response = new MockHttpServletResponse();
+        new MockFilterChain(this.servlet, this.filters).doFilter(request, response);
+        return response;
+    }
+
+    /**
+     * Protected resource, which writes the authenticated user once it has read one of the released attributes.
+     */
+    private static final class ApplicationServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+            final var assertion = AssertionHolder.getAssertion();
+            if (assertion == null || assertion.getPrincipal().getAttributes().get("attribute0") == null) {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN);
+                return;
+            }
+            response.getWriter().write(request.getRemoteUser());
+        }
+    }
+}
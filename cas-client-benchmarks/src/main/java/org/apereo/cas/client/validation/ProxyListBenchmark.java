@@ -0,0 +1,98 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ProxyList#contains(String[])}, which the proxy ticket validator calls for every proxy ticket, for
+ * a list of allowed chains of the given size.  The proxy chain being checked matches the last allowed chain, so
+ * that every chain is tried, and the chains are either exact URLs or regular expressions.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProxyListBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int chainCount;
+
+    @Param({"exact", "regex"})
+    private String chainType;
+
+    private ProxyList proxyList;
+
+    private String[] matchingChain;
+
+    private String[] unknownChain;
+
+    @Setup
+    public void setUp() {
+        final var chains = new StringBuilder();
+        for (var i = 0; i < this.chainCount; i++) {
+            if (i > 0) {
+                chains.append('\n');
+            }
+            if ("regex".equals(this.chainType)) {
+                chains.append("^https://proxy").append(i).append("\\.example\\.org/.*")
+                    .append(" ^https://app").append(i).append("\\.example\\.org/.*");
+            } else {
+                chains.append("https://proxy").append(i).append(".example.org/pgtUrl")
+                    .append(" https://app").append(i).append(".example.org/pgtUrl");
+            }
+        }
+        this.proxyList = CommonUtils.createProxyList(chains.toString());
+        final var last = this.chainCount - 1;
+        this.matchingChain = new String[]{"https://proxy" + last + ".example.org/pgtUrl",
+            "https://app" + last + ".example.org/pgtUrl"};
+        this.unknownChain = new String[]{"https://proxy.example.com/pgtUrl", "https://app.example.com/pgtUrl"};
+        if (!this.proxyList.contains(this.matchingChain)) {
+            throw new IllegalStateException("The proxy chain should be allowed");
+        }
+    }
+
+    @Benchmark
+    public boolean allowedChain() {
+        return this.proxyList.contains(this.matchingChain);
+    }
+
+    @Benchmark
+    public boolean unknownChain() {
+        return this.proxyList.contains(this.unknownChain);
+    }
+}
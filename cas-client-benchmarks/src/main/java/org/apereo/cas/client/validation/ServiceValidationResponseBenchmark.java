@@ -0,0 +1,112 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.util.XmlUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the single-pass {@link ServiceValidationResponse} parser with the multi-pass parsing
+ * previously done by {@link Cas20ServiceTicketValidator} and {@link Cas20ProxyTicketValidator}.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceValidationResponseBenchmark {
+
+    @Param({"50", "100", "200"})
+    private int attributeCount;
+
+    private String response;
+
+    private Cas20ServiceTicketValidator legacyValidator;
+
+    /**
+     * Builds a CAS 2.0 proxyValidate response with a PGTIOU, a two-hop proxy chain and the requested
+     * number of attributes, every fifth of which is multivalued.
+     *
+     * @param attributeCount number of attributes to release.
+     * @return the XML response.
+     */
+    public static String buildResponse(final int attributeCount) {
+        final var builder = new StringBuilder(256 + attributeCount * 96);
+        builder.append("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>\n")
+            .append("  <cas:authenticationSuccess>\n")
+            .append("    <cas:user>casuser</cas:user>\n")
+            .append("    <cas:proxyGrantingTicket>PGTIOU-84678-8a9d2sfa23casd</cas:proxyGrantingTicket>\n")
+            .append("    <cas:attributes>\n");
+        for (var i = 0; i < attributeCount; i++) {
+            builder.append("      <cas:attribute").append(i).append('>')
+                .append("value-").append(i).append("-abcdefghijklmnopqrstuvwxyz")
+                .append("</cas:attribute").append(i).append(">\n");
+            if (i % 5 == 0) {
+                builder.append("      <cas:attribute").append(i).append(">second-value-").append(i)
+                    .append("</cas:attribute").append(i).append(">\n");
+            }
+        }
+        builder.append("    </cas:attributes>\n")
+            .append("    <cas:proxies>\n")
+            .append("      <cas:proxy>https://proxy2/pgtUrl</cas:proxy>\n")
+            .append("      <cas:proxy>https://proxy1/pgtUrl</cas:proxy>\n")
+            .append("    </cas:proxies>\n")
+            .append("  </cas:authenticationSuccess>\n")
+            .append("</cas:serviceResponse>\n");
+        return builder.toString();
+    }
+
+    @Setup
+    public void setUp() {
+        this.response = buildResponse(this.attributeCount);
+        this.legacyValidator = new Cas20ServiceTicketValidator("https://localhost/cas");
+    }
+
+    @Benchmark
+    public ServiceValidationResponse singlePass() throws TicketValidationException {
+        return ServiceValidationResponse.parse(this.response);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void multiPass(final Blackhole blackhole) {
+        blackhole.consume(XmlUtils.getTextForElement(this.response, "authenticationFailure"));
+        blackhole.consume(XmlUtils.getTextForElement(this.response, "user"));
+        blackhole.consume(XmlUtils.getTextForElements(this.response, "proxyGrantingTicket"));
+        blackhole.consume(this.legacyValidator.extractCustomAttributes(this.response));
+        blackhole.consume(XmlUtils.getTextForElements(this.response, "proxy"));
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast each validator turns a successful response of its protocol into an {@link Assertion}, from a
+ * {@link String} and, as when responses are streamed, from a {@link java.io.Reader}.  The responses are built by
+ * {@link ValidationResponses}.  JWT service tickets, which are validated without a response from the CAS server,
+ * are measured by {@link org.apereo.cas.client.validation.jwt.CasJWTTicketValidatorBenchmark}.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketValidatorParsingBenchmark {
+
+    @Param({"CAS10", "CAS20", "CAS30", "CAS30_JSON", "SAML11"})
+    private ValidationResponses.Protocol protocol;
+
+    @Param({"10", "100"})
+    private int attributeCount;
+
+    private AbstractUrlBasedTicketValidator validator;
+
+    private String response;
+
+    @Setup
+    public void setUp() throws TicketValidationException {
+        this.validator = ValidationResponses.newValidator(this.protocol, "https://cas.example.org/cas");
+        this.response = ValidationResponses.build(this.protocol, this.attributeCount);
+        // fail fast rather than measure exceptions
+        this.validator.parseResponseFromServer(this.response);
+    }
+
+    @Benchmark
+    public Assertion parseString() throws TicketValidationException {
+        return this.validator.parseResponseFromServer(this.response);
+    }
+
+    @Benchmark
+    public Assertion parseReader() throws TicketValidationException {
+        return this.validator.parseResponseFromServer(new StringReader(this.response));
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.util.SamlUtils;
+import org.apereo.cas.client.validation.json.Cas30JsonServiceTicketValidator;
+import org.apereo.cas.client.validation.json.JsonValidationResponseParserBenchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation responses of every protocol supported by the client, with the same principal and attributes, for the
+ * benchmarks and the {@link org.apereo.cas.client.StubCasServer}.
+ *
+ * @since 4.0.4
+ */
+public final class ValidationResponses {
+
+    private ValidationResponses() {
+    }
+
+    /**
+     * @param protocol the protocol of the response.
+     * @param attributeCount number of attributes to release; ignored by CAS 1.0, which cannot release any.
+     * @return a successful validation response.
+     */
+    public static String build(final Protocol protocol, final int attributeCount) {
+        return switch (protocol) {
+            case CAS10 -> "yes\ncasuser\n";
+            case CAS20, CAS30 -> ServiceValidationResponseBenchmark.buildResponse(attributeCount);
+            case CAS30_JSON -> JsonValidationResponseParserBenchmark.buildResponse(attributeCount);
+            case SAML11 -> buildSaml11Response(attributeCount);
+        };
+    }
+
+    /**
+     * @param protocol the protocol of the validator.
+     * @param casServerUrlPrefix the location of the CAS server.
+     * @return a validator accepting the responses built by {@link #build(Protocol, int)}.
+     */
+    public static AbstractUrlBasedTicketValidator newValidator(final Protocol protocol, final String casServerUrlPrefix) {
+        return switch (protocol) {
+            case CAS10 -> new Cas10TicketValidator(casServerUrlPrefix);
+            case CAS20 -> new Cas20ServiceTicketValidator(casServerUrlPrefix);
+            case CAS30 -> new Cas30ServiceTicketValidator(casServerUrlPrefix);
+            case CAS30_JSON -> new Cas30JsonServiceTicketValidator(casServerUrlPrefix);
+            case SAML11 -> new Saml11TicketValidator(casServerUrlPrefix);
+        };
+    }
+
+    /**
+     * Builds a SAML 1.1 response valid for an hour from now, in which every fifth attribute is multivalued.
+     */
+    private static String buildSaml11Response(final int attributeCount) {
+        final var now = System.currentTimeMillis();
+        final var issueInstant = SamlUtils.formatForUtcTime(new Date(now));
+        final var builder = new StringBuilder(1024 + attributeCount * 160);
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+            .append("<SOAP-ENV:Envelope xmlns:SOAP-ENV=\"http://schemas.xmlsoap.org/soap/envelope/\"><SOAP-ENV:Header/>")
+            .append("<SOAP-ENV:Body><Response xmlns=\"urn:oasis:names:tc:SAML:1.0:protocol\"")
+            .append(" xmlns:saml=\"urn:oasis:names:tc:SAML:1.0:assertion\"")
+            .append(" xmlns:samlp=\"urn:oasis:names:tc:SAML:1.0:protocol\" IssueInstant=\"").append(issueInstant)
+            .append("\" MajorVersion=\"1\" MinorVersion=\"1\" Recipient=\"https://service\"")
+            .append(" ResponseID=\"_e1e2124c08ab456eab0bbab3e1c0c433\">")
+            .append("<Status><StatusCode Value=\"samlp:Success\"></StatusCode></Status>")
+            .append("<Assertion xmlns=\"urn:oasis:names:tc:SAML:1.0:assertion\"")
+            .append(" AssertionID=\"_d2fd0d6e4da6a6d7d2ba5274ab570d5c\" IssueInstant=\"").append(issueInstant)
+            .append("\" Issuer=\"https://cas.example.org\" MajorVersion=\"1\" MinorVersion=\"1\">")
+            .append("<Conditions NotBefore=\"").append(issueInstant)
+            .append("\" NotOnOrAfter=\"").append(SamlUtils.formatForUtcTime(new Date(now + TimeUnit.HOURS.toMillis(1))))
+            .append("\"><AudienceRestrictionCondition><Audience>https://service</Audience>")
+            .append("</AudienceRestrictionCondition></Conditions>")
+            .append("<AttributeStatement><Subject><NameIdentifier>casuser</NameIdentifier></Subject>");
+        for (var i = 0; i < attributeCount; i++) {
+            builder.append("<Attribute AttributeName=\"attribute").append(i)
+                .append("\" AttributeNamespace=\"http://www.ja-sig.org/products/cas/\"><AttributeValue>value-").append(i)
+                .append("-abcdefghijklmnopqrstuvwxyz</AttributeValue>");
+            if (i % 5 == 0) {
+                builder.append("<AttributeValue>second-value-").append(i).append("</AttributeValue>");
+            }
+            builder.append("</Attribute>");
+        }
+        builder.append("</AttributeStatement>")
+            .append("<AuthenticationStatement AuthenticationInstant=\"").append(issueInstant)
+            .append("\" AuthenticationMethod=\"urn:oasis:names:tc:SAML:1.0:am:password\">")
+            .append("<Subject><NameIdentifier>casuser</NameIdentifier><SubjectConfirmation>")
+            .append("<ConfirmationMethod>urn:oasis:names:tc:SAML:1.0:cm:artifact</ConfirmationMethod>")
+            .append("</SubjectConfirmation></Subject></AuthenticationStatement></Assertion></Response>")
+            .append("</SOAP-ENV:Body></SOAP-ENV:Envelope>");
+        return builder.toString();
+    }
+
+    /**
+     * Validation protocols, each with its own response format.
+     */
+    public enum Protocol {
+        CAS10,
+        CAS20,
+        CAS30,
+        CAS30_JSON,
+        SAML11
+    }
+}
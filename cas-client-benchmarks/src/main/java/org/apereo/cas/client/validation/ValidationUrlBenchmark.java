@@ -0,0 +1,116 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the validation URL built by {@link AbstractUrlBasedTicketValidator} from its pre-encoded template with
+ * the previous construction, which filled, merged and encoded a new map of every parameter on each validation.
+ * <p>
+ * Run with <code>-prof gc</code> to compare the allocation rate, i.e. <code>gc.alloc.rate.norm</code>.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationUrlBenchmark {
+
+    private static final String CAS_SERVER_URL_PREFIX = "https://cas.example.org/cas/";
+
+    private static final String TICKET = "ST-1-owKEOtYJjg77iHcCQpkl-cas01.example.org";
+
+    private static final String SERVICE = "https://app.example.org/portal/home?tab=inbox&lang=en";
+
+    private static final String PROXY_CALLBACK_URL = "https://app.example.org/portal/proxyCallback";
+
+    @Param({"0", "4"})
+    private int customParameterCount;
+
+    private Cas20ServiceTicketValidator validator;
+
+    private Map<String, String> customParameters;
+
+    @Setup
+    public void setUp() {
+        this.customParameters = new HashMap<>();
+        for (var i = 0; i < this.customParameterCount; i++) {
+            this.customParameters.put("param" + i, "value " + i);
+        }
+        this.validator = new Cas20ServiceTicketValidator(CAS_SERVER_URL_PREFIX);
+        this.validator.setRenew(true);
+        this.validator.setProxyCallbackUrl(PROXY_CALLBACK_URL);
+        this.validator.setCustomParameters(this.customParameters);
+    }
+
+    @Benchmark
+    public String template() {
+        return this.validator.constructValidationUrl(TICKET, SERVICE);
+    }
+
+    @Benchmark
+    public String perRequestMap() {
+        final Map<String, String> urlParameters = new HashMap<>();
+        urlParameters.put("ticket", TICKET);
+        urlParameters.put("service", SERVICE);
+        urlParameters.put("renew", "true");
+        urlParameters.put("pgtUrl", PROXY_CALLBACK_URL);
+        urlParameters.putAll(this.customParameters);
+
+        final var suffix = "serviceValidate";
+        final var buffer = new StringBuilder(urlParameters.size() * 10 + CAS_SERVER_URL_PREFIX.length()
+                                             + suffix.length() + 1);
+        buffer.append(CAS_SERVER_URL_PREFIX).append(suffix);
+        var i = 0;
+        for (final var entry : urlParameters.entrySet()) {
+            if (entry.getValue() != null) {
+                buffer.append(i++ == 0 ? "?" : "&").append(entry.getKey()).append('=').append(encode(entry.getValue()));
+            }
+        }
+        return buffer.toString();
+    }
+
+    private static String encode(final String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (final UnsupportedEncodingException e) {
+            return value;
+        }
+    }
+}
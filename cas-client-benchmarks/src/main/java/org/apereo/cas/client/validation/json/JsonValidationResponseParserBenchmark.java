@@ -0,0 +1,118 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.json;
+
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.TicketValidationException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming {@link JsonValidationResponseParser}, reading a {@link String} or decoding the bytes of the response,
+ * with the data binding previously used, which created and configured an {@link ObjectMapper} for every response
+ * and bound it to the deprecated {@link TicketValidationJsonResponse} records.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonValidationResponseParserBenchmark {
+
+    @Param({"50", "100", "200"})
+    private int attributeCount;
+
+    private String response;
+
+    private byte[] responseBytes;
+
+    /**
+     * Builds a CAS 3.0 JSON response with a PGTIOU, a two-hop proxy chain and the requested number of attributes,
+     * every fifth of which is multivalued.
+     *
+     * @param attributeCount number of attributes to release.
+     * @return the JSON response.
+     */
+    public static String buildResponse(final int attributeCount) {
+        final var builder = new StringBuilder(256 + attributeCount * 96);
+        builder.append("{\"serviceResponse\": {\"authenticationSuccess\": {\n")
+            .append("  \"user\": \"casuser\",\n")
+            .append("  \"proxyGrantingTicket\": \"PGTIOU-84678-8a9d2sfa23casd\",\n")
+            .append("  \"proxies\": [\"https://proxy2/pgtUrl\", \"https://proxy1/pgtUrl\"],\n")
+            .append("  \"attributes\": {\n");
+        for (var i = 0; i < attributeCount; i++) {
+            if (i > 0) {
+                builder.append(",\n");
+            }
+            builder.append("    \"attribute").append(i).append("\": [\"value-").append(i)
+                .append("-abcdefghijklmnopqrstuvwxyz\"");
+            if (i % 5 == 0) {
+                builder.append(", \"second-value-").append(i).append('"');
+            }
+            builder.append(']');
+        }
+        builder.append("\n  }\n}}}\n");
+        return builder.toString();
+    }
+
+    @Setup
+    public void setUp() {
+        this.response = buildResponse(this.attributeCount);
+        this.responseBytes = this.response.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Assertion streamingString() throws TicketValidationException, IOException {
+        return JsonValidationResponseParser.parse(this.response, null, null);
+    }
+
+    @Benchmark
+    public Assertion streamingReader() throws TicketValidationException, IOException {
+        return JsonValidationResponseParser.parse(new InputStreamReader(new ByteArrayInputStream(this.responseBytes),
+            StandardCharsets.UTF_8), null, null);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Assertion dataBinding() throws IOException {
+        final var objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+        return objectMapper.readValue(this.response, TicketValidationJsonResponse.class).getAssertion(null, null);
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.TicketValidationException;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link CasJWTTicketValidator} for signed and encrypted tickets, shared by
+ * concurrent threads, with the signature verified either by a secret key or by an RSA key from a JWK set.
+ * Expired tickets show the cost of the rejection that happens before the signature is verified.  Replay
+ * protection is disabled so that the same ticket can be validated repeatedly; {@link JWTReplayCacheBenchmark}
+ * measures it separately.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class CasJWTTicketValidatorBenchmark {
+
+    private static final String ENCRYPTION_KEY = "GR7E6uL9djKBSH59BN8boYQ68gQgzwehIIp6s1QicPc";
+
+    private static final String SIGNING_KEY =
+        "vTRQaUu8oDlMrsuhsgNgtk6yie2O6XwRsnDS1POstAQkA1_5TI8-mwrqo1wQ1VahGXLgjCtOb9PLOplmvFzvQA";
+
+    private static final String ISSUER = "https://cas.example.org:8443/cas";
+
+    private static final String AUDIENCE = "https://github.com/apereo/cas";
+
+    @Param({"secret", "jwks"})
+    private String keySource;
+
+    private CasJWTTicketValidator validator;
+
+    private Path jwkSetFile;
+
+    private String validTicket;
+
+    private String expiredTicket;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.validator = new CasJWTTicketValidator();
+        this.validator.setEncryptionKey(ENCRYPTION_KEY);
+        this.validator.setExpectedIssuer(ISSUER);
+        this.validator.setExpectedAudience(AUDIENCE);
+        this.validator.setReplayCache(null);
+
+        final JWSSigner signer;
+        final JWSHeader header;
+        if ("jwks".equals(this.keySource)) {
+            final var rsaKey = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+            this.jwkSetFile = Files.createTempFile("jwks", ".json");
+            Files.writeString(this.jwkSetFile, new JWKSet(rsaKey.toPublicJWK()).toString(), StandardCharsets.UTF_8);
+            this.validator.setJwkSetUrl(this.jwkSetFile.toUri().toString());
+            signer = new RSASSASigner(rsaKey);
+            header = new JWSHeader.Builder(JWSAlgorithm.RS256).type(JOSEObjectType.JWT).keyID(rsaKey.getKeyID()).build();
+        } else {
+            this.validator.setSigningKey(SIGNING_KEY);
+            signer = new MACSigner(SIGNING_KEY.getBytes(StandardCharsets.UTF_8));
+            header = new JWSHeader.Builder(JWSAlgorithm.HS512).type(JOSEObjectType.JWT).build();
+        }
+        this.validator.initialize();
+        this.validTicket = newTicket(signer, header, TimeUnit.HOURS.toMillis(1));
+        this.expiredTicket = newTicket(signer, header, -TimeUnit.HOURS.toMillis(1));
+        // fail fast rather than measure exceptions
+        this.validator.validate(this.validTicket, "https://example.org");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.validator.destroy();
+        if (this.jwkSetFile != null) {
+            Files.deleteIfExists(this.jwkSetFile);
+        }
+    }
+
+    @Benchmark
+    public Assertion validTicket() throws TicketValidationException {
+        return this.validator.validate(this.validTicket, "https://example.org");
+    }
+
+    @Benchmark
+    public Object expiredTicket() {
+        try {
+            return this.validator.validate(this.expiredTicket, "https://example.org");
+        } catch (final TicketValidationException e) {
+            return e;
+        }
+    }
+
+    private static String newTicket(final JWSSigner signer, final JWSHeader header, final long expiresIn) throws Exception {
+        final var now = System.currentTimeMillis();
+        final var claims = new JWTClaimsSet.Builder()
+            .subject("casuser")
+            .issuer(ISSUER)
+            .audience(AUDIENCE)
+            .issueTime(new Date(now))
+            .expirationTime(new Date(now + expiresIn))
+            .jwtID(UUID.randomUUID().toString())
+            .claim("authenticationMethod", "Static Credentials")
+            .build();
+        final var signedJwt = new SignedJWT(header, claims);
+        signedJwt.sign(signer);
+        final var jwe = new JWEObject(new JWEHeader.Builder(JWEAlgorithm.DIR, EncryptionMethod.A128CBC_HS256)
+            .contentType("JWT").build(), new Payload(signedJwt));
+        jwe.encrypt(new DirectEncrypter(Base64.getDecoder().decode(ENCRYPTION_KEY)));
+        return jwe.serialize();
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how many distinct token identifiers the {@link InMemoryJWTReplayCache} records per second from concurrent
+ * threads, with a single shard (one map shared by all threads) and with the default number of shards.
+ *
+ * @since 4.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JWTReplayCacheBenchmark {
+
+    @Param({"1", "default"})
+    private String shards;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private InMemoryJWTReplayCache cache;
+
+    private long expirationTime;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.cache = "default".equals(this.shards)
+            ? new InMemoryJWTReplayCache() : new InMemoryJWTReplayCache(Integer.parseInt(this.shards));
+        this.expirationTime = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+    }
+
+    @Benchmark
+    public boolean putIfAbsent() {
+        return this.cache.putIfAbsent("jti-" + this.sequence.incrementAndGet(), this.expirationTime);
+    }
+}
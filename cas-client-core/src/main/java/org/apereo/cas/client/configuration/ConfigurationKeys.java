@@ -22,8 +22,18 @@ import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.authentication.AuthenticationRedirectStrategy;
 import org.apereo.cas.client.authentication.DefaultGatewayResolverImpl;
 import org.apereo.cas.client.authentication.GatewayResolver;
+import org.apereo.cas.client.metrics.CasClientMetrics;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorage;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorageImpl;
+import org.apereo.cas.client.session.BoundedSessionMappingStorage;
+import org.apereo.cas.client.session.SessionLookup;
+import org.apereo.cas.client.session.SessionMappingStorage;
+import org.apereo.cas.client.ssl.HttpClientTransport;
+import org.apereo.cas.client.util.BackChannelLimiter;
+import org.apereo.cas.client.util.CasServerEndpoints;
+import org.apereo.cas.client.validation.AbstractTicketValidationFilter;
+import org.apereo.cas.client.validation.AbstractUrlBasedTicketValidator;
+import org.apereo.cas.client.validation.CachingTicketValidator;
 import org.apereo.cas.client.validation.Cas20ServiceTicketValidator;
 
 import javax.net.ssl.HostnameVerifier;
@@ -43,6 +53,13 @@ public interface ConfigurationKeys {
     ConfigurationKey<String> LOGOUT_PARAMETER_NAME = new ConfigurationKey<>("logoutParameterName", "logoutRequest");
     ConfigurationKey<Boolean> ARTIFACT_PARAMETER_OVER_POST = new ConfigurationKey<>("artifactParameterOverPost", Boolean.FALSE);
     ConfigurationKey<Boolean> EAGERLY_CREATE_SESSIONS = new ConfigurationKey<>("eagerlyCreateSessions", Boolean.TRUE);
+    ConfigurationKey<Class<? extends SessionMappingStorage>> SESSION_MAPPING_STORAGE_CLASS =
+        new ConfigurationKey<>("sessionMappingStorageClass", null);
+    ConfigurationKey<Integer> SESSION_MAPPING_MAX_SIZE =
+        new ConfigurationKey<>("sessionMappingMaxSize", BoundedSessionMappingStorage.DEFAULT_MAX_SIZE);
+    ConfigurationKey<Long> SESSION_MAPPING_REAPER_INTERVAL =
+        new ConfigurationKey<>("sessionMappingReaperInterval", BoundedSessionMappingStorage.DEFAULT_REAPER_INTERVAL);
+    ConfigurationKey<Class<? extends SessionLookup>> SESSION_LOOKUP_CLASS = new ConfigurationKey<>("sessionLookupClass", null);
     ConfigurationKey<Boolean> ENCODE_SERVICE_URL = new ConfigurationKey<>("encodeServiceUrl", Boolean.TRUE);
     ConfigurationKey<String> SSL_CONFIG_FILE = new ConfigurationKey<>("sslConfigFile", null);
     ConfigurationKey<String> ROLE_ATTRIBUTE = new ConfigurationKey<>("roleAttribute", null);
@@ -73,6 +90,32 @@ public interface ConfigurationKeys {
     ConfigurationKey<Boolean> EXCEPTION_ON_VALIDATION_FAILURE = new ConfigurationKey<>("exceptionOnValidationFailure", Boolean.TRUE);
     ConfigurationKey<Boolean> REDIRECT_AFTER_VALIDATION = new ConfigurationKey<>("redirectAfterValidation", Boolean.TRUE);
     ConfigurationKey<Boolean> USE_SESSION = new ConfigurationKey<>("useSession", Boolean.TRUE);
+    ConfigurationKey<Boolean> CACHE_VALIDATED_ASSERTIONS = new ConfigurationKey<>("cacheValidatedAssertions", Boolean.FALSE);
+    ConfigurationKey<Integer> VALIDATED_ASSERTION_CACHE_MAX_SIZE =
+        new ConfigurationKey<>("validatedAssertionCacheMaxSize", CachingTicketValidator.DEFAULT_MAX_SIZE);
+    ConfigurationKey<Long> VALIDATED_ASSERTION_CACHE_TIME_TO_LIVE =
+        new ConfigurationKey<>("validatedAssertionCacheTimeToLive", CachingTicketValidator.DEFAULT_TIME_TO_LIVE);
+    ConfigurationKey<Boolean> ASYNC_VALIDATION = new ConfigurationKey<>("asyncValidation", Boolean.FALSE);
+    ConfigurationKey<Long> ASYNC_VALIDATION_TIMEOUT =
+        new ConfigurationKey<>("asyncValidationTimeout", AbstractTicketValidationFilter.DEFAULT_ASYNC_VALIDATION_TIMEOUT);
+    ConfigurationKey<Boolean> USE_HTTP_CLIENT = new ConfigurationKey<>("useHttpClient", Boolean.FALSE);
+    ConfigurationKey<Long> CONNECT_TIMEOUT = new ConfigurationKey<>("connectTimeout", HttpClientTransport.DEFAULT_CONNECT_TIMEOUT);
+    ConfigurationKey<Long> READ_TIMEOUT = new ConfigurationKey<>("readTimeout", HttpClientTransport.DEFAULT_READ_TIMEOUT);
+    /**
+     * Whether the back-channel executor that runs the blocking calls of asynchronous validations uses virtual threads.
+     * Only that executor is affected: synchronous validation, and proxy ticket retrieval through
+     * {@link org.apereo.cas.client.proxy.Cas20ProxyRetriever#getProxyTicketIdFor(String, String)}, still call the CAS
+     * server on the caller's thread.
+     */
+    ConfigurationKey<Boolean> USE_VIRTUAL_THREADS = new ConfigurationKey<>("useVirtualThreads", Boolean.FALSE);
+    ConfigurationKey<Integer> MAX_CONCURRENT_REQUESTS = new ConfigurationKey<>("maxConcurrentRequests", BackChannelLimiter.UNLIMITED);
+    ConfigurationKey<Long> MAX_CONCURRENT_REQUESTS_WAIT_TIMEOUT =
+        new ConfigurationKey<>("maxConcurrentRequestsWaitTimeout", BackChannelLimiter.DEFAULT_WAIT_TIMEOUT);
+    ConfigurationKey<String> CAS_SERVER_URL_PREFIXES = new ConfigurationKey<>("casServerUrlPrefixes", null);
+    ConfigurationKey<Long> CAS_SERVER_HEALTH_CHECK_INTERVAL =
+        new ConfigurationKey<>("casServerHealthCheckInterval", CasServerEndpoints.DEFAULT_HEALTH_CHECK_INTERVAL);
+    ConfigurationKey<Boolean> STREAM_RESPONSES = new ConfigurationKey<>("streamResponses", Boolean.FALSE);
+    ConfigurationKey<Long> MAX_RESPONSE_SIZE = new ConfigurationKey<>("maxResponseSize", AbstractUrlBasedTicketValidator.DEFAULT_MAX_RESPONSE_SIZE);
     ConfigurationKey<String> SECRET_KEY = new ConfigurationKey<>("secretKey", null);
     ConfigurationKey<String> CIPHER_ALGORITHM = new ConfigurationKey<>("cipherAlgorithm", "DESede");
     ConfigurationKey<String> PROXY_RECEPTOR_URL = new ConfigurationKey<>("proxyReceptorUrl", null);
@@ -85,4 +128,5 @@ public interface ConfigurationKeys {
     ConfigurationKey<String> PROXY_CALLBACK_URL = new ConfigurationKey<>("proxyCallbackUrl", null);
     ConfigurationKey<String> RELAY_STATE_PARAMETER_NAME = new ConfigurationKey<>("relayStateParameterName", "RelayState");
     ConfigurationKey<String> LOGOUT_CALLBACK_PATH = new ConfigurationKey<>("logoutCallbackPath", null);
+    ConfigurationKey<Class<? extends CasClientMetrics>> METRICS_CLASS = new ConfigurationKey<>("metricsClass", null);
 }
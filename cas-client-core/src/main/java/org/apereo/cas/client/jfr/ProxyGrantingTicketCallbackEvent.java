@@ -0,0 +1,50 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the receipt of a proxy granting ticket on the proxy callback URL.  Neither the
+ * proxy granting ticket nor its IOU are recorded.
+ *
+ * @since 4.0.4
+ */
+@Name(ProxyGrantingTicketCallbackEvent.NAME)
+@Label("Proxy Granting Ticket Callback")
+@Description("Receipt of a proxy granting ticket from the CAS server")
+@Category("CAS Client")
+@StackTrace(false)
+public final class ProxyGrantingTicketCallbackEvent extends Event {
+
+    public static final String NAME = "org.apereo.cas.client.ProxyGrantingTicketCallback";
+
+    @Label("Stored")
+    @Description("Whether the request carried a proxy granting ticket and its IOU, which were stored")
+    private boolean stored;
+
+    public void setStored(final boolean stored) {
+        this.stored = stored;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the retrieval of a proxy ticket from the CAS server.  Neither the proxy granting
+ * ticket nor the proxy ticket are recorded.
+ *
+ * @since 4.0.4
+ */
+@Name(ProxyTicketRetrievalEvent.NAME)
+@Label("Proxy Ticket Retrieval")
+@Description("Retrieval of a proxy ticket from the CAS server")
+@Category("CAS Client")
+@StackTrace(false)
+public final class ProxyTicketRetrievalEvent extends Event {
+
+    public static final String NAME = "org.apereo.cas.client.ProxyTicketRetrieval";
+
+    @Label("CAS Server")
+    private String casServerUrl;
+
+    @Label("Target Service")
+    private String targetService;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public void setCasServerUrl(final String casServerUrl) {
+        this.casServerUrl = casServerUrl;
+    }
+
+    public void setTargetService(final String targetService) {
+        this.targetService = targetService;
+    }
+
+    public void setOutcome(final String outcome) {
+        this.outcome = outcome;
+    }
+}
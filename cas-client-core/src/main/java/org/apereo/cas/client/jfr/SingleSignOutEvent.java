@@ -0,0 +1,50 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the processing of a single sign-out request from the CAS server.  The session
+ * index is not recorded.
+ *
+ * @since 4.0.4
+ */
+@Name(SingleSignOutEvent.NAME)
+@Label("Single Sign-Out")
+@Description("Processing of a logout request from the CAS server")
+@Category("CAS Client")
+@StackTrace(false)
+public final class SingleSignOutEvent extends Event {
+
+    public static final String NAME = "org.apereo.cas.client.SingleSignOut";
+
+    @Label("Session Found")
+    @Description("Whether a session was found, and invalidated, for the logout request")
+    private boolean sessionFound;
+
+    public void setSessionFound(final boolean sessionFound) {
+        this.sessionFound = sessionFound;
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for the validation of a ticket against the CAS server, broken down into its
+ * {@link ValidationPhases phases}.  Neither the ticket nor the service are recorded.
+ *
+ * @since 4.0.4
+ */
+@Name(TicketValidationEvent.NAME)
+@Label("Ticket Validation")
+@Description("Validation of a ticket against the CAS server")
+@Category("CAS Client")
+@StackTrace(false)
+public final class TicketValidationEvent extends Event {
+
+    public static final String NAME = "org.apereo.cas.client.TicketValidation";
+
+    @Label("Validator")
+    private String validator;
+
+    @Label("CAS Server")
+    private String casServerUrlPrefix;
+
+    @Label("Outcome")
+    private String outcome;
+
+    @Label("Error Code")
+    private String errorCode;
+
+    @Label("Asynchronous")
+    private boolean asynchronous;
+
+    @Label("URL Build")
+    @Timespan(Timespan.NANOSECONDS)
+    private long urlBuild;
+
+    @Label("Connect")
+    @Timespan(Timespan.NANOSECONDS)
+    private long connect;
+
+    @Label("Time To First Byte")
+    @Timespan(Timespan.NANOSECONDS)
+    private long timeToFirstByte;
+
+    @Label("Body Read")
+    @Timespan(Timespan.NANOSECONDS)
+    private long bodyRead;
+
+    @Label("Parse")
+    @Timespan(Timespan.NANOSECONDS)
+    private long parse;
+
+    @Label("Response Size")
+    @Description("Size of the response, or -1 if it was not read")
+    @DataAmount(DataAmount.BYTES)
+    private long responseSize;
+
+    public void setValidator(final String validator) {
+        this.validator = validator;
+    }
+
+    public void setCasServerUrlPrefix(final String casServerUrlPrefix) {
+        this.casServerUrlPrefix = casServerUrlPrefix;
+    }
+
+    public void setOutcome(final String outcome) {
+        this.outcome = outcome;
+    }
+
+    public void setErrorCode(final String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public void setAsynchronous(final boolean asynchronous) {
+        this.asynchronous = asynchronous;
+    }
+
+    /**
+     * @param phases the time spent in each phase of the validation and the size of the response.
+     */
+    public void setPhases(final ValidationPhases phases) {
+        this.urlBuild = phases.getUrlBuild();
+        this.connect = phases.getConnect();
+        this.timeToFirstByte = phases.getTimeToFirstByte();
+        this.bodyRead = phases.getBodyRead();
+        this.parse = phases.getParse();
+        this.responseSize = phases.getResponseSize();
+    }
+}
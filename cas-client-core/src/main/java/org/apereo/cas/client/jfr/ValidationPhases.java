@@ -0,0 +1,167 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jfr;
+
+import java.util.function.Supplier;
+
+/**
+ * Time spent in each phase of a ticket validation, reported by a {@link TicketValidationEvent}.
+ * <p>
+ * Each phase is measured from the end of the previous one.  A validator creates an instance only when the event is
+ * enabled and makes it {@link #current() current} for the duration of the call to the CAS server, so that the
+ * connection and the transport, which have no reference to the validator, can mark the end of the phases they
+ * observe.  When the connection cannot be told apart from the wait for the response, as with the
+ * {@link java.net.http.HttpClient}, the connection time is part of the time to first byte.
+ *
+ * @since 4.0.4
+ */
+public final class ValidationPhases {
+
+    private static final ThreadLocal<ValidationPhases> CURRENT = new ThreadLocal<>();
+
+    private long mark = System.nanoTime();
+
+    private long urlBuild;
+
+    private long connect;
+
+    private long timeToFirstByte;
+
+    private long bodyRead;
+
+    private long parse;
+
+    private long responseSize = -1;
+
+    private boolean firstByteReceived;
+
+    /**
+     * @return the phases of the validation in progress on this thread, or null if no validation event is recorded.
+     */
+    public static ValidationPhases current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes these phases current while the call to the CAS server runs.  Time elapsed before the call, such as
+     * waiting for a permit to call the server, is not part of any phase.
+     *
+     * @param call the call to the CAS server.
+     * @param <T> the type of result.
+     * @return the result of the call.
+     */
+    public <T> T record(final Supplier<T> call) {
+        final var previous = CURRENT.get();
+        CURRENT.set(this);
+        this.mark = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Marks the end of the construction of the validation URL.
+     */
+    public void urlBuilt() {
+        this.urlBuild += elapsed();
+    }
+
+    /**
+     * Marks the end of the connection to the CAS server, including the TLS handshake.
+     */
+    public void connected() {
+        this.connect += elapsed();
+    }
+
+    /**
+     * Marks the receipt of the response headers.
+     */
+    public void firstByteReceived() {
+        this.timeToFirstByte += elapsed();
+        this.firstByteReceived = true;
+    }
+
+    /**
+     * Marks the end of the reading of the response body.
+     */
+    public void bodyRead() {
+        this.bodyRead += elapsed();
+    }
+
+    /**
+     * Marks the receipt of the whole response.  Time not yet accounted for is part of the body read if the
+     * response headers were seen, and of the time to first byte otherwise.
+     */
+    public void responseReceived() {
+        if (this.firstByteReceived) {
+            bodyRead();
+        } else {
+            this.timeToFirstByte += elapsed();
+        }
+    }
+
+    /**
+     * Marks the end of the parsing of the response.  When the response is parsed as it is read, this includes the
+     * reading of the body.
+     */
+    public void parsed() {
+        this.parse += elapsed();
+    }
+
+    public void setResponseSize(final long responseSize) {
+        this.responseSize = responseSize;
+    }
+
+    long getUrlBuild() {
+        return this.urlBuild;
+    }
+
+    long getConnect() {
+        return this.connect;
+    }
+
+    long getTimeToFirstByte() {
+        return this.timeToFirstByte;
+    }
+
+    long getBodyRead() {
+        return this.bodyRead;
+    }
+
+    long getParse() {
+        return this.parse;
+    }
+
+    long getResponseSize() {
+        return this.responseSize;
+    }
+
+    private long elapsed() {
+        final var now = System.nanoTime();
+        final var elapsed = now - this.mark;
+        this.mark = now;
+        return elapsed;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.metrics;
+
+/**
+ * Receives the measurements taken by the client on its hot paths: ticket validation, proxy ticket retrieval, single
+ * sign-out, proxy granting ticket storage and XML parser pooling.
+ * <p>
+ * Methods are called on request threads for every operation, so implementations must be thread-safe, must not block
+ * and should not allocate.  The instance used by the client is held by {@link CasClientMetricsHolder}.
+ *
+ * @since 4.0.4
+ */
+public interface CasClientMetrics {
+
+    /**
+     * Outcome of a measured operation.
+     */
+    enum Outcome {
+        /** The operation succeeded, i.e. the ticket was valid or the session was found. */
+        SUCCESS,
+        /** The CAS server, or the request, answered negatively, i.e. the ticket was rejected. */
+        FAILURE,
+        /** The operation could not complete, i.e. the CAS server could not be reached. */
+        ERROR
+    }
+
+    /**
+     * Records a ticket validation.
+     *
+     * @param validatorType the class of the validator.
+     * @param outcome the outcome of the validation.
+     * @param durationNanos the time taken, in nanoseconds.
+     */
+    void recordValidation(Class<?> validatorType, Outcome outcome, long durationNanos);
+
+    /**
+     * Records the error code of a validation rejected by the CAS server, i.e. <code>INVALID_TICKET</code>.
+     *
+     * @param code the error code.
+     */
+    void recordValidationErrorCode(String code);
+
+    /**
+     * Records the size of a validation response.
+     *
+     * @param validatorType the class of the validator.
+     * @param size the size of the response, in bytes, or in characters when it was read as a String.
+     */
+    void recordResponseSize(Class<?> validatorType, long size);
+
+    /**
+     * Records a validation that was not sent to the CAS server because the same ticket was already being validated
+     * for the same service, and that shared the result of that validation instead.
+     *
+     * @param validatorType the class of the validator.
+     */
+    void recordCoalescedValidation(Class<?> validatorType);
+
+    /**
+     * Records the retrieval of a proxy ticket from the CAS server.
+     *
+     * @param outcome {@link Outcome#FAILURE} if the CAS server refused to issue the ticket.
+     * @param durationNanos the time taken, in nanoseconds.
+     */
+    void recordProxyTicketRetrieval(Outcome outcome, long durationNanos);
+
+    /**
+     * Records a single sign-out request received from the CAS server.
+     *
+     * @param outcome {@link Outcome#FAILURE} if no session was found for the request.
+     * @param durationNanos the time taken, in nanoseconds.
+     */
+    void recordLogout(Outcome outcome, long durationNanos);
+
+    /**
+     * Records a lookup in a proxy granting ticket storage.
+     *
+     * @param storageType the class of the storage.
+     * @param found true if the ticket was found.
+     */
+    void recordProxyGrantingTicketRetrieval(Class<?> storageType, boolean found);
+
+    /**
+     * Records proxy granting tickets that expired before they were retrieved.
+     *
+     * @param storageType the class of the storage.
+     * @param count the number of expired tickets.
+     */
+    void recordProxyGrantingTicketExpiry(Class<?> storageType, long count);
+
+    /**
+     * Records a parser taken from a pool of XML parsers.
+     *
+     * @param parserType the class of the pooled parsers, i.e. {@link javax.xml.parsers.SAXParser}.
+     * @param hit true if an idle parser was reused, false if a new one had to be created.
+     */
+    void recordXmlParserBorrow(Class<?> parserType, boolean hit);
+
+    /**
+     * Records a parser dropped when released to a pool of XML parsers, because the pool was full or the parser could
+     * not be reset.
+     *
+     * @param parserType the class of the pooled parsers.
+     */
+    void recordXmlParserDiscard(Class<?> parserType);
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.metrics;
+
+import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.util.ReflectUtils;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holder of the {@link CasClientMetrics} shared by every component of the client, so that the validation, single
+ * sign-out and proxy filters of an application report to the same place.
+ * <p>
+ * Metrics {@link #install(Class) installed} by filters are counted, and the holder falls back to discarding
+ * measurements once every filter that installed them has {@link #release(CasClientMetrics) released} them, so that
+ * the metrics of an undeployed web application are neither kept alive nor reported to by the next one.
+ *
+ * @since 4.0.4
+ */
+public final class CasClientMetricsHolder {
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static volatile CasClientMetrics metrics = NoOpCasClientMetrics.INSTANCE;
+
+    /** Number of filters that installed the current metrics and did not release them yet. */
+    private static int installations;
+
+    private CasClientMetricsHolder() {
+        // static holder
+    }
+
+    /**
+     * @return the metrics the client reports to, never null.
+     */
+    public static CasClientMetrics getDefault() {
+        return metrics;
+    }
+
+    /**
+     * @param metrics the metrics the client reports to, or null to discard measurements.
+     */
+    public static void setDefault(final CasClientMetrics metrics) {
+        LOCK.lock();
+        try {
+            CasClientMetricsHolder.metrics = metrics == null ? NoOpCasClientMetrics.INSTANCE : metrics;
+            installations = 0;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Makes a new instance of the given class the default, unless the default already is an instance of it, so that
+     * filters configured with the same class share it.  Each call should be matched by a call to
+     * {@link #release(CasClientMetrics)} once the metrics are no longer used.
+     *
+     * @param metricsClass the class of metrics.
+     * @return the default metrics.
+     */
+    public static CasClientMetrics install(final Class<? extends CasClientMetrics> metricsClass) {
+        CommonUtils.assertNotNull(metricsClass, "metricsClass cannot be null.");
+        LOCK.lock();
+        try {
+            final var current = metrics;
+            if (current.getClass() == metricsClass) {
+                installations++;
+                return current;
+            }
+            final var installed = ReflectUtils.newInstance(metricsClass);
+            metrics = installed;
+            installations = 1;
+            return installed;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Releases metrics returned by {@link #install(Class)}, which stop being the default once released as many
+     * times as they were installed.  Metrics that are no longer the default are ignored.
+     *
+     * @param installed the metrics returned by {@link #install(Class)}.
+     */
+    public static void release(final CasClientMetrics installed) {
+        LOCK.lock();
+        try {
+            if (installed != null && installed == metrics && installations > 0 && --installations == 0) {
+                metrics = NoOpCasClientMetrics.INSTANCE;
+            }
+        } finally {
+            LOCK.unlock();
+        }
+    }
+}
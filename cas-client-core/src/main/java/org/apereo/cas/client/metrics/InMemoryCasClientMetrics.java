@@ -0,0 +1,268 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link CasClientMetrics} that keeps measurements in memory, in {@link LogLinearHistogram histograms} and counters
+ * that can be read at any time, i.e. by a management endpoint or a periodic reporter.
+ * <p>
+ * Validation latencies and response sizes are kept per validator class and outcome; proxy granting ticket counts are
+ * kept for all storages together, and XML parser pool counts per type of parser.  At most {@link #MAX_ERROR_CODES} distinct error codes are counted, any further
+ * codes being counted as {@link #OTHER_ERROR_CODE}.
+ *
+ * @since 4.0.4
+ */
+public final class InMemoryCasClientMetrics implements CasClientMetrics {
+
+    /** Maximum number of distinct error codes counted. */
+    public static final int MAX_ERROR_CODES = 64;
+
+    /** Error code under which codes beyond {@link #MAX_ERROR_CODES} are counted. */
+    public static final String OTHER_ERROR_CODE = "OTHER";
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final Map<Class<?>, ValidatorMetrics> validatorMetrics = new ConcurrentHashMap<>();
+
+    private final ClassValue<ValidatorMetrics> validatorMetricsByClass = new ClassValue<>() {
+        @Override
+        protected ValidatorMetrics computeValue(final Class<?> type) {
+            return validatorMetrics.computeIfAbsent(type, t -> new ValidatorMetrics());
+        }
+    };
+
+    private final Map<String, LongAdder> errorCodes = new ConcurrentHashMap<>();
+
+    private final LogLinearHistogram[] proxyTicketRetrievals = newHistograms();
+
+    private final LogLinearHistogram[] logouts = newHistograms();
+
+    private final LongAdder proxyGrantingTicketHits = new LongAdder();
+
+    private final LongAdder proxyGrantingTicketMisses = new LongAdder();
+
+    private final LongAdder proxyGrantingTicketExpirations = new LongAdder();
+
+    private final Map<Class<?>, XmlParserPoolMetrics> xmlParserPoolMetrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordValidation(final Class<?> validatorType, final Outcome outcome, final long durationNanos) {
+        this.validatorMetricsByClass.get(validatorType).latencies[outcome.ordinal()].record(durationNanos);
+    }
+
+    @Override
+    public void recordValidationErrorCode(final String code) {
+        if (code == null) {
+            return;
+        }
+        var counter = this.errorCodes.get(code);
+        if (counter == null) {
+            final var key = this.errorCodes.size() < MAX_ERROR_CODES ? code : OTHER_ERROR_CODE;
+            counter = this.errorCodes.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Override
+    public void recordResponseSize(final Class<?> validatorType, final long size) {
+        this.validatorMetricsByClass.get(validatorType).responseSizes.record(size);
+    }
+
+    @Override
+    public void recordCoalescedValidation(final Class<?> validatorType) {
+        this.validatorMetricsByClass.get(validatorType).coalescedValidations.increment();
+    }
+
+    @Override
+    public void recordProxyTicketRetrieval(final Outcome outcome, final long durationNanos) {
+        this.proxyTicketRetrievals[outcome.ordinal()].record(durationNanos);
+    }
+
+    @Override
+    public void recordLogout(final Outcome outcome, final long durationNanos) {
+        this.logouts[outcome.ordinal()].record(durationNanos);
+    }
+
+    @Override
+    public void recordProxyGrantingTicketRetrieval(final Class<?> storageType, final boolean found) {
+        (found ? this.proxyGrantingTicketHits : this.proxyGrantingTicketMisses).increment();
+    }
+
+    @Override
+    public void recordProxyGrantingTicketExpiry(final Class<?> storageType, final long count) {
+        this.proxyGrantingTicketExpirations.add(count);
+    }
+
+    @Override
+    public void recordXmlParserBorrow(final Class<?> parserType, final boolean hit) {
+        final var metrics = xmlParserPoolMetrics(parserType);
+        (hit ? metrics.hits : metrics.misses).increment();
+    }
+
+    @Override
+    public void recordXmlParserDiscard(final Class<?> parserType) {
+        xmlParserPoolMetrics(parserType).discards.increment();
+    }
+
+    /**
+     * @return the classes of the validators that recorded measurements.
+     */
+    public Set<Class<?>> getValidatorTypes() {
+        return Collections.unmodifiableSet(this.validatorMetrics.keySet());
+    }
+
+    /**
+     * @param validatorType the class of the validator.
+     * @param outcome the outcome of the validations.
+     * @return the latencies of the validations, in nanoseconds, or null if the validator recorded none.
+     */
+    public LogLinearHistogram getValidationLatencies(final Class<?> validatorType, final Outcome outcome) {
+        final var metrics = this.validatorMetrics.get(validatorType);
+        return metrics == null ? null : metrics.latencies[outcome.ordinal()];
+    }
+
+    /**
+     * @param validatorType the class of the validator.
+     * @return the sizes of the validation responses, or null if the validator recorded none.
+     */
+    public LogLinearHistogram getResponseSizes(final Class<?> validatorType) {
+        final var metrics = this.validatorMetrics.get(validatorType);
+        return metrics == null ? null : metrics.responseSizes;
+    }
+
+    /**
+     * @param validatorType the class of the validator.
+     * @return the number of validations that shared the result of a validation of the same ticket in progress.
+     */
+    public long getCoalescedValidations(final Class<?> validatorType) {
+        final var metrics = this.validatorMetrics.get(validatorType);
+        return metrics == null ? 0 : metrics.coalescedValidations.sum();
+    }
+
+    /**
+     * @return a copy of the number of validations rejected with each error code.
+     */
+    public Map<String, Long> getErrorCodeCounts() {
+        final Map<String, Long> counts = new HashMap<>();
+        this.errorCodes.forEach((code, counter) -> counts.put(code, counter.sum()));
+        return counts;
+    }
+
+    /**
+     * @param outcome the outcome of the retrievals.
+     * @return the latencies of proxy ticket retrievals, in nanoseconds.
+     */
+    public LogLinearHistogram getProxyTicketRetrievalLatencies(final Outcome outcome) {
+        return this.proxyTicketRetrievals[outcome.ordinal()];
+    }
+
+    /**
+     * @param outcome the outcome of the logout requests.
+     * @return the latencies of single sign-out requests, in nanoseconds.
+     */
+    public LogLinearHistogram getLogoutLatencies(final Outcome outcome) {
+        return this.logouts[outcome.ordinal()];
+    }
+
+    /**
+     * @return the number of proxy granting tickets found in storage.
+     */
+    public long getProxyGrantingTicketHits() {
+        return this.proxyGrantingTicketHits.sum();
+    }
+
+    /**
+     * @return the number of proxy granting tickets not found in storage.
+     */
+    public long getProxyGrantingTicketMisses() {
+        return this.proxyGrantingTicketMisses.sum();
+    }
+
+    /**
+     * @return the number of proxy granting tickets that expired before they were retrieved.
+     */
+    public long getProxyGrantingTicketExpirations() {
+        return this.proxyGrantingTicketExpirations.sum();
+    }
+
+    /**
+     * @param parserType the class of the pooled parsers.
+     * @return the number of parsers taken from the pool that reused an idle parser.
+     */
+    public long getXmlParserPoolHits(final Class<?> parserType) {
+        final var metrics = this.xmlParserPoolMetrics.get(parserType);
+        return metrics == null ? 0 : metrics.hits.sum();
+    }
+
+    /**
+     * @param parserType the class of the pooled parsers.
+     * @return the number of parsers taken from the pool that had to be created.
+     */
+    public long getXmlParserPoolMisses(final Class<?> parserType) {
+        final var metrics = this.xmlParserPoolMetrics.get(parserType);
+        return metrics == null ? 0 : metrics.misses.sum();
+    }
+
+    /**
+     * @param parserType the class of the pooled parsers.
+     * @return the number of parsers dropped when released to the pool.
+     */
+    public long getXmlParserPoolDiscards(final Class<?> parserType) {
+        final var metrics = this.xmlParserPoolMetrics.get(parserType);
+        return metrics == null ? 0 : metrics.discards.sum();
+    }
+
+    private XmlParserPoolMetrics xmlParserPoolMetrics(final Class<?> parserType) {
+        final var metrics = this.xmlParserPoolMetrics.get(parserType);
+        return metrics != null ? metrics : this.xmlParserPoolMetrics.computeIfAbsent(parserType, t -> new XmlParserPoolMetrics());
+    }
+
+    private static LogLinearHistogram[] newHistograms() {
+        final var histograms = new LogLinearHistogram[OUTCOMES.length];
+        for (var i = 0; i < histograms.length; i++) {
+            histograms[i] = new LogLinearHistogram();
+        }
+        return histograms;
+    }
+
+    private static final class ValidatorMetrics {
+
+        private final LogLinearHistogram[] latencies = newHistograms();
+
+        private final LogLinearHistogram responseSizes = new LogLinearHistogram();
+
+        private final LongAdder coalescedValidations = new LongAdder();
+    }
+
+    private static final class XmlParserPoolMetrics {
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final LongAdder discards = new LongAdder();
+    }
+}
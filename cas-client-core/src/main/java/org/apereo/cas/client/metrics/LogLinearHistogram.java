@@ -0,0 +1,141 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.metrics;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values, i.e. latencies in nanoseconds or sizes in bytes, in the manner of an
+ * HDR histogram.
+ * <p>
+ * Values below {@link #SUB_BUCKET_COUNT} are counted exactly; larger values are counted in one of
+ * {@link #SUB_BUCKET_COUNT} / 2 linear sub-buckets of their power of two, so that any value is reported within about
+ * 3% of its actual value.  The counts are held in a fixed array, so recording a value never allocates.
+ *
+ * @since 4.0.4
+ */
+public final class LogLinearHistogram {
+
+    /** Number of sub-buckets of the first power of two; the precision of the histogram. */
+    public static final int SUB_BUCKET_COUNT = 64;
+
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKET_COUNT);
+
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+
+    private static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a value; negative values are recorded as zero.
+     *
+     * @param value the value.
+     */
+    public void record(final long value) {
+        final var recorded = Math.max(0, value);
+        this.counts.incrementAndGet(bucketIndex(recorded));
+        this.count.increment();
+        this.sum.add(recorded);
+        this.max.accumulate(recorded);
+    }
+
+    /**
+     * @return the number of values recorded.
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * @return the sum of the values recorded.
+     */
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * @return the largest value recorded, or zero.
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * @return the mean of the values recorded, or zero.
+     */
+    public double getMean() {
+        final var count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100.
+     * @return the largest value equivalent to the value at the given percentile, never more than {@link #getMax()}.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        CommonUtils.assertTrue(percentile >= 0 && percentile <= 100, "percentile must be between 0 and 100.");
+        var total = 0L;
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            total += this.counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final var target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        var seen = 0L;
+        for (var i = 0; i < BUCKET_COUNT; i++) {
+            seen += this.counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int bucketIndex(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final var shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        // the top bits of the value, between HALF_SUB_BUCKET_COUNT and SUB_BUCKET_COUNT - 1
+        final var subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + subBucket - HALF_SUB_BUCKET_COUNT;
+    }
+
+    static long highestEquivalentValue(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final var shift = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        final long subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        final var lowest = subBucket << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.metrics;
+
+/**
+ * {@link CasClientMetrics} that discards every measurement.  This is the default.
+ *
+ * @since 4.0.4
+ */
+public final class NoOpCasClientMetrics implements CasClientMetrics {
+
+    public static final NoOpCasClientMetrics INSTANCE = new NoOpCasClientMetrics();
+
+    private NoOpCasClientMetrics() {
+        // use INSTANCE
+    }
+
+    @Override
+    public void recordValidation(final Class<?> validatorType, final Outcome outcome, final long durationNanos) {
+        // nothing to do
+    }
+
+    @Override
+    public void recordValidationErrorCode(final String code) {
+        // nothing to do
+    }
+
+    @Override
+    public void recordResponseSize(final Class<?> validatorType, final long size) {
+        // nothing to do
+    }
+
+    @Override
+    public void recordCoalescedValidation(final Class<?> validatorType) {
+        // nothing to do
+    }
+
+    @Override
+    public void recordProxyTicketRetrieval(final Outcome outcome, final long durationNanos) {
+        // nothing to do
+    }
+
+    @Override
+    public void recordLogout(final Outcome outcome, final long durationNanos) {
+        // nothing to do
+    }
+
+    @Override
+    public void recordProxyGrantingTicketRetrieval(final Class<?> storageType, final boolean found) {
+        // nothing to do
+    }
+
+    @Override
+    public void recordProxyGrantingTicketExpiry(final Class<?> storageType, final long count) {
+        // nothing to do
+    }
+
+    @Override
+    public void recordXmlParserBorrow(final Class<?> parserType, final boolean hit) {
+        // nothing to do
+    }
+
+    @Override
+    public void recordXmlParserDiscard(final Class<?> parserType) {
+        // nothing to do
+    }
+}
@@ -19,18 +19,36 @@
 package org.apereo.cas.client.proxy;
 
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.DESedeKeySpec;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Provides encryption capabilities. Not entirely safe to configure since we have no way of controlling the
  * key and cipher being set.
+ * <p>
+ * Any transformation supported by the JCA providers may be used, such as <code>AES/GCM/NoPadding</code>, which also
+ * authenticates the stored ticket.  A random IV is generated for every ticket by modes that need one and stored with
+ * it, and the result is Base64 encoded so that it survives any storage that holds strings.  {@link Cipher} instances
+ * are expensive to look up, so they are kept in a small pool rather than bound to a thread, which would not suit
+ * virtual threads.
  *
  * @author Scott Battaglia
  * @version $Revision$ $Date$
@@ -38,13 +56,26 @@ import java.security.spec.InvalidKeySpecException;
  */
 public abstract class AbstractEncryptedProxyGrantingTicketStorageImpl implements ProxyGrantingTicketStorage {
 
+    private static final int CIPHER_POOL_CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final int GCM_TAG_LENGTH = 128;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private Key key;
 
     private String cipherAlgorithm = ConfigurationKeys.CIPHER_ALGORITHM.getDefaultValue();
 
+    private BlockingQueue<Cipher> ciphers = new ArrayBlockingQueue<>(CIPHER_POOL_CAPACITY);
+
     public final void setSecretKey(final String key) throws NoSuchAlgorithmException, InvalidKeyException,
         InvalidKeySpecException {
-        this.key = SecretKeyFactory.getInstance(this.cipherAlgorithm).generateSecret(new DESedeKeySpec(key.getBytes()));
+        final var algorithm = getKeyAlgorithm();
+        if ("DESede".equalsIgnoreCase(algorithm)) {
+            this.key = SecretKeyFactory.getInstance(algorithm).generateSecret(new DESedeKeySpec(key.getBytes(StandardCharsets.UTF_8)));
+        } else {
+            this.key = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), algorithm);
+        }
     }
 
     public final void setSecretKey(final Key key) {
@@ -54,10 +85,11 @@ public abstract class AbstractEncryptedProxyGrantingTicketStorageImpl implements
     /**
      * Note: you MUST call this method before calling setSecretKey if you're not using the default algorithm.  You've been warned.
      *
-     * @param cipherAlgorithm the cipher algorithm.
+     * @param cipherAlgorithm the cipher algorithm, i.e. <code>DESede</code> or <code>AES/GCM/NoPadding</code>.
      */
     public final void setCipherAlgorithm(final String cipherAlgorithm) {
         this.cipherAlgorithm = cipherAlgorithm;
+        this.ciphers = new ArrayBlockingQueue<>(CIPHER_POOL_CAPACITY);
     }
 
     @Override
@@ -67,13 +99,18 @@ public abstract class AbstractEncryptedProxyGrantingTicketStorageImpl implements
 
     @Override
     public final String retrieve(final String proxyGrantingTicketIou) {
-        return decrypt(retrieveInternal(proxyGrantingTicketIou));
+        final var proxyGrantingTicket = retrieveInternal(proxyGrantingTicketIou);
+        CasClientMetricsHolder.getDefault().recordProxyGrantingTicketRetrieval(getClass(), proxyGrantingTicket != null);
+        return decrypt(proxyGrantingTicket);
     }
 
     protected abstract void saveInternal(String proxyGrantingTicketIou, String proxyGrantingTicket);
 
     protected abstract String retrieveInternal(String proxyGrantingTicketIou);
 
+    /**
+     * The stored value is the Base64 encoding of the length of the IV on one byte, the IV and the ciphertext.
+     */
     private String encrypt(final String value) {
         if (this.key == null) {
             return value;
@@ -83,12 +120,24 @@ public abstract class AbstractEncryptedProxyGrantingTicketStorageImpl implements
             return null;
         }
 
+        final var pool = this.ciphers;
+        final var cipher = borrowCipher(pool);
         try {
-            final var cipher = Cipher.getInstance(this.cipherAlgorithm);
-            cipher.init(Cipher.ENCRYPT_MODE, this.key);
-            return new String(cipher.doFinal(value.getBytes()));
+            cipher.init(Cipher.ENCRYPT_MODE, this.key, RANDOM);
+            final var iv = cipher.getIV();
+            final var ivLength = iv == null ? 0 : iv.length;
+            final var plaintext = value.getBytes(StandardCharsets.UTF_8);
+            final var output = new byte[1 + ivLength + cipher.getOutputSize(plaintext.length)];
+            output[0] = (byte) ivLength;
+            if (ivLength > 0) {
+                System.arraycopy(iv, 0, output, 1, ivLength);
+            }
+            final var size = 1 + ivLength + cipher.doFinal(plaintext, 0, plaintext.length, output, 1 + ivLength);
+            return Base64.getEncoder().encodeToString(size == output.length ? output : Arrays.copyOf(output, size));
         } catch (final Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            pool.offer(cipher);
         }
     }
 
@@ -101,12 +150,45 @@ public abstract class AbstractEncryptedProxyGrantingTicketStorageImpl implements
             return null;
         }
 
+        final var pool = this.ciphers;
+        final var cipher = borrowCipher(pool);
         try {
-            final var cipher = Cipher.getInstance(this.cipherAlgorithm);
-            cipher.init(Cipher.DECRYPT_MODE, this.key);
-            return new String(cipher.doFinal(value.getBytes()));
+            final var input = Base64.getDecoder().decode(value);
+            final var ivLength = input[0] & 0xFF;
+            if (ivLength > 0) {
+                cipher.init(Cipher.DECRYPT_MODE, this.key, parameterSpec(input, ivLength));
+            } else {
+                cipher.init(Cipher.DECRYPT_MODE, this.key);
+            }
+            return new String(cipher.doFinal(input, 1 + ivLength, input.length - 1 - ivLength), StandardCharsets.UTF_8);
         } catch (final Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            pool.offer(cipher);
         }
     }
+
+    private AlgorithmParameterSpec parameterSpec(final byte[] input, final int ivLength) {
+        if (this.cipherAlgorithm.toUpperCase().contains("/GCM/")) {
+            return new GCMParameterSpec(GCM_TAG_LENGTH, input, 1, ivLength);
+        }
+        return new IvParameterSpec(input, 1, ivLength);
+    }
+
+    private Cipher borrowCipher(final BlockingQueue<Cipher> pool) {
+        final var cipher = pool.poll();
+        if (cipher != null) {
+            return cipher;
+        }
+        try {
+            return Cipher.getInstance(this.cipherAlgorithm);
+        } catch (final GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String getKeyAlgorithm() {
+        final var separator = this.cipherAlgorithm.indexOf('/');
+        return separator < 0 ? this.cipherAlgorithm : this.cipherAlgorithm.substring(0, separator);
+    }
 }
@@ -18,16 +18,25 @@
  */
 package org.apereo.cas.client.proxy;
 
+import org.apereo.cas.client.jfr.ProxyTicketRetrievalEvent;
+import org.apereo.cas.client.metrics.CasClientMetrics;
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
+import org.apereo.cas.client.ssl.HttpClientTransport;
 import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
+import org.apereo.cas.client.util.BackChannelLimiter;
+import org.apereo.cas.client.util.CasServerEndpoints;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.XmlUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serial;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.function.Supplier;
 
 /**
  * Implementation of a ProxyRetriever that follows the CAS 2.0 specification.
@@ -59,6 +68,21 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
     /** Url connection factory to use when communicating with the server **/
     private final HttpURLConnectionFactory urlConnectionFactory;
 
+    /** HttpClient transport to use instead of the url connection factory, if any **/
+    private final HttpClientTransport httpClientTransport;
+
+    /** Maximum number of concurrent calls to the server **/
+    private int maxConcurrentRequests = BackChannelLimiter.UNLIMITED;
+
+    /** Time a call waits for the concurrency limit, in milliseconds **/
+    private long backChannelWaitTimeout = BackChannelLimiter.DEFAULT_WAIT_TIMEOUT;
+
+    /** Limiter of the calls to the server, or null if calls are not limited; a deserialized retriever gets its own **/
+    private transient BackChannelLimiter backChannelLimiter;
+
+    /** Endpoints of the server to route calls to, if any; not serialized, so a deserialized retriever calls the server URL **/
+    private transient CasServerEndpoints casServerEndpoints;
+
     @Deprecated
     public Cas20ProxyRetriever(final String casServerUrl, final String encoding) {
         this(casServerUrl, encoding, null);
@@ -73,10 +97,23 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
      */
     public Cas20ProxyRetriever(final String casServerUrl, final String encoding,
                                final HttpURLConnectionFactory urlFactory) {
+        this(casServerUrl, encoding, urlFactory, null);
+    }
+
+    /**
+     * @param casServerUrl the URL to the CAS server (i.e. http://localhost/cas/)
+     * @param encoding the encoding to use.
+     * @param urlFactory url connection factory use when retrieving proxy responses from the server
+     * @param httpClientTransport HttpClient transport used instead of the url connection factory when not null
+     * @since 4.0.4
+     */
+    public Cas20ProxyRetriever(final String casServerUrl, final String encoding,
+                               final HttpURLConnectionFactory urlFactory, final HttpClientTransport httpClientTransport) {
         CommonUtils.assertNotNull(casServerUrl, "casServerUrl cannot be null.");
         this.casServerUrl = casServerUrl;
         this.encoding = encoding;
         this.urlConnectionFactory = urlFactory;
+        this.httpClientTransport = httpClientTransport;
     }
 
     @Override
@@ -84,14 +121,33 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
         CommonUtils.assertNotNull(proxyGrantingTicketId, "proxyGrantingTicketId cannot be null.");
         CommonUtils.assertNotNull(targetService, "targetService cannot be null.");
 
-        final var url = constructUrl(proxyGrantingTicketId, targetService);
-        final String response;
-
-        if (this.urlConnectionFactory != null) {
-            response = CommonUtils.getResponseFromServer(url, this.urlConnectionFactory, this.encoding);
-        } else {
-            response = CommonUtils.getResponseFromServer(url, this.encoding);
+        final var event = new ProxyTicketRetrievalEvent();
+        event.begin();
+        final var start = System.nanoTime();
+        var outcome = CasClientMetrics.Outcome.ERROR;
+        try {
+            final var ticket = retrieveProxyTicket(proxyGrantingTicketId, targetService);
+            outcome = ticket == null ? CasClientMetrics.Outcome.FAILURE : CasClientMetrics.Outcome.SUCCESS;
+            return ticket;
+        } finally {
+            CasClientMetricsHolder.getDefault().recordProxyTicketRetrieval(outcome, System.nanoTime() - start);
+            if (event.shouldCommit()) {
+                event.setCasServerUrl(this.casServerUrl);
+                event.setTargetService(targetService);
+                event.setOutcome(outcome.name());
+                event.commit();
+            }
         }
+    }
+
+    private String retrieveProxyTicket(final String proxyGrantingTicketId, final String targetService) {
+        final var endpoints = this.casServerEndpoints;
+        final Supplier<String> request = endpoints == null
+            ? () -> retrieveResponseFromServer(constructUrl(this.casServerUrl, proxyGrantingTicketId, targetService))
+            : () -> endpoints.call(endpoint ->
+                retrieveResponseFromServer(constructUrl(endpoint.getUrlPrefix(), proxyGrantingTicketId, targetService)));
+        final var limiter = this.backChannelLimiter;
+        final var response = limiter == null ? request.get() : limiter.call(request);
         final var error = XmlUtils.getTextForElement(response, "proxyFailure");
 
         if (CommonUtils.isNotEmpty(error)) {
@@ -104,9 +160,70 @@ public final class Cas20ProxyRetriever implements ProxyRetriever {
         return ticket;
     }
 
-    private URL constructUrl(final String proxyGrantingTicketId, final String targetService) {
+    private String retrieveResponseFromServer(final URL url) {
+        if (this.httpClientTransport != null) {
+            return CommonUtils.getResponseFromServer(url, this.httpClientTransport, this.encoding);
+        }
+        if (this.urlConnectionFactory != null) {
+            return CommonUtils.getResponseFromServer(url, this.urlConnectionFactory, this.encoding);
+        }
+        return CommonUtils.getResponseFromServer(url, this.encoding);
+    }
+
+    /**
+     * Limits the calls made by this retriever alone; use {@link #setBackChannelLimiter(BackChannelLimiter)} to share a
+     * limit with other callers of the CAS server.
+     *
+     * @param maxConcurrentRequests the maximum number of concurrent calls to the CAS server,
+     * or {@link BackChannelLimiter#UNLIMITED}.
+     * @since 4.0.4
+     */
+    public void setMaxConcurrentRequests(final int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.backChannelWaitTimeout = BackChannelLimiter.DEFAULT_WAIT_TIMEOUT;
+        this.backChannelLimiter = BackChannelLimiter.create(this.casServerUrl, maxConcurrentRequests,
+            this.backChannelWaitTimeout);
+    }
+
+    /**
+     * @param backChannelLimiter the limiter of the calls to the CAS server, or null if calls are not limited.  A
+     * deserialized retriever gets a limiter of its own with the same limit.
+     * @since 4.0.4
+     */
+    public void setBackChannelLimiter(final BackChannelLimiter backChannelLimiter) {
+        this.backChannelLimiter = backChannelLimiter;
+        this.maxConcurrentRequests = backChannelLimiter == null ? BackChannelLimiter.UNLIMITED
+            : backChannelLimiter.getMaxConcurrency();
+        this.backChannelWaitTimeout = backChannelLimiter == null ? BackChannelLimiter.DEFAULT_WAIT_TIMEOUT
+            : backChannelLimiter.getWaitTimeout();
+    }
+
+    /**
+     * Routes calls to the fastest of the server's endpoints, and retries calls that cannot connect to an endpoint on
+     * the next one.
+     *
+     * @param casServerEndpoints the endpoints of the CAS server, or null to only call the CAS server URL.  The
+     * endpoints are not serialized with the retriever.
+     * @since 4.0.4
+     */
+    public void setCasServerEndpoints(final CasServerEndpoints casServerEndpoints) {
+        this.casServerEndpoints = casServerEndpoints;
+    }
+
+    @Serial
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (this.backChannelWaitTimeout <= 0) {
+            // serialized before the wait timeout was
+            this.backChannelWaitTimeout = BackChannelLimiter.DEFAULT_WAIT_TIMEOUT;
+        }
+        this.backChannelLimiter = BackChannelLimiter.create(this.casServerUrl, this.maxConcurrentRequests,
+            this.backChannelWaitTimeout);
+    }
+
+    private static URL constructUrl(final String casServerUrl, final String proxyGrantingTicketId, final String targetService) {
         try {
-            return new URL(this.casServerUrl + (this.casServerUrl.endsWith("/") ? "" : "/") + "proxy" + "?pgt="
+            return new URL(casServerUrl + (casServerUrl.endsWith("/") ? "" : "/") + "proxy" + "?pgt="
                            + proxyGrantingTicketId + "&targetService=" + URLEncoder.encode(targetService, "UTF-8"));
         } catch (final Exception e) {
             throw new RuntimeException(e);
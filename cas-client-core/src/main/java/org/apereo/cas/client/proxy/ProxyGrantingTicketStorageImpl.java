@@ -18,12 +18,15 @@
  */
 package org.apereo.cas.client.proxy;
 
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
 import org.apereo.cas.client.util.CommonUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 
 /**
@@ -32,6 +35,10 @@ import java.util.concurrent.ConcurrentMap;
  * <p>
  * {@link ProxyGrantingTicketStorage#cleanUp()} must be called on a regular basis to
  * keep the HashMap from growing indefinitely.
+ * <p>
+ * As every ticket is held for the same amount of time, tickets expire in the order they were saved.  They are
+ * therefore also kept in a queue in that order, from which {@link #cleanUp()} takes only the expired tickets,
+ * so that its cost depends on the number of expired tickets rather than on the number of tickets held.
  *
  * @author Scott Battaglia
  * @author Brad Cupit (brad [at] lsu {dot} edu)
@@ -51,6 +58,11 @@ public final class ProxyGrantingTicketStorageImpl implements ProxyGrantingTicket
      */
     private final ConcurrentMap<String, ProxyGrantingTicketHolder> cache = new ConcurrentHashMap<>();
 
+    /**
+     * Tickets in the order they expire, including tickets retrieved since.
+     */
+    private final Queue<ProxyGrantingTicketHolder> expiryQueue = new ConcurrentLinkedQueue<>();
+
     /**
      * time, in milliseconds, before a {@link ProxyGrantingTicketHolder}
      * is considered expired and ready for removal.
@@ -78,11 +90,13 @@ public final class ProxyGrantingTicketStorageImpl implements ProxyGrantingTicket
 
     @Override
     public void save(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
-        final var holder = new ProxyGrantingTicketHolder(proxyGrantingTicket);
+        final var holder = new ProxyGrantingTicketHolder(proxyGrantingTicketIou, proxyGrantingTicket,
+            System.currentTimeMillis() + this.timeout);
 
         logger.debug("Saving ProxyGrantingTicketIOU and ProxyGrantingTicket combo: [{}, {}]", proxyGrantingTicketIou,
             proxyGrantingTicket);
         this.cache.put(proxyGrantingTicketIou, holder);
+        this.expiryQueue.offer(holder);
     }
 
     /**
@@ -95,15 +109,14 @@ public final class ProxyGrantingTicketStorageImpl implements ProxyGrantingTicket
             return null;
         }
 
-        final var holder = this.cache.get(proxyGrantingTicketIou);
+        final var holder = this.cache.remove(proxyGrantingTicketIou);
+        CasClientMetricsHolder.getDefault().recordProxyGrantingTicketRetrieval(getClass(), holder != null);
 
         if (holder == null) {
             logger.info("No Proxy Ticket found for [{}].", proxyGrantingTicketIou);
             return null;
         }
 
-        this.cache.remove(proxyGrantingTicketIou);
-
         logger.debug("Returned ProxyGrantingTicket of [{}]", holder.getProxyGrantingTicket());
         return holder.getProxyGrantingTicket();
     }
@@ -114,30 +127,44 @@ public final class ProxyGrantingTicketStorageImpl implements ProxyGrantingTicket
      */
     @Override
     public void cleanUp() {
-        for (final var holder : this.cache.entrySet()) {
-            if (holder.getValue().isExpired(this.timeout)) {
-                this.cache.remove(holder.getKey());
+        final var now = System.currentTimeMillis();
+        var expired = 0L;
+        for (var holder = this.expiryQueue.peek(); holder != null && holder.isExpired(now); holder = this.expiryQueue.peek()) {
+            // a ticket that was retrieved or saved again since is no longer mapped to this holder
+            if (this.expiryQueue.remove(holder) && this.cache.remove(holder.getProxyGrantingTicketIou(), holder)) {
+                expired++;
             }
         }
+        if (expired > 0) {
+            CasClientMetricsHolder.getDefault().recordProxyGrantingTicketExpiry(getClass(), expired);
+        }
     }
 
     private static final class ProxyGrantingTicketHolder {
 
+        private final String proxyGrantingTicketIou;
+
         private final String proxyGrantingTicket;
 
-        private final long timeInserted;
+        private final long expiresAt;
 
-        private ProxyGrantingTicketHolder(final String proxyGrantingTicket) {
+        private ProxyGrantingTicketHolder(final String proxyGrantingTicketIou, final String proxyGrantingTicket,
+                                          final long expiresAt) {
+            this.proxyGrantingTicketIou = proxyGrantingTicketIou;
             this.proxyGrantingTicket = proxyGrantingTicket;
-            this.timeInserted = System.currentTimeMillis();
+            this.expiresAt = expiresAt;
+        }
+
+        public String getProxyGrantingTicketIou() {
+            return this.proxyGrantingTicketIou;
         }
 
         public String getProxyGrantingTicket() {
             return this.proxyGrantingTicket;
         }
 
-        final boolean isExpired(final long timeout) {
-            return System.currentTimeMillis() - this.timeInserted > timeout;
+        final boolean isExpired(final long now) {
+            return now > this.expiresAt;
         }
     }
 }
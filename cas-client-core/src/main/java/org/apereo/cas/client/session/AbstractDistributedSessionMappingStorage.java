@@ -0,0 +1,368 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CleanUpScheduler;
+import org.apereo.cas.client.util.CommonUtils;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Base class for {@link SessionMappingStorage}s that share the mapping of service tickets to sessions between the
+ * nodes of a cluster, so that a logout request from the CAS server invalidates a session regardless of which node
+ * received it.
+ * <p>
+ * Sessions stay in a local storage on the node that created them; the shared store only holds, for each service
+ * ticket, the id of the owning node and the session id.  When a logout request is received for a session owned by
+ * another node, an invalidation is published to that node, which picks it up on its next poll and invalidates the
+ * session locally.
+ * <p>
+ * Writes of new mappings are queued and sent to the shared store in batches by a background task, so that logins do
+ * not wait on the shared store.  The writes and the polls run on threads of their own rather than on the
+ * {@link CleanUpScheduler#getDefault() shared clean up scheduler}, so that a slow shared store does not hold up the
+ * clean up of the client's in-memory stores.
+ *
+ * @since 4.0.4
+ */
+public abstract class AbstractDistributedSessionMappingStorage implements SessionMappingStorage {
+
+    /** Default time after which a mapping expires from the shared store, in milliseconds. */
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.HOURS.toMillis(8);
+
+    /** Default interval between two writes of queued mappings, in milliseconds. */
+    public static final long DEFAULT_FLUSH_INTERVAL = 100L;
+
+    /** Default interval between two polls of the invalidations published to this node, in milliseconds. */
+    public static final long DEFAULT_POLL_INTERVAL = 1000L;
+
+    /** Default maximum number of mappings written in one batch. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final char SEPARATOR = '|';
+
+    /** Runs the writes and polls of all distributed storages, which wait on the shared store. */
+    private static final CleanUpScheduler SCHEDULER = new CleanUpScheduler("cas-client-session-sync", 2);
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final SessionMappingStorage localStorage = new ConcurrentSessionMappingStorage();
+
+    private final ConcurrentLinkedQueue<String[]> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private final LongAdder writes = new LongAdder();
+
+    private final LongAdder writeFailures = new LongAdder();
+
+    private final LongAdder invalidationsSent = new LongAdder();
+
+    private final LongAdder invalidationsReceived = new LongAdder();
+
+    private String nodeId = UUID.randomUUID().toString();
+
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+    private long pollInterval = DEFAULT_POLL_INTERVAL;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private CleanUpScheduler.CleanUpTask flushTask;
+
+    private CleanUpScheduler.CleanUpTask pollTask;
+
+    private boolean destroyed;
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        this.localStorage.addSessionById(mappingId, session);
+        this.pendingWrites.offer(new String[]{mappingId, this.nodeId + SEPARATOR + session.getId()});
+        start();
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        // the shared mapping expires on its own; invalidating it would need the mapping id, which is only known locally
+        this.localStorage.removeBySessionById(sessionId);
+    }
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        final var session = this.localStorage.removeSessionByMappingId(mappingId);
+        if (session != null) {
+            removeShared(mappingId);
+            return session;
+        }
+
+        final String mapping;
+        try {
+            mapping = retrieveMapping(mappingId);
+        } catch (final RuntimeException e) {
+            logger.warn("Unable to look up the owner of session mapped to [{}]: {}", mappingId, e.getMessage(), e);
+            return null;
+        }
+        if (mapping == null) {
+            logger.debug("No session mapped to [{}] in the cluster", mappingId);
+            return null;
+        }
+
+        final var separator = mapping.indexOf(SEPARATOR);
+        final var owner = separator < 0 ? mapping : mapping.substring(0, separator);
+        if (!owner.equals(this.nodeId)) {
+            logger.debug("Session mapped to [{}] is owned by node [{}]; publishing invalidation", mappingId, owner);
+            try {
+                publishInvalidation(owner, mappingId);
+                this.invalidationsSent.increment();
+            } catch (final RuntimeException e) {
+                logger.warn("Unable to publish invalidation of [{}] to node [{}]: {}", mappingId, owner, e.getMessage(), e);
+            }
+        }
+        removeShared(mappingId);
+        return null;
+    }
+
+    /**
+     * Writes the queued mappings to the shared store.  Called periodically in the background.
+     */
+    public void flush() {
+        while (!this.pendingWrites.isEmpty()) {
+            final Map<String, String> batch = new LinkedHashMap<>();
+            for (var entry = this.pendingWrites.poll(); entry != null; entry = this.pendingWrites.poll()) {
+                batch.put(entry[0], entry[1]);
+                if (batch.size() >= this.batchSize) {
+                    break;
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                storeMappings(batch, this.timeToLive);
+                this.writes.add(batch.size());
+            } catch (final RuntimeException e) {
+                this.writeFailures.add(batch.size());
+                logger.warn("Unable to write {} session mappings to the shared store: {}", batch.size(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the local sessions for which another node received a logout request.  Called periodically
+     * in the background.
+     */
+    public void pollInvalidations() {
+        final Collection<String> mappingIds;
+        try {
+            mappingIds = takeInvalidations(this.nodeId);
+        } catch (final RuntimeException e) {
+            logger.warn("Unable to retrieve invalidations for node [{}]: {}", this.nodeId, e.getMessage(), e);
+            return;
+        }
+        for (final var mappingId : mappingIds) {
+            final var session = this.localStorage.removeSessionByMappingId(mappingId);
+            if (session == null) {
+                continue;
+            }
+            this.invalidationsReceived.increment();
+            logger.debug("Invalidating session [{}] for [{}] on behalf of another node", session.getId(), mappingId);
+            try {
+                session.invalidate();
+            } catch (final IllegalStateException e) {
+                logger.debug("Error invalidating session.", e);
+            }
+        }
+    }
+
+    /**
+     * Stops the background writes and polls, then writes the queued mappings.
+     */
+    @Override
+    public void destroy() {
+        final CleanUpScheduler.CleanUpTask flush;
+        final CleanUpScheduler.CleanUpTask poll;
+        synchronized (this) {
+            this.destroyed = true;
+            flush = this.flushTask;
+            poll = this.pollTask;
+            this.flushTask = null;
+            this.pollTask = null;
+        }
+        if (flush != null) {
+            flush.cancel();
+        }
+        if (poll != null) {
+            poll.cancel();
+        }
+        flush();
+    }
+
+    /**
+     * Writes mappings of service tickets to the owning node and session to the shared store.
+     *
+     * @param mappings the mappings, keyed by service ticket.
+     * @param timeToLive time after which the mappings may be expired, in milliseconds.
+     */
+    protected abstract void storeMappings(Map<String, String> mappings, long timeToLive);
+
+    /**
+     * @param mappingId the service ticket.
+     * @return the mapping of the service ticket, or null if it is not known.
+     */
+    protected abstract String retrieveMapping(String mappingId);
+
+    /**
+     * @param mappingId the service ticket whose mapping is removed from the shared store.
+     */
+    protected abstract void removeMapping(String mappingId);
+
+    /**
+     * Queues the invalidation of a session for the node owning it.
+     *
+     * @param nodeId the owning node.
+     * @param mappingId the service ticket of the session.
+     */
+    protected abstract void publishInvalidation(String nodeId, String mappingId);
+
+    /**
+     * Atomically takes all invalidations queued for a node.
+     *
+     * @param nodeId the node.
+     * @return the service tickets of the sessions to invalidate, never null.
+     */
+    protected abstract Collection<String> takeInvalidations(String nodeId);
+
+    private void removeShared(final String mappingId) {
+        try {
+            removeMapping(mappingId);
+        } catch (final RuntimeException e) {
+            logger.debug("Unable to remove mapping of [{}] from the shared store: {}", mappingId, e.getMessage());
+        }
+    }
+
+    private void start() {
+        if (this.started.get() || !this.started.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            if (this.destroyed) {
+                return;
+            }
+            this.flushTask = SCHEDULER.schedule("sessionMappingWrites", this::flush, this.flushInterval);
+            this.pollTask = SCHEDULER.schedule("sessionMappingInvalidations", this::pollInvalidations, this.pollInterval);
+        }
+    }
+
+    /**
+     * @return the scheduler running the writes and polls of the distributed storages.
+     */
+    public static CleanUpScheduler getScheduler() {
+        return SCHEDULER;
+    }
+
+    public final String getNodeId() {
+        return this.nodeId;
+    }
+
+    /**
+     * @param nodeId identifier of this node, unique within the cluster.  Defaults to a random identifier.
+     */
+    public final void setNodeId(final String nodeId) {
+        CommonUtils.assertTrue(CommonUtils.isNotBlank(nodeId) && nodeId.indexOf(SEPARATOR) < 0,
+            "nodeId cannot be blank or contain '" + SEPARATOR + "'.");
+        this.nodeId = nodeId;
+    }
+
+    public final long getTimeToLive() {
+        return this.timeToLive;
+    }
+
+    /**
+     * @param timeToLive time after which mappings expire from the shared store, in milliseconds.  Should be no
+     * shorter than the maximum lifetime of a session.
+     */
+    public final void setTimeToLive(final long timeToLive) {
+        CommonUtils.assertTrue(timeToLive > 0, "timeToLive must be greater than zero.");
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param flushInterval interval between two writes of queued mappings, in milliseconds.
+     */
+    public final void setFlushInterval(final long flushInterval) {
+        CommonUtils.assertTrue(flushInterval > 0, "flushInterval must be greater than zero.");
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * @param pollInterval interval between two polls of the invalidations published to this node, in milliseconds.
+     */
+    public final void setPollInterval(final long pollInterval) {
+        CommonUtils.assertTrue(pollInterval > 0, "pollInterval must be greater than zero.");
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * @param batchSize maximum number of mappings written to the shared store at once.
+     */
+    public final void setBatchSize(final int batchSize) {
+        CommonUtils.assertTrue(batchSize > 0, "batchSize must be greater than zero.");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the number of mappings written to the shared store.
+     */
+    public final long getWrites() {
+        return this.writes.sum();
+    }
+
+    /**
+     * @return the number of mappings that could not be written to the shared store.
+     */
+    public final long getWriteFailures() {
+        return this.writeFailures.sum();
+    }
+
+    /**
+     * @return the number of invalidations published to other nodes.
+     */
+    public final long getInvalidationsSent() {
+        return this.invalidationsSent.sum();
+    }
+
+    /**
+     * @return the number of local sessions invalidated on behalf of other nodes.
+     */
+    public final long getInvalidationsReceived() {
+        return this.invalidationsReceived.sum();
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.session.ConcurrentSessionMappingStorage.SessionMapping;
+import org.apereo.cas.client.util.CleanUpScheduler;
+import org.apereo.cas.client.util.CommonUtils;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memory-bounded {@link SessionMappingStorage} that keeps session IDs rather than sessions.
+ * <p>
+ * Only the ID of a session is mapped; the session itself is resolved through a {@link SessionLookup} when a logout
+ * request is received.  By default, a {@link TrackingSessionLookup} finds the sessions reported by the
+ * {@link SingleSignOutHttpSessionListener}; a lookup backed by the session manager of the container can be set
+ * instead.  The storage itself references no session, so sessions that are passivated or replicated to another
+ * node can be collected, and session objects that only live for one request, such as the wrappers created by Spring
+ * Session, are never kept around by it.
+ * <p>
+ * Mappings are removed when {@link SingleSignOutHttpSessionListener} reports the session destroyed, and by
+ * {@link #reap()} when the lookup no longer finds the session, for instance because the listener is not
+ * registered.  The number of mappings is also capped at {@link #setMaxSize(int) a maximum size}, and once it is
+ * reached the oldest mappings are evicted first.  If a {@link #setReaperInterval(long) reaper interval} is set,
+ * reaping is done periodically in the background on the {@link CleanUpScheduler}; as every mapped session is
+ * looked up, the interval should be chosen according to the cost of a lookup.
+ *
+ * @since 4.0.4
+ */
+public final class BoundedSessionMappingStorage implements SessionMappingStorage {
+
+    /** Default maximum number of mappings. */
+    public static final int DEFAULT_MAX_SIZE = 500_000;
+
+    /** Default interval of the background reaper, in milliseconds. */
+    public static final long DEFAULT_REAPER_INTERVAL = 60_000L;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final ConcurrentSessionMappingStorage mappings = new ConcurrentSessionMappingStorage();
+
+    /** Mappings in the order they were added, oldest first; may contain mappings that were removed since. */
+    private final Queue<SessionMapping> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    /** Number of mappings in {@link #insertionOrder}, which is compacted once it holds many removed mappings. */
+    private final AtomicInteger queuedMappings = new AtomicInteger();
+
+    private final LongAdder reaped = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile SessionLookup sessionLookup = new TrackingSessionLookup();
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    private CleanUpScheduler.CleanUpTask reaper;
+
+    public BoundedSessionMappingStorage() {
+        // sessions are looked up through a TrackingSessionLookup
+    }
+
+    public BoundedSessionMappingStorage(final SessionLookup sessionLookup) {
+        setSessionLookup(sessionLookup);
+    }
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        final var mapping = this.mappings.get(mappingId);
+        if (mapping == null || !this.mappings.remove(mapping)) {
+            return null;
+        }
+        final var session = getSessionLookup().findSession(mapping.sessionId);
+        if (session == null) {
+            logger.debug("Session [{}] mapped to [{}] no longer exists", mapping.sessionId, mappingId);
+        }
+        return session;
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        this.mappings.removeBySessionById(sessionId);
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        final var mapping = this.mappings.add(mappingId, session.getId(), null);
+        this.insertionOrder.offer(mapping);
+        if (this.queuedMappings.incrementAndGet() > 2 * this.mappings.size() + ConcurrentSessionMappingStorage.DEFAULT_CONCURRENCY_LEVEL) {
+            compactInsertionOrder();
+        }
+
+        evictOldest();
+    }
+
+    /**
+     * Removes the mappings of sessions that no longer exist and drops stale bookkeeping.
+     * Called periodically by the background reaper, if one is scheduled.
+     */
+    public void reap() {
+        final var lookup = getSessionLookup();
+        for (final var mapping : this.mappings.mappings()) {
+            if (!exists(lookup.findSession(mapping.sessionId)) && this.mappings.remove(mapping)) {
+                this.reaped.increment();
+            }
+        }
+        compactInsertionOrder();
+        evictOldest();
+    }
+
+    /**
+     * Schedules the background reaper, replacing any reaper scheduled before.
+     *
+     * @param reaperInterval interval between two runs of {@link #reap()} in milliseconds, or zero to not reap in the background.
+     */
+    public synchronized void setReaperInterval(final long reaperInterval) {
+        CommonUtils.assertTrue(reaperInterval >= 0, "reaperInterval cannot be negative.");
+        if (this.reaper != null) {
+            this.reaper.cancel();
+            this.reaper = null;
+        }
+        if (reaperInterval > 0) {
+            final var task = new ReaperTask(this);
+            this.reaper = CleanUpScheduler.getDefault().schedule("sessionMappingStorage", task, reaperInterval);
+            task.scheduled = this.reaper;
+        }
+    }
+
+    /**
+     * Stops the background reaper.
+     */
+    @Override
+    public void destroy() {
+        setReaperInterval(0);
+    }
+
+    /**
+     * @param sessionLookup resolves the mapped session IDs to sessions.
+     */
+    public void setSessionLookup(final SessionLookup sessionLookup) {
+        CommonUtils.assertNotNull(sessionLookup, "sessionLookup cannot be null.");
+        this.sessionLookup = sessionLookup;
+    }
+
+    public SessionLookup getSessionLookup() {
+        return this.sessionLookup;
+    }
+
+    /**
+     * @param maxSize maximum number of mappings kept before the oldest are evicted.
+     */
+    public void setMaxSize(final int maxSize) {
+        CommonUtils.assertTrue(maxSize > 0, "maxSize must be greater than zero.");
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * @return the number of sessions currently mapped.
+     */
+    public int size() {
+        return this.mappings.size();
+    }
+
+    /**
+     * @return the number of mappings removed by {@link #reap()} because their session no longer exists.
+     */
+    public long getReaped() {
+        return this.reaped.sum();
+    }
+
+    /**
+     * @return the number of mappings evicted because the maximum size was reached.
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    private static boolean exists(final HttpSession session) {
+        if (session == null) {
+            return false;
+        }
+        try {
+            session.getCreationTime();
+            return true;
+        } catch (final IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private void compactInsertionOrder() {
+        this.insertionOrder.removeIf(mapping -> {
+            if (this.mappings.get(mapping.mappingId) == mapping) {
+                return false;
+            }
+            this.queuedMappings.decrementAndGet();
+            return true;
+        });
+    }
+
+    private void evictOldest() {
+        while (this.mappings.size() > this.maxSize) {
+            final var oldest = this.insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            this.queuedMappings.decrementAndGet();
+            if (this.mappings.remove(oldest)) {
+                this.evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Holds the storage weakly so that a storage that is no longer used, for instance after its web application
+     * was undeployed, can be collected; the task then cancels itself.
+     */
+    private static final class ReaperTask implements Runnable {
+
+        private final WeakReference<BoundedSessionMappingStorage> storage;
+
+        private volatile CleanUpScheduler.CleanUpTask scheduled;
+
+        private ReaperTask(final BoundedSessionMappingStorage storage) {
+            this.storage = new WeakReference<>(storage);
+        }
+
+        @Override
+        public void run() {
+            final var current = this.storage.get();
+            if (current != null) {
+                current.reap();
+            } else if (this.scheduled != null) {
+                this.scheduled.cancel();
+            }
+        }
+    }
+}
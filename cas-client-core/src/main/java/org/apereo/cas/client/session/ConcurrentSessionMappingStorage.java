@@ -0,0 +1,198 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link SessionMappingStorage} that can be used concurrently without a global lock.
+ * <p>
+ * Both directions of the mapping are held in {@link ConcurrentHashMap}s that share a single entry per session.
+ * Changes are serialized per session by a lock striped on the session id, so adding and removing different sessions
+ * do not contend, while the two maps of a single session are always updated together.  Lookups by mapping id only
+ * take the lock of the session found.
+ *
+ * @since 4.0.4
+ */
+public final class ConcurrentSessionMappingStorage implements SessionMappingStorage {
+
+    /** Default number of lock stripes. */
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 64;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Maps the ID from the CAS server to the session mapping.
+     */
+    private final ConcurrentMap<String, SessionMapping> managedSessions = new ConcurrentHashMap<>();
+
+    /**
+     * Maps the session ID to the session mapping.
+     */
+    private final ConcurrentMap<String, SessionMapping> sessionIdMappings = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] locks;
+
+    public ConcurrentSessionMappingStorage() {
+        this(DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * @param concurrencyLevel the number of lock stripes, rounded up to a power of two.
+     */
+    public ConcurrentSessionMappingStorage(final int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be greater than zero.");
+        }
+        final var stripes = Integer.highestOneBit(Math.min(concurrencyLevel, 1 << 16) * 2 - 1);
+        this.locks = new ReentrantLock[stripes];
+        for (var i = 0; i < stripes; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public HttpSession removeSessionByMappingId(final String mappingId) {
+        final var mapping = this.managedSessions.get(mappingId);
+        if (mapping == null || !remove(mapping)) {
+            return null;
+        }
+        return mapping.session;
+    }
+
+    @Override
+    public void removeBySessionById(final String sessionId) {
+        logger.debug("Attempting to remove Session=[{}]", sessionId);
+
+        final SessionMapping mapping;
+        final var lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            mapping = this.sessionIdMappings.remove(sessionId);
+            if (mapping != null) {
+                this.managedSessions.remove(mapping.mappingId, mapping);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (mapping != null) {
+            logger.debug("Found mapping for session.  Session Removed.");
+        } else {
+            logger.debug("No mapping for session found.  Ignoring.");
+        }
+    }
+
+    @Override
+    public void addSessionById(final String mappingId, final HttpSession session) {
+        add(mappingId, session.getId(), session);
+    }
+
+    /**
+     * @return the number of sessions currently mapped.
+     */
+    public int size() {
+        return this.managedSessions.size();
+    }
+
+    /**
+     * Maps the mapping id to the session, replacing any previous mapping of either.
+     *
+     * @param mappingId the ID from the CAS server.
+     * @param sessionId the ID of the session.
+     * @param session the session, or <code>null</code> to only keep its ID.
+     * @return the new mapping.
+     */
+    SessionMapping add(final String mappingId, final String sessionId, final HttpSession session) {
+        final var mapping = new SessionMapping(mappingId, sessionId, session);
+        final var lock = lockFor(sessionId);
+        lock.lock();
+        try {
+            final var previousForSession = this.sessionIdMappings.put(sessionId, mapping);
+            if (previousForSession != null) {
+                this.managedSessions.remove(previousForSession.mappingId, previousForSession);
+            }
+            final var previousForMappingId = this.managedSessions.put(mappingId, mapping);
+            if (previousForMappingId != null && !previousForMappingId.sessionId.equals(sessionId)) {
+                // the mapping id moved to another session, whose own entry is guarded by another stripe
+                this.sessionIdMappings.remove(previousForMappingId.sessionId, previousForMappingId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return mapping;
+    }
+
+    SessionMapping get(final String mappingId) {
+        return this.managedSessions.get(mappingId);
+    }
+
+    /**
+     * Removes the given mapping, unless it was removed or replaced in the meantime.
+     *
+     * @param mapping the mapping to remove.
+     * @return whether the mapping was removed by this call.
+     */
+    boolean remove(final SessionMapping mapping) {
+        final var lock = lockFor(mapping.sessionId);
+        lock.lock();
+        try {
+            if (!this.managedSessions.remove(mapping.mappingId, mapping)) {
+                // removed or remapped concurrently
+                return false;
+            }
+            this.sessionIdMappings.remove(mapping.sessionId, mapping);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Collection<SessionMapping> mappings() {
+        return this.managedSessions.values();
+    }
+
+    private ReentrantLock lockFor(final String sessionId) {
+        final var hash = sessionId.hashCode();
+        return this.locks[(hash ^ (hash >>> 16)) & (this.locks.length - 1)];
+    }
+
+    static final class SessionMapping {
+
+        final String mappingId;
+
+        final String sessionId;
+
+        /** <code>null</code> if only the session id is kept. */
+        final HttpSession session;
+
+        private SessionMapping(final String mappingId, final String sessionId, final HttpSession session) {
+            this.mappingId = mappingId;
+            this.sessionId = sessionId;
+            this.session = session;
+        }
+    }
+}
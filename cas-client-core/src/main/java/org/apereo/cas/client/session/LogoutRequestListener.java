@@ -0,0 +1,36 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+/**
+ * Callback notified by {@link SingleSignOutHandler} whenever the CAS server sends a logout request,
+ * whether or not a local session was found for it.
+ *
+ * @since 4.0.4
+ */
+@FunctionalInterface
+public interface LogoutRequestListener {
+
+    /**
+     * Invoked for each logout request carrying a session index.
+     *
+     * @param sessionIndex the session index of the logout request, i.e. the service ticket that established the session.
+     */
+    void logoutRequestReceived(String sessionIndex);
+}
@@ -0,0 +1,37 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Resolves a session from its ID, typically through the session manager of the container, so that a
+ * {@link SessionMappingStorage} only has to keep session IDs.
+ *
+ * @since 4.0.4
+ */
+@FunctionalInterface
+public interface SessionLookup {
+
+    /**
+     * @param sessionId the ID of the session.
+     * @return the session, or <code>null</code> if it no longer exists.
+     */
+    HttpSession findSession(String sessionId);
+}
@@ -51,4 +51,10 @@ public interface SessionMappingStorage {
      */
     void addSessionById(String mappingId, HttpSession session);
 
+    /**
+     * Releases the resources held by the storage, such as background threads or connections.  Called by
+     * {@link SingleSignOutFilter#destroy()} for the storage it created.
+     */
+    default void destroy() {
+    }
 }
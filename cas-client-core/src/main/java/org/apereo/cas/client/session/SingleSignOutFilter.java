@@ -20,6 +20,7 @@ package org.apereo.cas.client.session;
 
 import org.apereo.cas.client.configuration.ConfigurationKeys;
 import org.apereo.cas.client.util.AbstractConfigurationFilter;
+import org.apereo.cas.client.util.ReflectUtils;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -45,6 +46,11 @@ public final class SingleSignOutFilter extends AbstractConfigurationFilter {
 
     private final AtomicBoolean handlerInitialized = new AtomicBoolean(false);
 
+    /**
+     * Storage created from the configuration of this filter, which is destroyed with the filter.
+     */
+    private SessionMappingStorage configuredStorage;
+
     static SingleSignOutHandler getSingleSignOutHandler() {
         return HANDLER;
     }
@@ -59,11 +65,32 @@ public final class SingleSignOutFilter extends AbstractConfigurationFilter {
             setLogoutCallbackPath(getString(ConfigurationKeys.LOGOUT_CALLBACK_PATH));
             HANDLER.setArtifactParameterOverPost(getBoolean(ConfigurationKeys.ARTIFACT_PARAMETER_OVER_POST));
             HANDLER.setEagerlyCreateSessions(getBoolean(ConfigurationKeys.EAGERLY_CREATE_SESSIONS));
+            configureSessionMappingStorage();
         }
         HANDLER.init();
         handlerInitialized.set(true);
     }
 
+    private void configureSessionMappingStorage() {
+        final Class<? extends SessionMappingStorage> storageClass = getClass(ConfigurationKeys.SESSION_MAPPING_STORAGE_CLASS);
+        if (storageClass == null) {
+            return;
+        }
+        final var storage = ReflectUtils.newInstance(storageClass);
+        if (storage instanceof BoundedSessionMappingStorage) {
+            final var boundedStorage = (BoundedSessionMappingStorage) storage;
+            boundedStorage.setMaxSize(getInt(ConfigurationKeys.SESSION_MAPPING_MAX_SIZE));
+            final Class<? extends SessionLookup> lookupClass = getClass(ConfigurationKeys.SESSION_LOOKUP_CLASS);
+            if (lookupClass != null) {
+                boundedStorage.setSessionLookup(ReflectUtils.newInstance(lookupClass));
+            }
+            boundedStorage.setReaperInterval(getLong(ConfigurationKeys.SESSION_MAPPING_REAPER_INTERVAL));
+        }
+        this.configuredStorage = storage;
+        logger.debug("Mapping sessions using [{}]", storage);
+        HANDLER.setSessionMappingStorage(storage);
+    }
+
     public static void setArtifactParameterName(final String name) {
         HANDLER.setArtifactParameterName(name);
     }
@@ -84,6 +111,14 @@ public final class SingleSignOutFilter extends AbstractConfigurationFilter {
         HANDLER.setSessionMappingStorage(storage);
     }
 
+    public static void addLogoutRequestListener(final LogoutRequestListener listener) {
+        HANDLER.addLogoutRequestListener(listener);
+    }
+
+    public static void removeLogoutRequestListener(final LogoutRequestListener listener) {
+        HANDLER.removeLogoutRequestListener(listener);
+    }
+
     @Override
     public void doFilter(final ServletRequest servletRequest, final ServletResponse servletResponse,
                          final FilterChain filterChain) throws IOException, ServletException {
@@ -105,6 +140,10 @@ public final class SingleSignOutFilter extends AbstractConfigurationFilter {
 
     @Override
     public void destroy() {
-        // nothing to do
+        super.destroy();
+        if (this.configuredStorage != null) {
+            this.configuredStorage.destroy();
+            this.configuredStorage = null;
+        }
     }
 }
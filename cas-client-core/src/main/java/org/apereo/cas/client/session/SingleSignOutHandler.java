@@ -20,6 +20,9 @@ package org.apereo.cas.client.session;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.jfr.SingleSignOutEvent;
+import org.apereo.cas.client.metrics.CasClientMetrics;
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.WebUtils;
 import org.apereo.cas.client.util.XmlUtils;
@@ -36,6 +39,7 @@ import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.zip.Inflater;
 
 /**
@@ -56,7 +60,7 @@ public final class SingleSignOutHandler {
     private final LogoutStrategy logoutStrategy = isServlet30() ? new Servlet30LogoutStrategy() : new Servlet25LogoutStrategy();
 
     /** Mapping of token IDs and session IDs to HTTP sessions */
-    private SessionMappingStorage sessionMappingStorage = new HashMapBackedSessionMappingStorage();
+    private SessionMappingStorage sessionMappingStorage = new ConcurrentSessionMappingStorage();
 
     /** The name of the artifact parameter.  This is used to capture the session identifier. */
     private String artifactParameterName = Protocol.CAS2.getArtifactParameterName();
@@ -76,6 +80,9 @@ public final class SingleSignOutHandler {
 
     private List<String> safeParameters;
 
+    /** Parties interested in logout requests, such as caches of validated assertions */
+    private final List<LogoutRequestListener> logoutRequestListeners = new CopyOnWriteArrayList<>();
+
     private static boolean isServlet30() {
         try {
             return HttpServletRequest.class.getMethod("logout") != null;
@@ -96,6 +103,20 @@ public final class SingleSignOutHandler {
         this.sessionMappingStorage = storage;
     }
 
+    /**
+     * @param listener Listener notified of every logout request received from the CAS server.
+     */
+    public void addLogoutRequestListener(final LogoutRequestListener listener) {
+        this.logoutRequestListeners.add(listener);
+    }
+
+    /**
+     * @param listener Listener previously registered through {@link #addLogoutRequestListener(LogoutRequestListener)}.
+     */
+    public void removeLogoutRequestListener(final LogoutRequestListener listener) {
+        this.logoutRequestListeners.remove(listener);
+    }
+
     /**
      * @param name Name of the authentication token parameter.
      */
@@ -162,7 +183,13 @@ public final class SingleSignOutHandler {
 
         if (isLogoutRequest(request)) {
             logger.trace("Received a logout request");
-            destroySession(request);
+            final var start = System.nanoTime();
+            var outcome = CasClientMetrics.Outcome.ERROR;
+            try {
+                outcome = destroySession(request) ? CasClientMetrics.Outcome.SUCCESS : CasClientMetrics.Outcome.FAILURE;
+            } finally {
+                CasClientMetricsHolder.getDefault().recordLogout(outcome, System.nanoTime() - start);
+            }
             return false;
         }
         logger.trace("Ignoring URI for logout: {}", request.getRequestURI());
@@ -295,15 +322,31 @@ public final class SingleSignOutHandler {
     }
 
     /**
-     * Destroys the current HTTP session for the given CAS logout request.
+     * Destroys the current HTTP session for the given CAS logout request, within a {@link SingleSignOutEvent}.
      *
      * @param request HTTP request containing a CAS logout message.
+     * @return true if a session was found for the logout message.
      */
-    private void destroySession(final HttpServletRequest request) {
+    private boolean destroySession(final HttpServletRequest request) {
+        final var event = new SingleSignOutEvent();
+        event.begin();
+        var sessionFound = false;
+        try {
+            sessionFound = invalidateSession(request);
+            return sessionFound;
+        } finally {
+            if (event.shouldCommit()) {
+                event.setSessionFound(sessionFound);
+                event.commit();
+            }
+        }
+    }
+
+    private boolean invalidateSession(final HttpServletRequest request) {
         var logoutMessage = WebUtils.safeGetParameter(request, this.logoutParameterName, this.safeParameters);
         if (CommonUtils.isBlank(logoutMessage)) {
             logger.error("Could not locate logout message of the request from {}", this.logoutParameterName);
-            return;
+            return false;
         }
 
         if (!logoutMessage.contains("SessionIndex")) {
@@ -313,6 +356,7 @@ public final class SingleSignOutHandler {
         logger.trace("Logout request:\n{}", logoutMessage);
         final var token = XmlUtils.getTextForElement(logoutMessage, "SessionIndex");
         if (CommonUtils.isNotBlank(token)) {
+            notifyLogoutRequestListeners(token);
             final var session = this.sessionMappingStorage.removeSessionByMappingId(token);
 
             if (session != null) {
@@ -325,6 +369,18 @@ public final class SingleSignOutHandler {
                     logger.debug("Error invalidating session.", e);
                 }
                 this.logoutStrategy.logout(request);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void notifyLogoutRequestListeners(final String token) {
+        for (final var listener : this.logoutRequestListeners) {
+            try {
+                listener.logoutRequestReceived(token);
+            } catch (final RuntimeException e) {
+                logger.warn("Logout request listener [{}] failed for token [{}]", listener, token, e);
             }
         }
     }
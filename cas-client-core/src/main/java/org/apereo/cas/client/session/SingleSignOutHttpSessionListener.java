@@ -19,6 +19,7 @@
 package org.apereo.cas.client.session;
 
 import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionIdListener;
 import jakarta.servlet.http.HttpSessionListener;
 
 /**
@@ -26,18 +27,20 @@ import jakarta.servlet.http.HttpSessionListener;
  * managed sessions.  Also allows for the programmatic removal of sessions.
  * <p>
  * Enables the CAS Single Sign out feature.
+ * <p>
+ * When the {@link BoundedSessionMappingStorage} is used, the session events are also forwarded to its
+ * {@link SessionLookup} if that lookup is an {@link HttpSessionListener} or an {@link HttpSessionIdListener},
+ * as the default {@link TrackingSessionLookup} is.
  *
  * Scott Battaglia
  * @version $Revision$ Date$
  * @since 3.1
  */
-public final class SingleSignOutHttpSessionListener implements HttpSessionListener {
-
-    private SessionMappingStorage sessionMappingStorage;
+public final class SingleSignOutHttpSessionListener implements HttpSessionListener, HttpSessionIdListener {
 
     /**
-     * Obtains a {@link SessionMappingStorage} object. Assumes this method will always return the same
-     * instance of the object.  It assumes this because it generally lazily calls the method.
+     * Obtains the {@link SessionMappingStorage} of the single sign-out handler.  It is not kept, as sessions may be
+     * created before the {@link SingleSignOutFilter} configures its storage.
      *
      * @return the SessionMappingStorage
      */
@@ -45,17 +48,34 @@ public final class SingleSignOutHttpSessionListener implements HttpSessionListen
         return SingleSignOutFilter.getSingleSignOutHandler().getSessionMappingStorage();
     }
 
+    private static SessionLookup getSessionLookup() {
+        final var storage = getSessionMappingStorage();
+        return storage instanceof BoundedSessionMappingStorage ? ((BoundedSessionMappingStorage) storage).getSessionLookup() : null;
+    }
+
     @Override
     public void sessionCreated(final HttpSessionEvent event) {
-        // nothing to do at the moment
+        final var lookup = getSessionLookup();
+        if (lookup instanceof HttpSessionListener) {
+            ((HttpSessionListener) lookup).sessionCreated(event);
+        }
     }
 
     @Override
     public void sessionDestroyed(final HttpSessionEvent event) {
-        if (sessionMappingStorage == null) {
-            sessionMappingStorage = getSessionMappingStorage();
-        }
         final var session = event.getSession();
-        sessionMappingStorage.removeBySessionById(session.getId());
+        getSessionMappingStorage().removeBySessionById(session.getId());
+        final var lookup = getSessionLookup();
+        if (lookup instanceof HttpSessionListener) {
+            ((HttpSessionListener) lookup).sessionDestroyed(event);
+        }
+    }
+
+    @Override
+    public void sessionIdChanged(final HttpSessionEvent event, final String oldSessionId) {
+        final var lookup = getSessionLookup();
+        if (lookup instanceof HttpSessionIdListener) {
+            ((HttpSessionIdListener) lookup).sessionIdChanged(event, oldSessionId);
+        }
     }
 }
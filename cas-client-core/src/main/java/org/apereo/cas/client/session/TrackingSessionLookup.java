@@ -0,0 +1,73 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionIdListener;
+import jakarta.servlet.http.HttpSessionListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link SessionLookup} that finds the sessions the container reported created and not yet destroyed.
+ * <p>
+ * It is the default lookup of the {@link BoundedSessionMappingStorage}, and is kept up to date by the
+ * {@link SingleSignOutHttpSessionListener} required for single sign-out, which forwards the session events it
+ * receives to the lookup of the storage when that lookup is an {@link HttpSessionListener}.  Sessions are held from
+ * their creation to their destruction, as the container holds them; a lookup backed by the session manager of the
+ * container is preferable when sessions are passivated or replicated to other nodes.
+ *
+ * @since 4.0.4
+ */
+public final class TrackingSessionLookup implements SessionLookup, HttpSessionListener, HttpSessionIdListener {
+
+    private final ConcurrentMap<String, HttpSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public HttpSession findSession(final String sessionId) {
+        return sessionId == null ? null : this.sessions.get(sessionId);
+    }
+
+    @Override
+    public void sessionCreated(final HttpSessionEvent event) {
+        final var session = event.getSession();
+        this.sessions.put(session.getId(), session);
+    }
+
+    @Override
+    public void sessionDestroyed(final HttpSessionEvent event) {
+        this.sessions.remove(event.getSession().getId());
+    }
+
+    @Override
+    public void sessionIdChanged(final HttpSessionEvent event, final String oldSessionId) {
+        final var session = event.getSession();
+        this.sessions.remove(oldSessionId);
+        this.sessions.put(session.getId(), session);
+    }
+
+    /**
+     * @return the number of sessions currently tracked.
+     */
+    public int size() {
+        return this.sessions.size();
+    }
+}
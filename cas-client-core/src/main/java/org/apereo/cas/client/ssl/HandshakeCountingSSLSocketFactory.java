@@ -0,0 +1,130 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SSLSocketFactory} decorator that counts full and resumed TLS handshakes of the sockets it creates.
+ * <p>
+ * The sockets of the delegate are returned as they are, so that {@link HttpsURLConnection} still sets them up
+ * itself, i.e. for SNI; a {@link HandshakeCompletedListener} is only registered on them.  A handshake is considered
+ * resumed when the negotiated session was created before the socket itself.  The JDK notifies the listener on a
+ * thread of its own once the handshake is done, so the counts may lag slightly behind the connections.
+ *
+ * @since 4.0.4
+ */
+final class HandshakeCountingSSLSocketFactory extends SSLSocketFactory {
+
+    private final SSLSocketFactory delegate;
+
+    private final LongAdder fullHandshakes;
+
+    private final LongAdder resumedHandshakes;
+
+    HandshakeCountingSSLSocketFactory(final SSLSocketFactory delegate, final LongAdder fullHandshakes,
+                                      final LongAdder resumedHandshakes) {
+        this.delegate = delegate;
+        this.fullHandshakes = fullHandshakes;
+        this.resumedHandshakes = resumedHandshakes;
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+        return this.delegate.getDefaultCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return this.delegate.getSupportedCipherSuites();
+    }
+
+    @Override
+    public Socket createSocket() throws IOException {
+        return countHandshakes(this.delegate.createSocket());
+    }
+
+    @Override
+    public Socket createSocket(final Socket socket, final String host, final int port, final boolean autoClose)
+        throws IOException {
+        return countHandshakes(this.delegate.createSocket(socket, host, port, autoClose));
+    }
+
+    @Override
+    public Socket createSocket(final Socket socket, final InputStream consumed, final boolean autoClose)
+        throws IOException {
+        return countHandshakes(this.delegate.createSocket(socket, consumed, autoClose));
+    }
+
+    @Override
+    public Socket createSocket(final String host, final int port) throws IOException {
+        return countHandshakes(this.delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(final String host, final int port, final InetAddress localHost, final int localPort)
+        throws IOException {
+        return countHandshakes(this.delegate.createSocket(host, port, localHost, localPort));
+    }
+
+    @Override
+    public Socket createSocket(final InetAddress host, final int port) throws IOException {
+        return countHandshakes(this.delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(final InetAddress address, final int port, final InetAddress localAddress,
+                               final int localPort) throws IOException {
+        return countHandshakes(this.delegate.createSocket(address, port, localAddress, localPort));
+    }
+
+    private Socket countHandshakes(final Socket socket) {
+        if (socket instanceof SSLSocket) {
+            ((SSLSocket) socket).addHandshakeCompletedListener(new HandshakeCounter(System.currentTimeMillis()));
+        }
+        return socket;
+    }
+
+    private final class HandshakeCounter implements HandshakeCompletedListener {
+
+        private final long socketCreationTime;
+
+        private HandshakeCounter(final long socketCreationTime) {
+            this.socketCreationTime = socketCreationTime;
+        }
+
+        @Override
+        public void handshakeCompleted(final HandshakeCompletedEvent event) {
+            if (event.getSession().getCreationTime() < this.socketCreationTime) {
+                resumedHandshakes.increment();
+            } else {
+                fullHandshakes.increment();
+            }
+        }
+    }
+}
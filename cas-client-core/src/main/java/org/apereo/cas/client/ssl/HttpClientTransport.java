@@ -0,0 +1,428 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import org.apereo.cas.client.jfr.ValidationPhases;
+import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.util.ResponseSizeExceededException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Back-channel transport to the CAS server built on {@link HttpClient}.
+ * <p>
+ * Unlike {@link HttpURLConnectionFactory}, which opens and tears down a connection for every request, a single
+ * {@link HttpClient} is shared by all requests made through this transport, so connections to the CAS server are
+ * kept alive and reused and, when the server supports it, requests are multiplexed over HTTP/2.  Response bodies
+ * are read in bulk rather than one character at a time.
+ * <p>
+ * The SSL context is taken from the {@link HttpsURLConnectionFactory} the transport is created with.
+ * {@link HttpClient} always performs standard HTTPS endpoint identification; a custom
+ * {@link javax.net.ssl.HostnameVerifier} configured on the factory is not applied.
+ *
+ * @since 4.0.4
+ */
+public final class HttpClientTransport implements Serializable {
+
+    /** Default connect timeout, in milliseconds. */
+    public static final long DEFAULT_CONNECT_TIMEOUT = 5000L;
+
+    /** Default read timeout, in milliseconds. */
+    public static final long DEFAULT_READ_TIMEOUT = 10000L;
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientTransport.class);
+
+    /** Guards rebuilding of clients; clients are rarely rebuilt, so a single lock that does not pin virtual threads suffices. */
+    private static final ReentrantLock HTTP_CLIENT_LOCK = new ReentrantLock();
+
+    private final HttpsURLConnectionFactory sslConfiguration;
+
+    private long connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+
+    private long readTimeout = DEFAULT_READ_TIMEOUT;
+
+    private HttpClient.Version version = HttpClient.Version.HTTP_2;
+
+    private transient volatile CachedHttpClient httpClient;
+
+    public HttpClientTransport() {
+        this(new HttpsURLConnectionFactory());
+    }
+
+    /**
+     * @param sslConfiguration factory whose SSL configuration is used for <i>https</i> requests.
+     */
+    public HttpClientTransport(final HttpsURLConnectionFactory sslConfiguration) {
+        CommonUtils.assertNotNull(sslConfiguration, "sslConfiguration cannot be null.");
+        this.sslConfiguration = sslConfiguration;
+    }
+
+    /**
+     * Sends a <code>GET</code> request and returns the response body.
+     *
+     * @param url the url to contact.
+     * @param charset the charset of the response, or null for the platform default.
+     * @return the response body.
+     * @throws IOException if the request fails or the server responds with an error status.
+     */
+    public String get(final URL url, final Charset charset) throws IOException {
+        return get(url, charset, Long.MAX_VALUE);
+    }
+
+    /**
+     * Sends a <code>GET</code> request and returns the response body, failing with a
+     * {@link ResponseSizeExceededException} as soon as more than the given number of bytes have been received.
+     *
+     * @param url the url to contact.
+     * @param charset the charset of the response, or null for the platform default.
+     * @param maxResponseSize the maximum size of the response body, in bytes.
+     * @return the response body.
+     * @throws IOException if the request fails, the server responds with an error status or the body is too large.
+     * @since 4.0.4
+     */
+    public String get(final URL url, final Charset charset, final long maxResponseSize) throws IOException {
+        return send(newRequest(url, Collections.emptyMap()).GET().build(), url, charset, maxResponseSize);
+    }
+
+    /**
+     * Sends a <code>GET</code> request and returns the response body as a stream, without reading it.
+     *
+     * @param url the url to contact.
+     * @return the response body, which the caller must close.
+     * @throws IOException if the request fails or the server responds with an error status.
+     * @since 4.0.4
+     */
+    public InputStream getStream(final URL url) throws IOException {
+        final HttpResponse<InputStream> response;
+        try {
+            response = getHttpClient().send(newRequest(url, Collections.emptyMap()).GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + url);
+        }
+        final var phases = ValidationPhases.current();
+        if (phases != null) {
+            phases.firstByteReceived();
+        }
+        if (response.statusCode() >= 400) {
+            response.body().close();
+            throw new IOException("Server returned HTTP response code: " + response.statusCode() + " for URL: " + url);
+        }
+        LOGGER.trace("Receiving response from [{}] over [{}]", url, response.version());
+        return response.body();
+    }
+
+    /**
+     * Sends a <code>POST</code> request and returns the response body.
+     *
+     * @param url the url to contact.
+     * @param headers the request headers.
+     * @param body the request body.
+     * @param charset the charset of the response, or null for the platform default.
+     * @return the response body.
+     * @throws IOException if the request fails or the server responds with an error status.
+     */
+    public String post(final URL url, final Map<String, String> headers, final byte[] body,
+                       final Charset charset) throws IOException {
+        return send(newRequest(url, headers).POST(HttpRequest.BodyPublishers.ofByteArray(body)).build(), url, charset,
+            Long.MAX_VALUE);
+    }
+
+    /**
+     * Sends a <code>GET</code> request without blocking the calling thread.
+     *
+     * @param url the url to contact.
+     * @param charset the charset of the response, or null for the platform default.
+     * @return a future completed with the response body, or completed exceptionally with an {@link IOException}
+     * if the request fails or the server responds with an error status.
+     */
+    public CompletableFuture<String> getAsync(final URL url, final Charset charset) {
+        return getAsync(url, charset, Long.MAX_VALUE);
+    }
+
+    /**
+     * Sends a <code>GET</code> request without blocking the calling thread, failing with a
+     * {@link ResponseSizeExceededException} as soon as more than the given number of bytes have been received.
+     *
+     * @param url the url to contact.
+     * @param charset the charset of the response, or null for the platform default.
+     * @param maxResponseSize the maximum size of the response body, in bytes.
+     * @return a future completed with the response body, or completed exceptionally with an {@link IOException}
+     * if the request fails, the server responds with an error status or the body is too large.
+     * @since 4.0.4
+     */
+    public CompletableFuture<String> getAsync(final URL url, final Charset charset, final long maxResponseSize) {
+        try {
+            return sendAsync(newRequest(url, Collections.emptyMap()).GET().build(), url, charset, maxResponseSize);
+        } catch (final IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Sends a <code>POST</code> request without blocking the calling thread.
+     *
+     * @param url the url to contact.
+     * @param headers the request headers.
+     * @param body the request body.
+     * @param charset the charset of the response, or null for the platform default.
+     * @return a future completed with the response body, or completed exceptionally with an {@link IOException}
+     * if the request fails or the server responds with an error status.
+     */
+    public CompletableFuture<String> postAsync(final URL url, final Map<String, String> headers, final byte[] body,
+                                               final Charset charset) {
+        try {
+            return sendAsync(newRequest(url, headers).POST(HttpRequest.BodyPublishers.ofByteArray(body)).build(),
+                url, charset, Long.MAX_VALUE);
+        } catch (final IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public void setConnectTimeout(final long connectTimeout) {
+        CommonUtils.assertTrue(connectTimeout > 0, "connectTimeout must be greater than zero.");
+        this.connectTimeout = connectTimeout;
+    }
+
+    public void setReadTimeout(final long readTimeout) {
+        CommonUtils.assertTrue(readTimeout > 0, "readTimeout must be greater than zero.");
+        this.readTimeout = readTimeout;
+    }
+
+    public void setVersion(final HttpClient.Version version) {
+        CommonUtils.assertNotNull(version, "version cannot be null.");
+        this.version = version;
+    }
+
+    public long getConnectTimeout() {
+        return this.connectTimeout;
+    }
+
+    public long getReadTimeout() {
+        return this.readTimeout;
+    }
+
+    public HttpClient.Version getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @return the shared client, created on first use and rebuilt when the SSL context is reloaded.
+     */
+    public HttpClient getHttpClient() {
+        final var sslContext = this.sslConfiguration.getSSLContext();
+        var cached = this.httpClient;
+        if (cached == null || cached.sslContext != sslContext) {
+            HTTP_CLIENT_LOCK.lock();
+            try {
+                cached = this.httpClient;
+                if (cached == null || cached.sslContext != sslContext) {
+                    cached = new CachedHttpClient(sslContext, buildHttpClient(sslContext));
+                    this.httpClient = cached;
+                }
+            } finally {
+                HTTP_CLIENT_LOCK.unlock();
+            }
+        }
+        return cached.httpClient;
+    }
+
+    private HttpClient buildHttpClient(final SSLContext sslContext) {
+        final var builder = HttpClient.newBuilder()
+            .version(this.version)
+            .connectTimeout(Duration.ofMillis(this.connectTimeout))
+            .followRedirects(HttpClient.Redirect.NEVER);
+        if (sslContext != null) {
+            builder.sslContext(sslContext);
+        }
+        if (this.sslConfiguration.hostnameVerifier != null
+            && this.sslConfiguration.hostnameVerifier != HttpsURLConnection.getDefaultHostnameVerifier()) {
+            LOGGER.warn("Hostname verifier [{}] is not supported by the HttpClient transport; "
+                        + "standard HTTPS endpoint identification applies", this.sslConfiguration.hostnameVerifier);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest.Builder newRequest(final URL url, final Map<String, String> headers) throws IOException {
+        try {
+            final var builder = HttpRequest.newBuilder(url.toURI()).timeout(Duration.ofMillis(this.readTimeout));
+            headers.forEach(builder::header);
+            return builder;
+        } catch (final URISyntaxException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private String send(final HttpRequest request, final URL url, final Charset charset,
+                        final long maxResponseSize) throws IOException {
+        final var phases = ValidationPhases.current();
+        final HttpResponse.BodyHandler<byte[]> bodyHandler = responseInfo -> {
+            // invoked once the response headers have been received
+            if (phases != null) {
+                phases.firstByteReceived();
+            }
+            return newBodySubscriber(maxResponseSize);
+        };
+        final HttpResponse<byte[]> response;
+        try {
+            response = getHttpClient().send(request, bodyHandler);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + url);
+        }
+        final var body = readBody(response, url, charset);
+        if (phases != null) {
+            phases.bodyRead();
+        }
+        return body;
+    }
+
+    private CompletableFuture<String> sendAsync(final HttpRequest request, final URL url, final Charset charset,
+                                                final long maxResponseSize) {
+        return getHttpClient().sendAsync(request, responseInfo -> newBodySubscriber(maxResponseSize))
+            .thenApply(response -> {
+                try {
+                    return readBody(response, url, charset);
+                } catch (final IOException e) {
+                    throw new CompletionException(e);
+                }
+            });
+    }
+
+    private static HttpResponse.BodySubscriber<byte[]> newBodySubscriber(final long maxResponseSize) {
+        final var body = HttpResponse.BodySubscribers.ofByteArray();
+        return maxResponseSize == Long.MAX_VALUE ? body : new BoundedBodySubscriber(body, maxResponseSize);
+    }
+
+    private static String readBody(final HttpResponse<byte[]> response, final URL url,
+                                   final Charset charset) throws IOException {
+        if (response.statusCode() >= 400) {
+            throw new IOException("Server returned HTTP response code: " + response.statusCode() + " for URL: " + url);
+        }
+        LOGGER.trace("Received response from [{}] over [{}]", url, response.version());
+        return new String(response.body(), charset != null ? charset : Charset.defaultCharset());
+    }
+
+    /**
+     * Cancels the response once more than a maximum number of bytes have been received, rather than buffering all of
+     * it first.
+     */
+    private static final class BoundedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+        private final HttpResponse.BodySubscriber<byte[]> body;
+
+        private final long maxSize;
+
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+        private Flow.Subscription subscription;
+
+        private long count;
+
+        BoundedBodySubscriber(final HttpResponse.BodySubscriber<byte[]> body, final long maxSize) {
+            this.body = body;
+            this.maxSize = maxSize;
+            body.getBody().whenComplete((bytes, e) -> {
+                if (e == null) {
+                    this.result.complete(bytes);
+                } else {
+                    this.result.completeExceptionally(e);
+                }
+            });
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return this.result;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            this.body.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(final List<ByteBuffer> item) {
+            if (this.result.isDone()) {
+                return;
+            }
+            for (final var buffer : item) {
+                this.count += buffer.remaining();
+            }
+            if (this.count > this.maxSize) {
+                this.subscription.cancel();
+                this.result.completeExceptionally(new ResponseSizeExceededException(this.maxSize));
+                return;
+            }
+            this.body.onNext(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            this.body.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            this.body.onComplete();
+        }
+    }
+
+    private static final class CachedHttpClient {
+
+        private final SSLContext sslContext;
+
+        private final HttpClient httpClient;
+
+        private CachedHttpClient(final SSLContext sslContext, final HttpClient httpClient) {
+            this.sslContext = sslContext;
+            this.httpClient = httpClient;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -42,11 +43,21 @@ import java.security.KeyStore;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
 import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * An implementation of the {@link HttpURLConnectionFactory} whose responsible to configure
  * the underlying <i>https</i> connection, if needed, with a given hostname and SSL socket factory based on the
  * configuration provided. 
+ * <p>
+ * The SSL socket factory is built once and shared by every connection, so that TLS sessions can be resumed and
+ * kept-alive connections reused.  It is rebuilt when the SSL configuration is replaced or when the modification
+ * time of the configured key store changes, which is checked at most every <code>keyStoreCheckInterval</code>
+ * milliseconds (10 seconds by default).  The numbers of full and resumed TLS handshakes are counted.
+ * <p>
+ * Without an SSL configuration, connections are left to the JVM defaults, i.e.
+ * {@link HttpsURLConnection#getDefaultSSLSocketFactory()}, and their handshakes are not counted.
  *
  * @author Misagh Moayyed
  * @since 3.3
@@ -60,6 +71,11 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpsURLConnectionFactory.class);
 
+    private static final HostnameVerifier ANY_HOSTNAME_VERIFIER = new AnyHostnameVerifier();
+
+    /** Default minimum time, in milliseconds, between checks of the key store modification time. */
+    private static final long DEFAULT_KEY_STORE_CHECK_INTERVAL = 10_000L;
+
     /**
      * Hostname verifier used when making an SSL request to the CAS server.
      * Defaults to {@link HttpsURLConnection#getDefaultHostnameVerifier()}
@@ -71,6 +87,17 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
      */
     public Properties sslConfiguration = new Properties();
 
+    private transient volatile CachedSSLContext cachedSSLContext;
+
+    /** Guards reloads of the SSL context, which read the key store; a lock rather than a monitor does not pin virtual threads. */
+    private transient ReentrantLock cachedSSLContextLock = new ReentrantLock();
+
+    private transient LongAdder sslContextLoads = new LongAdder();
+
+    private transient LongAdder fullHandshakes = new LongAdder();
+
+    private transient LongAdder resumedHandshakes = new LongAdder();
+
     public HttpsURLConnectionFactory() {
     }
 
@@ -81,6 +108,7 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
 
     public final void setSSLConfiguration(final Properties config) {
         this.sslConfiguration = config;
+        this.cachedSSLContext = null;
     }
 
     /**
@@ -99,6 +127,41 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
         return this.configureHttpsConnectionIfNeeded(url);
     }
 
+    /**
+     * Returns the SSL context built from the SSL configuration, reloading it first if the key store changed.
+     *
+     * @return the {@link SSLContext}, or null if the configuration does not call for one, in which case
+     * the JVM defaults apply.
+     * @since 4.0.4
+     */
+    public SSLContext getSSLContext() {
+        return getCachedSSLContext().sslContext;
+    }
+
+    /**
+     * @return number of times the SSL context was built from the SSL configuration.
+     * @since 4.0.4
+     */
+    public long getSSLContextLoads() {
+        return this.sslContextLoads.sum();
+    }
+
+    /**
+     * @return number of full TLS handshakes performed by connections configured by this factory with an SSL context.
+     * @since 4.0.4
+     */
+    public long getFullHandshakes() {
+        return this.fullHandshakes.sum();
+    }
+
+    /**
+     * @return number of TLS handshakes that resumed an existing session.
+     * @since 4.0.4
+     */
+    public long getResumedHandshakes() {
+        return this.resumedHandshakes.sum();
+    }
+
     @Override
     public int hashCode() {
         var result = hostnameVerifier.hashCode();
@@ -137,13 +200,13 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
     private HttpURLConnection configureHttpsConnectionIfNeeded(final URLConnection conn) {
         if (conn instanceof HttpsURLConnection) {
             final var httpsConnection = (HttpsURLConnection) conn;
-            final var socketFactory = this.createSSLSocketFactory();
+            final var socketFactory = getCachedSSLContext().socketFactory;
             if (socketFactory != null) {
                 httpsConnection.setSSLSocketFactory(socketFactory);
             }
 
             if (isIgnoreSslFailures()) {
-                httpsConnection.setHostnameVerifier(new AnyHostnameVerifier());
+                httpsConnection.setHostnameVerifier(ANY_HOSTNAME_VERIFIER);
             } else if (this.hostnameVerifier != null) {
                 httpsConnection.setHostnameVerifier(this.hostnameVerifier);
             }
@@ -155,8 +218,54 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
         return this.sslConfiguration.getProperty("ignoreSslFailures", "false").equalsIgnoreCase("true");
     }
 
+    private CachedSSLContext getCachedSSLContext() {
+        final var configuration = this.sslConfiguration;
+        final var now = System.currentTimeMillis();
+        var cached = this.cachedSSLContext;
+        if (cached != null && cached.configuration == configuration && now < cached.nextKeyStoreCheck) {
+            return cached;
+        }
+        final var keyStoreLastModified = getKeyStoreLastModified(configuration);
+        final var nextKeyStoreCheck = now + getKeyStoreCheckInterval(configuration);
+        if (cached != null && cached.isCurrent(configuration, keyStoreLastModified)) {
+            cached.nextKeyStoreCheck = nextKeyStoreCheck;
+        } else {
+            this.cachedSSLContextLock.lock();
+            try {
+                cached = this.cachedSSLContext;
+                if (cached == null || !cached.isCurrent(configuration, keyStoreLastModified)) {
+                    if (cached != null) {
+                        LOGGER.info("SSL configuration or key store changed; reloading the SSL context");
+                    }
+                    final var sslContext = createSSLContext();
+                    final var socketFactory = sslContext != null
+                        ? new HandshakeCountingSSLSocketFactory(sslContext.getSocketFactory(), this.fullHandshakes,
+                            this.resumedHandshakes)
+                        : null;
+                    cached = new CachedSSLContext(configuration, keyStoreLastModified, sslContext, socketFactory,
+                        nextKeyStoreCheck);
+                    this.cachedSSLContext = cached;
+                    this.sslContextLoads.increment();
+                }
+            } finally {
+                this.cachedSSLContextLock.unlock();
+            }
+        }
+        return cached;
+    }
+
+    private static long getKeyStoreLastModified(final Properties configuration) {
+        final var keyStorePath = configuration.getProperty("keyStorePath");
+        return keyStorePath != null ? new File(keyStorePath).lastModified() : 0L;
+    }
+
+    private static long getKeyStoreCheckInterval(final Properties configuration) {
+        final var interval = configuration.getProperty("keyStoreCheckInterval");
+        return interval != null ? Long.parseLong(interval.trim()) : DEFAULT_KEY_STORE_CHECK_INTERVAL;
+    }
+
     /**
-     * Creates a {@link SSLSocketFactory} based on the configuration specified
+     * Creates a {@link SSLContext} based on the configuration specified
      * <p>
      * Sample properties file:
      * <pre>
@@ -166,9 +275,9 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
      * keyStorePass=changeit
      * certificatePassword=aGoodPass
      * </pre>
-     * @return the {@link SSLSocketFactory}
+     * @return the {@link SSLContext}, or null if the JVM defaults apply
      */
-    private SSLSocketFactory createSSLSocketFactory() {
+    private SSLContext createSSLContext() {
         InputStream keyStoreIS = null;
 
         try {
@@ -186,7 +295,7 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
                     }
                 }};
                 sslContext.init(null, trustAllCerts, new SecureRandom());
-                return sslContext.getSocketFactory();
+                return sslContext;
             }
 
             if (this.sslConfiguration.getProperty("keyStoreType") != null) {
@@ -200,7 +309,7 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
                                 .getProperty("keyManagerType", "SunX509"));
                         keyManager.init(keyStore, this.sslConfiguration.getProperty("certificatePassword").toCharArray());
                         sslContext.init(keyManager.getKeyManagers(), null, null);
-                        return sslContext.getSocketFactory();
+                        return sslContext;
                     }
                 }
             }
@@ -235,5 +344,38 @@ public final class HttpsURLConnectionFactory implements HttpURLConnectionFactory
         }
 
         this.sslConfiguration = (Properties) in.readObject();
+        this.cachedSSLContextLock = new ReentrantLock();
+        this.sslContextLoads = new LongAdder();
+        this.fullHandshakes = new LongAdder();
+        this.resumedHandshakes = new LongAdder();
+    }
+
+    private static final class CachedSSLContext {
+
+        private final Properties configuration;
+
+        private final long keyStoreLastModified;
+
+        private final SSLContext sslContext;
+
+        /** null when the JVM defaults apply. */
+        private final SSLSocketFactory socketFactory;
+
+        /** Time before which the key store modification time is not checked again. */
+        private volatile long nextKeyStoreCheck;
+
+        private CachedSSLContext(final Properties configuration, final long keyStoreLastModified,
+                                 final SSLContext sslContext, final SSLSocketFactory socketFactory,
+                                 final long nextKeyStoreCheck) {
+            this.configuration = configuration;
+            this.keyStoreLastModified = keyStoreLastModified;
+            this.sslContext = sslContext;
+            this.socketFactory = socketFactory;
+            this.nextKeyStoreCheck = nextKeyStoreCheck;
+        }
+
+        private boolean isCurrent(final Properties configuration, final long keyStoreLastModified) {
+            return this.configuration == configuration && this.keyStoreLastModified == keyStoreLastModified;
+        }
     }
 }
@@ -88,12 +88,6 @@ public abstract class AbstractCasFilter extends AbstractConfigurationFilter {
             "serverName and service cannot both be set.  You MUST ONLY set one.");
     }
 
-    // empty implementation as most filters won't need this.
-    @Override
-    public void destroy() {
-        // nothing to do
-    }
-
     /**
      * Note that trailing slashes should not be used in the serverName.  As a convenience for this common misconfiguration, we strip them from the provided
      * value.
@@ -19,8 +19,11 @@
 package org.apereo.cas.client.util;
 
 import org.apereo.cas.client.configuration.ConfigurationKey;
+import org.apereo.cas.client.configuration.ConfigurationKeys;
 import org.apereo.cas.client.configuration.ConfigurationStrategy;
 import org.apereo.cas.client.configuration.ConfigurationStrategyName;
+import org.apereo.cas.client.metrics.CasClientMetrics;
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
 
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterConfig;
@@ -45,11 +48,32 @@ public abstract class AbstractConfigurationFilter implements Filter {
 
     private ConfigurationStrategy configurationStrategy;
 
+    private CasClientMetrics installedMetrics;
+
     @Override
     public void init(final FilterConfig filterConfig) throws ServletException {
         final var configurationStrategyName = filterConfig.getServletContext().getInitParameter(CONFIGURATION_STRATEGY_KEY);
         this.configurationStrategy = ReflectUtils.newInstance(ConfigurationStrategyName.resolveToConfigurationStrategy(configurationStrategyName));
         this.configurationStrategy.init(filterConfig, getClass());
+
+        if (!this.ignoreInitConfiguration) {
+            final Class<? extends CasClientMetrics> metricsClass = getClass(ConfigurationKeys.METRICS_CLASS);
+            if (metricsClass != null) {
+                CasClientMetricsHolder.release(this.installedMetrics);
+                this.installedMetrics = CasClientMetricsHolder.install(metricsClass);
+                logger.debug("Reporting metrics to {}", this.installedMetrics);
+            }
+        }
+    }
+
+    /**
+     * Releases the metrics installed from the configuration of this filter, if any.  Subclasses overriding this
+     * method should call it.
+     */
+    @Override
+    public void destroy() {
+        CasClientMetricsHolder.release(this.installedMetrics);
+        this.installedMetrics = null;
     }
 
     protected final boolean getBoolean(final ConfigurationKey<Boolean> configurationKey) {
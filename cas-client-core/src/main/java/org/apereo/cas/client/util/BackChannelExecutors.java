@@ -0,0 +1,113 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holder of the executor that runs blocking back-channel calls to the CAS server on behalf of asynchronous callers,
+ * such as {@link org.apereo.cas.client.validation.TicketValidator#validateAsync(String, String)}.
+ * <p>
+ * The default executor is a pool of at most {@link #DEFAULT_MAX_THREADS} daemon threads, generous since its tasks
+ * spend most of their time waiting on the network rather than using the CPU.  Further calls wait in a queue, and idle
+ * threads stop after a minute.  On a JDK with virtual threads (21 or later), {@link #getVirtualThreadExecutor()}
+ * offers a thread-per-task executor of virtual threads instead; since the client is compiled for Java 17 it is looked
+ * up reflectively, and the default executor is used where virtual threads are not available.
+ * <p>
+ * Synchronous callers call the CAS server on their own thread: handing a blocking call to another thread only to wait
+ * for it gains nothing.
+ *
+ * @since 4.0.4
+ */
+public final class BackChannelExecutors {
+
+    /** Maximum number of threads of the default executor. */
+    public static final int DEFAULT_MAX_THREADS = 64;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackChannelExecutors.class);
+
+    private BackChannelExecutors() {
+        // static holder
+    }
+
+    /**
+     * @return the shared executor for blocking back-channel calls.
+     */
+    public static ExecutorService getDefault() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    /**
+     * @return true if the running JDK supports virtual threads.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreadHolder.EXECUTOR != null;
+    }
+
+    /**
+     * @return the shared executor starting a new virtual thread per task, or {@link #getDefault()} if the running JDK
+     * does not support virtual threads.
+     */
+    public static ExecutorService getVirtualThreadExecutor() {
+        if (VirtualThreadHolder.EXECUTOR == null) {
+            return getDefault();
+        }
+        return VirtualThreadHolder.EXECUTOR;
+    }
+
+    private static final class VirtualThreadHolder {
+
+        private static final ExecutorService EXECUTOR = newVirtualThreadExecutor();
+
+        private static ExecutorService newVirtualThreadExecutor() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (final ReflectiveOperationException e) {
+                LOGGER.debug("Virtual threads are not supported by this JDK");
+                return null;
+            }
+        }
+    }
+
+    private static final class DefaultExecutorHolder {
+
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        private static final ExecutorService EXECUTOR = newExecutor();
+
+        private static ExecutorService newExecutor() {
+            final var executor = new ThreadPoolExecutor(DEFAULT_MAX_THREADS, DEFAULT_MAX_THREADS, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    final var thread = new Thread(runnable, "cas-client-back-channel-" + THREAD_COUNT.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
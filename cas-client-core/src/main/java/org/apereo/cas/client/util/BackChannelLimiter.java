@@ -0,0 +1,343 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import java.net.URI;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of concurrent back-channel calls made to a single CAS server.
+ * <p>
+ * A limiter lives as long as the filter or validator that created it; a validation filter shares its limiter between its
+ * ticket validator and its proxy retriever, so that both draw from the same permits.  Calls that find no permit
+ * available wait in a single queue, blocking and asynchronous calls alike, and a released
+ * permit is handed to the first of them.  Waiting for a permit parks the calling thread rather than holding a monitor,
+ * so a virtual thread waiting for a permit does not pin its carrier thread, and gives up after the
+ * {@link #getWaitTimeout() wait timeout}.  Asynchronous calls do not wait on any
+ * thread, and are started on their executor once handed a permit; those completed or cancelled while still queued,
+ * for instance when the request timed out, are dropped from the queue without ever calling the server.
+ *
+ * @since 4.0.4
+ */
+public final class BackChannelLimiter {
+
+    /** Value of the concurrency limit meaning that calls are not limited. */
+    public static final int UNLIMITED = 0;
+
+    /** Default time a blocking call waits for a permit, in milliseconds. */
+    public static final long DEFAULT_WAIT_TIMEOUT = 10000L;
+
+    private final String server;
+
+    private final int maxConcurrency;
+
+    private final long waitTimeout;
+
+    private final Semaphore permits;
+
+    /** Calls waiting for a permit, in the order they arrived. */
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder waits = new LongAdder();
+
+    /**
+     * @param serverUrl the URL, or URL prefix, of the CAS server.
+     * @param maxConcurrency the maximum number of concurrent calls to the server.
+     * @param waitTimeout the time a blocking call waits for a permit, in milliseconds.
+     */
+    public BackChannelLimiter(final String serverUrl, final int maxConcurrency, final long waitTimeout) {
+        CommonUtils.assertNotNull(serverUrl, "serverUrl cannot be null.");
+        CommonUtils.assertTrue(maxConcurrency > UNLIMITED, "maxConcurrency must be greater than zero.");
+        CommonUtils.assertTrue(waitTimeout > 0, "waitTimeout must be greater than zero.");
+        this.server = getServerKey(serverUrl);
+        this.maxConcurrency = maxConcurrency;
+        this.waitTimeout = waitTimeout;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Creates a limiter for the given server, unless calls to it are not limited.
+     *
+     * @param serverUrl the URL, or URL prefix, of the CAS server.
+     * @param maxConcurrency the maximum number of concurrent calls to the server.
+     * @param waitTimeout the time a blocking call waits for a permit, in milliseconds.
+     * @return the limiter, or null if <code>maxConcurrency</code> is {@link #UNLIMITED} or less.
+     */
+    public static BackChannelLimiter create(final String serverUrl, final int maxConcurrency, final long waitTimeout) {
+        return maxConcurrency <= UNLIMITED ? null : new BackChannelLimiter(serverUrl, maxConcurrency, waitTimeout);
+    }
+
+    private static String getServerKey(final String serverUrl) {
+        try {
+            final var uri = URI.create(serverUrl);
+            if (uri.getHost() != null) {
+                return uri.getScheme() + "://" + uri.getHost() + ':' + uri.getPort();
+            }
+        } catch (final IllegalArgumentException e) {
+            // not a valid URI; use the value as given
+        }
+        return serverUrl;
+    }
+
+    /**
+     * Runs the blocking call once a permit is available.
+     *
+     * @param call the call to the CAS server.
+     * @param <T> the type of result.
+     * @return the result of the call.
+     * @throws IllegalStateException if no permit became available within the wait timeout, or the thread is
+     * interrupted while waiting for one.
+     */
+    public <T> T call(final Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Starts the non-blocking call once a permit is available, holding the permit until the returned future completes.
+     * If no permit is immediately available, the call is queued without blocking any thread, and started on the given
+     * executor once a permit is released to it.  Completing or cancelling the returned future while the call is still
+     * queued drops it from the queue.
+     *
+     * @param call starts the call to the CAS server.
+     * @param executor starts the call once it is handed a permit.
+     * @param <T> the type of result.
+     * @return the future result of the call.
+     */
+    public <T> CompletableFuture<T> callAsync(final Supplier<CompletableFuture<T>> call, final Executor executor) {
+        if (this.permits.tryAcquire()) {
+            return start(call);
+        }
+        final var result = new CompletableFuture<T>();
+        final var waiter = new Waiter(() -> handOff(call, executor, result));
+        if (enqueue(waiter)) {
+            complete(start(call), result);
+            return result;
+        }
+        result.whenComplete((value, e) -> {
+            if (waiter.abandon()) {
+                this.waiters.remove(waiter);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Starts a queued call on its executor with the permit handed to it, rather than on the thread releasing the permit.
+     */
+    private <T> void handOff(final Supplier<CompletableFuture<T>> call, final Executor executor,
+                             final CompletableFuture<T> result) {
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) {
+                    // given up on while the call was being handed over
+                    release();
+                } else {
+                    complete(start(call), result);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            release();
+            result.completeExceptionally(e);
+        }
+    }
+
+    private static <T> void complete(final CompletableFuture<T> future, final CompletableFuture<T> result) {
+        future.whenComplete((value, e) -> {
+            if (e == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> start(final Supplier<CompletableFuture<T>> call) {
+        final CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (final RuntimeException e) {
+            release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, e) -> release());
+    }
+
+    /**
+     * Hands the permit to the first queued call still waiting, if any, or else returns it to the semaphore.
+     */
+    private void release() {
+        if (grantNext()) {
+            return;
+        }
+        this.permits.release();
+        // a call queued after the queue was found empty may have missed the permit
+        while (!this.waiters.isEmpty() && this.permits.tryAcquire()) {
+            if (!grantNext()) {
+                this.permits.release();
+            }
+        }
+    }
+
+    private boolean grantNext() {
+        for (var waiter = this.waiters.poll(); waiter != null; waiter = this.waiters.poll()) {
+            if (waiter.grant()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queues a call that found no permit available.
+     *
+     * @return true if a permit was acquired directly instead, in which case the waiter was not queued.
+     */
+    private boolean enqueue(final Waiter waiter) {
+        this.waiters.offer(waiter);
+        this.waits.increment();
+        // a permit released before the waiter was queued would otherwise go unnoticed
+        if (this.permits.tryAcquire()) {
+            if (waiter.abandon()) {
+                this.waiters.remove(waiter);
+                return true;
+            }
+            // the waiter was handed a permit meanwhile
+            release();
+        }
+        return false;
+    }
+
+    private void acquire() {
+        if (this.permits.tryAcquire()) {
+            return;
+        }
+        final var granted = new CountDownLatch(1);
+        final var waiter = new Waiter(granted::countDown);
+        if (enqueue(waiter)) {
+            return;
+        }
+        try {
+            if (granted.await(this.waitTimeout, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (final InterruptedException e) {
+            if (waiter.abandon()) {
+                this.waiters.remove(waiter);
+            } else {
+                // the permit was handed over just as the thread was interrupted
+                release();
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to call the CAS server at " + this.server, e);
+        }
+        if (waiter.abandon()) {
+            this.waiters.remove(waiter);
+            throw new IllegalStateException("Timed out after " + this.waitTimeout + " ms waiting to call the CAS server at "
+                + this.server);
+        }
+        // the permit was handed over just as the wait timed out
+    }
+
+    /**
+     * @return the scheme, host and port of the server this limiter applies to.
+     */
+    public String getServer() {
+        return this.server;
+    }
+
+    /**
+     * @return the maximum number of concurrent calls to the server.
+     */
+    public int getMaxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * @return the time a blocking call waits for a permit, in milliseconds.
+     */
+    public long getWaitTimeout() {
+        return this.waitTimeout;
+    }
+
+    /**
+     * @return the number of calls currently in progress.
+     */
+    public int getActiveCount() {
+        return this.maxConcurrency - this.permits.availablePermits();
+    }
+
+    /**
+     * @return the number of calls that had to wait for a permit.
+     */
+    public long getWaits() {
+        return this.waits.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[server=" + this.server + ", maxConcurrency=" + this.maxConcurrency + ']';
+    }
+
+    /**
+     * A call waiting for a permit, which either takes the permit handed to it or gives up waiting, but not both.
+     */
+    private static final class Waiter {
+
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        private final Runnable onGranted;
+
+        private Waiter(final Runnable onGranted) {
+            this.onGranted = onGranted;
+        }
+
+        /**
+         * @return true if the waiter took the permit, false if it had given up waiting.
+         */
+        private boolean grant() {
+            if (!this.settled.compareAndSet(false, true)) {
+                return false;
+            }
+            this.onGranted.run();
+            return true;
+        }
+
+        /**
+         * @return true if the waiter gave up waiting, false if it had already been handed a permit.
+         */
+        private boolean abandon() {
+            return this.settled.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link InputStream} that fails with a {@link ResponseSizeExceededException} once more than a maximum number of
+ * bytes have been read from it, so that a response of unexpected size is rejected while it is read rather than after
+ * it has been buffered.
+ *
+ * @since 4.0.4
+ */
+public final class BoundedInputStream extends FilterInputStream {
+
+    private final long maxSize;
+
+    private long count;
+
+    /**
+     * @param in      the stream to read from.
+     * @param maxSize the maximum number of bytes that may be read.
+     */
+    public BoundedInputStream(final InputStream in, final long maxSize) {
+        super(in);
+        CommonUtils.assertNotNull(in, "in cannot be null.");
+        CommonUtils.assertTrue(maxSize > 0, "maxSize must be greater than zero.");
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final var b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        final var read = super.read(b, off, len);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        final var skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * @return the number of bytes read so far.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    private void count(final long read) throws IOException {
+        this.count += read;
+        if (this.count > this.maxSize) {
+            throw new ResponseSizeExceededException(this.maxSize);
+        }
+    }
+}
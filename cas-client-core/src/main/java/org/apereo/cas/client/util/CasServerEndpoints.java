@@ -0,0 +1,440 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * The endpoints of a CAS server reachable under several URL prefixes, i.e. one per virtual IP of a CAS cluster.
+ * <p>
+ * Calls are routed to the available endpoint with the lowest latency, tracked per endpoint as an exponentially
+ * weighted moving average of its calls and health checks.  An endpoint that cannot be connected to is marked
+ * unavailable and the call is retried on the next endpoint.  Only connection failures are retried: they happen
+ * before any part of the request is sent, so the ticket has not been presented to the CAS server.  Any other failure,
+ * including a read timeout, is returned to the caller.
+ * <p>
+ * An unavailable endpoint is only called when no other endpoint is available, until a health check or a call reaches
+ * it again or the health check interval has passed since it failed.  Health checks, when
+ * {@link #startHealthChecks(HttpURLConnectionFactory) started}, request every endpoint's URL prefix on the
+ * {@link CleanUpScheduler#getDefault() shared scheduler}; any HTTP response counts as a success.
+ *
+ * @since 4.0.4
+ */
+public final class CasServerEndpoints {
+
+    /** Default time between two health checks of the endpoints, in milliseconds. */
+    public static final long DEFAULT_HEALTH_CHECK_INTERVAL = 30000;
+
+    /** Weight of the latest measurement in the moving average of an endpoint's latency. */
+    public static final double LATENCY_WEIGHT = 0.2;
+
+    /** Maximum time a health check waits to connect to, and then to hear from, an endpoint, in milliseconds. */
+    static final int HEALTH_CHECK_TIMEOUT = 5000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CasServerEndpoints.class);
+
+    private static final Comparator<Endpoint> BY_LATENCY = Comparator.comparingLong(Endpoint::getLatency);
+
+    private final List<Endpoint> endpoints;
+
+    private final long healthCheckInterval;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private CleanUpScheduler.CleanUpTask healthCheck;
+
+    /**
+     * @param urlPrefixes the URL prefixes of the endpoints, in order of preference while their latency is unknown.
+     * @param healthCheckInterval time between two health checks, and the time after which an unavailable endpoint is
+     * called again, in milliseconds.
+     */
+    public CasServerEndpoints(final List<String> urlPrefixes, final long healthCheckInterval) {
+        CommonUtils.assertTrue(urlPrefixes != null && !urlPrefixes.isEmpty(), "urlPrefixes cannot be empty.");
+        CommonUtils.assertTrue(healthCheckInterval > 0, "healthCheckInterval must be greater than zero.");
+        final var distinctPrefixes = new LinkedHashSet<String>();
+        for (final var urlPrefix : urlPrefixes) {
+            CommonUtils.assertTrue(CommonUtils.isNotBlank(urlPrefix), "urlPrefixes cannot contain blank values.");
+            distinctPrefixes.add(CommonUtils.addTrailingSlash(urlPrefix.trim()));
+        }
+        final List<Endpoint> endpoints = new ArrayList<>(distinctPrefixes.size());
+        for (final var urlPrefix : distinctPrefixes) {
+            endpoints.add(new Endpoint(urlPrefix));
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    /**
+     * Creates the endpoints of a CAS server from its main URL prefix and a comma-separated list of further prefixes.
+     *
+     * @param casServerUrlPrefix the main URL prefix of the CAS server.
+     * @param urlPrefixes further URL prefixes, separated by commas, or null.
+     * @param healthCheckInterval time between two health checks, in milliseconds.
+     * @return the endpoints, or null if no further URL prefix is given.
+     */
+    public static CasServerEndpoints of(final String casServerUrlPrefix, final String urlPrefixes,
+                                        final long healthCheckInterval) {
+        if (CommonUtils.isBlank(urlPrefixes)) {
+            return null;
+        }
+        final List<String> prefixes = new ArrayList<>();
+        if (CommonUtils.isNotBlank(casServerUrlPrefix)) {
+            prefixes.add(casServerUrlPrefix);
+        }
+        for (final var urlPrefix : urlPrefixes.split(",")) {
+            if (CommonUtils.isNotBlank(urlPrefix)) {
+                prefixes.add(urlPrefix);
+            }
+        }
+        final var endpoints = new CasServerEndpoints(prefixes, healthCheckInterval);
+        return endpoints.endpoints.size() > 1 ? endpoints : null;
+    }
+
+    /**
+     * Determines whether the failure happened while connecting to the server, before the request was sent.
+     *
+     * @param failure the failure of a call, possibly wrapping its cause.
+     * @return true if the call can safely be retried on another endpoint.
+     */
+    public static boolean isConnectFailure(final Throwable failure) {
+        for (var cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException
+                || cause instanceof UnknownHostException || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+            // HttpURLConnection reports connect and read timeouts with the same type
+            if (cause instanceof SocketTimeoutException && cause.getMessage() != null
+                && cause.getMessage().toLowerCase(Locale.ROOT).startsWith("connect timed out")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes a blocking call to the endpoints, in order of preference, until one of them can be connected to.
+     *
+     * @param call the call to an endpoint.
+     * @param <T> the type of result.
+     * @return the result of the call.
+     */
+    public <T> T call(final Function<Endpoint, T> call) {
+        RuntimeException connectFailure = null;
+        for (final var endpoint : getEndpointsInOrder()) {
+            final var start = System.nanoTime();
+            try {
+                final var result = call.apply(endpoint);
+                endpoint.succeeded(System.nanoTime() - start);
+                return result;
+            } catch (final RuntimeException e) {
+                if (!isConnectFailure(e)) {
+                    endpoint.completed(System.nanoTime() - start);
+                    throw e;
+                }
+                markUnavailable(endpoint, e);
+                connectFailure = e;
+            }
+        }
+        throw connectFailure;
+    }
+
+    /**
+     * Starts a non-blocking call to the endpoints, in order of preference, until one of them can be connected to.
+     * Cancelling the returned future cancels the call in progress and stops the failover.
+     *
+     * @param call starts the call to an endpoint.
+     * @param <T> the type of result.
+     * @return the future result of the call.
+     */
+    public <T> CompletableFuture<T> callAsync(final Function<Endpoint, CompletableFuture<T>> call) {
+        final var result = new CompletableFuture<T>();
+        callAsync(call, getEndpointsInOrder(), 0, result);
+        return result;
+    }
+
+    private <T> void callAsync(final Function<Endpoint, CompletableFuture<T>> call, final List<Endpoint> endpoints,
+                               final int index, final CompletableFuture<T> result) {
+        if (result.isDone()) {
+            // cancelled before failing over
+            return;
+        }
+        final var endpoint = endpoints.get(index);
+        final var start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.apply(endpoint);
+        } catch (final RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        CommonUtils.propagateCancellation(result, future);
+        future.whenComplete((value, failure) -> {
+            if (failure == null) {
+                endpoint.succeeded(System.nanoTime() - start);
+                result.complete(value);
+                return;
+            }
+            if (!isConnectFailure(failure)) {
+                endpoint.completed(System.nanoTime() - start);
+                result.completeExceptionally(failure);
+                return;
+            }
+            markUnavailable(endpoint, failure);
+            if (index + 1 == endpoints.size()) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            callAsync(call, endpoints, index + 1, result);
+        });
+    }
+
+    private void markUnavailable(final Endpoint endpoint, final Throwable failure) {
+        LOGGER.warn("Unable to connect to CAS server endpoint [{}]: {}", endpoint.urlPrefix, failure.getMessage());
+        endpoint.failed(TimeUnit.MILLISECONDS.toNanos(this.healthCheckInterval));
+    }
+
+    /**
+     * @return the available endpoints by increasing latency, followed by the unavailable ones.
+     */
+    public List<Endpoint> getEndpointsInOrder() {
+        final List<Endpoint> available = new ArrayList<>(this.endpoints.size());
+        List<Endpoint> unavailable = null;
+        final var now = System.nanoTime();
+        for (final var endpoint : this.endpoints) {
+            if (endpoint.isAvailable(now)) {
+                available.add(endpoint);
+            } else {
+                if (unavailable == null) {
+                    unavailable = new ArrayList<>(2);
+                }
+                unavailable.add(endpoint);
+            }
+        }
+        // stable, so endpoints of unknown or equal latency keep their configured order
+        available.sort(BY_LATENCY);
+        if (unavailable != null) {
+            available.addAll(unavailable);
+        }
+        return available;
+    }
+
+    /**
+     * @return the endpoints, in their configured order.
+     */
+    public List<Endpoint> getEndpoints() {
+        return this.endpoints;
+    }
+
+    /**
+     * @return time between two health checks, in milliseconds.
+     */
+    public long getHealthCheckInterval() {
+        return this.healthCheckInterval;
+    }
+
+    /**
+     * Starts checking the health of the endpoints periodically.  Health checks must be
+     * {@link #stopHealthChecks() stopped} once the endpoints are no longer used.
+     *
+     * @param urlConnectionFactory the factory preparing the connections to the endpoints.
+     */
+    public void startHealthChecks(final HttpURLConnectionFactory urlConnectionFactory) {
+        CommonUtils.assertNotNull(urlConnectionFactory, "urlConnectionFactory cannot be null.");
+        this.lock.lock();
+        try {
+            if (this.healthCheck == null) {
+                this.healthCheck = CleanUpScheduler.getDefault().schedule("casServerHealthCheck",
+                    () -> checkHealth(urlConnectionFactory), this.healthCheckInterval);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the health checks, if started.
+     */
+    public void stopHealthChecks() {
+        this.lock.lock();
+        try {
+            if (this.healthCheck != null) {
+                this.healthCheck.cancel();
+                this.healthCheck = null;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Checks the health of every endpoint once.
+     *
+     * @param urlConnectionFactory the factory preparing the connections to the endpoints.
+     */
+    public void checkHealth(final HttpURLConnectionFactory urlConnectionFactory) {
+        for (final var endpoint : this.endpoints) {
+            final var start = System.nanoTime();
+            HttpURLConnection conn = null;
+            try {
+                conn = urlConnectionFactory.buildHttpURLConnection(new URL(endpoint.urlPrefix).openConnection());
+                conn.setConnectTimeout(HEALTH_CHECK_TIMEOUT);
+                conn.setReadTimeout(HEALTH_CHECK_TIMEOUT);
+                conn.setInstanceFollowRedirects(false);
+                conn.getResponseCode();
+                endpoint.succeeded(System.nanoTime() - start);
+            } catch (final IOException | RuntimeException e) {
+                LOGGER.debug("Health check of CAS server endpoint [{}] failed: {}", endpoint.urlPrefix, e.getMessage());
+                endpoint.failed(TimeUnit.MILLISECONDS.toNanos(this.healthCheckInterval));
+            } finally {
+                if (conn != null) {
+                    conn.disconnect();
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + this.endpoints;
+    }
+
+    /**
+     * An endpoint of the CAS server, with its availability and latency.
+     */
+    public static final class Endpoint {
+
+        private final String urlPrefix;
+
+        /** Moving average of the latency, in nanoseconds, or zero until measured. */
+        private final AtomicLong latency = new AtomicLong();
+
+        private final LongAdder calls = new LongAdder();
+
+        private final LongAdder connectFailures = new LongAdder();
+
+        /** Value of {@link System#nanoTime()} until which the endpoint is unavailable. */
+        private volatile long unavailableUntil;
+
+        private volatile boolean unavailable;
+
+        Endpoint(final String urlPrefix) {
+            try {
+                new URL(urlPrefix);
+            } catch (final MalformedURLException e) {
+                throw new IllegalArgumentException("Invalid CAS server URL prefix: " + urlPrefix, e);
+            }
+            this.urlPrefix = urlPrefix;
+        }
+
+        void succeeded(final long duration) {
+            this.unavailable = false;
+            completed(duration);
+        }
+
+        void completed(final long duration) {
+            this.calls.increment();
+            this.latency.accumulateAndGet(Math.max(duration, 1), (average, sample) ->
+                average == 0 ? sample : Math.round(average + LATENCY_WEIGHT * (sample - average)));
+        }
+
+        void failed(final long unavailableFor) {
+            this.connectFailures.increment();
+            this.unavailableUntil = System.nanoTime() + unavailableFor;
+            this.unavailable = true;
+        }
+
+        boolean isAvailable(final long now) {
+            return !this.unavailable || now - this.unavailableUntil >= 0;
+        }
+
+        /**
+         * @param urlPrefix the URL prefix a URL was built from.
+         * @param url the URL.
+         * @return the same URL on this endpoint.
+         */
+        public String resolve(final String urlPrefix, final String url) {
+            CommonUtils.assertTrue(url.startsWith(urlPrefix), "url must start with urlPrefix.");
+            return this.urlPrefix + url.substring(urlPrefix.length());
+        }
+
+        /**
+         * @return the URL prefix of the endpoint, ending with a slash.
+         */
+        public String getUrlPrefix() {
+            return this.urlPrefix;
+        }
+
+        /**
+         * @return true unless the endpoint recently failed to connect.
+         */
+        public boolean isAvailable() {
+            return isAvailable(System.nanoTime());
+        }
+
+        /**
+         * @return the moving average of the latency of the endpoint, in nanoseconds, or zero until measured.
+         */
+        public long getLatency() {
+            return this.latency.get();
+        }
+
+        /**
+         * @return the number of calls and health checks that reached the endpoint.
+         */
+        public long getCalls() {
+            return this.calls.sum();
+        }
+
+        /**
+         * @return the number of calls and health checks that could not connect to the endpoint.
+         */
+        public long getConnectFailures() {
+            return this.connectFailures.sum();
+        }
+
+        @Override
+        public String toString() {
+            return this.urlPrefix;
+        }
+    }
+}
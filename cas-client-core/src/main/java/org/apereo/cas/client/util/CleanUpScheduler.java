@@ -0,0 +1,283 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the periodic clean up of the client's in-memory stores, such as the
+ * {@link org.apereo.cas.client.proxy.ProxyGrantingTicketStorage#cleanUp() proxy granting ticket storages} and the
+ * {@link org.apereo.cas.client.validation.CachingTicketValidator#cleanUp() validated assertion caches}, on a small,
+ * fixed number of named daemon threads shared by every filter.
+ * <p>
+ * The first run of a task is delayed by its period plus a random jitter, so that the tasks of several filters
+ * started together do not all run at once.  A task that throws is logged and run again at its next period,
+ * and the duration of every run is recorded on its {@link CleanUpTask}.
+ * <p>
+ * The threads are started when the first task is scheduled and stopped when the last one is
+ * {@link CleanUpTask#cancel() cancelled}, which filters do in their <code>destroy()</code> method, so that no
+ * thread outlives the web application.
+ *
+ * @since 4.0.4
+ */
+public final class CleanUpScheduler {
+
+    /** Default number of threads running clean up tasks. */
+    public static final int DEFAULT_POOL_SIZE = 2;
+
+    /** Default maximum jitter added to the first run of a task, as a fraction of its period. */
+    public static final double DEFAULT_JITTER = 0.1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CleanUpScheduler.class);
+
+    private static final CleanUpScheduler DEFAULT = new CleanUpScheduler("cas-client-cleanup", DEFAULT_POOL_SIZE);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private final String threadNamePrefix;
+
+    private final int poolSize;
+
+    private double jitter = DEFAULT_JITTER;
+
+    private ScheduledThreadPoolExecutor executor;
+
+    private int scheduledTasks;
+
+    /**
+     * @param threadNamePrefix prefix of the names of the threads running the tasks.
+     * @param poolSize number of threads running the tasks.
+     */
+    public CleanUpScheduler(final String threadNamePrefix, final int poolSize) {
+        CommonUtils.assertTrue(CommonUtils.isNotBlank(threadNamePrefix), "threadNamePrefix cannot be blank.");
+        CommonUtils.assertTrue(poolSize > 0, "poolSize must be greater than zero.");
+        this.threadNamePrefix = threadNamePrefix;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * @return the scheduler shared by the filters of the client.
+     */
+    public static CleanUpScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Schedules a task to run repeatedly, the given period after the end of its previous run.
+     *
+     * @param name name of the task, used in log messages.
+     * @param task the clean up to run.
+     * @param period time between two runs, in milliseconds.
+     * @return the scheduled task, to be cancelled once it is no longer needed.
+     */
+    public CleanUpTask schedule(final String name, final Runnable task, final long period) {
+        CommonUtils.assertNotNull(name, "name cannot be null.");
+        CommonUtils.assertNotNull(task, "task cannot be null.");
+        CommonUtils.assertTrue(period > 0, "period must be greater than zero.");
+
+        final var cleanUpTask = new CleanUpTask(name, task);
+        final var initialDelay = period + (long) (ThreadLocalRandom.current().nextDouble() * this.jitter * period);
+        this.lock.lock();
+        try {
+            if (this.executor == null) {
+                this.executor = newExecutor();
+            }
+            this.scheduledTasks++;
+            cleanUpTask.future = this.executor.scheduleWithFixedDelay(cleanUpTask, initialDelay, period, TimeUnit.MILLISECONDS);
+        } finally {
+            this.lock.unlock();
+        }
+        LOGGER.debug("Scheduled clean up [{}] every {} ms, starting in {} ms", name, period, initialDelay);
+        return cleanUpTask;
+    }
+
+    /**
+     * @param jitter maximum jitter added to the first run of a task, as a fraction of its period.
+     */
+    public void setJitter(final double jitter) {
+        CommonUtils.assertTrue(jitter >= 0, "jitter cannot be negative.");
+        this.jitter = jitter;
+    }
+
+    /**
+     * @return the number of tasks scheduled and not cancelled.
+     */
+    public int getScheduledTaskCount() {
+        this.lock.lock();
+        try {
+            return this.scheduledTasks;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the threads running the tasks are started.
+     */
+    public boolean isRunning() {
+        this.lock.lock();
+        try {
+            return this.executor != null;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void cancel(final CleanUpTask task) {
+        this.lock.lock();
+        try {
+            if (!task.future.cancel(false)) {
+                return;
+            }
+            this.scheduledTasks--;
+            if (this.scheduledTasks == 0) {
+                this.executor.shutdown();
+                this.executor = null;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        LOGGER.debug("Cancelled clean up [{}]", task.name);
+    }
+
+    private ScheduledThreadPoolExecutor newExecutor() {
+        final var scheduler = new ScheduledThreadPoolExecutor(this.poolSize, runnable -> {
+            final var thread = new Thread(runnable, this.threadNamePrefix + '-' + this.threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * A clean up task scheduled on a {@link CleanUpScheduler}, with the statistics of its runs.
+     */
+    public final class CleanUpTask implements Runnable {
+
+        private final String name;
+
+        private final Runnable task;
+
+        private final LongAdder runs = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder totalDuration = new LongAdder();
+
+        private final LongAccumulator maxDuration = new LongAccumulator(Long::max, 0);
+
+        private volatile long lastDuration;
+
+        private volatile ScheduledFuture<?> future;
+
+        private CleanUpTask(final String name, final Runnable task) {
+            this.name = name;
+            this.task = task;
+        }
+
+        /**
+         * Runs the task once.  Failures are logged rather than thrown, as a periodic task that throws is never
+         * run again.
+         */
+        @Override
+        public void run() {
+            final var start = System.nanoTime();
+            try {
+                this.task.run();
+            } catch (final Throwable e) {
+                this.failures.increment();
+                LOGGER.warn("Clean up [{}] failed: {}", this.name, e.getMessage(), e);
+            } finally {
+                final var duration = System.nanoTime() - start;
+                this.lastDuration = duration;
+                this.totalDuration.add(duration);
+                this.maxDuration.accumulate(duration);
+                this.runs.increment();
+            }
+        }
+
+        /**
+         * Stops running the task.  A run in progress is completed.
+         */
+        public void cancel() {
+            CleanUpScheduler.this.cancel(this);
+        }
+
+        public boolean isCancelled() {
+            return this.future.isCancelled();
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return the number of completed runs, including failed ones.
+         */
+        public long getRuns() {
+            return this.runs.sum();
+        }
+
+        /**
+         * @return the number of runs that threw an exception.
+         */
+        public long getFailures() {
+            return this.failures.sum();
+        }
+
+        /**
+         * @return the duration of the last run, in nanoseconds.
+         */
+        public long getLastDuration() {
+            return this.lastDuration;
+        }
+
+        /**
+         * @return the longest duration of a run, in nanoseconds.
+         */
+        public long getMaxDuration() {
+            return this.maxDuration.get();
+        }
+
+        /**
+         * @return the total duration of all runs, in nanoseconds.
+         */
+        public long getTotalDuration() {
+            return this.totalDuration.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "CleanUpTask[" + this.name + ']';
+        }
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.apereo.cas.client.util;
 
+import org.apereo.cas.client.jfr.ValidationPhases;
+import org.apereo.cas.client.ssl.HttpClientTransport;
 import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
 import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
 import org.apereo.cas.client.validation.ProxyList;
@@ -29,12 +31,16 @@ import org.slf4j.LoggerFactory;
 import javax.net.ssl.SSLException;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 /**
  * Common utilities so that we don't need to include Commons Lang.
@@ -227,22 +233,54 @@ public final class CommonUtils {
      */
     public static String getResponseFromServer(final URL constructedUrl, final HttpURLConnectionFactory factory,
                                                final String encoding) {
+        return getResponseFromServer(constructedUrl, factory, encoding, Long.MAX_VALUE);
+    }
+
+    /**
+     * Contacts the remote URL and returns the response, failing with a {@link ResponseSizeExceededException} as soon
+     * as more than the given number of bytes have been read.
+     *
+     * @param constructedUrl the url to contact.
+     * @param factory connection factory to prepare the URL connection instance
+     * @param encoding the encoding to use.
+     * @param maxResponseSize the maximum size of the response, in bytes.
+     * @return the response.
+     * @since 4.0.4
+     */
+    public static String getResponseFromServer(final URL constructedUrl, final HttpURLConnectionFactory factory,
+                                               final String encoding, final long maxResponseSize) {
 
         HttpURLConnection conn = null;
         InputStreamReader in = null;
+        var completed = false;
+        final var phases = ValidationPhases.current();
         try {
             conn = factory.buildHttpURLConnection(constructedUrl.openConnection());
+            if (phases != null) {
+                conn.connect();
+                phases.connected();
+            }
 
+            final var body = maxResponseSize == Long.MAX_VALUE ? conn.getInputStream()
+                : new BoundedInputStream(conn.getInputStream(), maxResponseSize);
             if (CommonUtils.isEmpty(encoding)) {
-                in = new InputStreamReader(conn.getInputStream());
+                in = new InputStreamReader(body);
             } else {
-                in = new InputStreamReader(conn.getInputStream(), encoding);
+                in = new InputStreamReader(body, encoding);
+            }
+            if (phases != null) {
+                phases.firstByteReceived();
             }
 
             final var builder = new StringBuilder(255);
-            int byteRead;
-            while ((byteRead = in.read()) != -1) {
-                builder.append((char) byteRead);
+            final var buffer = new char[4096];
+            int charsRead;
+            while ((charsRead = in.read(buffer)) != -1) {
+                builder.append(buffer, 0, charsRead);
+            }
+            completed = true;
+            if (phases != null) {
+                phases.bodyRead();
             }
 
             return builder.toString();
@@ -256,10 +294,107 @@ public final class CommonUtils {
                 constructedUrl.getHost(), constructedUrl.getPath(), constructedUrl.getProtocol(), e.getMessage(), e);
             throw new RuntimeException(e);
         } finally {
+            // closing a fully read stream, rather than disconnecting, lets the connection be kept alive
             closeQuietly(in);
+            if (!completed && conn != null) {
+                conn.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Contacts the remote URL and returns the response body as a stream, without reading it.  Closing the stream
+     * once it has been read lets the connection be kept alive.
+     *
+     * @param constructedUrl the url to contact.
+     * @param factory connection factory to prepare the URL connection instance
+     * @return the response body, which the caller must close.
+     * @since 4.0.4
+     */
+    public static InputStream getResponseStreamFromServer(final URL constructedUrl, final HttpURLConnectionFactory factory) {
+        HttpURLConnection conn = null;
+        final var phases = ValidationPhases.current();
+        try {
+            conn = factory.buildHttpURLConnection(constructedUrl.openConnection());
+            if (phases != null) {
+                conn.connect();
+                phases.connected();
+            }
+            final var in = conn.getInputStream();
+            if (phases != null) {
+                phases.firstByteReceived();
+            }
+            return in;
+        } catch (final RuntimeException e) {
+            if (conn != null) {
+                conn.disconnect();
+            }
+            throw e;
+        } catch (final IOException e) {
             if (conn != null) {
                 conn.disconnect();
             }
+            LOGGER.error("Error getting response from host: [{}] with path: [{}] and protocol: [{}] Error Message: {}",
+                constructedUrl.getHost(), constructedUrl.getPath(), constructedUrl.getProtocol(), e.getMessage(), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Contacts the remote URL through the given {@link HttpClientTransport} and returns the response body as a
+     * stream, without reading it.
+     *
+     * @param constructedUrl the url to contact.
+     * @param transport the transport to send the request with.
+     * @return the response body, which the caller must close.
+     * @since 4.0.4
+     */
+    public static InputStream getResponseStreamFromServer(final URL constructedUrl, final HttpClientTransport transport) {
+        try {
+            return transport.getStream(constructedUrl);
+        } catch (final IOException e) {
+            LOGGER.error("Error getting response from host: [{}] with path: [{}] and protocol: [{}] Error Message: {}",
+                constructedUrl.getHost(), constructedUrl.getPath(), constructedUrl.getProtocol(), e.getMessage(), e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Contacts the remote URL through the given {@link HttpClientTransport} and returns the response.
+     *
+     * @param constructedUrl the url to contact.
+     * @param transport the transport to send the request with.
+     * @param encoding the encoding to use.
+     * @return the response.
+     * @since 4.0.4
+     */
+    public static String getResponseFromServer(final URL constructedUrl, final HttpClientTransport transport,
+                                               final String encoding) {
+        return getResponseFromServer(constructedUrl, transport, encoding, Long.MAX_VALUE);
+    }
+
+    /**
+     * Contacts the remote URL through the given {@link HttpClientTransport} and returns the response, failing with a
+     * {@link ResponseSizeExceededException} as soon as more than the given number of bytes have been received.
+     *
+     * @param constructedUrl the url to contact.
+     * @param transport the transport to send the request with.
+     * @param encoding the encoding to use.
+     * @param maxResponseSize the maximum size of the response, in bytes.
+     * @return the response.
+     * @since 4.0.4
+     */
+    public static String getResponseFromServer(final URL constructedUrl, final HttpClientTransport transport,
+                                               final String encoding, final long maxResponseSize) {
+        try {
+            return transport.get(constructedUrl, isEmpty(encoding) ? null : Charset.forName(encoding), maxResponseSize);
+        } catch (final SSLException e) {
+            LOGGER.error("SSL error getting response from host: {} : Error Message: {}", constructedUrl.getHost(), e.getMessage(), e);
+            throw new RuntimeException(e);
+        } catch (final IOException e) {
+            LOGGER.error("Error getting response from host: [{}] with path: [{}] and protocol: [{}] Error Message: {}",
+                constructedUrl.getHost(), constructedUrl.getPath(), constructedUrl.getProtocol(), e.getMessage(), e);
+            throw new RuntimeException(e);
         }
     }
 
@@ -273,6 +408,24 @@ public final class CommonUtils {
         return (ProxyList) editor.getValue();
     }
 
+    /**
+     * Cancels a future when the future derived from it is cancelled, which {@link CompletableFuture} does not do on
+     * its own, so that giving up on a result also gives up on the work producing it.
+     *
+     * @param derived the future handed to the caller.
+     * @param source the future the derived one completes from.
+     * @param <T> the type of result.
+     * @return the derived future.
+     */
+    public static <T> CompletableFuture<T> propagateCancellation(final CompletableFuture<T> derived, final Future<?> source) {
+        derived.whenComplete((result, e) -> {
+            if (derived.isCancelled()) {
+                source.cancel(false);
+            }
+        });
+        return derived;
+    }
+
     /**
      * Unconditionally close a {@link Closeable}. Equivalent to {@link Closeable#close()}close(), except any exceptions
      * will be ignored. This is typically used in finally blocks.
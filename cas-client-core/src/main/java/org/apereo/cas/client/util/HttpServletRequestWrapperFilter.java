@@ -73,11 +73,6 @@ public final class HttpServletRequestWrapperFilter extends AbstractConfiguration
             servletResponse);
     }
 
-    @Override
-    public void destroy() {
-        // nothing to do
-    }
-
     @Override
     public void init(final FilterConfig filterConfig) throws ServletException {
         super.init(filterConfig);
@@ -0,0 +1,40 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import java.io.IOException;
+import java.io.Serial;
+
+/**
+ * Thrown while a response is read once it exceeds the maximum size it may have.
+ *
+ * @since 4.0.4
+ */
+public final class ResponseSizeExceededException extends IOException {
+
+    @Serial
+    private static final long serialVersionUID = -2047318529671934122L;
+
+    /**
+     * @param maxSize the maximum size of the response, in bytes.
+     */
+    public ResponseSizeExceededException(final long maxSize) {
+        super("Response exceeds the maximum size of " + maxSize + " bytes");
+    }
+}
@@ -19,6 +19,7 @@
 package org.apereo.cas.client.util;
 
 import org.apereo.cas.client.Protocol;
+import org.apereo.cas.client.jfr.ProxyGrantingTicketCallbackEvent;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorage;
 
 import jakarta.servlet.ServletRequest;
@@ -76,8 +77,11 @@ public final class WebUtils {
 
         final var proxyGrantingTicket = request.getParameter(PARAM_PROXY_GRANTING_TICKET);
 
+        final var event = new ProxyGrantingTicketCallbackEvent();
+        event.begin();
         if (CommonUtils.isBlank(proxyGrantingTicket) || CommonUtils.isBlank(proxyGrantingTicketIou)) {
             response.getWriter().write("");
+            commitProxyGrantingTicketCallbackEvent(event, false);
             return;
         }
 
@@ -91,6 +95,15 @@ public final class WebUtils {
 
         response.getWriter().write("<?xml version=\"1.0\"?>");
         response.getWriter().write("<casClient:proxySuccess xmlns:casClient=\"http://www.yale.edu/tp/casClient\" />");
+        commitProxyGrantingTicketCallbackEvent(event, true);
+    }
+
+    private static void commitProxyGrantingTicketCallbackEvent(final ProxyGrantingTicketCallbackEvent event,
+                                                               final boolean stored) {
+        if (event.shouldCommit()) {
+            event.setStored(stored);
+            event.commit();
+        }
     }
 
     private static String findMatchingServerName(final HttpServletRequest request, final String serverName) {
@@ -0,0 +1,160 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, thread-safe pool of XML parser instances (i.e. {@link javax.xml.parsers.SAXParser} or
+ * {@link javax.xml.parsers.DocumentBuilder}) that have already been configured by {@link XmlUtils}.
+ * <p>
+ * Instances are not bound to a thread, so the pool behaves the same for platform and virtual threads.
+ * When the pool is empty a new instance is created (a miss); when it is full a released instance is
+ * simply dropped.  Every released instance is reset before it is made available again, and instances
+ * that cannot be reset are discarded.  Hits, misses and discards are also reported to the
+ * {@link org.apereo.cas.client.metrics.CasClientMetrics} in use.
+ *
+ * @param <T> the type of pooled parser.
+ * @since 4.0.4
+ */
+public final class XmlParserPool<T> {
+
+    /** Default number of idle parsers kept per pool. */
+    public static final int DEFAULT_CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(XmlParserPool.class);
+
+    private final Class<?> parserType;
+
+    private final BlockingQueue<T> idle;
+
+    private final Callable<T> factory;
+
+    private final Consumer<T> reset;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder discards = new LongAdder();
+
+    /**
+     * @param parserType the type of pooled parser, under which the pool reports to {@link CasClientMetricsHolder the metrics}.
+     * @param capacity maximum number of idle instances kept.
+     * @param factory creates a new, fully configured instance.
+     * @param reset restores an instance to its freshly created state.
+     */
+    public XmlParserPool(final Class<?> parserType, final int capacity, final Callable<T> factory,
+                         final Consumer<T> reset) {
+        CommonUtils.assertNotNull(parserType, "parserType cannot be null.");
+        CommonUtils.assertTrue(capacity > 0, "capacity must be greater than zero.");
+        CommonUtils.assertNotNull(factory, "factory cannot be null.");
+        CommonUtils.assertNotNull(reset, "reset cannot be null.");
+        this.parserType = parserType;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+        this.reset = reset;
+    }
+
+    /**
+     * Takes an idle instance from the pool, or creates one if none is available.
+     * The instance must be handed back through {@link #release(Object)}.
+     *
+     * @return the parser instance.
+     */
+    public T borrow() {
+        final var instance = this.idle.poll();
+        CasClientMetricsHolder.getDefault().recordXmlParserBorrow(this.parserType, instance != null);
+        if (instance != null) {
+            this.hits.increment();
+            return instance;
+        }
+        this.misses.increment();
+        try {
+            return this.factory.call();
+        } catch (final RuntimeException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new RuntimeException("Unable to create XML parser", e);
+        }
+    }
+
+    /**
+     * Resets the instance and returns it to the pool.
+     *
+     * @param instance the instance obtained from {@link #borrow()}.
+     */
+    public void release(final T instance) {
+        if (instance == null) {
+            return;
+        }
+        try {
+            this.reset.accept(instance);
+        } catch (final RuntimeException e) {
+            LOGGER.debug("Discarding XML parser that could not be reset: {}", e.getMessage());
+            discard();
+            return;
+        }
+        if (!this.idle.offer(instance)) {
+            discard();
+        }
+    }
+
+    private void discard() {
+        this.discards.increment();
+        CasClientMetricsHolder.getDefault().recordXmlParserDiscard(this.parserType);
+    }
+
+    /**
+     * @return number of borrows served by an idle instance.
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return number of borrows that had to create a new instance.
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return number of released instances dropped because the pool was full or the reset failed.
+     */
+    public long getDiscards() {
+        return this.discards.sum();
+    }
+
+    /**
+     * @return number of idle instances currently held.
+     */
+    public int getIdleCount() {
+        return this.idle.size();
+    }
+}
@@ -28,9 +28,12 @@ import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -51,14 +54,37 @@ public final class XmlUtils {
     private static final Logger LOGGER = LoggerFactory.getLogger(XmlUtils.class);
 
 
-    /**
-     * Creates a new namespace-aware DOM document object by parsing the given XML.
-     *
-     * @param xml XML content.
-     *
-     * @return DOM document.
-     */
-    public static Document newDocument(final String xml) {
+    private static final SAXParserFactory SAX_PARSER_FACTORY = newSaxParserFactory();
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = newDocumentBuilderFactory();
+
+    private static final XmlParserPool<SAXParser> SAX_PARSER_POOL =
+        new XmlParserPool<>(SAXParser.class, XmlParserPool.DEFAULT_CAPACITY, XmlUtils::newSaxParser, SAXParser::reset);
+
+    private static final XmlParserPool<DocumentBuilder> DOCUMENT_BUILDER_POOL =
+        new XmlParserPool<>(DocumentBuilder.class, XmlParserPool.DEFAULT_CAPACITY,
+            XmlUtils::newDocumentBuilder, DocumentBuilder::reset);
+
+    private XmlUtils() {
+        // nothing to do
+    }
+
+    private static SAXParserFactory newSaxParserFactory() {
+        try {
+            final var factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            return factory;
+        } catch (final Exception e) {
+            throw new IllegalStateException("Unable to configure SAXParserFactory", e);
+        }
+    }
+
+    private static DocumentBuilderFactory newDocumentBuilderFactory() {
         final var factory = DocumentBuilderFactory.newInstance();
         final Map<String, Boolean> features = new HashMap<>();
         features.put(XMLConstants.FEATURE_SECURE_PROCESSING, true);
@@ -73,33 +99,90 @@ public final class XmlUtils {
         }
         factory.setExpandEntityReferences(false);
         factory.setNamespaceAware(true);
+        return factory;
+    }
+
+    /**
+     * JAXP factories are not guaranteed to be thread-safe, so parsers are created under the factory's lock.
+     * This only happens on a pool miss.
+     */
+    private static SAXParser newSaxParser() throws ParserConfigurationException, SAXException {
+        synchronized (SAX_PARSER_FACTORY) {
+            return SAX_PARSER_FACTORY.newSAXParser();
+        }
+    }
+
+    private static DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
+        synchronized (DOCUMENT_BUILDER_FACTORY) {
+            return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+        }
+    }
+
+    /**
+     * Creates a new namespace-aware DOM document object by parsing the given XML.
+     *
+     * @param xml XML content.
+     *
+     * @return DOM document.
+     */
+    public static Document newDocument(final String xml) {
+        final var builder = DOCUMENT_BUILDER_POOL.borrow();
         try {
-            return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+            return builder.parse(new InputSource(new StringReader(xml)));
         } catch (final Exception e) {
             throw new RuntimeException("XML parsing error: " + e);
+        } finally {
+            DOCUMENT_BUILDER_POOL.release(builder);
         }
     }
 
     /**
-     * Get an instance of an XML reader from the XMLReaderFactory.
+     * Get a new instance of an XML reader.  The reader is owned by the caller and is not pooled;
+     * prefer {@link #parse(InputSource, DefaultHandler)} where possible.
      *
      * @return the XMLReader.
      */
     public static XMLReader getXmlReader() {
         try {
-            final var factory = SAXParserFactory.newInstance();
-            factory.setNamespaceAware(true);
-            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-            return factory.newSAXParser().getXMLReader();
+            return newSaxParser().getXMLReader();
         } catch (final Exception e) {
             throw new RuntimeException("Unable to create XMLReader", e);
         }
     }
 
+    /**
+     * Parses the given source with a pooled, hardened SAX parser, reporting content and errors to the handler.
+     *
+     * @param source the XML to parse.
+     * @param handler the content and error handler.
+     * @throws SAXException if the XML is not well-formed or the handler aborts parsing.
+     * @throws IOException if the source cannot be read.
+     */
+    public static void parse(final InputSource source, final DefaultHandler handler) throws SAXException, IOException {
+        final var parser = SAX_PARSER_POOL.borrow();
+        try {
+            final var reader = parser.getXMLReader();
+            reader.setContentHandler(handler);
+            reader.setErrorHandler(handler);
+            reader.parse(source);
+        } finally {
+            SAX_PARSER_POOL.release(parser);
+        }
+    }
+
+    /**
+     * @return the pool of SAX parsers used by {@link #parse(InputSource, DefaultHandler)}, for monitoring.
+     */
+    public static XmlParserPool<SAXParser> getSaxParserPool() {
+        return SAX_PARSER_POOL;
+    }
+
+    /**
+     * @return the pool of DOM document builders used by {@link #newDocument(String)}, for monitoring.
+     */
+    public static XmlParserPool<DocumentBuilder> getDocumentBuilderPool() {
+        return DOCUMENT_BUILDER_POOL;
+    }
 
     /**
      * Retrieve the text for a group of elements. Each text element is an entry
@@ -112,7 +195,6 @@ public final class XmlUtils {
      */
     public static List<String> getTextForElements(final String xmlAsString, final String element) {
         final List<String> elements = new ArrayList<>(2);
-        final var reader = getXmlReader();
 
         final var handler = new DefaultHandler() {
 
@@ -145,11 +227,8 @@ public final class XmlUtils {
             }
         };
 
-        reader.setContentHandler(handler);
-        reader.setErrorHandler(handler);
-
         try {
-            reader.parse(new InputSource(new StringReader(xmlAsString)));
+            parse(new InputSource(new StringReader(xmlAsString)), handler);
         } catch (final Exception e) {
             LOGGER.error(e.getMessage(), e);
             return null;
@@ -167,7 +246,6 @@ public final class XmlUtils {
      * @return the text value of the element.
      */
     public static String getTextForElement(final String xmlAsString, final String element) {
-        final var reader = getXmlReader();
         final var builder = new StringBuilder();
 
         final var handler = new DefaultHandler() {
@@ -197,11 +275,8 @@ public final class XmlUtils {
             }
         };
 
-        reader.setContentHandler(handler);
-        reader.setErrorHandler(handler);
-
         try {
-            reader.parse(new InputSource(new StringReader(xmlAsString)));
+            parse(new InputSource(new StringReader(xmlAsString)), handler);
         } catch (final Exception e) {
             LOGGER.error(e.getMessage(), e);
             return null;
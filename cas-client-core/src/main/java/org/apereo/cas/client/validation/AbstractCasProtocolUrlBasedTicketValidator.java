@@ -20,7 +20,10 @@ package org.apereo.cas.client.validation;
 
 import org.apereo.cas.client.util.CommonUtils;
 
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Abstract class that knows the protocol for validating a CAS ticket.
@@ -36,10 +39,43 @@ public abstract class AbstractCasProtocolUrlBasedTicketValidator extends Abstrac
     }
 
     /**
-     * Retrieves the response from the server by opening a connection and merely reading the response.
+     * Retrieves the response from the server by opening a connection and merely reading the response, up to the
+     * {@link #getMaxResponseSize() maximum response size}.
+     * The {@link #getHttpClientTransport() HttpClient transport} is used when one is configured.
      */
     @Override
     protected final String retrieveResponseFromServer(final URL validationUrl, final String ticket) {
-        return CommonUtils.getResponseFromServer(validationUrl, getURLConnectionFactory(), getEncoding());
+        if (getHttpClientTransport() != null) {
+            return CommonUtils.getResponseFromServer(validationUrl, getHttpClientTransport(), getEncoding(),
+                getMaxResponseSize());
+        }
+        return CommonUtils.getResponseFromServer(validationUrl, getURLConnectionFactory(), getEncoding(),
+            getMaxResponseSize());
+    }
+
+    /**
+     * Opens the response from the server as a stream, through the
+     * {@link #getHttpClientTransport() HttpClient transport} when one is configured.
+     */
+    @Override
+    protected final InputStream openResponseStreamFromServer(final URL validationUrl, final String ticket) {
+        if (getHttpClientTransport() != null) {
+            return CommonUtils.getResponseStreamFromServer(validationUrl, getHttpClientTransport());
+        }
+        return CommonUtils.getResponseStreamFromServer(validationUrl, getURLConnectionFactory());
+    }
+
+    /**
+     * Retrieves the response without holding a thread while waiting on the CAS server when the
+     * {@link #getHttpClientTransport() HttpClient transport} is configured.
+     */
+    @Override
+    protected final CompletableFuture<String> retrieveResponseFromServerAsync(final URL validationUrl, final String ticket) {
+        if (getHttpClientTransport() != null) {
+            final var encoding = getEncoding();
+            return callServerAsync(() -> getHttpClientTransport().getAsync(validationUrl,
+                CommonUtils.isEmpty(encoding) ? null : Charset.forName(encoding), getMaxResponseSize()));
+        }
+        return super.retrieveResponseFromServerAsync(validationUrl, ticket);
     }
 }
@@ -20,10 +20,19 @@ package org.apereo.cas.client.validation;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.session.SingleSignOutFilter;
+import org.apereo.cas.client.ssl.HttpClientTransport;
+import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
 import org.apereo.cas.client.util.AbstractCasFilter;
+import org.apereo.cas.client.util.BackChannelLimiter;
+import org.apereo.cas.client.util.CasServerEndpoints;
+import org.apereo.cas.client.util.CleanUpScheduler;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.ReflectUtils;
 
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
 import jakarta.servlet.ServletException;
@@ -36,6 +45,9 @@ import javax.net.ssl.HostnameVerifier;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The filter that handles all the work of validating ticket requests.
@@ -49,7 +61,23 @@ import java.util.Properties;
  * <li><code>useSession</code> - store any of the useful information in a session attribute. (default: true)</li>
  * <li><code>hostnameVerifier</code> - name of class implementing a {@link HostnameVerifier}.</li>
  * <li><code>hostnameVerifierConfig</code> - name of configuration class (constructor argument of verifier).</li>
+ * <li><code>asyncValidation</code> - validate tickets asynchronously, releasing the container thread while waiting on
+ * the CAS server. The filter must be mapped with <code>async-supported</code> and the <code>ASYNC</code> dispatcher.
+ * (default: false)</li>
+ * <li><code>asyncValidationTimeout</code> - time in milliseconds after which an asynchronous validation is abandoned
+ * and the request answered with a gateway timeout. (default: 60000)</li>
+ * <li><code>useHttpClient</code> - send back-channel requests through a shared {@link HttpClientTransport}
+ * rather than a new {@link java.net.HttpURLConnection} per request. (default: false)</li>
+ * <li><code>connectTimeout</code> - connect timeout of the HttpClient transport, in milliseconds.</li>
+ * <li><code>readTimeout</code> - read timeout of the HttpClient transport, in milliseconds.</li>
+ * <li><code>cacheValidatedAssertions</code> - wrap the validator in a {@link CachingTicketValidator}. (default: false)</li>
+ * <li><code>validatedAssertionCacheMaxSize</code> - maximum number of cached assertions.</li>
+ * <li><code>validatedAssertionCacheTimeToLive</code> - time to live of a cached assertion, in milliseconds.
+ * Expired assertions are purged every <code>millisBetweenCleanUps</code> milliseconds.</li>
  * </ul>
+ * <p>
+ * The validator is wrapped in a {@link CoalescingTicketValidator}, so that concurrent validations of the same ticket
+ * for the same service share a single validation.
  *
  * @author Scott Battaglia
  * @version $Revision$ $Date$
@@ -57,6 +85,12 @@ import java.util.Properties;
  */
 public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
 
+    /** Default timeout of an asynchronous validation, in milliseconds. */
+    public static final long DEFAULT_ASYNC_VALIDATION_TIMEOUT = 60_000L;
+
+    /** Request attribute carrying the outcome of an asynchronous validation to the dispatch that follows it. */
+    private static final String ASYNC_VALIDATION_RESULT = AbstractTicketValidationFilter.class.getName() + ".asyncValidationResult";
+
     /** The TicketValidator we will use to validate tickets. */
     private TicketValidator ticketValidator;
 
@@ -76,6 +110,30 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
      */
     private boolean useSession = true;
 
+    /**
+     * Specify whether tickets are validated asynchronously, without holding the container thread while
+     * waiting on the CAS server.  Only applies to requests that support asynchronous processing.
+     */
+    private boolean asyncValidation;
+
+    /** Time in milliseconds after which an asynchronous validation is abandoned. */
+    private long asyncValidationTimeout = DEFAULT_ASYNC_VALIDATION_TIMEOUT;
+
+    /**
+     * Periodic purge of expired assertions, when validated assertions are cached.
+     */
+    private CleanUpScheduler.CleanUpTask assertionCacheCleanUp;
+
+    /**
+     * Endpoints of the CAS server, when it is reachable at several URL prefixes.
+     */
+    private CasServerEndpoints casServerEndpoints;
+
+    /**
+     * Limiter of the calls to the CAS server, shared by the ticket validator and proxy retriever of this filter.
+     */
+    private BackChannelLimiter backChannelLimiter;
+
     protected AbstractTicketValidationFilter(final Protocol protocol) {
         super(protocol);
     }
@@ -91,16 +149,71 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
         setExceptionOnValidationFailure(getBoolean(ConfigurationKeys.EXCEPTION_ON_VALIDATION_FAILURE));
         setRedirectAfterValidation(getBoolean(ConfigurationKeys.REDIRECT_AFTER_VALIDATION));
         setUseSession(getBoolean(ConfigurationKeys.USE_SESSION));
+        setAsyncValidation(getBoolean(ConfigurationKeys.ASYNC_VALIDATION));
+        setAsyncValidationTimeout(getLong(ConfigurationKeys.ASYNC_VALIDATION_TIMEOUT));
 
         if (!this.useSession && this.redirectAfterValidation) {
             logger.warn("redirectAfterValidation parameter may not be true when useSession parameter is false. Resetting it to false in order to prevent infinite redirects.");
             setRedirectAfterValidation(false);
         }
 
-        setTicketValidator(getTicketValidator(filterConfig));
+        if (this.casServerEndpoints != null) {
+            this.casServerEndpoints.stopHealthChecks();
+        }
+        this.casServerEndpoints = CasServerEndpoints.of(getString(ConfigurationKeys.CAS_SERVER_URL_PREFIX),
+            getString(ConfigurationKeys.CAS_SERVER_URL_PREFIXES), getLong(ConfigurationKeys.CAS_SERVER_HEALTH_CHECK_INTERVAL));
+        if (this.casServerEndpoints != null) {
+            logger.debug("Routing calls to the CAS server to {}", this.casServerEndpoints);
+            this.casServerEndpoints.startHealthChecks(new HttpsURLConnectionFactory(getHostnameVerifier(), getSSLConfig()));
+        }
+
+        final var casServerUrlPrefix = getString(ConfigurationKeys.CAS_SERVER_URL_PREFIX);
+        this.backChannelLimiter = casServerUrlPrefix == null ? null : BackChannelLimiter.create(casServerUrlPrefix,
+            getInt(ConfigurationKeys.MAX_CONCURRENT_REQUESTS), getLong(ConfigurationKeys.MAX_CONCURRENT_REQUESTS_WAIT_TIMEOUT));
+
+        final var validator = getTicketValidator(filterConfig);
+        if (validator instanceof AbstractUrlBasedTicketValidator) {
+            final var urlBasedValidator = (AbstractUrlBasedTicketValidator) validator;
+            urlBasedValidator.setCasServerEndpoints(this.casServerEndpoints);
+            urlBasedValidator.setUseVirtualThreads(getBoolean(ConfigurationKeys.USE_VIRTUAL_THREADS));
+            urlBasedValidator.setBackChannelLimiter(this.backChannelLimiter);
+            urlBasedValidator.setStreamResponses(getBoolean(ConfigurationKeys.STREAM_RESPONSES));
+            urlBasedValidator.setMaxResponseSize(getLong(ConfigurationKeys.MAX_RESPONSE_SIZE));
+        }
+        final var coalescingValidator = validator != null ? new CoalescingTicketValidator(validator) : null;
+        if (coalescingValidator != null && getBoolean(ConfigurationKeys.CACHE_VALIDATED_ASSERTIONS)) {
+            final var cachingValidator = new CachingTicketValidator(coalescingValidator);
+            cachingValidator.setMaxSize(getInt(ConfigurationKeys.VALIDATED_ASSERTION_CACHE_MAX_SIZE));
+            cachingValidator.setTimeToLive(getLong(ConfigurationKeys.VALIDATED_ASSERTION_CACHE_TIME_TO_LIVE));
+            SingleSignOutFilter.addLogoutRequestListener(cachingValidator);
+            if (this.assertionCacheCleanUp != null) {
+                this.assertionCacheCleanUp.cancel();
+            }
+            this.assertionCacheCleanUp = CleanUpScheduler.getDefault().schedule("validatedAssertionCache",
+                cachingValidator::cleanUp, getInt(ConfigurationKeys.MILLIS_BETWEEN_CLEAN_UPS));
+            logger.debug("Caching validated assertions using [{}]", cachingValidator);
+            setTicketValidator(cachingValidator);
+        } else {
+            setTicketValidator(coalescingValidator);
+        }
         super.initInternal(filterConfig);
     }
 
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (this.ticketValidator instanceof CachingTicketValidator) {
+            SingleSignOutFilter.removeLogoutRequestListener((CachingTicketValidator) this.ticketValidator);
+        }
+        if (this.assertionCacheCleanUp != null) {
+            this.assertionCacheCleanUp.cancel();
+            this.assertionCacheCleanUp = null;
+        }
+        if (this.casServerEndpoints != null) {
+            this.casServerEndpoints.stopHealthChecks();
+        }
+    }
+
     @Override
     public final void doFilter(final ServletRequest servletRequest, final ServletResponse servletResponse,
                                final FilterChain filterChain) throws IOException, ServletException {
@@ -111,46 +224,175 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
 
         final var request = (HttpServletRequest) servletRequest;
         final var response = (HttpServletResponse) servletResponse;
+
+        if (request.getDispatcherType() == DispatcherType.ASYNC && request.getAttribute(ASYNC_VALIDATION_RESULT) != null) {
+            final var result = request.getAttribute(ASYNC_VALIDATION_RESULT);
+            request.removeAttribute(ASYNC_VALIDATION_RESULT);
+            if (result instanceof TicketValidationException) {
+                throw new ServletException((TicketValidationException) result);
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         final var ticket = retrieveTicketFromRequest(request);
 
         if (CommonUtils.isNotBlank(ticket)) {
             logger.debug("Attempting to validate ticket: {}", ticket);
 
+            if (this.asyncValidation && request.isAsyncSupported()) {
+                validateAsynchronously(request, response, ticket);
+                return;
+            }
+
             try {
                 final var assertion = this.ticketValidator.validate(ticket,
                     constructServiceUrl(request, response));
 
-                logger.debug("Successfully authenticated user: {}", assertion.getPrincipal().getName());
-
-                request.setAttribute(CONST_CAS_ASSERTION, assertion);
-
-                if (this.useSession) {
-                    request.getSession().setAttribute(CONST_CAS_ASSERTION, assertion);
-                }
-                onSuccessfulValidation(request, response, assertion);
-
-                if (this.redirectAfterValidation) {
-                    logger.debug("Redirecting after successful ticket validation.");
-                    response.sendRedirect(constructServiceUrl(request, response));
+                if (handleSuccessfulValidation(request, response, assertion)) {
                     return;
                 }
             } catch (final TicketValidationException e) {
-                logger.debug(e.getMessage(), e);
-
-                onFailedValidation(request, response);
-
+                handleFailedValidation(request, response, e);
                 if (this.exceptionOnValidationFailure) {
                     throw new ServletException(e);
                 }
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+
+    }
+
+    /**
+     * Validates the ticket with {@link TicketValidator#validateAsync(String, String)}, releasing the container
+     * thread until the CAS server has responded.  The request is then either completed (redirect or error) or
+     * dispatched again, in which case this filter lets it through the rest of the chain.  If the validation outlasts
+     * {@link #setAsyncValidationTimeout(long)} or the container reports an error first, the request is completed
+     * there and then and the validation is cancelled, so that a call still waiting to be made to the CAS server is
+     * dropped; the late outcome of a call already made is ignored.  A validation that cannot even be started
+     * completes the request in the same way as one that fails later.
+     */
+    private void validateAsynchronously(final HttpServletRequest request, final HttpServletResponse response,
+                                        final String ticket) {
+        final var asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(this.asyncValidationTimeout);
+        // only one of the validation, the timeout and the error may complete or dispatch the request
+        final var finished = new AtomicBoolean();
+        final var validation = startAsyncValidation(request, response, ticket);
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(final AsyncEvent event) {
+                // nothing to do
+            }
+
+            @Override
+            public void onTimeout(final AsyncEvent event) throws IOException {
+                if (finished.compareAndSet(false, true)) {
+                    logger.warn("Timed out validating ticket [{}]", ticket);
+                    validation.cancel(false);
+                    response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+                    asyncContext.complete();
+                }
+            }
 
-                response.sendError(HttpServletResponse.SC_FORBIDDEN, e.getMessage());
+            @Override
+            public void onError(final AsyncEvent event) {
+                if (finished.compareAndSet(false, true)) {
+                    logger.error("Unable to validate ticket [{}]", ticket, event.getThrowable());
+                    validation.cancel(false);
+                    asyncContext.complete();
+                }
+            }
 
+            @Override
+            public void onStartAsync(final AsyncEvent event) {
+                // nothing to do
+            }
+        });
+        validation.whenComplete((assertion, throwable) -> {
+            if (!finished.compareAndSet(false, true)) {
+                logger.debug("Ignoring the outcome of validating ticket [{}], the request is already completed", ticket);
                 return;
             }
+            try {
+                if (throwable == null) {
+                    if (handleSuccessfulValidation(request, response, assertion)) {
+                        asyncContext.complete();
+                    } else {
+                        request.setAttribute(ASYNC_VALIDATION_RESULT, assertion);
+                        asyncContext.dispatch();
+                    }
+                    return;
+                }
+                final var cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable;
+                if (!(cause instanceof TicketValidationException)) {
+                    logger.error("Unable to validate ticket [{}]", ticket, cause);
+                    response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    asyncContext.complete();
+                    return;
+                }
+                final var e = (TicketValidationException) cause;
+                handleFailedValidation(request, response, e);
+                if (this.exceptionOnValidationFailure) {
+                    request.setAttribute(ASYNC_VALIDATION_RESULT, e);
+                    asyncContext.dispatch();
+                } else {
+                    asyncContext.complete();
+                }
+            } catch (final IOException | RuntimeException e) {
+                logger.error(e.getMessage(), e);
+                asyncContext.complete();
+            }
+        });
+    }
+
+    private CompletableFuture<Assertion> startAsyncValidation(final HttpServletRequest request,
+                                                              final HttpServletResponse response, final String ticket) {
+        try {
+            return this.ticketValidator.validateAsync(ticket, constructServiceUrl(request, response));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
+    }
 
-        filterChain.doFilter(request, response);
+    /**
+     * @return true if the response was committed by redirecting, false if the filter chain should proceed.
+     */
+    private boolean handleSuccessfulValidation(final HttpServletRequest request, final HttpServletResponse response,
+                                               final Assertion assertion) throws IOException {
+        logger.debug("Successfully authenticated user: {}", assertion.getPrincipal().getName());
+
+        request.setAttribute(CONST_CAS_ASSERTION, assertion);
 
+        if (this.useSession) {
+            request.getSession().setAttribute(CONST_CAS_ASSERTION, assertion);
+        }
+        onSuccessfulValidation(request, response, assertion);
+
+        if (this.redirectAfterValidation) {
+            logger.debug("Redirecting after successful ticket validation.");
+            response.sendRedirect(constructServiceUrl(request, response));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sends the forbidden error unless {@link #exceptionOnValidationFailure} is set, in which case the caller
+     * is responsible for raising the exception.
+     */
+    private void handleFailedValidation(final HttpServletRequest request, final HttpServletResponse response,
+                                        final TicketValidationException e) throws IOException {
+        logger.debug(e.getMessage(), e);
+
+        onFailedValidation(request, response);
+
+        if (!this.exceptionOnValidationFailure) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, e.getMessage());
+        }
     }
 
     public final void setTicketValidator(final TicketValidator ticketValidator) {
@@ -169,6 +411,14 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
         this.useSession = useSession;
     }
 
+    public final void setAsyncValidation(final boolean asyncValidation) {
+        this.asyncValidation = asyncValidation;
+    }
+
+    public final void setAsyncValidationTimeout(final long asyncValidationTimeout) {
+        this.asyncValidationTimeout = asyncValidationTimeout;
+    }
+
     /**
      * Template method to return the appropriate validator.
      *
@@ -179,6 +429,22 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
         return this.ticketValidator;
     }
 
+    /**
+     * @return the endpoints of the CAS server configured through <code>casServerUrlPrefixes</code>, or null if there are
+     * none.  Set during initialization, before {@link #getTicketValidator(FilterConfig)} is called.
+     */
+    protected final CasServerEndpoints getCasServerEndpoints() {
+        return this.casServerEndpoints;
+    }
+
+    /**
+     * @return the limiter of the calls to the CAS server configured through <code>maxConcurrentRequests</code>, or null
+     * if calls are not limited.  Set during initialization, before {@link #getTicketValidator(FilterConfig)} is called.
+     */
+    protected final BackChannelLimiter getBackChannelLimiter() {
+        return this.backChannelLimiter;
+    }
+
     /**
      * Gets the ssl config to use for HTTPS connections
      * if one is configured for this filter.
@@ -221,6 +487,22 @@ public abstract class AbstractTicketValidationFilter extends AbstractCasFilter {
         return null;
     }
 
+    /**
+     * Gets the {@link HttpClientTransport} to use for back-channel requests if one is enabled for this filter.
+     *
+     * @param sslConfiguration the factory holding the SSL configuration of this filter.
+     * @return the transport, or null if <code>useHttpClient</code> is not enabled.
+     */
+    protected HttpClientTransport getHttpClientTransport(final HttpsURLConnectionFactory sslConfiguration) {
+        if (!getBoolean(ConfigurationKeys.USE_HTTP_CLIENT)) {
+            return null;
+        }
+        final var transport = new HttpClientTransport(sslConfiguration);
+        transport.setConnectTimeout(getLong(ConfigurationKeys.CONNECT_TIMEOUT));
+        transport.setReadTimeout(getLong(ConfigurationKeys.READ_TIMEOUT));
+        return transport;
+    }
+
     /**
      * Pre-process the request before the normal filter process starts.  This could be useful for pre-empting code.
      *
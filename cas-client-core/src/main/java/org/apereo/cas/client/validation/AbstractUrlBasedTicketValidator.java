@@ -18,28 +18,73 @@
  */
 package org.apereo.cas.client.validation;
 
+import org.apereo.cas.client.jfr.TicketValidationEvent;
+import org.apereo.cas.client.jfr.ValidationPhases;
+import org.apereo.cas.client.metrics.CasClientMetrics;
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
+import org.apereo.cas.client.ssl.HttpClientTransport;
 import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
 import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
+import org.apereo.cas.client.util.BackChannelExecutors;
+import org.apereo.cas.client.util.BackChannelLimiter;
+import org.apereo.cas.client.util.BoundedInputStream;
+import org.apereo.cas.client.util.CasServerEndpoints;
 import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.util.ResponseSizeExceededException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
-import java.util.HashMap;
+import java.net.http.HttpClient;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Abstract validator implementation for tickets that must be validated against a server.
+ * <p>
+ * By default the response is read into a {@link String} and passed to {@link #parseResponseFromServer(String)}.
+ * When {@link #setStreamResponses(boolean) enabled}, and the validator can
+ * {@link #openResponseStreamFromServer(URL, String) open the response as a stream}, the response is instead passed as a
+ * {@link Reader} to {@link #parseResponseFromServer(Reader)} as it arrives, so that it is never held in full.  A
+ * response larger than {@link #setMaxResponseSize(long)} is rejected; when streamed, as soon as the limit is reached.
+ * <p>
+ * The validation URL is built from a template that is computed once, from the CAS server prefix, the
+ * {@link #getUrlSuffix() suffix}, the renew flag, the {@link #populateUrlAttributeMap(Map) additional} and the
+ * custom parameters, so that only the ticket and the service are encoded on every validation.  Subclasses whose
+ * additional parameters change must call {@link #resetValidationUrlTemplate()}.
+ * <p>
+ * The latency and outcome of every validation, the error code of rejected tickets and the size of the responses are
+ * reported to the {@link CasClientMetricsHolder#getDefault() default metrics}.  When enabled in a Flight Recorder
+ * recording, a {@link TicketValidationEvent} also breaks every validation down into its phases.
+ * <p>
+ * A CAS server reachable at several URL prefixes can be given as {@link #setCasServerEndpoints(CasServerEndpoints)
+ * endpoints}, in which case validations go to the fastest available endpoint and move on to the next one when an
+ * endpoint cannot be connected to.
  *
  * @author Scott Battaglia
  * @since 3.1
  */
 public abstract class AbstractUrlBasedTicketValidator implements TicketValidator {
 
+    /** Default maximum size of a response from the CAS server, in bytes. */
+    public static final long DEFAULT_MAX_RESPONSE_SIZE = 10L * 1024 * 1024;
+
     protected final Logger logger = LoggerFactory.getLogger(getClass());
 
     /**
@@ -55,6 +100,27 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
      */
     private HttpURLConnectionFactory urlConnectionFactory = new HttpsURLConnectionFactory();
 
+    /**
+     * Optional {@link HttpClient}-based transport. When set, it is used instead of {@link #urlConnectionFactory}.
+     */
+    private HttpClientTransport httpClientTransport;
+
+    /**
+     * Executor running blocking calls to the CAS server on behalf of {@link #validateAsync(String, String)}.
+     */
+    private Executor backChannelExecutor = BackChannelExecutors.getDefault();
+
+    /**
+     * Whether blocking calls to the CAS server made on behalf of {@link #validateAsync(String, String)} run on
+     * virtual threads.
+     */
+    private boolean useVirtualThreads;
+
+    /**
+     * Limiter shared by all calls to this CAS server, or null if calls are not limited.
+     */
+    private BackChannelLimiter backChannelLimiter;
+
     /**
      * Whether the request include a renew or not.
      */
@@ -67,6 +133,26 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
 
     private String encoding;
 
+    /**
+     * Whether responses are parsed as they are read, rather than read into a String first.
+     */
+    private boolean streamResponses;
+
+    /**
+     * Maximum size of a response from the CAS server, in bytes.
+     */
+    private long maxResponseSize = DEFAULT_MAX_RESPONSE_SIZE;
+
+    /**
+     * Pre-encoded validation URL, built on first use.
+     */
+    private volatile ValidationUrlTemplate validationUrlTemplate;
+
+    /**
+     * Endpoints of the CAS server to route calls to, or null to only call {@link #casServerUrlPrefix}.
+     */
+    private CasServerEndpoints casServerEndpoints;
+
     /**
      * Constructs a new TicketValidator with the casServerUrlPrefix.
      *
@@ -79,22 +165,251 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
 
     @Override
     public final Assertion validate(final String ticket, final String service) throws TicketValidationException {
+        final var event = new TicketValidationEvent();
+        final var phases = event.isEnabled() ? new ValidationPhases() : null;
+        event.begin();
+        final var start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return validateInternal(ticket, service, phases);
+        } catch (final Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            recordValidation(start, failure, event, phases, false);
+        }
+    }
+
+    private Assertion validateInternal(final String ticket, final String service,
+                                       final ValidationPhases phases) throws TicketValidationException {
         final var validationUrl = constructValidationUrl(ticket, service);
         logger.debug("Constructing validation url: {}", validationUrl);
 
         try {
             logger.debug("Retrieving response from server.");
-            final var serverResponse = retrieveResponseFromServer(new URL(validationUrl), ticket);
+            final var url = new URL(validationUrl);
+            if (phases != null) {
+                phases.urlBuilt();
+            }
+            if (this.streamResponses) {
+                final var assertion = validateStream(validationUrl, url, ticket, phases);
+                if (assertion != null) {
+                    return assertion;
+                }
+            }
+            final Supplier<String> call = () -> callEndpoints(validationUrl, url,
+                endpointUrl -> retrieveResponseFromServer(endpointUrl, ticket));
+            final String serverResponse;
+            try {
+                serverResponse = callServer(phases == null ? call : () -> phases.record(call));
+            } catch (final RuntimeException e) {
+                final var exceeded = findResponseSizeExceeded(e);
+                if (exceeded != null) {
+                    throw new TicketValidationException(exceeded.getMessage(), exceeded);
+                }
+                throw e;
+            }
+            if (phases != null) {
+                phases.responseReceived();
+            }
+            return processResponseFromServer(serverResponse, phases);
+        } catch (final MalformedURLException e) {
+            throw new TicketValidationException(e);
+        }
+    }
 
-            if (serverResponse == null) {
-                throw new TicketValidationException("The CAS server returned no response.");
+    /**
+     * Parses the response as it is read, within the same call to the CAS server.
+     *
+     * @return the assertion, or null if this validator cannot open the response as a stream.
+     */
+    private Assertion validateStream(final String validationUrl, final URL url, final String ticket,
+                                     final ValidationPhases phases) throws TicketValidationException {
+        final Supplier<Assertion> call = () -> {
+            final var response = callEndpoints(validationUrl, url, endpointUrl -> {
+                try {
+                    return openResponseStreamFromServer(endpointUrl, ticket);
+                } catch (final IOException e) {
+                    throw new CompletionException(new TicketValidationException(e));
+                }
+            });
+            if (response == null) {
+                return null;
+            }
+            final var boundedResponse = new BoundedInputStream(response, this.maxResponseSize);
+            try (var reader = new InputStreamReader(boundedResponse, getCharset())) {
+                return parseResponseFromServer(reader);
+            } catch (final TicketValidationException e) {
+                throw new CompletionException(e);
+            } catch (final IOException e) {
+                throw new CompletionException(new TicketValidationException(e.getMessage(), e));
+            } finally {
+                CasClientMetricsHolder.getDefault().recordResponseSize(getClass(), boundedResponse.getCount());
+                if (phases != null) {
+                    phases.parsed();
+                    phases.setResponseSize(boundedResponse.getCount());
+                }
+            }
+        };
+        try {
+            return callServer(phases == null ? call : () -> phases.record(call));
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof TicketValidationException) {
+                throw (TicketValidationException) e.getCause();
             }
+            throw e;
+        }
+    }
 
-            logger.debug("Server response: {}", serverResponse);
+    private static ResponseSizeExceededException findResponseSizeExceeded(final Throwable failure) {
+        for (var cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ResponseSizeExceededException) {
+                return (ResponseSizeExceededException) cause;
+            }
+        }
+        return null;
+    }
 
-            return parseResponseFromServer(serverResponse);
+    private void recordValidation(final long start, final Throwable failure, final TicketValidationEvent event,
+                                  final ValidationPhases phases, final boolean asynchronous) {
+        final var duration = System.nanoTime() - start;
+        final var metrics = CasClientMetricsHolder.getDefault();
+        final var cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        final CasClientMetrics.Outcome outcome;
+        String code = null;
+        if (cause == null) {
+            outcome = CasClientMetrics.Outcome.SUCCESS;
+        } else if (cause instanceof TicketValidationException) {
+            outcome = CasClientMetrics.Outcome.FAILURE;
+            code = ((TicketValidationException) cause).getCode();
+        } else {
+            outcome = CasClientMetrics.Outcome.ERROR;
+        }
+        metrics.recordValidation(getClass(), outcome, duration);
+        if (code != null) {
+            metrics.recordValidationErrorCode(code);
+        }
+
+        if (phases != null && event.shouldCommit()) {
+            event.setValidator(getClass().getName());
+            event.setCasServerUrlPrefix(this.casServerUrlPrefix);
+            event.setOutcome(outcome.name());
+            event.setErrorCode(code);
+            event.setAsynchronous(asynchronous);
+            event.setPhases(phases);
+            event.commit();
+        }
+    }
+
+    private Charset getCharset() {
+        return CommonUtils.isEmpty(this.encoding) ? Charset.defaultCharset() : Charset.forName(this.encoding);
+    }
+
+    /**
+     * Validates the ticket without blocking the calling thread.  The response is retrieved through
+     * {@link #retrieveResponseFromServerAsync(URL, String)} and parsed on the thread that completes it.
+     * The {@link TicketValidationEvent} of an asynchronous validation reports the wait for the whole response as
+     * the time to first byte.
+     */
+    @Override
+    public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+        final var event = new TicketValidationEvent();
+        final var phases = event.isEnabled() ? new ValidationPhases() : null;
+        event.begin();
+        final var start = System.nanoTime();
+        final var validation = validateAsyncInternal(ticket, service, phases);
+        return CommonUtils.propagateCancellation(
+            validation.whenComplete((assertion, failure) -> recordValidation(start, failure, event, phases, true)), validation);
+    }
+
+    private CompletableFuture<Assertion> validateAsyncInternal(final String ticket, final String service,
+                                                               final ValidationPhases phases) {
+        final var validationUrl = constructValidationUrl(ticket, service);
+        logger.debug("Constructing validation url: {}", validationUrl);
+
+        final URL url;
+        try {
+            url = new URL(validationUrl);
         } catch (final MalformedURLException e) {
-            throw new TicketValidationException(e);
+            return CompletableFuture.failedFuture(new TicketValidationException(e));
+        }
+        if (phases != null) {
+            phases.urlBuilt();
+        }
+        logger.debug("Retrieving response from server asynchronously.");
+        final var response = callEndpointsAsync(validationUrl, url,
+            endpointUrl -> retrieveResponseFromServerAsync(endpointUrl, ticket));
+        final var boundedResponse = response.exceptionally(e -> {
+            final var exceeded = findResponseSizeExceeded(e);
+            if (exceeded != null) {
+                throw new CompletionException(new TicketValidationException(exceeded.getMessage(), exceeded));
+            }
+            throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+        });
+        return CommonUtils.propagateCancellation(boundedResponse.thenApply(serverResponse -> {
+            if (phases != null) {
+                phases.responseReceived();
+            }
+            try {
+                return processResponseFromServer(serverResponse, phases);
+            } catch (final TicketValidationException e) {
+                throw new CompletionException(e);
+            }
+        }), response);
+    }
+
+    /**
+     * Calls the CAS server, failing over to its other {@link #setCasServerEndpoints(CasServerEndpoints) endpoints}
+     * when it cannot be connected to.
+     */
+    private <T> T callEndpoints(final String validationUrl, final URL url, final Function<URL, T> call) {
+        final var endpoints = this.casServerEndpoints;
+        if (endpoints == null) {
+            return call.apply(url);
+        }
+        return endpoints.call(endpoint -> call.apply(toEndpointUrl(endpoint, validationUrl)));
+    }
+
+    private <T> CompletableFuture<T> callEndpointsAsync(final String validationUrl, final URL url,
+                                                        final Function<URL, CompletableFuture<T>> call) {
+        final var endpoints = this.casServerEndpoints;
+        if (endpoints == null) {
+            return call.apply(url);
+        }
+        return endpoints.callAsync(endpoint -> call.apply(toEndpointUrl(endpoint, validationUrl)));
+    }
+
+    private URL toEndpointUrl(final CasServerEndpoints.Endpoint endpoint, final String validationUrl) {
+        try {
+            return new URL(endpoint.resolve(this.casServerUrlPrefix, validationUrl));
+        } catch (final MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private Assertion processResponseFromServer(final String serverResponse,
+                                                final ValidationPhases phases) throws TicketValidationException {
+        if (serverResponse == null) {
+            throw new TicketValidationException("The CAS server returned no response.");
+        }
+        CasClientMetricsHolder.getDefault().recordResponseSize(getClass(), serverResponse.length());
+        if (phases != null) {
+            phases.setResponseSize(serverResponse.length());
+        }
+        // the response is bounded while it is read unless retrieveResponseFromServer is overridden; each character
+        // took at least one byte to transfer
+        if (serverResponse.length() > this.maxResponseSize) {
+            throw new TicketValidationException("Response exceeds the maximum size of " + this.maxResponseSize + " bytes");
+        }
+
+        logger.debug("Server response: {}", serverResponse);
+
+        try {
+            return parseResponseFromServer(serverResponse);
+        } finally {
+            if (phases != null) {
+                phases.parsed();
+            }
         }
     }
 
@@ -121,9 +436,32 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
      * @return the fully constructed URL.
      */
     protected final String constructValidationUrl(final String ticket, final String serviceUrl) {
-        final Map<String, String> urlParameters = new HashMap<>();
+        var template = this.validationUrlTemplate;
+        if (template == null) {
+            template = buildValidationUrlTemplate();
+            this.validationUrlTemplate = template;
+        }
+        if (template.reusable) {
+            return template.append(ticket, serviceUrl);
+        }
+        return buildValidationUrlTemplate(ticket, serviceUrl).append(null, null);
+    }
+
+    /**
+     * Discards the validation URL template, so that it is built again from the current configuration, including
+     * the parameters added by {@link #populateUrlAttributeMap(Map)}, on the next validation.
+     */
+    protected final void resetValidationUrlTemplate() {
+        this.validationUrlTemplate = null;
+    }
 
-        logger.debug("Placing URL parameters in map.");
+    private ValidationUrlTemplate buildValidationUrlTemplate() {
+        logger.debug("Building validation url template.");
+        return buildValidationUrlTemplate(ValidationUrlTemplate.TICKET, ValidationUrlTemplate.SERVICE);
+    }
+
+    private ValidationUrlTemplate buildValidationUrlTemplate(final String ticket, final String serviceUrl) {
+        final Map<String, String> urlParameters = new LinkedHashMap<>();
         urlParameters.put("ticket", ticket);
         urlParameters.put("service", serviceUrl);
 
@@ -131,56 +469,26 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
             urlParameters.put("renew", "true");
         }
 
-        logger.debug("Calling template URL attribute map.");
         populateUrlAttributeMap(urlParameters);
 
-        logger.debug("Loading custom parameters from configuration.");
         if (this.customParameters != null) {
             urlParameters.putAll(this.customParameters);
         }
 
-        final var suffix = getUrlSuffix();
-        final var buffer = new StringBuilder(urlParameters.size() * 10 + this.casServerUrlPrefix.length()
-                                             + suffix.length() + 1);
-
-        var i = 0;
-
-        buffer.append(this.casServerUrlPrefix);
-        buffer.append(suffix);
-
-        for (final var entry : urlParameters.entrySet()) {
-            final var key = entry.getKey();
-            final var value = entry.getValue();
-
-            if (value != null) {
-                buffer.append(i++ == 0 ? "?" : "&");
-                buffer.append(key);
-                buffer.append("=");
-                final var encodedValue = encodeUrl(value);
-                buffer.append(encodedValue);
-            }
-        }
-
-        return buffer.toString();
-
+        return new ValidationUrlTemplate(this.casServerUrlPrefix + getUrlSuffix(), urlParameters);
     }
 
     /**
      * Encodes a URL using the URLEncoder format.
      *
      * @param url the url to encode.
-     * @return the encoded url, or the original url if "UTF-8" character encoding could not be found.
+     * @return the encoded url.
      */
     protected static String encodeUrl(final String url) {
         if (url == null) {
             return null;
         }
-
-        try {
-            return URLEncoder.encode(url, "UTF-8");
-        } catch (final UnsupportedEncodingException e) {
-            return url;
-        }
+        return URLEncoder.encode(url, StandardCharsets.UTF_8);
     }
 
     /**
@@ -193,6 +501,30 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
      */
     protected abstract Assertion parseResponseFromServer(final String response) throws TicketValidationException;
 
+    /**
+     * Parses the response from the server into a CAS Assertion as it is read, when responses are
+     * {@link #setStreamResponses(boolean) streamed}.  Unless overridden, the response is read into a String and passed
+     * to {@link #parseResponseFromServer(String)}.
+     *
+     * @param response the response from the server, which is closed by the caller.
+     * @return the CAS assertion if one could be parsed from the response.
+     * @throws TicketValidationException if an Assertion could not be created.
+     * @since 4.0.4
+     */
+    protected Assertion parseResponseFromServer(final Reader response) throws TicketValidationException {
+        final var builder = new StringBuilder(1024);
+        final var buffer = new char[4096];
+        try {
+            int charsRead;
+            while ((charsRead = response.read(buffer)) != -1) {
+                builder.append(buffer, 0, charsRead);
+            }
+        } catch (final IOException e) {
+            throw new TicketValidationException(e.getMessage(), e);
+        }
+        return parseResponseFromServer(builder.toString());
+    }
+
     /**
      * Contacts the CAS Server to retrieve the response for the ticket validation.
      *
@@ -203,6 +535,64 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
 
     protected abstract String retrieveResponseFromServer(URL validationUrl, String ticket);
 
+    /**
+     * Contacts the CAS Server and returns the response for the ticket validation as a stream, without reading it.
+     * Unless overridden, responses are not streamed and this returns null.
+     *
+     * @param validationUrl the url to send the validation request to.
+     * @param ticket the ticket to validate.
+     * @return the response from the CAS server, which the caller closes, or null if it cannot be streamed.
+     * @throws IOException if the CAS server cannot be contacted.
+     * @since 4.0.4
+     */
+    protected InputStream openResponseStreamFromServer(final URL validationUrl, final String ticket) throws IOException {
+        return null;
+    }
+
+    /**
+     * Contacts the CAS Server to retrieve the response for the ticket validation without blocking the calling thread.
+     * Unless overridden, {@link #retrieveResponseFromServer(URL, String)} is run on the
+     * {@link #setBackChannelExecutor(Executor) back-channel executor}.
+     *
+     * @param validationUrl the url to send the validation request to.
+     * @param ticket the ticket to validate.
+     * @return a future completed with the response from the CAS server.
+     * @since 4.0.4
+     */
+    protected CompletableFuture<String> retrieveResponseFromServerAsync(final URL validationUrl, final String ticket) {
+        return callServerAsync(() -> CompletableFuture.supplyAsync(() -> retrieveResponseFromServer(validationUrl, ticket),
+            this.backChannelExecutor));
+    }
+
+    /**
+     * Makes a blocking call to the CAS server on the calling thread, within the server's concurrency limit.  The
+     * caller waits for the response either way, so handing the call to another thread would gain nothing.
+     *
+     * @param call the call to the CAS server.
+     * @param <T> the type of result.
+     * @return the result of the call.
+     * @since 4.0.4
+     */
+    protected final <T> T callServer(final Supplier<T> call) {
+        final var limiter = this.backChannelLimiter;
+        return limiter == null ? call.get() : limiter.call(call);
+    }
+
+    /**
+     * Starts a non-blocking call to the CAS server within the server's concurrency limit.  A call waiting for the
+     * limit is started on the {@link #setBackChannelExecutor(Executor) back-channel executor}, unless the returned
+     * future is cancelled first.
+     *
+     * @param call starts the call to the CAS server.
+     * @param <T> the type of result.
+     * @return the future result of the call.
+     * @since 4.0.4
+     */
+    protected final <T> CompletableFuture<T> callServerAsync(final Supplier<CompletableFuture<T>> call) {
+        final var limiter = this.backChannelLimiter;
+        return limiter == null ? call.get() : limiter.callAsync(call, this.backChannelExecutor);
+    }
+
     protected final String getEncoding() {
         return this.encoding;
     }
@@ -211,12 +601,40 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
         this.encoding = encoding;
     }
 
+    protected final boolean isStreamResponses() {
+        return this.streamResponses;
+    }
+
+    /**
+     * Parses the responses of {@link #validate(String, String)} as they are read from the CAS server.  The
+     * asynchronous validation still reads the whole response first.  A subclass that overrides
+     * {@link #parseResponseFromServer(String)} should also override {@link #parseResponseFromServer(Reader)}.
+     *
+     * @param streamResponses true to stream responses.
+     */
+    public final void setStreamResponses(final boolean streamResponses) {
+        this.streamResponses = streamResponses;
+    }
+
+    protected final long getMaxResponseSize() {
+        return this.maxResponseSize;
+    }
+
+    /**
+     * @param maxResponseSize the maximum size of a response from the CAS server, in bytes.
+     */
+    public final void setMaxResponseSize(final long maxResponseSize) {
+        CommonUtils.assertTrue(maxResponseSize > 0, "maxResponseSize must be greater than zero.");
+        this.maxResponseSize = maxResponseSize;
+    }
+
     protected final boolean isRenew() {
         return this.renew;
     }
 
     public final void setRenew(final boolean renew) {
         this.renew = renew;
+        resetValidationUrlTemplate();
     }
 
     protected final String getCasServerUrlPrefix() {
@@ -227,8 +645,13 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
         return this.customParameters;
     }
 
+    /**
+     * @param customParameters parameters added to every validation URL.  Later changes to the map are not
+     * seen by this validator, which must be given the map again.
+     */
     public final void setCustomParameters(final Map<String, String> customParameters) {
         this.customParameters = customParameters;
+        resetValidationUrlTemplate();
     }
 
     protected HttpURLConnectionFactory getURLConnectionFactory() {
@@ -238,4 +661,150 @@ public abstract class AbstractUrlBasedTicketValidator implements TicketValidator
     public void setURLConnectionFactory(final HttpURLConnectionFactory urlConnectionFactory) {
         this.urlConnectionFactory = urlConnectionFactory;
     }
+
+    protected final HttpClientTransport getHttpClientTransport() {
+        return this.httpClientTransport;
+    }
+
+    public final void setHttpClientTransport(final HttpClientTransport httpClientTransport) {
+        this.httpClientTransport = httpClientTransport;
+    }
+
+    protected final Executor getBackChannelExecutor() {
+        return this.backChannelExecutor;
+    }
+
+    public final void setBackChannelExecutor(final Executor backChannelExecutor) {
+        CommonUtils.assertNotNull(backChannelExecutor, "backChannelExecutor cannot be null.");
+        this.backChannelExecutor = backChannelExecutor;
+    }
+
+    protected final boolean isUseVirtualThreads() {
+        return this.useVirtualThreads;
+    }
+
+    /**
+     * Runs the blocking calls to the CAS server made on behalf of {@link #validateAsync(String, String)} on virtual
+     * threads, unless another back-channel executor was set.  {@link #validate(String, String)}, like proxy ticket
+     * retrieval, always calls the CAS server on the calling thread.
+     *
+     * @param useVirtualThreads true to use virtual threads.
+     */
+    public final void setUseVirtualThreads(final boolean useVirtualThreads) {
+        if (useVirtualThreads && !BackChannelExecutors.isVirtualThreadSupported()) {
+            logger.warn("Virtual threads are not supported by this JDK; calls to the CAS server run on platform threads.");
+        }
+        if (useVirtualThreads && this.backChannelExecutor == BackChannelExecutors.getDefault()) {
+            this.backChannelExecutor = BackChannelExecutors.getVirtualThreadExecutor();
+        }
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
+    protected final BackChannelLimiter getBackChannelLimiter() {
+        return this.backChannelLimiter;
+    }
+
+    protected final CasServerEndpoints getCasServerEndpoints() {
+        return this.casServerEndpoints;
+    }
+
+    /**
+     * Routes calls to the CAS server to the fastest of its endpoints, and retries calls that cannot connect to an
+     * endpoint on the next one.  The endpoints replace {@link #getCasServerUrlPrefix()} in the validation URL.
+     *
+     * @param casServerEndpoints the endpoints of the CAS server, or null to only call the CAS server URL prefix.
+     */
+    public final void setCasServerEndpoints(final CasServerEndpoints casServerEndpoints) {
+        this.casServerEndpoints = casServerEndpoints;
+    }
+
+    /**
+     * Limits the calls made by this validator alone; use {@link #setBackChannelLimiter(BackChannelLimiter)} to share a
+     * limit with other callers of the CAS server.
+     *
+     * @param maxConcurrentRequests the maximum number of concurrent calls to this CAS server,
+     * or {@link BackChannelLimiter#UNLIMITED}.
+     */
+    public final void setMaxConcurrentRequests(final int maxConcurrentRequests) {
+        this.backChannelLimiter = BackChannelLimiter.create(this.casServerUrlPrefix, maxConcurrentRequests,
+            BackChannelLimiter.DEFAULT_WAIT_TIMEOUT);
+    }
+
+    /**
+     * @param backChannelLimiter the limiter of the calls to this CAS server, or null if calls are not limited.
+     */
+    public final void setBackChannelLimiter(final BackChannelLimiter backChannelLimiter) {
+        this.backChannelLimiter = backChannelLimiter;
+    }
+
+    /**
+     * Validation URL split into pre-encoded parameters and the ticket and service placeholders.
+     */
+    private static final class ValidationUrlTemplate {
+
+        private static final String TICKET = "\u0000ticket\u0000";
+
+        private static final String SERVICE = "\u0000service\u0000";
+
+        private final String base;
+
+        /** The "name=" prefix of each parameter, followed by its encoded value unless it is a placeholder. */
+        private final String[] parameters;
+
+        /** The placeholder each parameter stands for, or null if its value is already encoded. */
+        private final String[] placeholders;
+
+        private final int length;
+
+        /** False when a parameter was derived from the ticket or the service, so the template cannot be reused. */
+        private final boolean reusable;
+
+        ValidationUrlTemplate(final String base, final Map<String, String> urlParameters) {
+            final List<String> parameters = new ArrayList<>(urlParameters.size());
+            final List<String> placeholders = new ArrayList<>(urlParameters.size());
+            var reusable = true;
+            var length = base.length();
+            for (final var entry : urlParameters.entrySet()) {
+                final var value = entry.getValue();
+                if (value == null) {
+                    continue;
+                }
+                final String parameter;
+                if (value == TICKET || value == SERVICE) {
+                    parameter = entry.getKey() + '=';
+                    placeholders.add(value);
+                } else {
+                    reusable &= value.indexOf('\u0000') < 0;
+                    parameter = entry.getKey() + '=' + encodeUrl(value);
+                    placeholders.add(null);
+                }
+                parameters.add(parameter);
+                length += parameter.length() + 1;
+            }
+            this.base = base;
+            this.parameters = parameters.toArray(new String[0]);
+            this.placeholders = placeholders.toArray(new String[0]);
+            this.length = length;
+            this.reusable = reusable;
+        }
+
+        String append(final String ticket, final String serviceUrl) {
+            final var encodedTicket = encodeUrl(ticket);
+            final var encodedService = encodeUrl(serviceUrl);
+            final var buffer = new StringBuilder(this.length
+                                                 + (encodedTicket == null ? 0 : encodedTicket.length())
+                                                 + (encodedService == null ? 0 : encodedService.length()));
+            buffer.append(this.base);
+            var separator = '?';
+            for (var i = 0; i < this.parameters.length; i++) {
+                final var placeholder = this.placeholders[i];
+                final var value = placeholder == null ? "" : placeholder == TICKET ? encodedTicket : encodedService;
+                if (value != null) {
+                    buffer.append(separator).append(this.parameters[i]).append(value);
+                    separator = '&';
+                }
+            }
+            return buffer.toString();
+        }
+    }
 }
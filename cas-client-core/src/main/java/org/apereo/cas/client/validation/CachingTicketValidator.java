@@ -0,0 +1,298 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.session.LogoutRequestListener;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link TicketValidator} decorator that keeps successfully validated {@link Assertion}s in a bounded,
+ * in-memory cache so that a ticket replayed for the same service is not validated against the CAS server
+ * again.  This mostly benefits stateless deployments (i.e. <code>useSession=false</code>) and REST clients
+ * that present the same proxy ticket on every request.
+ * <p>
+ * Entries are keyed by ticket and service, and expire after {@link #setTimeToLive(long)} milliseconds or at
+ * the {@link Assertion#getValidUntilDate()} of the cached assertion, whichever comes first.  Validation
+ * failures are never cached.  When the cache is full, the entries closest to expiring, expired ones first,
+ * are evicted until there is room for the new one.
+ * <p>
+ * Registered as a {@link LogoutRequestListener}, the cache drops the assertion of a ticket as soon as the CAS
+ * server sends a single logout request for it.
+ *
+ * @since 4.0.4
+ */
+public class CachingTicketValidator implements TicketValidator, LogoutRequestListener {
+
+    /** Default maximum number of cached assertions. */
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    /** Default time to live of a cached assertion, in milliseconds. */
+    public static final long DEFAULT_TIME_TO_LIVE = 5 * 60 * 1000L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingTicketValidator.class);
+
+    private final Map<String, CachedAssertion> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Cached assertions in the order they expire.
+     */
+    private final NavigableSet<CachedAssertion> expiryQueue = new ConcurrentSkipListSet<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final TicketValidator delegate;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    public CachingTicketValidator(final TicketValidator delegate) {
+        CommonUtils.assertNotNull(delegate, "delegate cannot be null.");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Assertion validate(final String ticket, final String service) throws TicketValidationException {
+        final var now = System.currentTimeMillis();
+        final var cached = lookup(ticket, service, now);
+        if (cached != null) {
+            return cached;
+        }
+        final var assertion = this.delegate.validate(ticket, service);
+        store(ticket, service, assertion, now);
+        return assertion;
+    }
+
+    @Override
+    public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+        final var now = System.currentTimeMillis();
+        final var cached = lookup(ticket, service, now);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        final var validation = this.delegate.validateAsync(ticket, service);
+        return CommonUtils.propagateCancellation(validation.thenApply(assertion -> {
+            store(ticket, service, assertion, now);
+            return assertion;
+        }), validation);
+    }
+
+    /**
+     * Removes the assertion cached for the given ticket, if any.
+     *
+     * @param ticket the ticket whose assertion should no longer be served from the cache.
+     */
+    public void invalidate(final String ticket) {
+        final var cached = ticket != null ? this.cache.remove(ticket) : null;
+        if (cached != null) {
+            this.expiryQueue.remove(cached);
+            this.invalidations.increment();
+            LOGGER.debug("Invalidated cached assertion for ticket [{}]", ticket);
+        }
+    }
+
+    /**
+     * The session index of a CAS single logout request is the service ticket the session was established with.
+     */
+    @Override
+    public void logoutRequestReceived(final String sessionIndex) {
+        invalidate(sessionIndex);
+    }
+
+    /**
+     * Purges every expired assertion from the cache.
+     */
+    public void cleanUp() {
+        purgeExpired(System.currentTimeMillis());
+    }
+
+    public final void setMaxSize(final int maxSize) {
+        CommonUtils.assertTrue(maxSize > 0, "maxSize must be greater than zero.");
+        this.maxSize = maxSize;
+    }
+
+    public final void setTimeToLive(final long timeToLive) {
+        CommonUtils.assertTrue(timeToLive > 0, "timeToLive must be greater than zero.");
+        this.timeToLive = timeToLive;
+    }
+
+    public TicketValidator getDelegate() {
+        return this.delegate;
+    }
+
+    /**
+     * @return number of validations served from the cache.
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return number of validations delegated to the underlying validator.
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return number of assertions removed because they expired or the cache was full.
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return number of assertions removed through {@link #invalidate(String)} or a logout request.
+     */
+    public long getInvalidations() {
+        return this.invalidations.sum();
+    }
+
+    /**
+     * @return number of assertions currently cached.
+     */
+    public int size() {
+        return this.cache.size();
+    }
+
+    private Assertion lookup(final String ticket, final String service, final long now) {
+        final var cached = this.cache.get(ticket);
+        if (cached != null) {
+            if (cached.isExpired(now)) {
+                if (this.cache.remove(ticket, cached)) {
+                    this.expiryQueue.remove(cached);
+                    this.evictions.increment();
+                }
+            } else if (Objects.equals(cached.service, service)) {
+                this.hits.increment();
+                LOGGER.debug("Returning cached assertion for ticket [{}]", ticket);
+                return cached.assertion;
+            }
+        }
+        this.misses.increment();
+        return null;
+    }
+
+    private void store(final String ticket, final String service, final Assertion assertion, final long now) {
+        final var expiresAt = computeExpiration(assertion, now);
+        if (expiresAt > now) {
+            makeRoom();
+            final var cached = new CachedAssertion(ticket, service, assertion, expiresAt, this.sequence.incrementAndGet());
+            // mapped before it is queued, so that an eviction polling it always finds it in the cache
+            final var previous = this.cache.put(ticket, cached);
+            if (previous != null) {
+                this.expiryQueue.remove(previous);
+            }
+            this.expiryQueue.add(cached);
+            if (this.cache.get(ticket) != cached) {
+                // invalidated or stored again in the meantime
+                this.expiryQueue.remove(cached);
+            }
+        }
+    }
+
+    private long computeExpiration(final Assertion assertion, final long now) {
+        final var expiresAt = now + this.timeToLive;
+        final var validUntil = assertion.getValidUntilDate();
+        return validUntil != null ? Math.min(expiresAt, validUntil.getTime()) : expiresAt;
+    }
+
+    private void makeRoom() {
+        while (this.cache.size() >= this.maxSize) {
+            final var cached = this.expiryQueue.pollFirst();
+            if (cached == null) {
+                return;
+            }
+            evict(cached);
+        }
+    }
+
+    private void purgeExpired(final long now) {
+        for (var cached = this.expiryQueue.pollFirst(); cached != null; cached = this.expiryQueue.pollFirst()) {
+            if (!cached.isExpired(now)) {
+                // nothing else has expired yet, put it back unless it was removed from the cache meanwhile
+                if (this.cache.get(cached.ticket) == cached) {
+                    this.expiryQueue.add(cached);
+                }
+                return;
+            }
+            evict(cached);
+        }
+    }
+
+    private void evict(final CachedAssertion cached) {
+        // an assertion invalidated or stored again since is no longer mapped to this entry
+        if (this.cache.remove(cached.ticket, cached)) {
+            this.evictions.increment();
+        }
+    }
+
+    private static final class CachedAssertion implements Comparable<CachedAssertion> {
+
+        private final String ticket;
+
+        private final String service;
+
+        private final Assertion assertion;
+
+        private final long expiresAt;
+
+        /** Orders assertions expiring at the same time. */
+        private final long sequence;
+
+        private CachedAssertion(final String ticket, final String service, final Assertion assertion,
+                                final long expiresAt, final long sequence) {
+            this.ticket = ticket;
+            this.service = service;
+            this.assertion = assertion;
+            this.expiresAt = expiresAt;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(final CachedAssertion other) {
+            final var result = Long.compare(this.expiresAt, other.expiresAt);
+            return result != 0 ? result : Long.compare(this.sequence, other.sequence);
+        }
+
+        private boolean isExpired(final long now) {
+            return now >= this.expiresAt;
+        }
+    }
+}
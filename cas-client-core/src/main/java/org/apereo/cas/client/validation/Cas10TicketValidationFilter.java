@@ -20,7 +20,6 @@ package org.apereo.cas.client.validation;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKeys;
-import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
 import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
 
 import jakarta.servlet.FilterConfig;
@@ -46,9 +45,9 @@ public class Cas10TicketValidationFilter extends AbstractTicketValidationFilter
         final var validator = new Cas10TicketValidator(casServerUrlPrefix);
         validator.setRenew(getBoolean(ConfigurationKeys.RENEW));
 
-        final HttpURLConnectionFactory factory = new HttpsURLConnectionFactory(getHostnameVerifier(),
-            getSSLConfig());
+        final var factory = new HttpsURLConnectionFactory(getHostnameVerifier(), getSSLConfig());
         validator.setURLConnectionFactory(factory);
+        validator.setHttpClientTransport(getHttpClientTransport(factory));
         validator.setEncoding(getString(ConfigurationKeys.ENCODING));
 
         return validator;
@@ -25,8 +25,8 @@ import org.apereo.cas.client.proxy.Cas20ProxyRetriever;
 import org.apereo.cas.client.proxy.CleanUpTimerTask;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorage;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorageImpl;
-import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
 import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
+import org.apereo.cas.client.util.CleanUpScheduler;
 import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.util.WebUtils;
 import org.apereo.cas.client.util.PrivateKeyUtils;
@@ -73,6 +73,14 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
             ConfigurationKeys.TOLERANCE.getName(), ConfigurationKeys.IGNORE_PATTERN.getName(), ConfigurationKeys.IGNORE_URL_PATTERN_TYPE.getName(),
             ConfigurationKeys.HOSTNAME_VERIFIER.getName(), ConfigurationKeys.HOSTNAME_VERIFIER_CONFIG.getName(),
             ConfigurationKeys.EXCEPTION_ON_VALIDATION_FAILURE.getName(), ConfigurationKeys.REDIRECT_AFTER_VALIDATION.getName(), ConfigurationKeys.USE_SESSION.getName(),
+            ConfigurationKeys.CACHE_VALIDATED_ASSERTIONS.getName(), ConfigurationKeys.VALIDATED_ASSERTION_CACHE_MAX_SIZE.getName(),
+            ConfigurationKeys.VALIDATED_ASSERTION_CACHE_TIME_TO_LIVE.getName(), ConfigurationKeys.USE_HTTP_CLIENT.getName(),
+            ConfigurationKeys.ASYNC_VALIDATION.getName(), ConfigurationKeys.ASYNC_VALIDATION_TIMEOUT.getName(),
+            ConfigurationKeys.USE_VIRTUAL_THREADS.getName(),
+            ConfigurationKeys.MAX_CONCURRENT_REQUESTS.getName(), ConfigurationKeys.MAX_CONCURRENT_REQUESTS_WAIT_TIMEOUT.getName(),
+            ConfigurationKeys.CONNECT_TIMEOUT.getName(), ConfigurationKeys.READ_TIMEOUT.getName(),
+            ConfigurationKeys.CAS_SERVER_URL_PREFIXES.getName(), ConfigurationKeys.CAS_SERVER_HEALTH_CHECK_INTERVAL.getName(),
+            ConfigurationKeys.STREAM_RESPONSES.getName(), ConfigurationKeys.MAX_RESPONSE_SIZE.getName(), ConfigurationKeys.METRICS_CLASS.getName(),
             ConfigurationKeys.SECRET_KEY.getName(), ConfigurationKeys.CIPHER_ALGORITHM.getName(), ConfigurationKeys.PROXY_RECEPTOR_URL.getName(),
             ConfigurationKeys.PROXY_GRANTING_TICKET_STORAGE_CLASS.getName(), ConfigurationKeys.MILLIS_BETWEEN_CLEAN_UPS.getName(), ConfigurationKeys.ACCEPT_ANY_PROXY.getName(),
             ConfigurationKeys.ALLOWED_PROXY_CHAINS.getName(), ConfigurationKeys.TICKET_VALIDATOR_CLASS.getName(),
@@ -93,6 +101,10 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
 
     private TimerTask timerTask;
 
+    private CleanUpScheduler cleanUpScheduler = CleanUpScheduler.getDefault();
+
+    private CleanUpScheduler.CleanUpTask cleanUpTask;
+
     private int millisBetweenCleanUps;
 
     private PrivateKey privateKey;
@@ -124,14 +136,16 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
         super.init();
         CommonUtils.assertNotNull(this.proxyGrantingTicketStorage, "proxyGrantingTicketStorage cannot be null.");
 
-        if (this.timer == null) {
-            this.timer = new Timer(true);
-        }
-
         if (this.timerTask == null) {
             this.timerTask = new CleanUpTimerTask(this.proxyGrantingTicketStorage);
         }
-        this.timer.schedule(this.timerTask, this.millisBetweenCleanUps, this.millisBetweenCleanUps);
+
+        if (this.timer != null) {
+            this.timer.schedule(this.timerTask, this.millisBetweenCleanUps, this.millisBetweenCleanUps);
+        } else {
+            this.cleanUpTask = this.cleanUpScheduler.schedule("proxyGrantingTicketStorage", this.timerTask,
+                this.millisBetweenCleanUps);
+        }
     }
 
     @Override
@@ -193,11 +207,16 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
         validator.setProxyCallbackUrl(getString(ConfigurationKeys.PROXY_CALLBACK_URL));
         validator.setProxyGrantingTicketStorage(this.proxyGrantingTicketStorage);
 
-        final HttpURLConnectionFactory factory = new HttpsURLConnectionFactory(getHostnameVerifier(),
-            getSSLConfig());
+        final var factory = new HttpsURLConnectionFactory(getHostnameVerifier(), getSSLConfig());
+        final var httpClientTransport = getHttpClientTransport(factory);
         validator.setURLConnectionFactory(factory);
+        validator.setHttpClientTransport(httpClientTransport);
 
-        validator.setProxyRetriever(new Cas20ProxyRetriever(casServerUrlPrefix, getString(ConfigurationKeys.ENCODING), factory));
+        final var proxyRetriever = new Cas20ProxyRetriever(casServerUrlPrefix, getString(ConfigurationKeys.ENCODING),
+            factory, httpClientTransport);
+        proxyRetriever.setBackChannelLimiter(getBackChannelLimiter());
+        proxyRetriever.setCasServerEndpoints(getCasServerEndpoints());
+        validator.setProxyRetriever(proxyRetriever);
         validator.setRenew(getBoolean(ConfigurationKeys.RENEW));
         validator.setEncoding(getString(ConfigurationKeys.ENCODING));
 
@@ -245,7 +264,13 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
     @Override
     public void destroy() {
         super.destroy();
-        this.timer.cancel();
+        if (this.timer != null) {
+            this.timer.cancel();
+        }
+        if (this.cleanUpTask != null) {
+            this.cleanUpTask.cancel();
+            this.cleanUpTask = null;
+        }
     }
 
     public final void setProxyReceptorUrl(final String proxyReceptorUrl) {
@@ -256,14 +281,34 @@ public class Cas20ProxyReceivingTicketValidationFilter extends AbstractTicketVal
         this.proxyGrantingTicketStorage = storage;
     }
 
+    /**
+     * @param timer a dedicated timer to run the clean up on instead of the {@link CleanUpScheduler}.
+     * @deprecated the clean up is run by {@link #setCleanUpScheduler(CleanUpScheduler)}.
+     */
+    @Deprecated
     public void setTimer(final Timer timer) {
         this.timer = timer;
     }
 
+    /**
+     * @param timerTask the task cleaning up the {@link ProxyGrantingTicketStorage}.
+     */
     public void setTimerTask(final TimerTask timerTask) {
         this.timerTask = timerTask;
     }
 
+    public void setCleanUpScheduler(final CleanUpScheduler cleanUpScheduler) {
+        CommonUtils.assertNotNull(cleanUpScheduler, "cleanUpScheduler cannot be null.");
+        this.cleanUpScheduler = cleanUpScheduler;
+    }
+
+    /**
+     * @return the clean up of the {@link ProxyGrantingTicketStorage} scheduled by {@link #init()}, or null.
+     */
+    public CleanUpScheduler.CleanUpTask getCleanUpTask() {
+        return this.cleanUpTask;
+    }
+
     public void setMillisBetweenCleanUps(final int millisBetweenCleanUps) {
         this.millisBetweenCleanUps = millisBetweenCleanUps;
     }
@@ -31,6 +31,9 @@ import java.util.List;
  */
 public class Cas20ProxyTicketValidator extends Cas20ServiceTicketValidator {
 
+    private static final String INVALID_PROXY_CHAIN = "Invalid proxy chain: No proxy could be retrieved from response. "
+        + "This indicates a problem with CAS validation. Review logs/configuration to find the root cause.";
+
     private boolean acceptAnyProxy;
 
     /** This should be a list of an array of Strings */
@@ -57,16 +60,13 @@ public class Cas20ProxyTicketValidator extends Cas20ServiceTicketValidator {
     }
 
     @Override
-    protected void customParseResponse(final String response, final Assertion assertion)
+    protected void customParseResponse(final ServiceValidationResponse serviceResponse, final Assertion assertion)
         throws TicketValidationException {
-        final var proxies = parseProxiesFromResponse(response);
+        validateProxyChain(parseProxiesFromResponse(serviceResponse));
+        super.customParseResponse(serviceResponse, assertion);
+    }
 
-        if (proxies == null) {
-            throw new InvalidProxyChainTicketValidationException(
-                "Invalid proxy chain: No proxy could be retrieved from response. "
-                + "This indicates a problem with CAS validation. Review logs/configuration to find the root cause."
-            );
-        }
+    private void validateProxyChain(final List<String> proxies) throws TicketValidationException {
         // this means there was nothing in the proxy chain, which is okay
         if (this.allowEmptyProxyChain && proxies.isEmpty()) {
             logger.debug("Found an empty proxy chain, permitted by client configuration");
@@ -92,8 +92,31 @@ public class Cas20ProxyTicketValidator extends Cas20ServiceTicketValidator {
         throw new InvalidProxyChainTicketValidationException("Invalid proxy chain: " + proxies.toString());
     }
 
+    /**
+     * Returns the proxy chain of the parsed response.  Unless overridden, calls
+     * {@link #parseProxiesFromResponse(String)} with the text of the response.
+     *
+     * @param serviceResponse the parsed response from the CAS server.
+     * @return the proxy chain, never null.
+     * @throws TicketValidationException if the proxy chain cannot be retrieved.
+     */
+    protected List<String> parseProxiesFromResponse(final ServiceValidationResponse serviceResponse)
+        throws TicketValidationException {
+        final var proxies = parseProxiesFromResponse(serviceResponse.getResponse());
+        if (proxies == null) {
+            throw new InvalidProxyChainTicketValidationException(INVALID_PROXY_CHAIN);
+        }
+        return proxies;
+    }
+
+    /**
+     * @deprecated As of 4.0.4, the response is parsed once into a {@link ServiceValidationResponse};
+     * use {@link #parseProxiesFromResponse(ServiceValidationResponse)}.
+     */
+    @Deprecated
     protected List<String> parseProxiesFromResponse(final String response) {
-        return XmlUtils.getTextForElements(response, "proxy");
+        final var serviceResponse = currentResponse(response);
+        return serviceResponse != null ? serviceResponse.getProxies() : XmlUtils.getTextForElements(response, "proxy");
     }
 
     protected final boolean isAcceptAnyProxy() {
@@ -110,7 +133,7 @@ public class Cas20ProxyTicketValidator extends Cas20ServiceTicketValidator {
 
     /**
      * Set to determine whether empty proxy chains are allowed.
-     * @see #customParseResponse(String, Assertion)
+     * @see #customParseResponse(ServiceValidationResponse, Assertion)
      * @param allowEmptyProxyChain whether to allow empty proxy chains or not.  True if so, false otherwise.
      */
     public final void setAllowEmptyProxyChain(final boolean allowEmptyProxyChain) {
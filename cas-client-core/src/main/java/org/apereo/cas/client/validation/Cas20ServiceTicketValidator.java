@@ -33,7 +33,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import javax.crypto.Cipher;
-import javax.xml.parsers.SAXParserFactory;
+import java.io.Reader;
 import java.io.StringReader;
 import java.security.PrivateKey;
 import java.util.Collections;
@@ -54,6 +54,9 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
 
     private static final String PGTIOU_PREFIX = "PGTIOU-";
 
+    /** The response being turned into an assertion by the current thread. */
+    private static final ThreadLocal<ServiceValidationResponse> CURRENT_RESPONSE = new ThreadLocal<>();
+
     /** The CAS 2.0 protocol proxy callback url. */
     private String proxyCallbackUrl;
 
@@ -102,37 +105,91 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
 
     @Override
     protected Assertion parseResponseFromServer(final String response) throws TicketValidationException {
-        final var error = parseAuthenticationFailureFromResponse(response);
+        return parseResponseFromServer(ServiceValidationResponse.parse(response));
+    }
+
+    @Override
+    protected Assertion parseResponseFromServer(final Reader response) throws TicketValidationException {
+        return parseResponseFromServer(ServiceValidationResponse.parse(response));
+    }
+
+    private Assertion parseResponseFromServer(final ServiceValidationResponse serviceResponse)
+        throws TicketValidationException {
+        final var error = serviceResponse.getAuthenticationFailure();
 
         if (CommonUtils.isNotBlank(error)) {
-            throw new TicketValidationException(error);
+            throw new TicketValidationException(error, serviceResponse.getAuthenticationFailureCode());
         }
 
-        final var principal = parsePrincipalFromResponse(response);
-        final var proxyGrantingTicket = retrieveProxyGrantingTicket(response);
+        final var previous = CURRENT_RESPONSE.get();
+        CURRENT_RESPONSE.set(serviceResponse);
+        try {
+            final var principal = serviceResponse.getUser();
+            final var proxyGrantingTicket = retrieveProxyGrantingTicket(serviceResponse);
 
-        if (CommonUtils.isEmpty(principal)) {
-            throw new TicketValidationException("No principal was found in the response from the CAS server.");
-        }
+            if (CommonUtils.isEmpty(principal)) {
+                throw new TicketValidationException("No principal was found in the response from the CAS server.");
+            }
+
+            final Assertion assertion;
+            final var attributes = extractCustomAttributes(serviceResponse);
+            if (CommonUtils.isNotBlank(proxyGrantingTicket)) {
+                attributes.remove(PGT_ATTRIBUTE);
+                final AttributePrincipal attributePrincipal = new AttributePrincipalImpl(principal, attributes,
+                    proxyGrantingTicket, this.proxyRetriever);
+                assertion = new AssertionImpl(attributePrincipal);
+            } else {
+                assertion = new AssertionImpl(new AttributePrincipalImpl(principal, attributes));
+            }
 
-        final Assertion assertion;
-        final var attributes = extractCustomAttributes(response);
-        if (CommonUtils.isNotBlank(proxyGrantingTicket)) {
-            attributes.remove(PGT_ATTRIBUTE);
-            final AttributePrincipal attributePrincipal = new AttributePrincipalImpl(principal, attributes,
-                proxyGrantingTicket, this.proxyRetriever);
-            assertion = new AssertionImpl(attributePrincipal);
-        } else {
-            assertion = new AssertionImpl(new AttributePrincipalImpl(principal, attributes));
+            customParseResponse(serviceResponse, assertion);
+
+            return assertion;
+        } finally {
+            if (previous != null) {
+                CURRENT_RESPONSE.set(previous);
+            } else {
+                CURRENT_RESPONSE.remove();
+            }
         }
+    }
 
-        customParseResponse(response, assertion);
+    /**
+     * Returns the response this thread is turning into an assertion, if it is the given one, so that the default
+     * String-based hooks do not parse it again.
+     *
+     * @param response the response passed to a String-based hook.
+     * @return the parsed response, or null if the hook was called with another response.
+     */
+    static ServiceValidationResponse currentResponse(final String response) {
+        final var current = CURRENT_RESPONSE.get();
+        return current != null && current.getResponse() == response ? current : null;
+    }
 
-        return assertion;
+    /**
+     * Resolves the proxy granting ticket referenced by the parsed response.  Unless overridden, calls
+     * {@link #retrieveProxyGrantingTicket(String)} with the text of the response.
+     *
+     * @param serviceResponse the parsed response from the CAS server.
+     * @return the proxy granting ticket, or null.
+     */
+    protected String retrieveProxyGrantingTicket(final ServiceValidationResponse serviceResponse) {
+        return retrieveProxyGrantingTicket(serviceResponse.getResponse());
     }
 
+    /**
+     * Resolves the proxy granting ticket referenced by the response, either through the
+     * {@link ProxyGrantingTicketStorage} when the response carries a PGTIOU, or by decrypting it.
+     *
+     * @deprecated As of 4.0.4, the response is parsed once into a {@link ServiceValidationResponse};
+     * use {@link #retrieveProxyGrantingTicket(ServiceValidationResponse)}.
+     */
+    @Deprecated
     protected String retrieveProxyGrantingTicket(final String response) {
-        final var values = XmlUtils.getTextForElements(response, PGT_ATTRIBUTE);
+        final var serviceResponse = currentResponse(response);
+        final var values = serviceResponse != null
+            ? Collections.singletonList(serviceResponse.getProxyGrantingTicket())
+            : XmlUtils.getTextForElements(response, PGT_ATTRIBUTE);
         for (final var value : values) {
             if (value != null) {
                 if (value.startsWith(PGTIOU_PREFIX)) {
@@ -169,10 +226,18 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
         return null;
     }
 
+    /**
+     * @deprecated As of 4.0.4, use {@link ServiceValidationResponse#getUser()}.
+     */
+    @Deprecated
     protected static String parsePrincipalFromResponse(final String response) {
         return XmlUtils.getTextForElement(response, "user");
     }
 
+    /**
+     * @deprecated As of 4.0.4, use {@link ServiceValidationResponse#getAuthenticationFailure()}.
+     */
+    @Deprecated
     protected static String parseAuthenticationFailureFromResponse(final String response) {
         return XmlUtils.getTextForElement(response, "authenticationFailure");
     }
@@ -191,20 +256,22 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
      *
      * This code is here merely for sample/demonstration purposes for those wishing to modify the CAS2 protocol.  You'll
      * probably want a more robust implementation or to use SAML 1.1
+     * <p>
      *
      * @param xml the XML to parse.
      * @return the map of attributes.
+     * @deprecated As of 4.0.4, the response is parsed once into a {@link ServiceValidationResponse};
+     * use {@link #extractCustomAttributes(ServiceValidationResponse)}.
      */
+    @Deprecated
     protected Map<String, Object> extractCustomAttributes(final String xml) {
-        final var spf = SAXParserFactory.newInstance();
-        spf.setNamespaceAware(true);
-        spf.setValidating(false);
+        final var serviceResponse = currentResponse(xml);
+        if (serviceResponse != null) {
+            return serviceResponse.getAttributes();
+        }
         try {
-            final var saxParser = spf.newSAXParser();
-            final var xmlReader = saxParser.getXMLReader();
             final var handler = new CustomAttributeHandler();
-            xmlReader.setContentHandler(handler);
-            xmlReader.parse(new InputSource(new StringReader(xml)));
+            XmlUtils.parse(new InputSource(new StringReader(xml)), handler);
             return handler.getAttributes();
         } catch (final Exception e) {
             logger.error(e.getMessage(), e);
@@ -212,6 +279,18 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
         }
     }
 
+    /**
+     * Returns the attributes released in the parsed response.  The returned map becomes the principal's
+     * attribute map, so it must be mutable.  Unless overridden, calls {@link #extractCustomAttributes(String)}
+     * with the text of the response.
+     *
+     * @param serviceResponse the parsed response from the CAS server.
+     * @return the map of attributes.
+     */
+    protected Map<String, Object> extractCustomAttributes(final ServiceValidationResponse serviceResponse) {
+        return extractCustomAttributes(serviceResponse.getResponse());
+    }
+
     /**
      * Template method if additional custom parsing (such as Proxying) needs to be done.
      *
@@ -224,12 +303,27 @@ public class Cas20ServiceTicketValidator extends AbstractCasProtocolUrlBasedTick
         // nothing to do
     }
 
+    /**
+     * Template method if additional custom parsing (such as Proxying) needs to be done against
+     * the parsed response.  Unless overridden, calls {@link #customParseResponse(String, Assertion)} with the text
+     * of the response.
+     *
+     * @param serviceResponse the parsed response from the CAS server.
+     * @param assertion the partially constructed assertion.
+     * @throws TicketValidationException if there is a problem constructing the Assertion.
+     */
+    protected void customParseResponse(final ServiceValidationResponse serviceResponse, final Assertion assertion)
+        throws TicketValidationException {
+        customParseResponse(serviceResponse.getResponse(), assertion);
+    }
+
     protected final String getProxyCallbackUrl() {
         return this.proxyCallbackUrl;
     }
 
     public final void setProxyCallbackUrl(final String proxyCallbackUrl) {
         this.proxyCallbackUrl = proxyCallbackUrl;
+        resetValidationUrlTemplate();
     }
 
     protected final ProxyGrantingTicketStorage getProxyGrantingTicketStorage() {
@@ -18,12 +18,7 @@
  */
 package org.apereo.cas.client.validation;
 
-import org.apereo.cas.client.util.XmlUtils;
-
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -52,36 +47,24 @@ public class Cas30ServiceTicketValidator extends Cas20ServiceTicketValidator {
      */
     @Override
     protected Map<String, Object> extractCustomAttributes(final String xml) {
-        final var document = XmlUtils.newDocument(xml);
-
         // Check if attributes are inlined.  If not return default super method results
-        final var attributeList = document.getElementsByTagName("cas:attribute");
-        if (attributeList.getLength() == 0) {
+        final var inlineAttributes = parseInlineAttributes(xml);
+        if (inlineAttributes.isEmpty()) {
             return super.extractCustomAttributes(xml);
         }
+        return inlineAttributes;
+    }
 
-        final Map<String, Object> attributes = new HashMap<>();
-
-        for (var i = 0; i < attributeList.getLength(); i++) {
-            final var casAttributeNode = attributeList.item(i);
-            final var nodeAttributes = casAttributeNode.getAttributes();
-            final var name = nodeAttributes.getNamedItem("name").getNodeValue();
-            final var value = nodeAttributes.getNamedItem("value").getTextContent();
-            final var mapValue = attributes.get(name);
-            if (mapValue != null) {
-                if (mapValue instanceof List) {
-                    ((List) mapValue).add(value);
-                } else {
-                    final Deque<Object> list = new LinkedList<>();
-                    list.add(mapValue);
-                    list.add(value);
-                    attributes.put(name, list);
-                }
-            } else {
-                attributes.put(name, value);
-            }
+    private Map<String, Object> parseInlineAttributes(final String xml) {
+        final var serviceResponse = currentResponse(xml);
+        if (serviceResponse != null) {
+            return serviceResponse.getInlineAttributes();
+        }
+        try {
+            return ServiceValidationResponse.parse(xml).getInlineAttributes();
+        } catch (final TicketValidationException e) {
+            logger.error(e.getMessage(), e);
+            return Collections.emptyMap();
         }
-        return attributes;
     }
-
 }
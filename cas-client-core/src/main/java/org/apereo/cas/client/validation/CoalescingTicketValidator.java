@@ -0,0 +1,198 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
+import org.apereo.cas.client.util.CommonUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link TicketValidator} decorator that coalesces concurrent validations of the same ticket for the same service.
+ * <p>
+ * Service tickets can only be validated once, so a ticket submitted twice at once, i.e. by a double-submitted form or
+ * a retried request, would be rejected by the CAS server the second time.  Instead, a validation of the ticket and
+ * service being validated already waits for that validation and shares its assertion or failure, without calling
+ * the delegate.  A validation is forgotten as soon as it completes, so that a replayed ticket is validated again.
+ * <p>
+ * Every asynchronous caller sharing a validation gets its own future; the validation of the delegate is cancelled
+ * once all of them have cancelled theirs.  Coalesced validations are reported to the
+ * {@link CasClientMetricsHolder#getDefault() default metrics} under the type of the delegate.
+ *
+ * @since 4.0.4
+ */
+public class CoalescingTicketValidator implements TicketValidator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CoalescingTicketValidator.class);
+
+    private final Map<ValidationKey, InFlightValidation> inFlightValidations = new ConcurrentHashMap<>();
+
+    private final TicketValidator delegate;
+
+    public CoalescingTicketValidator(final TicketValidator delegate) {
+        CommonUtils.assertNotNull(delegate, "delegate cannot be null.");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Assertion validate(final String ticket, final String service) throws TicketValidationException {
+        final var key = new ValidationKey(ticket, service);
+        final var inFlight = new InFlightValidation();
+        final var existing = this.inFlightValidations.putIfAbsent(key, inFlight);
+        if (existing != null && existing.join()) {
+            return awaitInFlightValidation(existing.validation);
+        }
+        if (existing != null) {
+            // every caller of that validation gave up on it
+            return this.delegate.validate(ticket, service);
+        }
+        try {
+            final var assertion = this.delegate.validate(ticket, service);
+            // no longer in flight once its result is published, so that a replayed ticket is validated again
+            this.inFlightValidations.remove(key, inFlight);
+            inFlight.validation.complete(assertion);
+            return assertion;
+        } catch (final Throwable e) {
+            this.inFlightValidations.remove(key, inFlight);
+            inFlight.validation.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+        final var key = new ValidationKey(ticket, service);
+        final var inFlight = new InFlightValidation();
+        final var existing = this.inFlightValidations.putIfAbsent(key, inFlight);
+        if (existing != null && existing.join()) {
+            LOGGER.debug("Ticket is already being validated; sharing the result of that validation.");
+            recordCoalescedValidation();
+            return existing.newCallerFuture();
+        }
+        if (existing != null) {
+            // every caller of that validation gave up on it
+            return this.delegate.validateAsync(ticket, service);
+        }
+        final CompletableFuture<Assertion> result;
+        try {
+            result = this.delegate.validateAsync(ticket, service);
+        } catch (final RuntimeException e) {
+            inFlight.validation.completeExceptionally(e);
+            this.inFlightValidations.remove(key, inFlight);
+            throw e;
+        }
+        inFlight.call = result;
+        result.whenComplete((assertion, failure) -> {
+            this.inFlightValidations.remove(key, inFlight);
+            if (failure == null) {
+                inFlight.validation.complete(assertion);
+            } else {
+                inFlight.validation.completeExceptionally(failure);
+            }
+        });
+        return inFlight.newCallerFuture();
+    }
+
+    public TicketValidator getDelegate() {
+        return this.delegate;
+    }
+
+    /**
+     * @return number of validations currently in progress.
+     */
+    public int getInFlightValidations() {
+        return this.inFlightValidations.size();
+    }
+
+    private Assertion awaitInFlightValidation(final CompletableFuture<Assertion> validation) throws TicketValidationException {
+        LOGGER.debug("Ticket is already being validated; waiting for the result of that validation.");
+        recordCoalescedValidation();
+        try {
+            return validation.join();
+        } catch (final CompletionException e) {
+            final var cause = e.getCause();
+            if (cause instanceof TicketValidationException) {
+                throw (TicketValidationException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void recordCoalescedValidation() {
+        CasClientMetricsHolder.getDefault().recordCoalescedValidation(this.delegate.getClass());
+    }
+
+    /**
+     * Ticket and service of a validation in progress.
+     */
+    private record ValidationKey(String ticket, String service) {
+    }
+
+    /**
+     * A validation in progress and the number of callers still waiting for its result.
+     */
+    private static final class InFlightValidation {
+
+        private final CompletableFuture<Assertion> validation = new CompletableFuture<>();
+
+        /** The caller that started the validation counts as the first. */
+        private final AtomicInteger callers = new AtomicInteger(1);
+
+        /** The asynchronous call to the delegate, set before its caller can give up on it. */
+        private volatile CompletableFuture<Assertion> call;
+
+        /**
+         * @return true if the caller joined the validation, false if every caller gave up on it.
+         */
+        private boolean join() {
+            for (var count = this.callers.get(); count > 0; count = this.callers.get()) {
+                if (this.callers.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return a future of the result for one asynchronous caller, so that cancelling it does not affect the others.
+         */
+        private CompletableFuture<Assertion> newCallerFuture() {
+            final var future = this.validation.copy();
+            future.whenComplete((assertion, failure) -> {
+                if (future.isCancelled() && this.callers.decrementAndGet() == 0) {
+                    this.call.cancel(false);
+                }
+            });
+            return future;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.util.XmlUtils;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed representation of a CAS 2.0/3.0 <code>serviceValidate</code> or <code>proxyValidate</code> XML response.
+ * <p>
+ * The response is read in a single SAX pass that collects the authentication failure, the user, the
+ * proxy granting ticket (or its IOU), the attributes and the proxy chain, rather than re-parsing the
+ * document once for every element of interest.
+ * <p>
+ * Attributes are collected in both of the formats the CAS server may emit:
+ * <ul>
+ * <li>nested elements, i.e. <code>&lt;cas:attributes&gt;&lt;cas:name&gt;value&lt;/cas:name&gt;&lt;/cas:attributes&gt;</code>,
+ * available from {@link #getAttributes()}</li>
+ * <li>inlined elements, i.e. <code>&lt;cas:attribute name="name" value="value"/&gt;</code>,
+ * available from {@link #getInlineAttributes()}</li>
+ * </ul>
+ * Repeated attribute names are collapsed into a {@link List} of values.
+ *
+ * @since 4.0.4
+ */
+public final class ServiceValidationResponse {
+
+    private static final String AUTHENTICATION_FAILURE = "authenticationFailure";
+
+    private static final String USER = "user";
+
+    private static final String PROXY_GRANTING_TICKET = "proxyGrantingTicket";
+
+    private static final String ATTRIBUTES = "attributes";
+
+    private static final String ATTRIBUTE = "attribute";
+
+    private static final String PROXY = "proxy";
+
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    private final Map<String, Object> inlineAttributes = new HashMap<>();
+
+    private final List<String> proxies = new ArrayList<>(2);
+
+    private String authenticationFailureCode;
+
+    private String authenticationFailure;
+
+    private String user;
+
+    private String proxyGrantingTicket;
+
+    private String response;
+
+    private ServiceValidationResponse() {
+        // use parse
+    }
+
+    /**
+     * Parses the given CAS XML validation response.
+     *
+     * @param xml the response from the CAS server.
+     * @return the parsed response.
+     * @throws TicketValidationException if the response is not well-formed XML.
+     */
+    public static ServiceValidationResponse parse(final String xml) throws TicketValidationException {
+        final var response = new ServiceValidationResponse();
+        response.read(new StringReader(xml));
+        response.response = xml;
+        return response;
+    }
+
+    /**
+     * Parses the given CAS XML validation response as it is read.
+     *
+     * @param xml the response from the CAS server, which is not closed.
+     * @return the parsed response.
+     * @throws TicketValidationException if the response is not well-formed XML or cannot be read.
+     */
+    public static ServiceValidationResponse parse(final Reader xml) throws TicketValidationException {
+        final var response = new ServiceValidationResponse();
+        final var capturingReader = new CapturingReader(xml);
+        response.read(capturingReader);
+        response.response = capturingReader.text.toString();
+        return response;
+    }
+
+    private void read(final Reader xml) throws TicketValidationException {
+        try {
+            XmlUtils.parse(new InputSource(xml), new ResponseHandler());
+        } catch (final Exception e) {
+            throw new TicketValidationException("Unable to parse the response from the CAS server.", e);
+        }
+    }
+
+    /**
+     * @return the text of the response, as passed to the deprecated String-based hooks of the validators.
+     */
+    public String getResponse() {
+        return this.response;
+    }
+
+    /**
+     * @return the value of the <code>code</code> attribute of the authentication failure, or null.
+     */
+    public String getAuthenticationFailureCode() {
+        return this.authenticationFailureCode;
+    }
+
+    /**
+     * @return the text of the authentication failure, or null if the response did not indicate one.
+     */
+    public String getAuthenticationFailure() {
+        return this.authenticationFailure;
+    }
+
+    /**
+     * @return the authenticated principal, or null.
+     */
+    public String getUser() {
+        return this.user;
+    }
+
+    /**
+     * @return the raw proxy granting ticket value, which is either a PGTIOU or an encrypted PGT, or null.
+     */
+    public String getProxyGrantingTicket() {
+        return this.proxyGrantingTicket;
+    }
+
+    /**
+     * @return the mutable map of attributes released as nested elements.
+     */
+    public Map<String, Object> getAttributes() {
+        return this.attributes;
+    }
+
+    /**
+     * @return the mutable map of attributes released as inlined <code>cas:attribute</code> elements.
+     */
+    public Map<String, Object> getInlineAttributes() {
+        return this.inlineAttributes;
+    }
+
+    /**
+     * @return the proxy chain, in the order returned by the CAS server.  Never null.
+     */
+    public List<String> getProxies() {
+        return this.proxies;
+    }
+
+    private static void addAttributeValue(final Map<String, Object> map, final String name, final String value) {
+        final var existing = map.get(name);
+        if (existing == null) {
+            map.put(name, value);
+        } else if (existing instanceof List) {
+            ((List<Object>) existing).add(value);
+        } else {
+            final List<Object> values = new ArrayList<>(4);
+            values.add(existing);
+            values.add(value);
+            map.put(name, values);
+        }
+    }
+
+    private final class ResponseHandler extends DefaultHandler {
+
+        private final StringBuilder buffer = new StringBuilder();
+
+        private int attributesDepth;
+
+        private int depth;
+
+        private String currentElement;
+
+        private int currentElementDepth;
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName,
+                                 final Attributes xmlAttributes) {
+            this.depth++;
+
+            if (this.currentElement != null) {
+                // text capture continues through nested markup, as with XmlUtils#getTextForElement
+                return;
+            }
+
+            if (ATTRIBUTE.equals(localName) && xmlAttributes.getValue("name") != null
+                && xmlAttributes.getValue("value") != null) {
+                addAttributeValue(inlineAttributes, xmlAttributes.getValue("name"), xmlAttributes.getValue("value"));
+                return;
+            }
+
+            if (this.attributesDepth > 0) {
+                if (this.depth == this.attributesDepth + 1) {
+                    startCapture(localName);
+                }
+                return;
+            }
+
+            if (ATTRIBUTES.equals(localName)) {
+                this.attributesDepth = this.depth;
+            } else if (AUTHENTICATION_FAILURE.equals(localName) && authenticationFailure == null) {
+                authenticationFailureCode = xmlAttributes.getValue("code");
+                startCapture(localName);
+            } else if (USER.equals(localName) && user == null
+                       || PROXY_GRANTING_TICKET.equals(localName) && proxyGrantingTicket == null
+                       || PROXY.equals(localName)) {
+                startCapture(localName);
+            }
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) {
+            if (this.currentElement != null && this.depth == this.currentElementDepth) {
+                endCapture();
+            } else if (this.depth == this.attributesDepth) {
+                this.attributesDepth = 0;
+            }
+            this.depth--;
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) {
+            if (this.currentElement != null) {
+                this.buffer.append(ch, start, length);
+            }
+        }
+
+        private void startCapture(final String element) {
+            this.currentElement = element;
+            this.currentElementDepth = this.depth;
+            this.buffer.setLength(0);
+        }
+
+        private void endCapture() {
+            final var value = this.buffer.toString();
+            final var element = this.currentElement;
+            this.currentElement = null;
+
+            if (this.attributesDepth > 0) {
+                addAttributeValue(attributes, element, value);
+                if (PROXY_GRANTING_TICKET.equals(element) && proxyGrantingTicket == null) {
+                    proxyGrantingTicket = value;
+                }
+                return;
+            }
+
+            switch (element) {
+                case AUTHENTICATION_FAILURE -> authenticationFailure = value;
+                case USER -> user = value;
+                case PROXY_GRANTING_TICKET -> proxyGrantingTicket = value;
+                case PROXY -> proxies.add(value);
+                default -> {
+                    // not an element of interest
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps the text of the response while it is parsed.
+     */
+    private static final class CapturingReader extends FilterReader {
+
+        private final StringBuilder text = new StringBuilder(1024);
+
+        private CapturingReader(final Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final var c = super.read();
+            if (c != -1) {
+                this.text.append((char) c);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(final char[] buffer, final int offset, final int length) throws IOException {
+            final var charsRead = super.read(buffer, offset, length);
+            if (charsRead > 0) {
+                this.text.append(buffer, offset, charsRead);
+            }
+            return charsRead;
+        }
+    }
+}
@@ -35,6 +35,11 @@ public class TicketValidationException extends Exception {
     @Serial
     private static final long serialVersionUID = -7036248720402711806L;
 
+    /**
+     * Error code returned by the CAS server, if any.
+     */
+    private final String code;
+
     /**
      * Constructs an exception with the supplied message.
      *
@@ -42,6 +47,19 @@ public class TicketValidationException extends Exception {
      */
     public TicketValidationException(final String string) {
         super(string);
+        this.code = null;
+    }
+
+    /**
+     * Constructs an exception with the supplied message and the error code returned by the CAS server.
+     *
+     * @param string the message
+     * @param code the error code, i.e. <code>INVALID_TICKET</code>
+     * @since 4.0.4
+     */
+    public TicketValidationException(final String string, final String code) {
+        super(string);
+        this.code = code;
     }
 
     /**
@@ -52,6 +70,7 @@ public class TicketValidationException extends Exception {
      */
     public TicketValidationException(final String string, final Throwable throwable) {
         super(string, throwable);
+        this.code = null;
     }
 
     /**
@@ -60,5 +79,14 @@ public class TicketValidationException extends Exception {
      */
     public TicketValidationException(final Throwable throwable) {
         super(throwable);
+        this.code = null;
+    }
+
+    /**
+     * @return the error code returned by the CAS server, or null.
+     * @since 4.0.4
+     */
+    public String getCode() {
+        return this.code;
     }
 }
@@ -18,6 +18,11 @@
  */
 package org.apereo.cas.client.validation;
 
+import org.apereo.cas.client.util.BackChannelExecutors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * Contract for a validator that will confirm the validity of a supplied ticket.
  * <p>
@@ -40,4 +45,47 @@ public interface TicketValidator {
      *
      */
     Assertion validate(String ticket, String service) throws TicketValidationException;
+
+    /**
+     * Attempts to validate a ticket for the provided service without blocking the calling thread.
+     * <p>
+     * Unless overridden, {@link #validate(String, String)} is run on the
+     * {@link BackChannelExecutors#getDefault() shared back-channel executor}.
+     *
+     * @param ticket the ticket to attempt to validate.
+     * @param service the service this ticket is valid for.
+     * @return a future completed with the assertion, or completed exceptionally with a
+     * {@link TicketValidationException} if the ticket cannot be validated.
+     * @since 4.0.4
+     */
+    default CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+        return validateAsync(ticket, service, BackChannelExecutors.getDefault());
+    }
+
+    /**
+     * Attempts to validate a ticket for the provided service by running {@link #validate(String, String)}
+     * on the given executor.
+     *
+     * @param ticket the ticket to attempt to validate.
+     * @param service the service this ticket is valid for.
+     * @param executor the executor to run the validation on.
+     * @return a future completed with the assertion, or completed exceptionally with a
+     * {@link TicketValidationException} if the ticket cannot be validated.
+     * @since 4.0.4
+     */
+    default CompletableFuture<Assertion> validateAsync(final String ticket, final String service, final Executor executor) {
+        final var future = new CompletableFuture<Assertion>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(validate(ticket, service));
+                } catch (final Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (final RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
 }
@@ -22,8 +22,10 @@ import org.apereo.cas.client.validation.Assertion;
 import org.apereo.cas.client.validation.Cas30ProxyTicketValidator;
 import org.apereo.cas.client.validation.TicketValidationException;
 
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
 import java.util.Collections;
-import java.util.List;
 
 /**
  * This is {@link Cas30JsonProxyTicketValidator} that attempts to parse the CAS validation response
@@ -40,22 +42,27 @@ public class Cas30JsonProxyTicketValidator extends Cas30ProxyTicketValidator {
     @Override
     protected Assertion parseResponseFromServer(final String response) throws TicketValidationException {
         try {
-            final var json = new JsonValidationResponseParser().parse(response);
-            return json.getAssertion(getProxyGrantingTicketStorage(), getProxyRetriever());
+            return JsonValidationResponseParser.parse(response, getProxyGrantingTicketStorage(), getProxyRetriever());
         } catch (final Exception e) {
             logger.warn("Unable parse the JSON response");
             return super.parseResponseFromServer(response);
         }
     }
 
+    /**
+     * Parses the response as it is read.  Responses that are not JSON objects are parsed as XML.
+     */
     @Override
-    protected List<String> parseProxiesFromResponse(final String response) {
+    protected Assertion parseResponseFromServer(final Reader response) throws TicketValidationException {
+        final var reader = new PushbackReader(response);
         try {
-            final var json = new JsonValidationResponseParser().parse(response);
-            return json.serviceResponse().authenticationSuccess().getProxies();
-        } catch (final Exception e) {
-            logger.warn("Unable to locate proxies from the JSON response", e);
-            return super.parseProxiesFromResponse(response);
+            if (JsonValidationResponseParser.isJsonObject(reader)) {
+                return JsonValidationResponseParser.parse(reader, getProxyGrantingTicketStorage(), getProxyRetriever());
+            }
+        } catch (final IOException e) {
+            throw new TicketValidationException(e.getMessage(), e);
         }
+        logger.warn("The response is not JSON. Falling back to XML");
+        return super.parseResponseFromServer(reader);
     }
 }
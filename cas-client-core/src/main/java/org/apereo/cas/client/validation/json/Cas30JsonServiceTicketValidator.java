@@ -25,6 +25,8 @@ import org.apereo.cas.client.validation.TicketValidationException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
 import java.util.Collections;
 import java.util.Map;
 
@@ -46,8 +48,7 @@ public class Cas30JsonServiceTicketValidator extends Cas30ServiceTicketValidator
     @Override
     protected Assertion parseResponseFromServer(final String response) throws TicketValidationException {
         try {
-            final var json = new JsonValidationResponseParser().parse(response);
-            return json.getAssertion(getProxyGrantingTicketStorage(), getProxyRetriever());
+            return JsonValidationResponseParser.parse(response, getProxyGrantingTicketStorage(), getProxyRetriever());
         } catch (final JsonProcessingException e) {
             logger.warn("Unable parse the JSON response. Falling back to XML", e);
             return super.parseResponseFromServer(response);
@@ -56,6 +57,23 @@ public class Cas30JsonServiceTicketValidator extends Cas30ServiceTicketValidator
         }
     }
 
+    /**
+     * Parses the response as it is read.  Responses that are not JSON objects are parsed as XML.
+     */
+    @Override
+    protected Assertion parseResponseFromServer(final Reader response) throws TicketValidationException {
+        final var reader = new PushbackReader(response);
+        try {
+            if (JsonValidationResponseParser.isJsonObject(reader)) {
+                return JsonValidationResponseParser.parse(reader, getProxyGrantingTicketStorage(), getProxyRetriever());
+            }
+        } catch (final IOException e) {
+            throw new TicketValidationException(e.getMessage(), e);
+        }
+        logger.warn("The response is not JSON. Falling back to XML");
+        return super.parseResponseFromServer(reader);
+    }
+
     @Override
     protected Map<String, Object> extractCustomAttributes(final String xml) {
         return Collections.emptyMap();
@@ -18,50 +18,249 @@
  */
 package org.apereo.cas.client.validation.json;
 
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.proxy.ProxyGrantingTicketStorage;
+import org.apereo.cas.client.proxy.ProxyRetriever;
 import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.validation.Assertion;
+import org.apereo.cas.client.validation.AssertionImpl;
 import org.apereo.cas.client.validation.TicketValidationException;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This is {@link JsonValidationResponseParser}.
+ * <p>
+ * The CAS 3.0 JSON response is read token by token, from a {@link String} or directly from a {@link Reader},
+ * and the {@link Assertion} is built as the response is read.  Only the attributes are materialized, as the maps and
+ * lists the principal exposes; everything else the response may contain is skipped.  The parsers are created by a
+ * single {@link ObjectReader} shared by all validators.
  *
  * @author Misagh Moayyed
  */
 final class JsonValidationResponseParser {
-    private final ObjectMapper objectMapper;
 
-    public JsonValidationResponseParser() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.findAndRegisterModules();
+    private static final ObjectReader READER = new ObjectMapper().reader();
+
+    private JsonValidationResponseParser() {
+        // static utility
     }
 
-    public TicketValidationJsonResponse parse(final String response) throws TicketValidationException, IOException {
+    /**
+     * @param response                   the JSON response from the CAS server.
+     * @param proxyGrantingTicketStorage storage of the proxy granting tickets, or null.
+     * @param proxyRetriever             retriever of proxy tickets for the principal, or null.
+     * @return the assertion.
+     * @throws TicketValidationException if the response indicates a failure or no principal.
+     * @throws IOException               if the response is not JSON, in which case it is a
+     *                                   {@link com.fasterxml.jackson.core.JsonProcessingException}.
+     */
+    static Assertion parse(final String response, final ProxyGrantingTicketStorage proxyGrantingTicketStorage,
+                           final ProxyRetriever proxyRetriever) throws TicketValidationException, IOException {
         if (CommonUtils.isBlank(response)) {
             throw new TicketValidationException("Invalid JSON response; The response is empty");
         }
+        try (var parser = READER.createParser(response)) {
+            return parse(parser, proxyGrantingTicketStorage, proxyRetriever, response);
+        }
+    }
 
-        final var json = this.objectMapper.readValue(response, TicketValidationJsonResponse.class);
+    /**
+     * Same as {@link #parse(String, ProxyGrantingTicketStorage, ProxyRetriever)}, reading the response as it arrives.
+     * The reader is not closed.
+     */
+    static Assertion parse(final Reader response, final ProxyGrantingTicketStorage proxyGrantingTicketStorage,
+                           final ProxyRetriever proxyRetriever) throws TicketValidationException, IOException {
+        try (var parser = READER.createParser(response)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return parse(parser, proxyGrantingTicketStorage, proxyRetriever, null);
+        }
+    }
 
-        final var serviceResponse = json.serviceResponse();
-        if (serviceResponse.authenticationFailure() != null
-            && serviceResponse.authenticationSuccess() != null) {
-            throw new TicketValidationException("Invalid JSON response; It indicates both a success "
-                                                + "and a failure event, which is indicative of a server error. The actual response is " + response);
+    /**
+     * Skips leading whitespace and tells whether the response is a JSON object, leaving its first character unread.
+     *
+     * @param response the response, with room to push back one character.
+     * @return true if the response should be parsed as JSON, false if it is in another format, i.e. XML.
+     * @throws IOException if the response cannot be read.
+     */
+    static boolean isJsonObject(final PushbackReader response) throws IOException {
+        int c;
+        do {
+            c = response.read();
+        } while (c != -1 && Character.isWhitespace(c));
+        if (c != -1) {
+            response.unread(c);
         }
+        return c == '{';
+    }
 
-        if (serviceResponse.authenticationFailure() != null) {
-            final var error = json.serviceResponse().authenticationFailure().getCode()
-                              + " - " + serviceResponse.authenticationFailure().getDescription();
-            throw new TicketValidationException(error);
+    private static Assertion parse(final JsonParser parser, final ProxyGrantingTicketStorage proxyGrantingTicketStorage,
+                                   final ProxyRetriever proxyRetriever, final String response)
+        throws TicketValidationException, IOException {
+        final var token = parser.nextToken();
+        if (token == null) {
+            throw new TicketValidationException("Invalid JSON response; The response is empty");
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Invalid JSON response; Expected an object but found " + token);
         }
 
-        final var principal = json.serviceResponse().authenticationSuccess().getUser();
-        if (CommonUtils.isEmpty(principal)) {
+        final var serviceResponse = new ServiceResponse();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final var name = parser.currentName();
+            if ("serviceResponse".equals(name) && parser.nextToken() == JsonToken.START_OBJECT) {
+                serviceResponse.read(parser);
+            } else {
+                parser.nextToken();
+                parser.skipChildren();
+            }
+        }
+
+        if (serviceResponse.failure && serviceResponse.success) {
+            throw new TicketValidationException("Invalid JSON response; It indicates both a success "
+                                                + "and a failure event, which is indicative of a server error."
+                                                + (response == null ? "" : " The actual response is " + response));
+        }
+        if (serviceResponse.failure) {
+            throw new TicketValidationException(serviceResponse.failureCode + " - " + serviceResponse.failureDescription,
+                serviceResponse.failureCode);
+        }
+        if (CommonUtils.isEmpty(serviceResponse.user)) {
             throw new TicketValidationException("No principal was found in the response from the CAS server.");
         }
-        return json;
+
+        final String proxyGrantingTicket;
+        if (CommonUtils.isBlank(serviceResponse.proxyGrantingTicketIou) || proxyGrantingTicketStorage == null) {
+            proxyGrantingTicket = null;
+        } else {
+            proxyGrantingTicket = proxyGrantingTicketStorage.retrieve(serviceResponse.proxyGrantingTicketIou);
+        }
+
+        if (CommonUtils.isNotBlank(proxyGrantingTicket)) {
+            return new AssertionImpl(new AttributePrincipalImpl(serviceResponse.user, serviceResponse.attributes,
+                proxyGrantingTicket, proxyRetriever));
+        }
+        return new AssertionImpl(new AttributePrincipalImpl(serviceResponse.user, serviceResponse.attributes));
+    }
+
+    /**
+     * Reads an attribute value as a string, number, boolean, list or map, the same types data binding produces.
+     */
+    private static Object readValue(final JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT -> {
+                final Map<String, Object> map = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final var name = parser.currentName();
+                    parser.nextToken();
+                    map.put(name, readValue(parser));
+                }
+                return map;
+            }
+            case START_ARRAY -> {
+                final List<Object> list = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readValue(parser));
+                }
+                return list;
+            }
+            case VALUE_STRING -> {
+                return parser.getText();
+            }
+            case VALUE_NUMBER_INT -> {
+                return parser.getNumberValue();
+            }
+            case VALUE_NUMBER_FLOAT -> {
+                return parser.getDoubleValue();
+            }
+            case VALUE_TRUE -> {
+                return Boolean.TRUE;
+            }
+            case VALUE_FALSE -> {
+                return Boolean.FALSE;
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The parts of the <code>serviceResponse</code> object the assertion is built from.
+     */
+    private static final class ServiceResponse {
+
+        private boolean success;
+
+        private boolean failure;
+
+        private String failureCode;
+
+        private String failureDescription;
+
+        private String user;
+
+        private String proxyGrantingTicketIou;
+
+        private Map<String, Object> attributes;
+
+        private void read(final JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final var name = parser.currentName();
+                final var token = parser.nextToken();
+                if ("authenticationSuccess".equals(name) && token == JsonToken.START_OBJECT) {
+                    this.success = true;
+                    readSuccess(parser);
+                } else if ("authenticationFailure".equals(name) && token == JsonToken.START_OBJECT) {
+                    this.failure = true;
+                    readFailure(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private void readSuccess(final JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final var name = parser.currentName();
+                final var token = parser.nextToken();
+                if ("user".equals(name) && token.isScalarValue()) {
+                    this.user = parser.getValueAsString();
+                } else if ("proxyGrantingTicket".equals(name) && token.isScalarValue()) {
+                    this.proxyGrantingTicketIou = parser.getValueAsString();
+                } else if ("attributes".equals(name) && token == JsonToken.START_OBJECT) {
+                    this.attributes = (Map<String, Object>) readValue(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        private void readFailure(final JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final var name = parser.currentName();
+                final var token = parser.nextToken();
+                if ("code".equals(name) && token.isScalarValue()) {
+                    this.failureCode = parser.getValueAsString();
+                } else if ("description".equals(name) && token.isScalarValue()) {
+                    this.failureDescription = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
     }
 }
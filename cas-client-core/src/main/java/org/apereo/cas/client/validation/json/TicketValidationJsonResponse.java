@@ -36,7 +36,10 @@ import java.util.Map;
  * This is {@link TicketValidationJsonResponse}.
  *
  * @author Misagh Moayyed
+ * @deprecated responses are read token by token by {@link JsonValidationResponseParser}, which builds the
+ * {@link Assertion} without binding the response to these records.
  */
+@Deprecated
 record TicketValidationJsonResponse(TicketValidationJsonResponse.CasServiceResponseAuthentication serviceResponse) {
     @JsonCreator
     TicketValidationJsonResponse(
@@ -2,12 +2,20 @@ package org.apereo.cas.client.validation.jwt;
 
 import org.apereo.cas.client.Protocol;
 import org.apereo.cas.client.configuration.ConfigurationKey;
+import org.apereo.cas.client.util.ReflectUtils;
 import org.apereo.cas.client.validation.AbstractTicketValidationFilter;
 import org.apereo.cas.client.validation.TicketValidator;
 
 import jakarta.servlet.FilterConfig;
 
 public class CasJWTTicketValidationFilter extends AbstractTicketValidationFilter {
+    private CasJWTTicketValidator jwtTicketValidator;
+
+    /**
+     * Replay cache created from the configuration of this filter, which is destroyed with the filter.
+     */
+    private JWTReplayCache configuredReplayCache;
+
     protected CasJWTTicketValidationFilter() {
         super(Protocol.CAS3);
     }
@@ -25,7 +33,27 @@ public class CasJWTTicketValidationFilter extends AbstractTicketValidationFilter
         validator.setBase64EncryptionKey(getBoolean(new ConfigurationKey<>("base64EncryptionKey", true)));
         validator.setBase64SigningKey(getBoolean(new ConfigurationKey<>("base64SigningKey", true)));
         validator.setMaxClockSkew(getInt(new ConfigurationKey<>("maxClockSkew", 60)));
+        validator.setJwkSetUrl(getString(new ConfigurationKey<>("jwkSetUrl")));
+        validator.setJwkSetCacheTimeToLive(getLong(new ConfigurationKey<>("jwkSetCacheTimeToLive",
+            CasJWTTicketValidator.DEFAULT_JWK_SET_CACHE_TIME_TO_LIVE)));
+        final var replayCacheClass = getClass(new ConfigurationKey<Class<? extends JWTReplayCache>>("replayCacheClass",
+            InMemoryJWTReplayCache.class));
+        this.configuredReplayCache = replayCacheClass == null ? null : ReflectUtils.newInstance(replayCacheClass);
+        validator.setReplayCache(this.configuredReplayCache);
         validator.initialize();
+        this.jwtTicketValidator = validator;
         return validator;
     }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (this.jwtTicketValidator != null) {
+            this.jwtTicketValidator.destroy();
+        }
+        if (this.configuredReplayCache != null) {
+            this.configuredReplayCache.destroy();
+            this.configuredReplayCache = null;
+        }
+    }
 }
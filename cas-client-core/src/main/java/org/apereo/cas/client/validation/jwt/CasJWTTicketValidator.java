@@ -19,6 +19,8 @@
 package org.apereo.cas.client.validation.jwt;
 
 import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+import org.apereo.cas.client.util.CleanUpScheduler;
+import org.apereo.cas.client.util.CommonUtils;
 import org.apereo.cas.client.validation.Assertion;
 import org.apereo.cas.client.validation.AssertionImpl;
 import org.apereo.cas.client.validation.TicketValidationException;
@@ -30,36 +32,87 @@ import com.nimbusds.jose.JWEAlgorithm;
 import com.nimbusds.jose.JWEHeader;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.factories.DefaultJWEDecrypterFactory;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
 import com.nimbusds.jose.proc.DefaultJOSEObjectTypeVerifier;
 import com.nimbusds.jose.proc.JWEDecryptionKeySelector;
+import com.nimbusds.jose.proc.JWSKeySelector;
 import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jose.util.ResourceRetriever;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWT;
 import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
 import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
 import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.Key;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This is {@link CasJWTTicketValidator} that attempts to parse the CAS service ticket
  * as a JWT.
+ * <p>
+ * The JWT processor is built once, by {@link #initialize()} or on the first validation, and then shared by all
+ * threads.  Signatures are verified with the configured signing key or, if a {@link #setJwkSetUrl(String) JWK set URL}
+ * is given, with the RSA or EC keys it serves.  The key set is cached and refreshed in the background before it
+ * expires, and is fetched again when a token is signed with a key it does not contain, so that the CAS server can
+ * rotate its keys.  The URL may point to a local file.
+ * <p>
+ * The expiration and audience of a token are checked as soon as its claims can be read, before its signature is
+ * verified, so that expired or misdirected tokens are rejected without the cost of verification.  They are checked
+ * again, with the other claims, once the signature is verified.
+ * <p>
+ * Once a token is verified, its identifier (<code>jti</code>) is recorded in a {@link JWTReplayCache} until the token
+ * expires, including the allowed clock skew, and a token whose identifier was already recorded is rejected.  Tokens
+ * are recorded only after their signature is verified, so that forged tokens cannot burn the identifiers of genuine
+ * ones.  By default the identifiers are kept in memory; a distributed cache protects a cluster of nodes.
  *
  * @author Misagh Moayyed
  */
 public class CasJWTTicketValidator implements TicketValidator {
+
+    /** Default time the keys from the JWK set URL are cached, in milliseconds. */
+    public static final long DEFAULT_JWK_SET_CACHE_TIME_TO_LIVE = JWKSourceBuilder.DEFAULT_CACHE_TIME_TO_LIVE;
+
+    /** Time between clean ups of the replay cache, in milliseconds. */
+    public static final long DEFAULT_REPLAY_CACHE_CLEAN_UP_INTERVAL = 60_000L;
+
+    private static final DefaultJWEDecrypterFactory DECRYPTER_FACTORY = new DefaultJWEDecrypterFactory();
+
     protected final Logger logger = LoggerFactory.getLogger(getClass());
 
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder earlyRejections = new LongAdder();
+
+    private final LongAdder replays = new LongAdder();
+
     private String signingKey;
 
     private String encryptionKey;
@@ -80,58 +133,136 @@ public class CasJWTTicketValidator implements TicketValidator {
 
     private int maxClockSkew = 60;
 
-    private ConfigurableJWTProcessor<SecurityContext> jwtProcessor;
+    private String jwkSetUrl;
+
+    private long jwkSetCacheTimeToLive = DEFAULT_JWK_SET_CACHE_TIME_TO_LIVE;
+
+    private JWTReplayCache replayCache = new InMemoryJWTReplayCache();
+
+    private CleanUpScheduler cleanUpScheduler = CleanUpScheduler.getDefault();
+
+    private volatile Processor processor;
 
     @Override
     public Assertion validate(final String ticket, final String service) throws TicketValidationException {
         try {
-            if (jwtProcessor == null) {
-                initialize();
-            }
-
-            final var claimsSet = this.jwtProcessor.process(ticket, null);
+            final var current = getProcessor();
+            final var claimsSet = current.process(JWTParser.parse(ticket));
             logger.debug("Validated claims are {}", claimsSet);
 
             return new AssertionImpl(
                 new AttributePrincipalImpl(claimsSet.getSubject(), claimsSet.getClaims()),
                 claimsSet.getIssueTime(), claimsSet.getExpirationTime(),
                 claimsSet.getIssueTime(), new HashMap<>());
+        } catch (final TicketValidationException e) {
+            throw e;
         } catch (final Exception e) {
             throw new TicketValidationException(e);
         }
     }
 
+    /**
+     * JWT tickets are validated locally without contacting the CAS server, so the validation is run
+     * on the calling thread and the returned future is already complete.
+     */
+    @Override
+    public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+        try {
+            return CompletableFuture.completedFuture(validate(ticket, service));
+        } catch (final TicketValidationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Builds the JWT processor from the current configuration, replacing any processor built before.
+     */
     public void initialize() {
         logger.debug("Initializing JWT processor...");
-        this.jwtProcessor = new DefaultJWTProcessor<>();
-        jwtProcessor.setJWSTypeVerifier(new DefaultJOSEObjectTypeVerifier<>(JOSEObjectType.JWT));
+        this.lock.lock();
+        try {
+            final var previous = this.processor;
+            this.processor = newProcessor();
+            if (previous != null) {
+                previous.close();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
 
-        final var jweKeySource = new ImmutableSecret<>(new SecretKeySpec(
-            base64EncryptionKey ? Base64.getDecoder().decode(encryptionKey) : encryptionKey.getBytes(StandardCharsets.UTF_8), encryptionKeyAlgorithm));
-        final var jwsKeySource = new ImmutableSecret<>(new SecretKeySpec(
-            base64SigningKey ? Base64.getDecoder().decode(signingKey) : signingKey.getBytes(StandardCharsets.UTF_8), signingKeyAlgorithm));
+    /**
+     * Stops refreshing the keys from the JWK set URL, if any, and cleaning up the replay cache.
+     */
+    public void destroy() {
+        this.lock.lock();
+        try {
+            if (this.processor != null) {
+                this.processor.close();
+                this.processor = null;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
 
-        configureKeySelectors(jwtProcessor, jweKeySource, jwsKeySource);
+    /**
+     * @return the number of tokens rejected for their expiration or audience before their signature was verified.
+     */
+    public long getEarlyRejections() {
+        return this.earlyRejections.sum();
+    }
 
-        final var requiredClaimsSet = Set.of(requiredClaims.split(","));
-        final var exactMatchClaims = new JWTClaimsSet.Builder()
-            .issuer(expectedIssuer)
-            .audience(expectedAudience)
-            .build();
-        final var jwtClaimsSetVerifier = new DefaultJWTClaimsVerifier<>(exactMatchClaims, requiredClaimsSet);
-        jwtClaimsSetVerifier.setMaxClockSkew(this.maxClockSkew);
-        jwtProcessor.setJWTClaimsSetVerifier(jwtClaimsSetVerifier);
+    /**
+     * @return the number of verified tokens rejected because their identifier was already used.
+     */
+    public long getReplays() {
+        return this.replays.sum();
     }
 
-    private static void configureKeySelectors(final ConfigurableJWTProcessor<SecurityContext> jwtProcessor,
-                                              final ImmutableSecret<SecurityContext> jweKeySource,
-                                              final ImmutableSecret<SecurityContext> jwsKeySource) {
-        final var jwsKeySelector = new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwsKeySource) {
-            @Override
-            public List<Key> selectJWSKeys(final JWSHeader jwsHeader, final SecurityContext context) {
-                return List.of(jwsKeySource.getSecretKey());
+    private Processor getProcessor() {
+        final var current = this.processor;
+        if (current != null) {
+            return current;
+        }
+        this.lock.lock();
+        try {
+            if (this.processor == null) {
+                logger.debug("Initializing JWT processor...");
+                this.processor = newProcessor();
             }
-        };
+            return this.processor;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private Processor newProcessor() {
+        final var jwtProcessor = new DefaultJWTProcessor<SecurityContext>();
+        jwtProcessor.setJWSTypeVerifier(new DefaultJOSEObjectTypeVerifier<>(JOSEObjectType.JWT));
+
+        final var decryptionKey = new SecretKeySpec(
+            base64EncryptionKey ? Base64.getDecoder().decode(encryptionKey) : encryptionKey.getBytes(StandardCharsets.UTF_8), encryptionKeyAlgorithm);
+        final var jweKeySource = new ImmutableSecret<SecurityContext>(decryptionKey);
+
+        final JWKSource<SecurityContext> jwkSource;
+        final JWSKeySelector<SecurityContext> jwsKeySelector;
+        if (CommonUtils.isNotBlank(this.jwkSetUrl)) {
+            jwkSource = newJwkSource();
+            final Set<JWSAlgorithm> algorithms = new LinkedHashSet<>(JWSAlgorithm.Family.RSA);
+            algorithms.addAll(JWSAlgorithm.Family.EC);
+            jwsKeySelector = new JWSVerificationKeySelector<>(algorithms, jwkSource);
+        } else {
+            jwkSource = null;
+            final var jwsKeySource = new ImmutableSecret<SecurityContext>(new SecretKeySpec(
+                base64SigningKey ? Base64.getDecoder().decode(signingKey) : signingKey.getBytes(StandardCharsets.UTF_8), signingKeyAlgorithm));
+            jwsKeySelector = new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwsKeySource) {
+                @Override
+                public List<Key> selectJWSKeys(final JWSHeader jwsHeader, final SecurityContext context) {
+                    return List.of(jwsKeySource.getSecretKey());
+                }
+            };
+        }
         final var jweKeySelector = new JWEDecryptionKeySelector<>(JWEAlgorithm.DIR, EncryptionMethod.A128CBC_HS256, jweKeySource) {
             @Override
             public List<Key> selectJWEKeys(final JWEHeader jweHeader, final SecurityContext context) {
@@ -140,6 +271,71 @@ public class CasJWTTicketValidator implements TicketValidator {
         };
         jwtProcessor.setJWSKeySelector(jwsKeySelector);
         jwtProcessor.setJWEKeySelector(jweKeySelector);
+
+        final var requiredClaimsSet = Set.of(requiredClaims.split(","));
+        final var exactMatchClaims = new JWTClaimsSet.Builder()
+            .issuer(expectedIssuer)
+            .audience(expectedAudience)
+            .build();
+        final var jwtClaimsSetVerifier = new DefaultJWTClaimsVerifier<>(exactMatchClaims, requiredClaimsSet);
+        jwtClaimsSetVerifier.setMaxClockSkew(this.maxClockSkew);
+        jwtProcessor.setJWTClaimsSetVerifier(jwtClaimsSetVerifier);
+
+        final var replayCacheCleanUp = this.replayCache == null ? null
+            : this.cleanUpScheduler.schedule("jwt-replay-cache", this.replayCache::cleanUp, DEFAULT_REPLAY_CACHE_CLEAN_UP_INTERVAL);
+        return new Processor(jwtProcessor, decryptionKey, jwkSource, this.replayCache, replayCacheCleanUp);
+    }
+
+    private JWKSource<SecurityContext> newJwkSource() {
+        final URL url;
+        try {
+            url = new URL(this.jwkSetUrl);
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("Invalid JWK set URL " + this.jwkSetUrl, e);
+        }
+        final JWKSourceBuilder<SecurityContext> builder = "file".equals(url.getProtocol())
+            ? JWKSourceBuilder.create(url, new FileResourceRetriever()) : JWKSourceBuilder.create(url);
+        // the refresh must be able to complete ahead of the expiry, even when keys are cached briefly
+        final var refreshTimeout = Math.min(JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT, this.jwkSetCacheTimeToLive / 4);
+        final var refreshAheadTime = Math.min(JWKSourceBuilder.DEFAULT_REFRESH_AHEAD_TIME, this.jwkSetCacheTimeToLive / 4);
+        return builder
+            .cache(this.jwkSetCacheTimeToLive, refreshTimeout)
+            .refreshAheadCache(refreshAheadTime, true)
+            .build();
+    }
+
+    /**
+     * Rejects a token that expired or is meant for another audience, from claims that are not verified yet.
+     */
+    private void rejectEarly(final JWTClaimsSet claimsSet) throws TicketValidationException {
+        final var expirationTime = claimsSet.getExpirationTime();
+        if (expirationTime != null
+            && expirationTime.getTime() < System.currentTimeMillis() - this.maxClockSkew * 1000L) {
+            this.earlyRejections.increment();
+            throw new TicketValidationException("Expired JWT");
+        }
+        if (this.expectedAudience != null
+            && (claimsSet.getAudience() == null || !claimsSet.getAudience().contains(this.expectedAudience))) {
+            this.earlyRejections.increment();
+            throw new TicketValidationException("JWT audience rejected: " + claimsSet.getAudience());
+        }
+    }
+
+    /**
+     * Rejects a verified token whose identifier was recorded before.
+     */
+    private void rejectReplay(final JWTReplayCache cache, final JWTClaimsSet claimsSet) throws TicketValidationException {
+        final var tokenId = claimsSet.getJWTID();
+        if (cache == null || tokenId == null) {
+            return;
+        }
+        final var expirationTime = claimsSet.getExpirationTime();
+        final var forgetAfter = expirationTime == null ? Long.MAX_VALUE
+            : expirationTime.getTime() + this.maxClockSkew * 1000L;
+        if (!cache.putIfAbsent(tokenId, forgetAfter)) {
+            this.replays.increment();
+            throw new TicketValidationException("JWT " + tokenId + " has already been used");
+        }
     }
 
     public void setBase64EncryptionKey(final boolean base64EncryptionKey) {
@@ -181,4 +377,121 @@ public class CasJWTTicketValidator implements TicketValidator {
     public void setMaxClockSkew(final int maxClockSkew) {
         this.maxClockSkew = maxClockSkew;
     }
+
+    /**
+     * @param jwkSetUrl URL of the JWK set holding the keys the CAS server signs tokens with, which replace the
+     *                  signing key.  May be a <code>file:</code> URL.
+     */
+    public void setJwkSetUrl(final String jwkSetUrl) {
+        this.jwkSetUrl = jwkSetUrl;
+    }
+
+    /**
+     * @param jwkSetCacheTimeToLive time the keys from the JWK set URL are cached, in milliseconds.
+     */
+    public void setJwkSetCacheTimeToLive(final long jwkSetCacheTimeToLive) {
+        CommonUtils.assertTrue(jwkSetCacheTimeToLive > 0, "jwkSetCacheTimeToLive must be greater than zero.");
+        this.jwkSetCacheTimeToLive = jwkSetCacheTimeToLive;
+    }
+
+    /**
+     * @param replayCache cache of the identifiers of validated tokens, or null to accept replayed tokens.
+     */
+    public void setReplayCache(final JWTReplayCache replayCache) {
+        this.replayCache = replayCache;
+    }
+
+    public JWTReplayCache getReplayCache() {
+        return this.replayCache;
+    }
+
+    /**
+     * @param cleanUpScheduler scheduler that periodically cleans up the replay cache.
+     */
+    public void setCleanUpScheduler(final CleanUpScheduler cleanUpScheduler) {
+        CommonUtils.assertNotNull(cleanUpScheduler, "cleanUpScheduler cannot be null.");
+        this.cleanUpScheduler = cleanUpScheduler;
+    }
+
+    /**
+     * The fully configured, thread-safe processing of tokens.
+     */
+    private final class Processor {
+
+        private final ConfigurableJWTProcessor<SecurityContext> jwtProcessor;
+
+        private final SecretKey decryptionKey;
+
+        private final JWKSource<SecurityContext> jwkSource;
+
+        private final JWTReplayCache replayCache;
+
+        private final CleanUpScheduler.CleanUpTask replayCacheCleanUp;
+
+        private Processor(final ConfigurableJWTProcessor<SecurityContext> jwtProcessor, final SecretKey decryptionKey,
+                          final JWKSource<SecurityContext> jwkSource, final JWTReplayCache replayCache,
+                          final CleanUpScheduler.CleanUpTask replayCacheCleanUp) {
+            this.jwtProcessor = jwtProcessor;
+            this.decryptionKey = decryptionKey;
+            this.jwkSource = jwkSource;
+            this.replayCache = replayCache;
+            this.replayCacheCleanUp = replayCacheCleanUp;
+        }
+
+        private JWTClaimsSet process(final JWT jwt) throws Exception {
+            final var claimsSet = verify(jwt);
+            rejectReplay(this.replayCache, claimsSet);
+            return claimsSet;
+        }
+
+        private JWTClaimsSet verify(final JWT jwt) throws Exception {
+            if (jwt instanceof SignedJWT) {
+                rejectEarly(jwt.getJWTClaimsSet());
+                return this.jwtProcessor.process((SignedJWT) jwt, null);
+            }
+            if (jwt instanceof EncryptedJWT) {
+                final var encryptedJwt = (EncryptedJWT) jwt;
+                encryptedJwt.decrypt(DECRYPTER_FACTORY.createJWEDecrypter(encryptedJwt.getHeader(), this.decryptionKey));
+                final var signedJwt = encryptedJwt.getPayload().toSignedJWT();
+                if (signedJwt != null) {
+                    rejectEarly(signedJwt.getJWTClaimsSet());
+                    return this.jwtProcessor.process(signedJwt, null);
+                }
+                // encrypted only: the JWE is already decrypted, so the processor cannot take it any more
+                final var claimsSet = encryptedJwt.getJWTClaimsSet();
+                rejectEarly(claimsSet);
+                this.jwtProcessor.getJWTClaimsSetVerifier().verify(claimsSet, null);
+                return claimsSet;
+            }
+            return this.jwtProcessor.process(jwt, null);
+        }
+
+        private void close() {
+            if (this.replayCacheCleanUp != null) {
+                this.replayCacheCleanUp.cancel();
+            }
+            if (this.jwkSource instanceof Closeable) {
+                try {
+                    ((Closeable) this.jwkSource).close();
+                } catch (final IOException e) {
+                    logger.debug("Unable to close JWK source: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads JWK sets from <code>file:</code> URLs, which the default HTTP retriever does not support.
+     */
+    private static final class FileResourceRetriever implements ResourceRetriever {
+
+        @Override
+        public Resource retrieveResource(final URL url) throws IOException {
+            try {
+                return new Resource(Files.readString(Path.of(url.toURI()), StandardCharsets.UTF_8), "application/json");
+            } catch (final URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+    }
 }
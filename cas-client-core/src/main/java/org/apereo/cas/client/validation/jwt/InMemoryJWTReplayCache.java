@@ -0,0 +1,118 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+import org.apereo.cas.client.util.CommonUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link JWTReplayCache} that keeps the identifiers in memory, which protects a single node.
+ * <p>
+ * Identifiers are spread over a fixed number of independent maps, so that concurrent validations and the periodic
+ * {@link #cleanUp()} rarely touch the same map, and no map grows large enough for a resize to stall validations.
+ * Only the identifier and its expiration time are kept.
+ *
+ * @since 4.0.4
+ */
+public final class InMemoryJWTReplayCache implements JWTReplayCache {
+
+    /** Default number of shards, a power of two. */
+    public static final int DEFAULT_SHARDS =
+        Integer.highestOneBit(Math.max(16, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1;
+
+    private final ConcurrentHashMap<String, Long>[] shards;
+
+    private final int mask;
+
+    private final LongAdder replays = new LongAdder();
+
+    public InMemoryJWTReplayCache() {
+        this(DEFAULT_SHARDS);
+    }
+
+    /**
+     * @param shardCount number of shards, rounded up to a power of two.
+     */
+    @SuppressWarnings("unchecked")
+    public InMemoryJWTReplayCache(final int shardCount) {
+        CommonUtils.assertTrue(shardCount > 0 && shardCount <= 1 << 16, "shardCount must be between 1 and 65536.");
+        final var count = shardCount == 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        this.shards = new ConcurrentHashMap[count];
+        for (var i = 0; i < count; i++) {
+            this.shards[i] = new ConcurrentHashMap<>();
+        }
+        this.mask = count - 1;
+    }
+
+    @Override
+    public boolean putIfAbsent(final String tokenId, final long expirationTime) {
+        final var shard = shardFor(tokenId);
+        final var existing = shard.putIfAbsent(tokenId, expirationTime);
+        if (existing == null) {
+            return true;
+        }
+        // an expired identifier that was not cleaned up yet may be reused
+        if (existing < System.currentTimeMillis() && shard.replace(tokenId, existing, expirationTime)) {
+            return true;
+        }
+        this.replays.increment();
+        return false;
+    }
+
+    @Override
+    public void cleanUp() {
+        final var now = System.currentTimeMillis();
+        for (final var shard : this.shards) {
+            shard.values().removeIf(expirationTime -> expirationTime < now);
+        }
+    }
+
+    /**
+     * @return the number of identifiers currently remembered.
+     */
+    public int size() {
+        var size = 0;
+        for (final var shard : this.shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of shards.
+     */
+    public int getShardCount() {
+        return this.shards.length;
+    }
+
+    /**
+     * @return the number of replayed tickets detected.
+     */
+    public long getReplays() {
+        return this.replays.sum();
+    }
+
+    private ConcurrentHashMap<String, Long> shardFor(final String tokenId) {
+        final var hash = tokenId.hashCode();
+        // ConcurrentHashMap uses the low bits, so pick the shard from the high ones
+        return this.shards[(hash ^ (hash >>> 16)) >>> 8 & this.mask];
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+/**
+ * Remembers the identifiers (<code>jti</code>) of the JWT service tickets that have been validated, so that a ticket
+ * cannot be validated twice.  Implementations must be thread-safe; distributed implementations let every node of a
+ * cluster see the tickets validated by the others.
+ *
+ * @since 4.0.4
+ */
+public interface JWTReplayCache {
+
+    /**
+     * Records the identifier of a ticket, unless it was recorded before and has not expired yet.
+     *
+     * @param tokenId        the <code>jti</code> claim of the ticket.
+     * @param expirationTime time after which the identifier may be forgotten, in milliseconds since the epoch.
+     * @return true if the identifier was recorded, false if the ticket is a replay or its use could not be recorded.
+     */
+    boolean putIfAbsent(String tokenId, long expirationTime);
+
+    /**
+     * Forgets expired identifiers.  Called periodically by the validator.
+     */
+    void cleanUp();
+
+    /**
+     * Releases the resources held by the cache, such as connections.  Called by
+     * {@link CasJWTTicketValidationFilter#destroy()} for the cache it created.
+     */
+    default void destroy() {
+    }
+}
@@ -48,6 +48,9 @@ public final class PublicTestHttpServer extends Thread {
 
     public byte[] content;
 
+    /** Milliseconds to wait before responding to each request, to simulate a remote server. */
+    public volatile long latency;
+
     private ServerSocket server;
 
     private PublicTestHttpServer(final String data, final String encoding, final String MIMEType, final int port)
@@ -117,6 +120,9 @@ public final class PublicTestHttpServer extends Thread {
                         connection.close();
                         break;
                     }
+                    if (this.latency > 0) {
+                        Thread.sleep(this.latency);
+                    }
                     if (request.toString().indexOf("HTTP/") != -1) {
                         out.write(this.header);
                     }
@@ -124,6 +130,9 @@ public final class PublicTestHttpServer extends Thread {
                     out.flush();
                 } catch (final IOException e) {
                     // nothing to do with this IOException
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 }
 
             } // end while
@@ -0,0 +1,107 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jfr;
+
+import org.apereo.cas.client.PublicTestHttpServer;
+import org.apereo.cas.client.proxy.Cas20ProxyRetriever;
+import org.apereo.cas.client.proxy.ProxyGrantingTicketStorageImpl;
+import org.apereo.cas.client.session.SingleSignOutHandler;
+import org.apereo.cas.client.util.WebUtils;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link SingleSignOutEvent}, the {@link ProxyGrantingTicketCallbackEvent} and the
+ * {@link ProxyTicketRetrievalEvent}.
+ *
+ * @since 4.0.4
+ */
+public final class ProxyAndLogoutEventsTests {
+
+    private static final PublicTestHttpServer server = PublicTestHttpServer.instance(8094);
+
+    @Test
+    public void testSingleSignOut() throws Exception {
+        final var handler = new SingleSignOutHandler();
+        handler.init();
+        handler.getSessionMappingStorage().addSessionById("ST-1", new MockHttpSession());
+
+        final var events = TicketValidationEventTests.record(SingleSignOutEvent.NAME, () -> {
+            handler.process(logoutRequest("ST-1"), new MockHttpServletResponse());
+            handler.process(logoutRequest("ST-2"), new MockHttpServletResponse());
+            return null;
+        });
+
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).getBoolean("sessionFound"));
+        assertFalse(events.get(1).getBoolean("sessionFound"));
+    }
+
+    @Test
+    public void testProxyGrantingTicketCallback() throws Exception {
+        final var storage = new ProxyGrantingTicketStorageImpl();
+        final var request = new MockHttpServletRequest();
+        request.setParameter("pgtIou", "PGTIOU-1");
+        request.setParameter("pgtId", "PGT-1");
+
+        final var events = TicketValidationEventTests.record(ProxyGrantingTicketCallbackEvent.NAME, () -> {
+            WebUtils.readAndRespondToProxyReceptorRequest(request, new MockHttpServletResponse(), storage);
+            WebUtils.readAndRespondToProxyReceptorRequest(new MockHttpServletRequest(), new MockHttpServletResponse(),
+                storage);
+            return null;
+        });
+
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).getBoolean("stored"));
+        assertFalse(events.get(1).getBoolean("stored"));
+        assertEquals("PGT-1", storage.retrieve("PGTIOU-1"));
+    }
+
+    @Test
+    public void testProxyTicketRetrieval() throws Exception {
+        server.content = ("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:proxySuccess>"
+            + "<cas:proxyTicket>PT-1</cas:proxyTicket></cas:proxySuccess></cas:serviceResponse>")
+            .getBytes(StandardCharsets.UTF_8);
+        final var retriever = new Cas20ProxyRetriever("http://localhost:8094/cas", "UTF-8", null);
+
+        final var events = TicketValidationEventTests.record(ProxyTicketRetrievalEvent.NAME,
+            () -> retriever.getProxyTicketIdFor("PGT-1", "https://target"));
+
+        assertEquals(1, events.size());
+        assertEquals("SUCCESS", events.get(0).getString("outcome"));
+        assertEquals("https://target", events.get(0).getString("targetService"));
+        assertEquals("http://localhost:8094/cas", events.get(0).getString("casServerUrl"));
+    }
+
+    private static MockHttpServletRequest logoutRequest(final String sessionIndex) {
+        final var request = new MockHttpServletRequest();
+        request.setMethod("POST");
+        request.setParameter("logoutRequest",
+            "<samlp:LogoutRequest xmlns:samlp=\"urn:oasis:names:tc:SAML:2.0:protocol\" ID=\"1\" Version=\"2.0\">"
+            + "<samlp:SessionIndex>" + sessionIndex + "</samlp:SessionIndex></samlp:LogoutRequest>");
+        return request;
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.jfr;
+
+import org.apereo.cas.client.PublicTestHttpServer;
+import org.apereo.cas.client.validation.Cas20ServiceTicketValidator;
+import org.apereo.cas.client.validation.TicketValidationException;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link TicketValidationEvent} and its {@link ValidationPhases}.
+ *
+ * @since 4.0.4
+ */
+public final class TicketValidationEventTests {
+
+    private static final PublicTestHttpServer server = PublicTestHttpServer.instance(8093);
+
+    private static final String SUCCESS = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+        + "<cas:authenticationSuccess><cas:user>casuser</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+
+    private static final String FAILURE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+        + "<cas:authenticationFailure code=\"INVALID_TICKET\">Ticket not recognized</cas:authenticationFailure>"
+        + "</cas:serviceResponse>";
+
+    static List<RecordedEvent> record(final String eventName, final Callable<?> action) throws Exception {
+        final var file = Files.createTempFile("cas-client", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable(eventName).withThreshold(Duration.ZERO);
+            recording.start();
+            try {
+                action.call();
+            } catch (final TicketValidationException e) {
+                // the event is still recorded
+            }
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testValidationPhases() throws Exception {
+        server.content = SUCCESS.getBytes(StandardCharsets.UTF_8);
+        final var validator = new Cas20ServiceTicketValidator("http://localhost:8093");
+
+        final var events = record(TicketValidationEvent.NAME, () -> validator.validate("ST-1", "https://service"));
+
+        assertEquals(1, events.size());
+        final var event = events.get(0);
+        assertEquals(Cas20ServiceTicketValidator.class.getName(), event.getString("validator"));
+        assertEquals("SUCCESS", event.getString("outcome"));
+        assertNull(event.getString("errorCode"));
+        assertFalse(event.getBoolean("asynchronous"));
+        assertEquals(SUCCESS.length(), event.getLong("responseSize"));
+        final var phases = event.getDuration("urlBuild").plus(event.getDuration("connect"))
+            .plus(event.getDuration("timeToFirstByte")).plus(event.getDuration("bodyRead"))
+            .plus(event.getDuration("parse"));
+        assertTrue(event.getDuration("timeToFirstByte").toNanos() > 0);
+        assertTrue(phases.compareTo(event.getDuration()) <= 0);
+    }
+
+    @Test
+    public void testStreamedValidationFailure() throws Exception {
+        server.content = FAILURE.getBytes(StandardCharsets.UTF_8);
+        final var validator = new Cas20ServiceTicketValidator("http://localhost:8093");
+        validator.setStreamResponses(true);
+
+        final var events = record(TicketValidationEvent.NAME, () -> validator.validate("ST-1", "https://service"));
+
+        assertEquals(1, events.size());
+        final var event = events.get(0);
+        assertEquals("FAILURE", event.getString("outcome"));
+        assertEquals("INVALID_TICKET", event.getString("errorCode"));
+        assertEquals(FAILURE.length(), event.getLong("responseSize"));
+        assertTrue(event.getDuration("parse").toNanos() > 0);
+    }
+
+    @Test
+    public void testAsynchronousValidation() throws Exception {
+        server.content = SUCCESS.getBytes(StandardCharsets.UTF_8);
+        final var validator = new Cas20ServiceTicketValidator("http://localhost:8093");
+
+        final var events = record(TicketValidationEvent.NAME, () -> validator.validateAsync("ST-1", "https://service").join());
+
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).getBoolean("asynchronous"));
+        assertEquals("SUCCESS", events.get(0).getString("outcome"));
+    }
+
+    @Test
+    public void testPhasesAreCurrentOnlyWithinTheCall() {
+        final var phases = new ValidationPhases();
+        assertNull(ValidationPhases.current());
+        assertSame(phases, phases.record(ValidationPhases::current));
+        assertNull(ValidationPhases.current());
+    }
+
+    @Test
+    public void testUnobservedWaitIsTimeToFirstByte() throws Exception {
+        final var phases = new ValidationPhases();
+        phases.record(() -> {
+            sleep();
+            phases.responseReceived();
+            return null;
+        });
+        assertTrue(phases.getTimeToFirstByte() > 0);
+        assertEquals(0, phases.getBodyRead());
+
+        phases.firstByteReceived();
+        sleep();
+        phases.responseReceived();
+        assertTrue(phases.getBodyRead() > 0);
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(2);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
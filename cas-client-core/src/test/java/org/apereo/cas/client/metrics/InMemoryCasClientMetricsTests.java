@@ -0,0 +1,128 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.metrics;
+
+import org.apereo.cas.client.configuration.ConfigurationKeys;
+import org.apereo.cas.client.util.HttpServletRequestWrapperFilter;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterConfig;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link InMemoryCasClientMetrics} and the {@link CasClientMetricsHolder}.
+ *
+ * @since 4.0.4
+ */
+public final class InMemoryCasClientMetricsTests {
+
+    @After
+    public void tearDown() {
+        CasClientMetricsHolder.setDefault(null);
+    }
+
+    @Test
+    public void testValidationsByTypeAndOutcome() {
+        final var metrics = new InMemoryCasClientMetrics();
+        metrics.recordValidation(String.class, CasClientMetrics.Outcome.SUCCESS, 1_000);
+        metrics.recordValidation(String.class, CasClientMetrics.Outcome.SUCCESS, 3_000);
+        metrics.recordValidation(String.class, CasClientMetrics.Outcome.FAILURE, 2_000);
+        metrics.recordResponseSize(String.class, 512);
+        metrics.recordCoalescedValidation(String.class);
+
+        assertEquals(1, metrics.getValidatorTypes().size());
+        assertEquals(2, metrics.getValidationLatencies(String.class, CasClientMetrics.Outcome.SUCCESS).getCount());
+        assertEquals(3_000, metrics.getValidationLatencies(String.class, CasClientMetrics.Outcome.SUCCESS).getMax());
+        assertEquals(1, metrics.getValidationLatencies(String.class, CasClientMetrics.Outcome.FAILURE).getCount());
+        assertEquals(0, metrics.getValidationLatencies(String.class, CasClientMetrics.Outcome.ERROR).getCount());
+        assertEquals(512, metrics.getResponseSizes(String.class).getMax());
+        assertEquals(1, metrics.getCoalescedValidations(String.class));
+        assertEquals(0, metrics.getCoalescedValidations(Integer.class));
+        assertNull(metrics.getValidationLatencies(Integer.class, CasClientMetrics.Outcome.SUCCESS));
+    }
+
+    @Test
+    public void testErrorCodesAreBounded() {
+        final var metrics = new InMemoryCasClientMetrics();
+        metrics.recordValidationErrorCode("INVALID_TICKET");
+        metrics.recordValidationErrorCode("INVALID_TICKET");
+        metrics.recordValidationErrorCode(null);
+        for (var i = 0; i < InMemoryCasClientMetrics.MAX_ERROR_CODES + 10; i++) {
+            metrics.recordValidationErrorCode("CODE_" + i);
+        }
+        final var counts = metrics.getErrorCodeCounts();
+        assertEquals(Long.valueOf(2), counts.get("INVALID_TICKET"));
+        assertEquals(Long.valueOf(11), counts.get(InMemoryCasClientMetrics.OTHER_ERROR_CODE));
+        assertEquals(InMemoryCasClientMetrics.MAX_ERROR_CODES + 1, counts.size());
+    }
+
+    @Test
+    public void testProxyAndLogoutMeasurements() {
+        final var metrics = new InMemoryCasClientMetrics();
+        metrics.recordProxyTicketRetrieval(CasClientMetrics.Outcome.SUCCESS, 10);
+        metrics.recordLogout(CasClientMetrics.Outcome.FAILURE, 20);
+        metrics.recordProxyGrantingTicketRetrieval(Object.class, true);
+        metrics.recordProxyGrantingTicketRetrieval(Object.class, false);
+        metrics.recordProxyGrantingTicketRetrieval(Object.class, false);
+        metrics.recordProxyGrantingTicketExpiry(Object.class, 3);
+
+        assertEquals(1, metrics.getProxyTicketRetrievalLatencies(CasClientMetrics.Outcome.SUCCESS).getCount());
+        assertEquals(20, metrics.getLogoutLatencies(CasClientMetrics.Outcome.FAILURE).getMax());
+        assertEquals(1, metrics.getProxyGrantingTicketHits());
+        assertEquals(2, metrics.getProxyGrantingTicketMisses());
+        assertEquals(3, metrics.getProxyGrantingTicketExpirations());
+    }
+
+    @Test
+    public void testInstallSharesInstance() {
+        assertSame(NoOpCasClientMetrics.INSTANCE, CasClientMetricsHolder.getDefault());
+        final var installed = CasClientMetricsHolder.install(InMemoryCasClientMetrics.class);
+        assertSame(installed, CasClientMetricsHolder.getDefault());
+        assertSame(installed, CasClientMetricsHolder.install(InMemoryCasClientMetrics.class));
+        CasClientMetricsHolder.setDefault(null);
+        assertSame(NoOpCasClientMetrics.INSTANCE, CasClientMetricsHolder.getDefault());
+    }
+
+    @Test
+    public void testInstalledMetricsAreDiscardedOnceReleasedByEveryFilter() {
+        final var installed = CasClientMetricsHolder.install(InMemoryCasClientMetrics.class);
+        CasClientMetricsHolder.install(InMemoryCasClientMetrics.class);
+
+        CasClientMetricsHolder.release(installed);
+        assertSame(installed, CasClientMetricsHolder.getDefault());
+        CasClientMetricsHolder.release(installed);
+        assertSame(NoOpCasClientMetrics.INSTANCE, CasClientMetricsHolder.getDefault());
+        CasClientMetricsHolder.release(installed);
+        assertSame(NoOpCasClientMetrics.INSTANCE, CasClientMetricsHolder.getDefault());
+    }
+
+    @Test
+    public void testFilterReleasesMetricsOnDestroy() throws Exception {
+        final var config = new MockFilterConfig();
+        config.addInitParameter(ConfigurationKeys.METRICS_CLASS.getName(), InMemoryCasClientMetrics.class.getName());
+        final var filter = new HttpServletRequestWrapperFilter();
+        filter.init(config);
+        assertTrue(CasClientMetricsHolder.getDefault() instanceof InMemoryCasClientMetrics);
+
+        filter.destroy();
+        assertSame(NoOpCasClientMetrics.INSTANCE, CasClientMetricsHolder.getDefault());
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link LogLinearHistogram}.
+ *
+ * @since 4.0.4
+ */
+public final class LogLinearHistogramTests {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        final var histogram = new LogLinearHistogram();
+        for (var i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(55, histogram.getSum());
+        assertEquals(10, histogram.getMax());
+        assertEquals(5.5, histogram.getMean(), 0);
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(9, histogram.getValueAtPercentile(90));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testLargeValuesWithinPrecision() {
+        final var histogram = new LogLinearHistogram();
+        for (var i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+        assertEquals(500_000_000L, histogram.getValueAtPercentile(50), 500_000_000L * 0.04);
+        assertEquals(990_000_000L, histogram.getValueAtPercentile(99), 990_000_000L * 0.04);
+        assertEquals(1_000_000_000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        var previous = -1;
+        for (var value = 0L; value >= 0 && value < Long.MAX_VALUE / 2; value = value * 3 / 2 + 1) {
+            final var index = LogLinearHistogram.bucketIndex(value);
+            assertTrue(index >= previous);
+            assertTrue(LogLinearHistogram.highestEquivalentValue(index) >= value);
+            assertTrue(index == 0 || LogLinearHistogram.highestEquivalentValue(index - 1) < value);
+            previous = index;
+        }
+        assertEquals(Long.MAX_VALUE,
+            LogLinearHistogram.highestEquivalentValue(LogLinearHistogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testNegativeValuesAreRecordedAsZero() {
+        final var histogram = new LogLinearHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+        assertEquals(0, new LogLinearHistogram().getValueAtPercentile(50));
+    }
+}
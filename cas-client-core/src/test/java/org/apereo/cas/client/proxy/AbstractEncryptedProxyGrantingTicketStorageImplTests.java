@@ -0,0 +1,119 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.junit.Test;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link AbstractEncryptedProxyGrantingTicketStorageImpl}.
+ *
+ * @since 4.0.4
+ */
+public final class AbstractEncryptedProxyGrantingTicketStorageImplTests {
+
+    @Test
+    public void testDefaultAlgorithm() throws Exception {
+        final var storage = new MapBackedStorage();
+        storage.setSecretKey("123456789012345678901234");
+        storage.save("PGTIOU-1", "PGT-1");
+
+        assertNotEquals("PGT-1", storage.values.get("PGTIOU-1"));
+        Base64.getDecoder().decode(storage.values.get("PGTIOU-1"));
+        assertEquals("PGT-1", storage.retrieve("PGTIOU-1"));
+    }
+
+    @Test
+    public void testAesGcm() throws Exception {
+        final var storage = new MapBackedStorage();
+        storage.setCipherAlgorithm("AES/GCM/NoPadding");
+        storage.setSecretKey("0123456789abcdef");
+        storage.save("PGTIOU-1", "PGT-1-éè");
+        storage.save("PGTIOU-2", "PGT-1-éè");
+
+        assertNotEquals("a random IV is used for every ticket", storage.values.get("PGTIOU-1"), storage.values.get("PGTIOU-2"));
+        assertEquals("PGT-1-éè", storage.retrieve("PGTIOU-1"));
+        assertEquals("PGT-1-éè", storage.retrieve("PGTIOU-2"));
+    }
+
+    @Test
+    public void testAesGcmRejectsTamperedTicket() throws Exception {
+        final var storage = new MapBackedStorage();
+        storage.setCipherAlgorithm("AES/GCM/NoPadding");
+        storage.setSecretKey("0123456789abcdef");
+        storage.save("PGTIOU-1", "PGT-1");
+
+        final var stored = Base64.getDecoder().decode(storage.values.get("PGTIOU-1"));
+        stored[stored.length - 1] ^= 1;
+        storage.values.put("PGTIOU-1", Base64.getEncoder().encodeToString(stored));
+        try {
+            storage.retrieve("PGTIOU-1");
+            fail("expected the tampered ticket to be rejected");
+        } catch (final RuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAesCbc() throws Exception {
+        final var storage = new MapBackedStorage();
+        storage.setCipherAlgorithm("AES/CBC/PKCS5Padding");
+        storage.setSecretKey("0123456789abcdef0123456789abcdef");
+        for (var i = 0; i < 20; i++) {
+            storage.save("PGTIOU-" + i, "PGT-" + i);
+        }
+        for (var i = 0; i < 20; i++) {
+            assertEquals("PGT-" + i, storage.retrieve("PGTIOU-" + i));
+        }
+    }
+
+    @Test
+    public void testWithoutKey() {
+        final var storage = new MapBackedStorage();
+        storage.save("PGTIOU-1", "PGT-1");
+        assertEquals("PGT-1", storage.values.get("PGTIOU-1"));
+        assertEquals("PGT-1", storage.retrieve("PGTIOU-1"));
+        assertNull(storage.retrieve("PGTIOU-2"));
+    }
+
+    private static final class MapBackedStorage extends AbstractEncryptedProxyGrantingTicketStorageImpl {
+
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+
+        @Override
+        protected void saveInternal(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
+            this.values.put(proxyGrantingTicketIou, proxyGrantingTicket);
+        }
+
+        @Override
+        protected String retrieveInternal(final String proxyGrantingTicketIou) {
+            return this.values.get(proxyGrantingTicketIou);
+        }
+
+        @Override
+        public void cleanUp() {
+            // nothing to do
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.apereo.cas.client.PublicTestHttpServer;
+import org.apereo.cas.client.util.CasServerEndpoints;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link Cas20ProxyRetriever}.
+ *
+ * @since 4.0.4
+ */
+public final class Cas20ProxyRetrieverTests {
+
+    private static final PublicTestHttpServer server = PublicTestHttpServer.instance(8096);
+
+    private static final String CAS_SERVER_URL = "http://localhost:8096/cas";
+
+    @Test
+    public void testDeserializedRetrieverCallsServerUrl() throws Exception {
+        server.content = ("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:proxySuccess>"
+            + "<cas:proxyTicket>PT-1</cas:proxyTicket></cas:proxySuccess></cas:serviceResponse>")
+            .getBytes(StandardCharsets.UTF_8);
+        final var retriever = new Cas20ProxyRetriever(CAS_SERVER_URL, "UTF-8", null);
+        retriever.setMaxConcurrentRequests(2);
+        retriever.setCasServerEndpoints(new CasServerEndpoints(List.of("http://localhost:1/cas", CAS_SERVER_URL),
+            CasServerEndpoints.DEFAULT_HEALTH_CHECK_INTERVAL));
+
+        final var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(retriever);
+        }
+        final Cas20ProxyRetriever deserialized;
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (Cas20ProxyRetriever) in.readObject();
+        }
+
+        assertEquals("PT-1", deserialized.getProxyTicketIdFor("PGT-1", "https://target"));
+    }
+}
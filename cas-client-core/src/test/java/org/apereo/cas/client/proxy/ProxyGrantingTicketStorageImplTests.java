@@ -0,0 +1,85 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
+import org.apereo.cas.client.metrics.InMemoryCasClientMetrics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the retrieval, clean up and metrics of the {@link ProxyGrantingTicketStorageImpl}.
+ *
+ * @since 4.0.4
+ */
+public final class ProxyGrantingTicketStorageImplTests {
+
+    private static final int TIME_OUT = 250;
+
+    private final ProxyGrantingTicketStorage storage = new ProxyGrantingTicketStorageImpl(TIME_OUT);
+
+    @After
+    public void tearDown() {
+        CasClientMetricsHolder.setDefault(null);
+    }
+
+    @Test
+    public void testRetrieveIsSingleUse() {
+        this.storage.save("proxyGrantingTicketIou", "proxyGrantingTicket");
+        assertEquals("proxyGrantingTicket", this.storage.retrieve("proxyGrantingTicketIou"));
+        assertNull(this.storage.retrieve("proxyGrantingTicketIou"));
+    }
+
+    @Test
+    public void testCleanUpOnlyRemovesExpiredTickets() throws Exception {
+        this.storage.save("expired", "expiredProxyGrantingTicket");
+        this.storage.save("retrieved", "retrievedProxyGrantingTicket");
+        assertEquals("retrievedProxyGrantingTicket", this.storage.retrieve("retrieved"));
+
+        Thread.sleep(TIME_OUT * 2);
+        this.storage.save("retrieved", "savedAgainProxyGrantingTicket");
+        this.storage.save("active", "activeProxyGrantingTicket");
+
+        this.storage.cleanUp();
+
+        assertNull(this.storage.retrieve("expired"));
+        assertEquals("savedAgainProxyGrantingTicket", this.storage.retrieve("retrieved"));
+        assertEquals("activeProxyGrantingTicket", this.storage.retrieve("active"));
+    }
+
+    @Test
+    public void testHitsMissesAndExpirationsAreMeasured() throws Exception {
+        final var metrics = new InMemoryCasClientMetrics();
+        CasClientMetricsHolder.setDefault(metrics);
+        this.storage.save("retrieved", "retrievedProxyGrantingTicket");
+        this.storage.save("expired", "expiredProxyGrantingTicket");
+        this.storage.retrieve("retrieved");
+        this.storage.retrieve("retrieved");
+
+        Thread.sleep(TIME_OUT * 2);
+        this.storage.cleanUp();
+
+        assertEquals(1, metrics.getProxyGrantingTicketHits());
+        assertEquals(1, metrics.getProxyGrantingTicketMisses());
+        assertEquals(1, metrics.getProxyGrantingTicketExpirations());
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link BoundedSessionMappingStorage}.
+ *
+ * @since 4.0.4
+ */
+public final class BoundedSessionMappingStorageTests {
+
+    private final Map<String, HttpSession> sessions = new ConcurrentHashMap<>();
+
+    private final BoundedSessionMappingStorage storage = new BoundedSessionMappingStorage(sessions::get);
+
+    @After
+    public void tearDown() {
+        storage.destroy();
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        final var session = newSession();
+        storage.addSessionById("ST-1", session);
+        assertEquals(1, storage.size());
+
+        assertSame(session, storage.removeSessionByMappingId("ST-1"));
+        assertNull(storage.removeSessionByMappingId("ST-1"));
+
+        storage.addSessionById("ST-2", session);
+        storage.removeBySessionById(session.getId());
+        assertNull(storage.removeSessionByMappingId("ST-2"));
+        assertEquals(0, storage.size());
+    }
+
+    @Test
+    public void testOldestMappingsAreEvicted() {
+        storage.setMaxSize(2);
+        final var third = newSession();
+        storage.addSessionById("ST-1", newSession());
+        storage.addSessionById("ST-2", newSession());
+        storage.addSessionById("ST-3", third);
+
+        assertEquals(2, storage.size());
+        assertEquals(1, storage.getEvictions());
+        assertNull(storage.removeSessionByMappingId("ST-1"));
+        assertSame(third, storage.removeSessionByMappingId("ST-3"));
+    }
+
+    @Test
+    public void testSessionsThatNoLongerExistAreReaped() {
+        final var invalidated = newSession();
+        final var active = newSession();
+        storage.addSessionById("ST-1", invalidated);
+        storage.addSessionById("ST-2", newSession());
+        storage.addSessionById("ST-3", active);
+        invalidated.invalidate();
+        sessions.clear();
+        sessions.put(invalidated.getId(), invalidated);
+        sessions.put(active.getId(), active);
+
+        storage.reap();
+        assertEquals(1, storage.size());
+        assertEquals(2, storage.getReaped());
+        assertSame(active, storage.removeSessionByMappingId("ST-3"));
+    }
+
+    @Test
+    public void testMappedSessionsAreNotReferenced() throws Exception {
+        var session = new MockHttpSession();
+        final var reference = new WeakReference<>(session);
+        storage.addSessionById("ST-1", session);
+        session = null;
+        for (var i = 0; i < 100 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+        assertEquals(1, storage.size());
+    }
+
+    @Test
+    public void testSessionMissingFromLookupIsNotReturned() {
+        storage.addSessionById("ST-1", new MockHttpSession());
+        assertNull(storage.removeSessionByMappingId("ST-1"));
+        assertEquals(0, storage.size());
+    }
+
+    @Test
+    public void testBackgroundReaper() throws Exception {
+        storage.setReaperInterval(10);
+        final var session = newSession();
+        storage.addSessionById("ST-1", session);
+        session.invalidate();
+        for (var i = 0; i < 100 && storage.size() > 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, storage.size());
+    }
+
+    private MockHttpSession newSession() {
+        final var session = new MockHttpSession();
+        sessions.put(session.getId(), session);
+        return session;
+    }
+}
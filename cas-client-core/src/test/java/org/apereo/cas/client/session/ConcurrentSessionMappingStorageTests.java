@@ -0,0 +1,108 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link ConcurrentSessionMappingStorage}.
+ *
+ * @since 4.0.4
+ */
+public final class ConcurrentSessionMappingStorageTests {
+
+    private final ConcurrentSessionMappingStorage storage = new ConcurrentSessionMappingStorage();
+
+    @Test
+    public void testRemoveSessionByMappingId() {
+        final var session = new MockHttpSession();
+        storage.addSessionById("ST-1", session);
+
+        assertSame(session, storage.removeSessionByMappingId("ST-1"));
+        assertNull(storage.removeSessionByMappingId("ST-1"));
+        assertEquals(0, storage.size());
+    }
+
+    @Test
+    public void testRemoveBySessionIdRemovesMapping() {
+        final var session = new MockHttpSession();
+        storage.addSessionById("ST-1", session);
+
+        storage.removeBySessionById(session.getId());
+        assertNull(storage.removeSessionByMappingId("ST-1"));
+        assertEquals(0, storage.size());
+    }
+
+    @Test
+    public void testRemappedSessionDropsPreviousMappingId() {
+        final var session = new MockHttpSession();
+        storage.addSessionById("ST-1", session);
+        storage.addSessionById("ST-2", session);
+
+        assertNull(storage.removeSessionByMappingId("ST-1"));
+        assertSame(session, storage.removeSessionByMappingId("ST-2"));
+    }
+
+    @Test
+    public void testMappingIdMovedToAnotherSession() {
+        final var first = new MockHttpSession();
+        final var second = new MockHttpSession();
+        storage.addSessionById("ST-1", first);
+        storage.addSessionById("ST-1", second);
+
+        storage.removeBySessionById(first.getId());
+        assertSame(second, storage.removeSessionByMappingId("ST-1"));
+    }
+
+    @Test
+    public void testConcurrentAddAndRemove() throws Exception {
+        final var threads = 8;
+        final var perThread = 500;
+        final var executor = Executors.newFixedThreadPool(threads);
+        final var done = new CountDownLatch(threads);
+        try {
+            for (var t = 0; t < threads; t++) {
+                final var thread = t;
+                executor.execute(() -> {
+                    for (var i = 0; i < perThread; i++) {
+                        final var session = new MockHttpSession(null, "session-" + thread + '-' + i);
+                        storage.addSessionById("ST-" + thread + '-' + i, session);
+                        if (i % 2 == 0) {
+                            storage.removeBySessionById(session.getId());
+                        } else {
+                            assertSame(session, storage.removeSessionByMappingId("ST-" + thread + '-' + i));
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, storage.size());
+    }
+}
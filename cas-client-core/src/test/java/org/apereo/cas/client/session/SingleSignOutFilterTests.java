@@ -23,6 +23,7 @@ import org.apereo.cas.client.configuration.ConfigurationKeys;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionEvent;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -33,6 +34,7 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockHttpSession;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -76,6 +78,72 @@ public class SingleSignOutFilterTests {
         assertEquals(session, SingleSignOutFilter.getSingleSignOutHandler().getSessionMappingStorage().removeSessionByMappingId(TICKET));
     }
 
+    @Test
+    public void sessionMappingStorageFromConfiguration() throws ServletException {
+        final var handler = SingleSignOutFilter.getSingleSignOutHandler();
+        final var previous = handler.getSessionMappingStorage();
+        final var config = new MockFilterConfig();
+        config.addInitParameter(ConfigurationKeys.SESSION_MAPPING_STORAGE_CLASS.getName(), BoundedSessionMappingStorage.class.getName());
+        config.addInitParameter(ConfigurationKeys.SESSION_MAPPING_MAX_SIZE.getName(), "10");
+        config.addInitParameter(ConfigurationKeys.SESSION_LOOKUP_CLASS.getName(), NoSessionLookup.class.getName());
+        try {
+            new SingleSignOutFilter().init(config);
+            final var storage = (BoundedSessionMappingStorage) handler.getSessionMappingStorage();
+            assertEquals(10, storage.getMaxSize());
+            assertTrue(storage.getSessionLookup() instanceof NoSessionLookup);
+            storage.destroy();
+        } finally {
+            SingleSignOutFilter.setSessionMappingStorage(previous);
+        }
+    }
+
+    @Test
+    public void boundedSessionMappingStorageFindsSessionsReportedByListener() throws ServletException {
+        final var handler = SingleSignOutFilter.getSingleSignOutHandler();
+        final var previous = handler.getSessionMappingStorage();
+        final var config = new MockFilterConfig();
+        config.addInitParameter(ConfigurationKeys.SESSION_MAPPING_STORAGE_CLASS.getName(), BoundedSessionMappingStorage.class.getName());
+        try {
+            new SingleSignOutFilter().init(config);
+            final var storage = (BoundedSessionMappingStorage) handler.getSessionMappingStorage();
+            assertTrue(storage.getSessionLookup() instanceof TrackingSessionLookup);
+
+            final var listener = new SingleSignOutHttpSessionListener();
+            final var session = new MockHttpSession();
+            listener.sessionCreated(new HttpSessionEvent(session));
+            storage.addSessionById(TICKET, session);
+            assertSame(session, storage.removeSessionByMappingId(TICKET));
+
+            storage.addSessionById(TICKET, session);
+            listener.sessionDestroyed(new HttpSessionEvent(session));
+            assertNull(storage.removeSessionByMappingId(TICKET));
+            assertEquals(0, ((TrackingSessionLookup) storage.getSessionLookup()).size());
+            storage.destroy();
+        } finally {
+            SingleSignOutFilter.setSessionMappingStorage(previous);
+        }
+    }
+
+    @Test
+    public void configuredSessionMappingStorageIsDestroyedWithFilter() throws ServletException {
+        final var handler = SingleSignOutFilter.getSingleSignOutHandler();
+        final var previous = handler.getSessionMappingStorage();
+        final var config = new MockFilterConfig();
+        config.addInitParameter(ConfigurationKeys.SESSION_MAPPING_STORAGE_CLASS.getName(), DestroyCountingStorage.class.getName());
+        DestroyCountingStorage.DESTROYED.set(0);
+        try {
+            final var configuredFilter = new SingleSignOutFilter();
+            configuredFilter.init(config);
+            assertTrue(handler.getSessionMappingStorage() instanceof DestroyCountingStorage);
+
+            configuredFilter.destroy();
+            configuredFilter.destroy();
+            assertEquals(1, DestroyCountingStorage.DESTROYED.get());
+        } finally {
+            SingleSignOutFilter.setSessionMappingStorage(previous);
+        }
+    }
+
     @Test
     public void backChannelRequest() throws IOException, ServletException {
         request.setParameter(ConfigurationKeys.LOGOUT_PARAMETER_NAME.getDefaultValue(),
@@ -113,4 +181,39 @@ public class SingleSignOutFilterTests {
         filter.doFilter(request, response, filterChain);
         assertNull(SingleSignOutFilter.getSingleSignOutHandler().getSessionMappingStorage().removeSessionByMappingId(TICKET));
     }
+
+    public static final class NoSessionLookup implements SessionLookup {
+
+        @Override
+        public HttpSession findSession(final String sessionId) {
+            return null;
+        }
+    }
+
+    public static final class DestroyCountingStorage implements SessionMappingStorage {
+
+        private static final AtomicInteger DESTROYED = new AtomicInteger();
+
+        private final SessionMappingStorage delegate = new ConcurrentSessionMappingStorage();
+
+        @Override
+        public HttpSession removeSessionByMappingId(final String mappingId) {
+            return delegate.removeSessionByMappingId(mappingId);
+        }
+
+        @Override
+        public void removeBySessionById(final String sessionId) {
+            delegate.removeBySessionById(sessionId);
+        }
+
+        @Override
+        public void addSessionById(final String mappingId, final HttpSession session) {
+            delegate.addSessionById(mappingId, session);
+        }
+
+        @Override
+        public void destroy() {
+            DESTROYED.incrementAndGet();
+        }
+    }
 }
@@ -18,6 +18,11 @@
  */
 package org.apereo.cas.client.session;
 
+import org.apereo.cas.client.metrics.CasClientMetrics;
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
+import org.apereo.cas.client.metrics.InMemoryCasClientMetrics;
+
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -26,6 +31,10 @@ import org.springframework.mock.web.MockHttpSession;
 
 import jakarta.servlet.http.HttpSession;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 /**
@@ -61,6 +70,11 @@ public final class SingleSignOutHandlerTests {
         response = new MockHttpServletResponse();
     }
 
+    @After
+    public void tearDown() {
+        CasClientMetricsHolder.setDefault(null);
+    }
+
     @Test
     public void tokenRequestFailsIfNoSession() {
         handler.setEagerlyCreateSessions(false);
@@ -124,6 +138,17 @@ public final class SingleSignOutHandlerTests {
         assertTrue(session.isInvalid());
     }
 
+    @Test
+    public void backChannelLogoutIsMeasured() {
+        final var metrics = new InMemoryCasClientMetrics();
+        CasClientMetricsHolder.setDefault(metrics);
+        doBackChannelLogout();
+        assertFalse(handler.process(request, response));
+        assertFalse(handler.process(request, response));
+        assertEquals(1, metrics.getLogoutLatencies(CasClientMetrics.Outcome.SUCCESS).getCount());
+        assertEquals(1, metrics.getLogoutLatencies(CasClientMetrics.Outcome.FAILURE).getCount());
+    }
+
     @Test
     public void backChannelLogoutDoesNotRunIfPathIsNotEligibleForLogout() {
         handler.setLogoutCallbackPath("/logout");
@@ -192,6 +217,15 @@ public final class SingleSignOutHandlerTests {
         assertTrue(session.isInvalid());
     }
 
+    @Test
+    public void backChannelLogoutNotifiesListeners() {
+        final List<String> sessionIndexes = new ArrayList<>();
+        handler.addLogoutRequestListener(sessionIndexes::add);
+        doBackChannelLogout();
+        assertFalse(handler.process(request, response));
+        assertEquals(Collections.singletonList(TICKET), sessionIndexes);
+    }
+
     private MockHttpSession doBackChannelLogout() {
         final var logoutMessage = LogoutMessageGenerator.generateBackChannelLogoutMessage(TICKET);
         request.setParameter(LOGOUT_PARAMETER_NAME, logoutMessage);
@@ -0,0 +1,67 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import jakarta.servlet.http.HttpSessionEvent;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link TrackingSessionLookup}.
+ *
+ * @since 4.0.4
+ */
+public final class TrackingSessionLookupTests {
+
+    private final TrackingSessionLookup lookup = new TrackingSessionLookup();
+
+    @Test
+    public void testFindsSessionsUntilDestroyed() {
+        final var session = new MockHttpSession();
+        assertNull(lookup.findSession(session.getId()));
+
+        lookup.sessionCreated(new HttpSessionEvent(session));
+        assertSame(session, lookup.findSession(session.getId()));
+        assertEquals(1, lookup.size());
+
+        lookup.sessionDestroyed(new HttpSessionEvent(session));
+        assertNull(lookup.findSession(session.getId()));
+        assertEquals(0, lookup.size());
+    }
+
+    @Test
+    public void testFollowsSessionIdChanges() {
+        final var session = new MockHttpSession();
+        lookup.sessionCreated(new HttpSessionEvent(session));
+        final var oldSessionId = session.getId();
+
+        final var newSessionId = session.changeSessionId();
+        lookup.sessionIdChanged(new HttpSessionEvent(session), oldSessionId);
+        assertNull(lookup.findSession(oldSessionId));
+        assertSame(session, lookup.findSession(newSessionId));
+        assertEquals(1, lookup.size());
+    }
+
+    @Test
+    public void testNullSessionIdIsNotFound() {
+        assertNull(lookup.findSession(null));
+    }
+}
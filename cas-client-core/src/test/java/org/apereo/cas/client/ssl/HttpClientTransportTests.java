@@ -0,0 +1,106 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.ssl;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link HttpClientTransport}.
+ *
+ * @since 4.0.4
+ */
+public final class HttpClientTransportTests {
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private HttpServer server;
+
+    private HttpClientTransport transport;
+
+    @Before
+    public void setUp() throws Exception {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/echo", exchange -> {
+            this.clientPorts.add(exchange.getRemoteAddress().getPort());
+            final var requestBody = exchange.getRequestBody().readAllBytes();
+            final var body = (exchange.getRequestMethod() + ":" + exchange.getRequestHeaders().getFirst("SOAPAction")
+                              + ":" + new String(requestBody, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        this.server.createContext("/error", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+        this.server.start();
+        this.transport = new HttpClientTransport();
+        this.transport.setVersion(HttpClient.Version.HTTP_1_1);
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+    }
+
+    @Test
+    public void testConnectionIsReused() throws Exception {
+        for (var i = 0; i < 5; i++) {
+            assertEquals("GET:null:", this.transport.get(url("/echo"), StandardCharsets.UTF_8));
+        }
+        assertEquals(1, this.clientPorts.size());
+    }
+
+    @Test
+    public void testPost() throws Exception {
+        final var response = this.transport.post(url("/echo"), Map.of("SOAPAction", "action"),
+            "<request/>".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        assertEquals("POST:action:<request/>", response);
+    }
+
+    @Test(expected = IOException.class)
+    public void testErrorStatus() throws Exception {
+        this.transport.get(url("/error"), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testDefaultsToHttp2() {
+        final var defaultTransport = new HttpClientTransport();
+        assertEquals(HttpClient.Version.HTTP_2, defaultTransport.getHttpClient().version());
+        assertSame(defaultTransport.getHttpClient(), defaultTransport.getHttpClient());
+    }
+
+    private URL url(final String path) throws Exception {
+        return new URL("http://127.0.0.1:" + this.server.getAddress().getPort() + path);
+    }
+}
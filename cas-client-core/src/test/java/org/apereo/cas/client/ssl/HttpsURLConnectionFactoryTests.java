@@ -22,11 +22,17 @@ import org.junit.Before;
 import org.junit.Test;
 
 import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.security.KeyStore;
 import java.util.Properties;
 
 import static org.junit.Assert.*;
@@ -66,4 +72,90 @@ public final class HttpsURLConnectionFactoryTests {
         final var deserializedObject = (HttpsURLConnectionFactory) ois.readObject();
         assertEquals(this.httpsURLConnectionFactory, deserializedObject);
     }
+
+    @Test
+    public void socketFactoryIsSharedByConnections() throws Exception {
+        this.httpsURLConnectionFactory.setSSLConfiguration(newKeyStoreConfiguration(createKeyStore()));
+        final var first = (HttpsURLConnection) this.httpsURLConnectionFactory
+            .buildHttpURLConnection(new URL("https://localhost/cas").openConnection());
+        final var second = (HttpsURLConnection) this.httpsURLConnectionFactory
+            .buildHttpURLConnection(new URL("https://localhost/cas").openConnection());
+        assertSame(first.getSSLSocketFactory(), second.getSSLSocketFactory());
+        assertEquals(1, this.httpsURLConnectionFactory.getSSLContextLoads());
+    }
+
+    @Test
+    public void defaultSocketFactoryIsLeftInPlaceWithoutSSLConfiguration() throws Exception {
+        final var defaultSocketFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+        final var socketFactory = SSLContext.getDefault().getSocketFactory();
+        HttpsURLConnection.setDefaultSSLSocketFactory(socketFactory);
+        try {
+            this.httpsURLConnectionFactory.getSSLContext();
+            final var connection = (HttpsURLConnection) this.httpsURLConnectionFactory
+                .buildHttpURLConnection(new URL("https://localhost/cas").openConnection());
+            assertSame(socketFactory, connection.getSSLSocketFactory());
+        } finally {
+            HttpsURLConnection.setDefaultSSLSocketFactory(defaultSocketFactory);
+        }
+    }
+
+    @Test
+    public void socketsAreNotWrapped() throws Exception {
+        this.httpsURLConnectionFactory.setSSLConfiguration(newKeyStoreConfiguration(createKeyStore()));
+        final var connection = (HttpsURLConnection) this.httpsURLConnectionFactory
+            .buildHttpURLConnection(new URL("https://localhost/cas").openConnection());
+        final var sslContext = this.httpsURLConnectionFactory.getSSLContext();
+        try (var socket = connection.getSSLSocketFactory().createSocket();
+             var expected = sslContext.getSocketFactory().createSocket()) {
+            assertSame(expected.getClass(), socket.getClass());
+        }
+    }
+
+    @Test
+    public void sslContextIsReloadedWhenKeyStoreChanges() throws Exception {
+        final var keyStoreFile = createKeyStore();
+        final var config = newKeyStoreConfiguration(keyStoreFile);
+        config.setProperty("keyStoreCheckInterval", "0");
+        this.httpsURLConnectionFactory.setSSLConfiguration(config);
+
+        final var sslContext = this.httpsURLConnectionFactory.getSSLContext();
+        assertNotNull(sslContext);
+        assertSame(sslContext, this.httpsURLConnectionFactory.getSSLContext());
+
+        assertTrue(keyStoreFile.setLastModified(keyStoreFile.lastModified() - 60000));
+        assertNotSame(sslContext, this.httpsURLConnectionFactory.getSSLContext());
+        assertEquals(2, this.httpsURLConnectionFactory.getSSLContextLoads());
+    }
+
+    @Test
+    public void keyStoreIsNotCheckedAgainWithinInterval() throws Exception {
+        final var keyStoreFile = createKeyStore();
+        this.httpsURLConnectionFactory.setSSLConfiguration(newKeyStoreConfiguration(keyStoreFile));
+
+        final var sslContext = this.httpsURLConnectionFactory.getSSLContext();
+        assertTrue(keyStoreFile.setLastModified(keyStoreFile.lastModified() - 60000));
+        assertSame(sslContext, this.httpsURLConnectionFactory.getSSLContext());
+        assertEquals(1, this.httpsURLConnectionFactory.getSSLContextLoads());
+    }
+
+    private static File createKeyStore() throws Exception {
+        final var keyStoreFile = File.createTempFile("keystore", ".p12");
+        keyStoreFile.deleteOnExit();
+        final var keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        try (var out = new FileOutputStream(keyStoreFile)) {
+            keyStore.store(out, "changeit".toCharArray());
+        }
+        return keyStoreFile;
+    }
+
+    private static Properties newKeyStoreConfiguration(final File keyStoreFile) {
+        final var config = new Properties();
+        config.setProperty("protocol", "TLS");
+        config.setProperty("keyStoreType", "PKCS12");
+        config.setProperty("keyStorePath", keyStoreFile.getAbsolutePath());
+        config.setProperty("keyStorePass", "changeit");
+        config.setProperty("certificatePassword", "changeit");
+        return config;
+    }
 }
@@ -0,0 +1,247 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link BackChannelLimiter}.
+ *
+ * @since 4.0.4
+ */
+public final class BackChannelLimiterTests {
+
+    /** Starts queued calls on the thread releasing the permit, to observe them deterministically. */
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void testUnlimitedHasNoLimiter() {
+        assertNull(BackChannelLimiter.create("https://cas.example.org/cas/", BackChannelLimiter.UNLIMITED,
+            BackChannelLimiter.DEFAULT_WAIT_TIMEOUT));
+    }
+
+    @Test
+    public void testLimitersAreNotShared() {
+        final var limiter = newLimiter("https://shared.example.org/cas/", 4);
+        assertEquals("https://shared.example.org:-1", limiter.getServer());
+        assertNotSame(limiter, newLimiter("https://shared.example.org/cas/", 4));
+        assertEquals(4, limiter.getMaxConcurrency());
+        assertEquals(2, newLimiter("https://shared.example.org/cas/", 2).getMaxConcurrency());
+    }
+
+    @Test
+    public void testWaitForPermitTimesOut() {
+        final var limiter = new BackChannelLimiter("https://timeout.example.org/cas/", 1, 50);
+        final var first = new CompletableFuture<String>();
+        limiter.callAsync(() -> first, DIRECT);
+        final var started = new AtomicInteger();
+        try {
+            limiter.call(started::incrementAndGet);
+            fail("Expected the wait for a permit to time out");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Timed out"));
+        }
+        assertEquals(0, started.get());
+
+        first.complete("first");
+        assertEquals(0, limiter.getActiveCount());
+        assertEquals(Integer.valueOf(1), limiter.call(started::incrementAndGet));
+    }
+
+    @Test
+    public void testConcurrentCallsAreLimited() throws Exception {
+        final var limiter = newLimiter("https://limited.example.org/cas/", 2);
+        final var executor = Executors.newFixedThreadPool(8);
+        final var active = new AtomicInteger();
+        final var maxActive = new AtomicInteger();
+        final var done = new CountDownLatch(16);
+        try {
+            for (var i = 0; i < 16; i++) {
+                executor.execute(() -> {
+                    limiter.call(() -> {
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        try {
+                            Thread.sleep(5);
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return active.decrementAndGet();
+                    });
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(maxActive.get() <= 2);
+        assertEquals(0, limiter.getActiveCount());
+        assertTrue(limiter.getWaits() > 0);
+    }
+
+    @Test
+    public void testAsyncCallHoldsPermitUntilCompletion() throws Exception {
+        final var limiter = newLimiter("https://async.example.org/cas/", 1);
+        final var first = new CompletableFuture<String>();
+        limiter.callAsync(() -> first, DIRECT);
+        assertEquals(1, limiter.getActiveCount());
+
+        final var second = limiter.callAsync(() -> CompletableFuture.completedFuture("second"), DIRECT);
+        assertFalse(second.isDone());
+
+        first.complete("first");
+        assertEquals("second", second.get(10, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    @Test
+    public void testQueuedAsyncCallsAreStartedInOrderWithoutWaitingThreads() throws Exception {
+        final var limiter = newLimiter("https://queued.example.org/cas/", 2);
+        final var started = new AtomicInteger();
+        final List<CompletableFuture<String>> calls = new ArrayList<>();
+        final List<CompletableFuture<String>> results = new ArrayList<>();
+        for (var i = 0; i < 10; i++) {
+            final var call = new CompletableFuture<String>();
+            calls.add(call);
+            results.add(limiter.callAsync(() -> {
+                started.incrementAndGet();
+                return call;
+            }, DIRECT));
+        }
+        assertEquals(2, started.get());
+        assertEquals(8, limiter.getWaits());
+
+        for (var i = 0; i < 10; i++) {
+            calls.get(i).complete("call-" + i);
+            assertEquals("call-" + i, results.get(i).get(10, TimeUnit.SECONDS));
+            assertEquals(Math.min(10, i + 3), started.get());
+        }
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    @Test
+    public void testSynchronousAndAsyncCallsShareLimit() throws Exception {
+        final var limiter = newLimiter("https://mixed.example.org/cas/", 1);
+        final var first = new CompletableFuture<String>();
+        limiter.callAsync(() -> first, DIRECT);
+        final var executor = Executors.newSingleThreadExecutor();
+        try {
+            final var blocked = executor.submit(() -> limiter.call(() -> "sync"));
+            final var queued = limiter.callAsync(() -> CompletableFuture.completedFuture("async"), DIRECT);
+            first.complete("first");
+            assertEquals("sync", blocked.get(10, TimeUnit.SECONDS));
+            assertEquals("async", queued.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    @Test
+    public void testQueuedCallsAreStartedOnTheirExecutor() throws Exception {
+        final var limiter = newLimiter("https://handoff.example.org/cas/", 1);
+        final var first = new CompletableFuture<String>();
+        limiter.callAsync(() -> first, DIRECT);
+        final var executor = Executors.newSingleThreadExecutor();
+        try {
+            final List<CompletableFuture<String>> results = new ArrayList<>();
+            final var releasingThread = Thread.currentThread();
+            for (var i = 0; i < 5000; i++) {
+                results.add(limiter.callAsync(() -> {
+                    assertNotSame(releasingThread, Thread.currentThread());
+                    return CompletableFuture.failedFuture(new IllegalStateException("failed"));
+                }, executor));
+            }
+            first.complete("first");
+            for (final var result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    fail("Expected the call to fail");
+                } catch (final ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    @Test
+    public void testCancelledQueuedCallIsNeverStarted() throws Exception {
+        final var limiter = newLimiter("https://cancelled.example.org/cas/", 1);
+        final var first = new CompletableFuture<String>();
+        limiter.callAsync(() -> first, DIRECT);
+        final var started = new AtomicInteger();
+        final var queued = limiter.callAsync(() -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("queued");
+        }, DIRECT);
+        final var next = limiter.callAsync(() -> CompletableFuture.completedFuture("next"), DIRECT);
+
+        queued.cancel(false);
+        first.complete("first");
+        assertEquals("next", next.get(10, TimeUnit.SECONDS));
+        assertEquals(0, started.get());
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    @Test
+    public void testWaitingCallsAreServedInArrivalOrder() throws Exception {
+        final var limiter = newLimiter("https://ordered.example.org/cas/", 1);
+        final var first = new CompletableFuture<String>();
+        limiter.callAsync(() -> first, DIRECT);
+        final List<String> order = new CopyOnWriteArrayList<>();
+        final var executor = Executors.newSingleThreadExecutor();
+        try {
+            final var blocked = executor.submit(() -> limiter.call(() -> order.add("sync")));
+            while (limiter.getWaits() < 1) {
+                Thread.sleep(5);
+            }
+            final var queued = limiter.callAsync(() -> {
+                order.add("async");
+                return CompletableFuture.completedFuture("async");
+            }, DIRECT);
+            first.complete("first");
+            blocked.get(10, TimeUnit.SECONDS);
+            queued.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(List.of("sync", "async"), order);
+        assertEquals(0, limiter.getActiveCount());
+    }
+
+    private static BackChannelLimiter newLimiter(final String serverUrl, final int maxConcurrency) {
+        return new BackChannelLimiter(serverUrl, maxConcurrency, BackChannelLimiter.DEFAULT_WAIT_TIMEOUT);
+    }
+}
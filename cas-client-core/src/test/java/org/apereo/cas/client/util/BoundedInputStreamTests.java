@@ -0,0 +1,61 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link BoundedInputStream}.
+ *
+ * @since 4.0.4
+ */
+public final class BoundedInputStreamTests {
+
+    @Test
+    public void testReadsUpToMaxSize() throws Exception {
+        try (var in = new BoundedInputStream(new ByteArrayInputStream(new byte[100]), 100)) {
+            assertEquals(100, in.readAllBytes().length);
+            assertEquals(100, in.getCount());
+        }
+    }
+
+    @Test
+    public void testFailsBeyondMaxSize() throws Exception {
+        try (var in = new BoundedInputStream(new ByteArrayInputStream(new byte[101]), 100)) {
+            in.readAllBytes();
+            fail("Expected the stream to fail beyond its maximum size");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().contains("100 bytes"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testSingleByteReadsAreCounted() throws Exception {
+        try (var in = new BoundedInputStream(new ByteArrayInputStream(new byte[3]), 2)) {
+            while (in.read() != -1) {
+                // keep reading
+            }
+        }
+    }
+}
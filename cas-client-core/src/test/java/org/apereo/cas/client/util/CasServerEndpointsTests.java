@@ -0,0 +1,152 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.PublicTestHttpServer;
+import org.apereo.cas.client.ssl.HttpsURLConnectionFactory;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link CasServerEndpoints}.
+ *
+ * @since 4.0.4
+ */
+public final class CasServerEndpointsTests {
+
+    private static final PublicTestHttpServer server = PublicTestHttpServer.instance(8095);
+
+    private static final String FIRST = "https://cas1.example.org/cas/";
+
+    private static final String SECOND = "https://cas2.example.org/cas/";
+
+    @Test
+    public void testConfiguredPrefixes() {
+        assertNull(CasServerEndpoints.of(FIRST, null, 1000));
+        assertNull(CasServerEndpoints.of(FIRST, FIRST, 1000));
+        final var endpoints = CasServerEndpoints.of("https://cas1.example.org/cas", " " + SECOND + ", ,https://cas3.example.org/cas", 1000);
+        assertEquals(List.of(FIRST, SECOND, "https://cas3.example.org/cas/"),
+            endpoints.getEndpoints().stream().map(CasServerEndpoints.Endpoint::getUrlPrefix).toList());
+        assertEquals(SECOND + "serviceValidate?ticket=ST-1",
+            endpoints.getEndpoints().get(1).resolve(FIRST, FIRST + "serviceValidate?ticket=ST-1"));
+    }
+
+    @Test
+    public void testConnectFailures() {
+        assertTrue(CasServerEndpoints.isConnectFailure(new RuntimeException(new ConnectException("Connection refused"))));
+        assertTrue(CasServerEndpoints.isConnectFailure(new CompletionException(new SocketTimeoutException("Connect timed out"))));
+        assertFalse(CasServerEndpoints.isConnectFailure(new RuntimeException(new SocketTimeoutException("Read timed out"))));
+        assertFalse(CasServerEndpoints.isConnectFailure(new IllegalStateException()));
+    }
+
+    @Test
+    public void testRoutesToLowestLatency() {
+        final var endpoints = new CasServerEndpoints(List.of(FIRST, SECOND), 1000);
+        final var first = endpoints.getEndpoints().get(0);
+        final var second = endpoints.getEndpoints().get(1);
+        first.succeeded(2_000_000);
+        second.succeeded(1_000_000);
+        assertEquals(List.of(second, first), endpoints.getEndpointsInOrder());
+
+        for (var i = 0; i < 10; i++) {
+            second.completed(10_000_000);
+        }
+        assertTrue(second.getLatency() > first.getLatency());
+        assertEquals(List.of(first, second), endpoints.getEndpointsInOrder());
+    }
+
+    @Test
+    public void testFailsOverOnConnectFailureOnly() {
+        final var endpoints = new CasServerEndpoints(List.of(FIRST, SECOND), 60000);
+        final List<String> called = new ArrayList<>();
+        assertEquals(SECOND, endpoints.call(endpoint -> {
+            called.add(endpoint.getUrlPrefix());
+            if (endpoint.getUrlPrefix().equals(FIRST)) {
+                throw new RuntimeException(new ConnectException("Connection refused"));
+            }
+            return endpoint.getUrlPrefix();
+        }));
+        assertEquals(List.of(FIRST, SECOND), called);
+        assertFalse(endpoints.getEndpoints().get(0).isAvailable());
+        assertEquals(1, endpoints.getEndpoints().get(0).getConnectFailures());
+        assertEquals(SECOND, endpoints.getEndpointsInOrder().get(0).getUrlPrefix());
+
+        called.clear();
+        try {
+            endpoints.call(endpoint -> {
+                called.add(endpoint.getUrlPrefix());
+                throw new RuntimeException(new SocketTimeoutException("Read timed out"));
+            });
+            fail("Expected the call to fail");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+        }
+        assertEquals(List.of(SECOND), called);
+        assertTrue(endpoints.getEndpoints().get(1).isAvailable());
+    }
+
+    @Test
+    public void testAsyncFailover() throws Exception {
+        final var endpoints = new CasServerEndpoints(List.of(FIRST, SECOND), 60000);
+        assertEquals(SECOND, endpoints.callAsync(endpoint -> endpoint.getUrlPrefix().equals(FIRST)
+            ? CompletableFuture.<String>failedFuture(new ConnectException("Connection refused"))
+            : CompletableFuture.completedFuture(endpoint.getUrlPrefix())).get());
+
+        try {
+            endpoints.callAsync(endpoint -> CompletableFuture.failedFuture(new ConnectException("Connection refused"))).get();
+            fail("Expected the call to fail");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof ConnectException);
+        }
+        assertEquals(3, endpoints.getEndpoints().get(0).getConnectFailures() + endpoints.getEndpoints().get(1).getConnectFailures());
+    }
+
+    @Test
+    public void testHealthCheck() throws IOException {
+        final String unreachable;
+        try (var socket = new ServerSocket(0)) {
+            unreachable = "http://localhost:" + socket.getLocalPort() + "/cas/";
+        }
+        server.content = "<html/>".getBytes(server.encoding);
+        final var endpoints = new CasServerEndpoints(List.of(unreachable, "http://localhost:8095/cas/"), 60000);
+        endpoints.checkHealth(new HttpsURLConnectionFactory());
+
+        final var down = endpoints.getEndpoints().get(0);
+        final var up = endpoints.getEndpoints().get(1);
+        assertFalse(down.isAvailable());
+        assertTrue(up.isAvailable());
+        assertTrue(up.getLatency() > 0);
+        assertEquals(List.of(up, down), endpoints.getEndpointsInOrder());
+
+        endpoints.startHealthChecks(new HttpsURLConnectionFactory());
+        endpoints.stopHealthChecks();
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link CleanUpScheduler}.
+ *
+ * @since 4.0.4
+ */
+public final class CleanUpSchedulerTests {
+
+    private final CleanUpScheduler scheduler = new CleanUpScheduler("cas-client-cleanup-test", 1);
+
+    @Test
+    public void testRunsTaskPeriodicallyOnNamedThread() throws Exception {
+        // runs are recorded once they complete, so a fourth run guarantees three were recorded
+        final var runs = new CountDownLatch(4);
+        final var threadName = new AtomicReference<String>();
+        final var task = scheduler.schedule("test", () -> {
+            threadName.set(Thread.currentThread().getName());
+            runs.countDown();
+        }, 10);
+
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+        task.cancel();
+        assertTrue(task.isCancelled());
+        assertTrue(task.getRuns() >= 3);
+        assertEquals(0, task.getFailures());
+        assertTrue(task.getTotalDuration() >= task.getMaxDuration());
+        assertTrue(threadName.get().startsWith("cas-client-cleanup-test-"));
+    }
+
+    @Test
+    public void testFailingTaskIsRunAgain() throws Exception {
+        final var runs = new CountDownLatch(3);
+        final var task = scheduler.schedule("failing", () -> {
+            runs.countDown();
+            throw new IllegalStateException("expected");
+        }, 10);
+
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+        task.cancel();
+        assertTrue(task.getFailures() >= 2);
+    }
+
+    @Test
+    public void testStopsThreadsWhenLastTaskIsCancelled() {
+        final var first = scheduler.schedule("first", () -> { }, 60_000);
+        final var second = scheduler.schedule("second", () -> { }, 60_000);
+        assertTrue(scheduler.isRunning());
+        assertEquals(2, scheduler.getScheduledTaskCount());
+
+        first.cancel();
+        first.cancel();
+        assertTrue(scheduler.isRunning());
+        assertEquals(1, scheduler.getScheduledTaskCount());
+
+        second.cancel();
+        assertFalse(scheduler.isRunning());
+        assertEquals(0, scheduler.getScheduledTaskCount());
+
+        final var third = scheduler.schedule("third", () -> { }, 60_000);
+        assertTrue(scheduler.isRunning());
+        third.cancel();
+    }
+
+    @Test
+    public void testFirstRunIsDelayedByPeriod() throws Exception {
+        final var runs = new CountDownLatch(1);
+        final var task = scheduler.schedule("delayed", runs::countDown, 200);
+
+        assertFalse(runs.await(100, TimeUnit.MILLISECONDS));
+        assertTrue(runs.await(5, TimeUnit.SECONDS));
+        task.cancel();
+    }
+}
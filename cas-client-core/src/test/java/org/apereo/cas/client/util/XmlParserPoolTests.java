@@ -0,0 +1,109 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
+import org.apereo.cas.client.metrics.InMemoryCasClientMetrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link XmlParserPool}.
+ *
+ * @since 4.0.4
+ */
+public final class XmlParserPoolTests {
+
+    @Test
+    public void testReusesReleasedInstances() {
+        final var created = new AtomicInteger();
+        final var resets = new AtomicInteger();
+        final var pool = new XmlParserPool<>(Object[].class, 1, () -> new Object[]{created.incrementAndGet()},
+            instance -> resets.incrementAndGet());
+
+        final var first = pool.borrow();
+        pool.release(first);
+        assertSame(first, pool.borrow());
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertEquals(1, resets.get());
+    }
+
+    @Test
+    public void testBoundedCapacity() {
+        final var pool = new XmlParserPool<>(Object.class, 1, Object::new, instance -> { });
+        final var first = pool.borrow();
+        final var second = pool.borrow();
+        pool.release(first);
+        pool.release(second);
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getDiscards());
+        assertEquals(2, pool.getMisses());
+    }
+
+    @Test
+    public void testInstanceThatCannotBeResetIsDiscarded() {
+        final var pool = new XmlParserPool<>(Object.class, 2, Object::new, instance -> {
+            throw new UnsupportedOperationException();
+        });
+        pool.release(pool.borrow());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, pool.getDiscards());
+    }
+
+    @Test
+    public void testReportsToMetrics() {
+        final var metrics = new InMemoryCasClientMetrics();
+        CasClientMetricsHolder.setDefault(metrics);
+        try {
+            final var pool = new XmlParserPool<>(Object.class, 1, Object::new, instance -> { });
+            final var first = pool.borrow();
+            final var second = pool.borrow();
+            pool.release(first);
+            pool.release(second);
+            pool.borrow();
+
+            assertEquals(1, metrics.getXmlParserPoolHits(Object.class));
+            assertEquals(2, metrics.getXmlParserPoolMisses(Object.class));
+            assertEquals(1, metrics.getXmlParserPoolDiscards(Object.class));
+        } finally {
+            CasClientMetricsHolder.setDefault(null);
+        }
+    }
+
+    @Test
+    public void testXmlUtilsReusesPooledParsers() {
+        final var pool = XmlUtils.getSaxParserPool();
+        assertEquals("value", XmlUtils.getTextForElement("<root><element>value</element></root>", "element"));
+        final var hits = pool.getHits();
+        assertEquals("other", XmlUtils.getTextForElement("<root><element>other</element></root>", "element"));
+        assertTrue(pool.getHits() > hits);
+    }
+
+    @Test
+    public void testPooledParserRejectsDoctype() {
+        assertNull(XmlUtils.getTextForElement("<!DOCTYPE root [<!ENTITY x \"y\">]><root><element>&x;</element></root>",
+            "element"));
+        assertEquals("value", XmlUtils.getTextForElement("<root><element>value</element></root>", "element"));
+    }
+}
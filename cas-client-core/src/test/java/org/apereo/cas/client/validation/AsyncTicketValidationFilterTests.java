@@ -0,0 +1,168 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.util.AbstractCasFilter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletException;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the asynchronous validation mode of {@link AbstractTicketValidationFilter}.
+ *
+ * @since 4.0.4
+ */
+public final class AsyncTicketValidationFilterTests {
+
+    private final CompletableFuture<Assertion> validation = new CompletableFuture<>();
+
+    private Cas10TicketValidationFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Before
+    public void setUp() throws Exception {
+        this.filter = newFilter("false");
+        this.request = new MockHttpServletRequest("GET", "/app");
+        this.request.setParameter("ticket", "ST-1");
+        this.request.setQueryString("ticket=ST-1");
+        this.request.setAsyncSupported(true);
+        this.response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void testSuccessfulValidationIsDispatched() throws Exception {
+        final var chain = new MockFilterChain();
+        this.filter.doFilter(this.request, this.response, chain);
+        assertTrue(this.request.isAsyncStarted());
+        assertNull(chain.getRequest());
+
+        this.validation.complete(new AssertionImpl("casuser"));
+        assertNotNull(this.request.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION));
+
+        final var dispatchedChain = new MockFilterChain();
+        this.request.setDispatcherType(DispatcherType.ASYNC);
+        this.filter.doFilter(this.request, this.response, dispatchedChain);
+        assertSame(this.request, dispatchedChain.getRequest());
+    }
+
+    @Test
+    public void testFailedValidationSendsForbidden() throws Exception {
+        this.filter.doFilter(this.request, this.response, new MockFilterChain());
+        this.validation.completeExceptionally(new TicketValidationException("invalid ticket"));
+        assertEquals(403, this.response.getStatus());
+    }
+
+    @Test(expected = ServletException.class)
+    public void testFailedValidationIsRethrownOnDispatch() throws Exception {
+        this.filter = newFilter("true");
+        this.filter.doFilter(this.request, this.response, new MockFilterChain());
+        this.validation.completeExceptionally(new TicketValidationException("invalid ticket"));
+
+        this.request.setDispatcherType(DispatcherType.ASYNC);
+        this.filter.doFilter(this.request, this.response, new MockFilterChain());
+    }
+
+    @Test
+    public void testTimeoutCompletesRequestOnce() throws Exception {
+        this.filter.doFilter(this.request, this.response, new MockFilterChain());
+        final var asyncContext = (MockAsyncContext) this.request.getAsyncContext();
+        assertEquals(AbstractTicketValidationFilter.DEFAULT_ASYNC_VALIDATION_TIMEOUT, asyncContext.getTimeout());
+
+        for (final var listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+        assertEquals(504, this.response.getStatus());
+        assertTrue(this.validation.isCancelled());
+
+        this.validation.complete(new AssertionImpl("casuser"));
+        assertNull(this.request.getAttribute(AbstractCasFilter.CONST_CAS_ASSERTION));
+        assertNull(asyncContext.getDispatchedPath());
+    }
+
+    @Test
+    public void testValidationThatCannotStartCompletesRequest() throws Exception {
+        this.filter.setTicketValidator(new TicketValidator() {
+            @Override
+            public Assertion validate(final String ticket, final String service) {
+                throw new IllegalStateException("not started");
+            }
+
+            @Override
+            public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+                throw new IllegalStateException("not started");
+            }
+        });
+        this.filter.doFilter(this.request, this.response, new MockFilterChain());
+        assertEquals(500, this.response.getStatus());
+        assertFalse(this.request.isAsyncStarted());
+    }
+
+    @Test
+    public void testSynchronousWhenAsyncIsNotSupported() throws Exception {
+        this.request.setAsyncSupported(false);
+        this.validation.complete(new AssertionImpl("casuser"));
+        final var chain = new MockFilterChain();
+        this.filter.doFilter(this.request, this.response, chain);
+        assertFalse(this.request.isAsyncStarted());
+        assertSame(this.request, chain.getRequest());
+    }
+
+    private Cas10TicketValidationFilter newFilter(final String exceptionOnValidationFailure) throws Exception {
+        final var config = new MockFilterConfig();
+        config.addInitParameter("casServerUrlPrefix", "https://cas.example.com");
+        config.addInitParameter("service", "https://www.example.com/app");
+        config.addInitParameter("redirectAfterValidation", "false");
+        config.addInitParameter("exceptionOnValidationFailure", exceptionOnValidationFailure);
+        config.addInitParameter("asyncValidation", "true");
+        final var f = new Cas10TicketValidationFilter();
+        f.init(config);
+        f.setTicketValidator(new TicketValidator() {
+            @Override
+            public Assertion validate(final String ticket, final String service) throws TicketValidationException {
+                try {
+                    return validation.join();
+                } catch (final RuntimeException e) {
+                    throw new TicketValidationException(e.getCause());
+                }
+            }
+
+            @Override
+            public CompletableFuture<Assertion> validateAsync(final String ticket, final String service) {
+                return validation;
+            }
+        });
+        return f;
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.authentication.AttributePrincipalImpl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link CachingTicketValidator}.
+ *
+ * @since 4.0.4
+ */
+public final class CachingTicketValidatorTests {
+
+    private static final String SERVICE = "https://localhost/service";
+
+    private final AtomicInteger validations = new AtomicInteger();
+
+    private Date validUntil;
+
+    private CachingTicketValidator validator;
+
+    @Before
+    public void setUp() {
+        this.validations.set(0);
+        this.validUntil = null;
+        this.validator = new CachingTicketValidator((ticket, service) -> {
+            this.validations.incrementAndGet();
+            if (ticket.startsWith("BAD")) {
+                throw new TicketValidationException("invalid ticket");
+            }
+            return new AssertionImpl(new AttributePrincipalImpl("casuser"), new Date(), this.validUntil, new Date(),
+                new HashMap<>());
+        });
+    }
+
+    @Test
+    public void testReplayedTicketIsServedFromCache() throws Exception {
+        final var first = this.validator.validate("ST-1", SERVICE);
+        assertSame(first, this.validator.validate("ST-1", SERVICE));
+        assertEquals(1, this.validations.get());
+        assertEquals(1, this.validator.getHits());
+        assertEquals(1, this.validator.getMisses());
+    }
+
+    @Test
+    public void testDifferentServiceIsNotServedFromCache() throws Exception {
+        this.validator.validate("ST-1", SERVICE);
+        this.validator.validate("ST-1", "https://localhost/other");
+        assertEquals(2, this.validations.get());
+        assertEquals(0, this.validator.getHits());
+    }
+
+    @Test
+    public void testFailuresAreNotCached() {
+        for (var i = 0; i < 2; i++) {
+            try {
+                this.validator.validate("BAD-1", SERVICE);
+                fail("TicketValidationException expected");
+            } catch (final TicketValidationException e) {
+                // expected
+            }
+        }
+        assertEquals(2, this.validations.get());
+        assertEquals(0, this.validator.size());
+    }
+
+    @Test
+    public void testExpiredAssertionIsNotCached() throws Exception {
+        this.validUntil = new Date(System.currentTimeMillis() - 1000);
+        this.validator.validate("ST-1", SERVICE);
+        this.validator.validate("ST-1", SERVICE);
+        assertEquals(2, this.validations.get());
+        assertEquals(0, this.validator.size());
+    }
+
+    @Test
+    public void testBoundedSize() throws Exception {
+        this.validator.setMaxSize(2);
+        for (var i = 0; i < 5; i++) {
+            this.validator.validate("ST-" + i, SERVICE);
+        }
+        assertEquals(2, this.validator.size());
+        assertEquals(3, this.validator.getEvictions());
+    }
+
+    @Test
+    public void testEvictsAssertionClosestToExpiring() throws Exception {
+        this.validator.setMaxSize(2);
+        final var now = System.currentTimeMillis();
+        this.validUntil = new Date(now + 60_000);
+        this.validator.validate("ST-1", SERVICE);
+        this.validUntil = new Date(now + 30_000);
+        this.validator.validate("ST-2", SERVICE);
+        this.validUntil = null;
+        this.validator.validate("ST-3", SERVICE);
+
+        assertEquals(1, this.validator.getEvictions());
+        this.validator.validate("ST-1", SERVICE);
+        this.validator.validate("ST-3", SERVICE);
+        assertEquals(2, this.validator.getHits());
+        this.validator.validate("ST-2", SERVICE);
+        assertEquals(4, this.validations.get());
+    }
+
+    @Test
+    public void testCleanUpKeepsAssertionsNotExpired() throws Exception {
+        this.validator.setMaxSize(2);
+        this.validator.validate("ST-1", SERVICE);
+        this.validator.validate("ST-2", SERVICE);
+        this.validator.cleanUp();
+        assertEquals(2, this.validator.size());
+
+        this.validator.validate("ST-3", SERVICE);
+        assertEquals(2, this.validator.size());
+        assertEquals(1, this.validator.getEvictions());
+    }
+
+    @Test
+    public void testBoundedSizeUnderConcurrentUse() throws Exception {
+        this.validator.setMaxSize(16);
+        final var executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (var t = 0; t < 8; t++) {
+                final var thread = t;
+                futures.add(executor.submit(() -> {
+                    for (var i = 0; i < 500; i++) {
+                        this.validator.validate("ST-" + thread + "-" + i, SERVICE);
+                        this.validator.validate("ST-" + thread + "-" + (i / 2), SERVICE);
+                        this.validator.cleanUp();
+                    }
+                    return null;
+                }));
+            }
+            for (final var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // every cached assertion must still be evictable
+        for (var i = 0; i < 32; i++) {
+            this.validator.validate("ST-last-" + i, SERVICE);
+        }
+        assertEquals(16, this.validator.size());
+    }
+
+    @Test
+    public void testLogoutRequestInvalidatesAssertion() throws Exception {
+        this.validator.validate("ST-1", SERVICE);
+        this.validator.logoutRequestReceived("ST-1");
+        this.validator.validate("ST-1", SERVICE);
+        assertEquals(2, this.validations.get());
+        assertEquals(1, this.validator.getInvalidations());
+    }
+}
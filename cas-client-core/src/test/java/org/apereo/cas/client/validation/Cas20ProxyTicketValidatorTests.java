@@ -93,6 +93,51 @@ public final class Cas20ProxyTicketValidatorTests extends AbstractTicketValidato
         }
     }
 
+    @Test
+    public void testOverriddenParseProxiesFromResponseIsStillCalled() throws TicketValidationException, UnsupportedEncodingException {
+        final var RESPONSE =
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>username</cas:user><cas:proxies><cas:proxy>proxy7</cas:proxy></cas:proxies></cas:authenticationSuccess></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+        final var validator = new Cas20ProxyTicketValidator(CONST_CAS_SERVER_URL_PREFIX + "8089") {
+            @Override
+            protected List<String> parseProxiesFromResponse(final String response) {
+                return List.of("proxy1", "proxy2", "proxy3");
+            }
+        };
+        validator.setAllowedProxyChains(this.ticketValidator.getAllowedProxyChains());
+        validator.setStreamResponses(true);
+
+        assertEquals("username", validator.validate("test", "test").getPrincipal().getName());
+    }
+
+    @Test
+    public void testNullProxiesFromOverriddenHookAreRejected() throws UnsupportedEncodingException {
+        final var RESPONSE =
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>username</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+        final var validator = new Cas30ProxyTicketValidator(CONST_CAS_SERVER_URL_PREFIX + "8089") {
+            @Override
+            protected List<String> parseProxiesFromResponse(final String response) {
+                return null;
+            }
+        };
+
+        try {
+            validator.validate("test", "test");
+            fail("Invalid proxy chain");
+        } catch (final TicketValidationException e) {
+            assertTrue(e instanceof InvalidProxyChainTicketValidationException);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testStringHookParsesResponseOutsideOfValidation() {
+        final var RESPONSE =
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>username</cas:user><cas:proxies><cas:proxy>proxy1</cas:proxy><cas:proxy>proxy2</cas:proxy></cas:proxies></cas:authenticationSuccess></cas:serviceResponse>";
+        assertEquals(List.of("proxy1", "proxy2"), this.ticketValidator.parseProxiesFromResponse(RESPONSE));
+    }
+
     @Test
     public void testRegexProxyChainWithValidProxy() throws TicketValidationException, UnsupportedEncodingException {
         final List<String[]> list = new ArrayList<>();
@@ -24,6 +24,8 @@ import org.apereo.cas.client.authentication.AttributePrincipalImpl;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorage;
 import org.apereo.cas.client.proxy.ProxyGrantingTicketStorageImpl;
 import org.apereo.cas.client.proxy.ProxyRetriever;
+import org.apereo.cas.client.ssl.HttpClientTransport;
+import org.apereo.cas.client.util.CasServerEndpoints;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -31,9 +33,13 @@ import org.junit.Test;
 import java.io.Serial;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
+import java.net.ServerSocket;
 import java.security.Principal;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 
 import static org.junit.Assert.*;
 
@@ -120,6 +126,82 @@ public final class Cas20ServiceTicketValidatorTests extends AbstractTicketValida
         assertEquals(PGT, proxyGrantingTicketField.get(principal));
     }
 
+    @Test
+    public void testYesResponseOverHttpClientTransport() throws TicketValidationException, UnsupportedEncodingException {
+        final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
+                             + USERNAME
+                             + "</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+
+        server.content = RESPONSE.getBytes(server.encoding);
+        this.ticketValidator.setHttpClientTransport(new HttpClientTransport());
+
+        final var assertion = this.ticketValidator.validate("test", "test");
+        assertEquals(USERNAME, assertion.getPrincipal().getName());
+    }
+
+    @Test
+    public void testYesResponseWithVirtualThreadsAndConcurrencyLimit() throws TicketValidationException, UnsupportedEncodingException {
+        final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
+                             + USERNAME
+                             + "</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+
+        server.content = RESPONSE.getBytes(server.encoding);
+        this.ticketValidator.setUseVirtualThreads(true);
+        this.ticketValidator.setMaxConcurrentRequests(1);
+
+        final var assertion = this.ticketValidator.validate("test", "test");
+        assertEquals(USERNAME, assertion.getPrincipal().getName());
+        assertEquals(0, this.ticketValidator.getBackChannelLimiter().getActiveCount());
+    }
+
+    @Test
+    public void testFailsOverToReachableEndpoint() throws Exception {
+        final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
+                             + USERNAME
+                             + "</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+
+        final String unreachable;
+        try (var socket = new ServerSocket(0)) {
+            unreachable = "http://localhost:" + socket.getLocalPort() + "/";
+        }
+        final var endpoints = new CasServerEndpoints(List.of(unreachable, CONST_CAS_SERVER_URL_PREFIX + "8088/"), 60000);
+        this.ticketValidator.setCasServerEndpoints(endpoints);
+
+        assertEquals(USERNAME, this.ticketValidator.validate("test", "test").getPrincipal().getName());
+        assertEquals(1, endpoints.getEndpoints().get(0).getConnectFailures());
+        assertFalse(endpoints.getEndpoints().get(0).isAvailable());
+
+        this.ticketValidator.setCasServerEndpoints(new CasServerEndpoints(List.of(unreachable, CONST_CAS_SERVER_URL_PREFIX + "8088/"), 60000));
+        assertEquals(USERNAME, this.ticketValidator.validateAsync("test", "test").get().getPrincipal().getName());
+    }
+
+    @Test
+    public void testValidateAsync() throws Exception {
+        final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
+                             + USERNAME
+                             + "</cas:user></cas:authenticationSuccess></cas:serviceResponse>";
+
+        server.content = RESPONSE.getBytes(server.encoding);
+        assertEquals(USERNAME, this.ticketValidator.validateAsync("test", "test").get().getPrincipal().getName());
+
+        this.ticketValidator.setHttpClientTransport(new HttpClientTransport());
+        assertEquals(USERNAME, this.ticketValidator.validateAsync("test", "test").get().getPrincipal().getName());
+    }
+
+    @Test
+    public void testValidateAsyncFailure() throws Exception {
+        final var RESPONSE =
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationFailure code=\"INVALID_TICKET\">Ticket not recognized</cas:authenticationFailure></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+        try {
+            this.ticketValidator.validateAsync("test", "test").get();
+            fail("ExecutionException expected");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof TicketValidationException);
+        }
+    }
+
     @Test
     public void testGetAttributes() throws TicketValidationException, UnsupportedEncodingException, IllegalAccessException {
         final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
@@ -144,6 +226,42 @@ public final class Cas20ServiceTicketValidatorTests extends AbstractTicketValida
         assertEquals(PGT, proxyGrantingTicketField.get(principal));
     }
 
+    @Test
+    public void testOverriddenStringHooksAreStillCalled() throws Exception {
+        final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
+                             + USERNAME
+                             + "</cas:user><cas:attributes><cas:password>test</cas:password></cas:attributes></cas:authenticationSuccess></cas:serviceResponse>";
+        server.content = RESPONSE.getBytes(server.encoding);
+        final List<String> responses = new CopyOnWriteArrayList<>();
+        final var validator = new Cas20ServiceTicketValidator(CONST_CAS_SERVER_URL_PREFIX + "8088") {
+            @Override
+            protected String retrieveProxyGrantingTicket(final String response) {
+                responses.add(response);
+                return PGT;
+            }
+
+            @Override
+            protected Map<String, Object> extractCustomAttributes(final String xml) {
+                final var attributes = super.extractCustomAttributes(xml);
+                attributes.put("legacy", "true");
+                return attributes;
+            }
+
+            @Override
+            protected void customParseResponse(final String response, final Assertion assertion) {
+                responses.add(response);
+            }
+        };
+        validator.setProxyRetriever(getProxyRetriever());
+        validator.setStreamResponses(true);
+
+        final var principal = (AttributePrincipal) validator.validate("test", "test").getPrincipal();
+        assertEquals("test", principal.getAttributes().get("password"));
+        assertEquals("true", principal.getAttributes().get("legacy"));
+        assertEquals(PGT, proxyGrantingTicketField.get(principal));
+        assertEquals(List.of(RESPONSE, RESPONSE), responses);
+    }
+
     @Test
     public void testYesResponseWithEncryptedPgt() throws TicketValidationException, UnsupportedEncodingException, IllegalAccessException {
         final var RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess><cas:user>"
@@ -0,0 +1,229 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
+import org.apereo.cas.client.metrics.InMemoryCasClientMetrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link CoalescingTicketValidator}.
+ *
+ * @since 4.0.4
+ */
+public final class CoalescingTicketValidatorTests {
+
+    private InMemoryCasClientMetrics metrics;
+
+    @Before
+    public void setUp() {
+        this.metrics = new InMemoryCasClientMetrics();
+        CasClientMetricsHolder.setDefault(this.metrics);
+    }
+
+    @After
+    public void tearDown() {
+        CasClientMetricsHolder.setDefault(null);
+    }
+
+    @Test
+    public void testConcurrentValidationsShareOneServerCall() throws Exception {
+        final var server = new BlockingValidator();
+        final var validator = new CoalescingTicketValidator(server);
+        final var first = CompletableFuture.supplyAsync(() -> validate(validator, "yes", "https://service"));
+        server.awaitCall();
+        final var second = CompletableFuture.supplyAsync(() -> validate(validator, "yes", "https://service"));
+        awaitCoalesced(1);
+        server.release();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, server.calls.get());
+    }
+
+    @Test
+    public void testFailureIsShared() throws Exception {
+        final var server = new BlockingValidator();
+        final var validator = new CoalescingTicketValidator(server);
+        final var first = CompletableFuture.supplyAsync(() -> validate(validator, "no", "https://service"));
+        server.awaitCall();
+        final var second = CompletableFuture.supplyAsync(() -> validate(validator, "no", "https://service"));
+        awaitCoalesced(1);
+        server.release();
+
+        assertRejected(first);
+        assertRejected(second);
+        assertEquals(1, server.calls.get());
+    }
+
+    @Test
+    public void testDifferentServicesAreNotCoalesced() throws Exception {
+        final var server = new BlockingValidator();
+        final var validator = new CoalescingTicketValidator(server);
+        server.release();
+        validator.validate("yes", "https://service1");
+        validator.validate("yes", "https://service2");
+        assertEquals(2, server.calls.get());
+        assertEquals(0, this.metrics.getCoalescedValidations(BlockingValidator.class));
+    }
+
+    @Test
+    public void testCompletedValidationIsNotShared() throws Exception {
+        final var server = new BlockingValidator();
+        final var validator = new CoalescingTicketValidator(server);
+        server.release();
+        validator.validate("yes", "https://service");
+        validator.validate("yes", "https://service");
+        assertEquals(2, server.calls.get());
+        assertEquals(0, validator.getInFlightValidations());
+        assertEquals(0, this.metrics.getCoalescedValidations(BlockingValidator.class));
+    }
+
+    @Test
+    public void testAsyncValidationsShareOneServerCall() throws Exception {
+        final var server = new BlockingValidator();
+        final var validator = new CoalescingTicketValidator(server);
+        final var first = validator.validateAsync("yes", "https://service");
+        server.awaitCall();
+        final var second = validator.validateAsync("yes", "https://service");
+        assertEquals(1, this.metrics.getCoalescedValidations(BlockingValidator.class));
+        second.cancel(true);
+        server.release();
+
+        assertEquals("casuser", first.get(5, TimeUnit.SECONDS).getPrincipal().getName());
+        assertEquals(1, server.calls.get());
+        assertEquals("casuser", validator.validateAsync("yes", "https://service")
+            .get(5, TimeUnit.SECONDS).getPrincipal().getName());
+        assertEquals(2, server.calls.get());
+    }
+
+    @Test
+    public void testCancellingSharedValidationKeepsServerCall() throws Exception {
+        final var server = new BlockingValidator();
+        final var validator = new CoalescingTicketValidator(server);
+        final var first = validator.validateAsync("yes", "https://service");
+        server.awaitCall();
+        final var second = validator.validateAsync("yes", "https://service");
+        first.cancel(false);
+        server.release();
+
+        assertEquals("casuser", second.get(5, TimeUnit.SECONDS).getPrincipal().getName());
+        assertEquals(1, server.calls.get());
+    }
+
+    @Test
+    public void testCancelledValidationWaitingForPermitNeverCallsServer() throws Exception {
+        final var server = new BlockingValidator();
+        final var validator = new CoalescingTicketValidator(server);
+        server.setMaxConcurrentRequests(1);
+        final var first = validator.validateAsync("yes", "https://service");
+        server.awaitCall();
+        final var waiting = validator.validateAsync("yes", "https://other");
+        waiting.cancel(false);
+        server.release();
+
+        assertEquals("casuser", first.get(5, TimeUnit.SECONDS).getPrincipal().getName());
+        assertEquals(1, server.calls.get());
+        assertEquals(0, server.getBackChannelLimiter().getActiveCount());
+    }
+
+    private void awaitCoalesced(final long expected) throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.metrics.getCoalescedValidations(BlockingValidator.class) < expected) {
+            assertTrue("Validation was not coalesced", System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void assertRejected(final CompletableFuture<Assertion> validation) throws Exception {
+        try {
+            validation.get(5, TimeUnit.SECONDS);
+            fail("Expected the ticket to be rejected");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof TicketValidationException);
+        }
+    }
+
+    private static Assertion validate(final TicketValidator validator, final String ticket, final String service) {
+        try {
+            return validator.validate(ticket, service);
+        } catch (final TicketValidationException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static final class BlockingValidator extends AbstractUrlBasedTicketValidator {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final CountDownLatch called = new CountDownLatch(1);
+
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        BlockingValidator() {
+            super("https://cas.example.org/cas");
+        }
+
+        void awaitCall() throws InterruptedException {
+            assertTrue(this.called.await(5, TimeUnit.SECONDS));
+        }
+
+        void release() {
+            this.released.countDown();
+        }
+
+        @Override
+        protected String getUrlSuffix() {
+            return "test";
+        }
+
+        @Override
+        protected Assertion parseResponseFromServer(final String response) throws TicketValidationException {
+            if ("yes".equals(response)) {
+                return new AssertionImpl("casuser");
+            }
+            throw new TicketValidationException("Ticket not recognized", "INVALID_TICKET");
+        }
+
+        @Override
+        protected String retrieveResponseFromServer(final URL validationUrl, final String ticket) {
+            this.calls.incrementAndGet();
+            this.called.countDown();
+            try {
+                assertTrue(this.released.await(5, TimeUnit.SECONDS));
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return ticket;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link ServiceValidationResponse}.
+ *
+ * @since 4.0.4
+ */
+public final class ServiceValidationResponseTests {
+
+    @Test
+    public void testAuthenticationFailure() throws Exception {
+        final var response = ServiceValidationResponse.parse(
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+            + "<cas:authenticationFailure code=\"INVALID_TICKET\">Ticket ST-1 not recognized</cas:authenticationFailure>"
+            + "</cas:serviceResponse>");
+        assertEquals("INVALID_TICKET", response.getAuthenticationFailureCode());
+        assertEquals("Ticket ST-1 not recognized", response.getAuthenticationFailure());
+        assertNull(response.getUser());
+    }
+
+    @Test
+    public void testSuccessInSinglePass() throws Exception {
+        final var response = ServiceValidationResponse.parse(
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess>"
+            + "<cas:user>username</cas:user>"
+            + "<cas:proxyGrantingTicket>PGTIOU-1-test</cas:proxyGrantingTicket>"
+            + "<cas:attributes><cas:user>attributeUser</cas:user><cas:proxy>attributeProxy</cas:proxy>"
+            + "<cas:multi>value1</cas:multi><cas:multi>value2</cas:multi><cas:multi>value3</cas:multi></cas:attributes>"
+            + "<cas:proxies><cas:proxy>proxy1</cas:proxy><cas:proxy>proxy2</cas:proxy></cas:proxies>"
+            + "</cas:authenticationSuccess></cas:serviceResponse>");
+
+        assertNull(response.getAuthenticationFailure());
+        assertEquals("username", response.getUser());
+        assertEquals("PGTIOU-1-test", response.getProxyGrantingTicket());
+        assertEquals(Arrays.asList("proxy1", "proxy2"), response.getProxies());
+        assertEquals("attributeUser", response.getAttributes().get("user"));
+        assertEquals("attributeProxy", response.getAttributes().get("proxy"));
+        assertEquals(Arrays.asList("value1", "value2", "value3"), response.getAttributes().get("multi"));
+        assertTrue(response.getInlineAttributes().isEmpty());
+    }
+
+    @Test
+    public void testInlineAttributes() throws Exception {
+        final var response = ServiceValidationResponse.parse(
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess>"
+            + "<cas:user>username</cas:user><cas:attributes>"
+            + "<cas:attribute name=\"urn:oid:1\" value=\"a\"/><cas:attribute name=\"urn:oid:1\" value=\"b\"/>"
+            + "</cas:attributes></cas:authenticationSuccess></cas:serviceResponse>");
+
+        assertEquals(Arrays.asList("a", "b"), response.getInlineAttributes().get("urn:oid:1"));
+        assertTrue(response.getAttributes().isEmpty());
+        assertTrue(response.getProxies().isEmpty());
+    }
+
+    @Test
+    public void testNestedMarkupInsideAttribute() throws Exception {
+        final var response = ServiceValidationResponse.parse(
+            "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:authenticationSuccess>"
+            + "<cas:user>username</cas:user><cas:attributes><cas:memberOf>a<b>c</b>d</cas:memberOf>"
+            + "<cas:mail>user@example.org</cas:mail></cas:attributes></cas:authenticationSuccess></cas:serviceResponse>");
+
+        assertEquals("acd", response.getAttributes().get("memberOf"));
+        assertEquals("user@example.org", response.getAttributes().get("mail"));
+        assertFalse(response.getAttributes().get("mail") instanceof List);
+    }
+
+    @Test(expected = TicketValidationException.class)
+    public void testMalformedResponse() throws Exception {
+        ServiceValidationResponse.parse("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'><cas:user>");
+    }
+}
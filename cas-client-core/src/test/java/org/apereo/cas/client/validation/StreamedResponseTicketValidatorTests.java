@@ -0,0 +1,204 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.ssl.HttpClientTransport;
+import org.apereo.cas.client.validation.json.Cas30JsonServiceTicketValidator;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link AbstractUrlBasedTicketValidator#setStreamResponses(boolean) streamed} responses of the
+ * ticket validators.
+ *
+ * @since 4.0.4
+ */
+public final class StreamedResponseTicketValidatorTests {
+
+    private static final String XML_RESPONSE = "<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+        + "<cas:authenticationSuccess><cas:user>casuser</cas:user><cas:attributes>"
+        + "<cas:memberOf>staff</cas:memberOf><cas:memberOf>faculty</cas:memberOf><cas:mail>casuser@example.org</cas:mail>"
+        + "</cas:attributes></cas:authenticationSuccess></cas:serviceResponse>";
+
+    private static final String JSON_RESPONSE = "{\"serviceResponse\": {\"authenticationSuccess\": "
+        + "{\"user\": \"casuser\", \"attributes\": {\"memberOf\": [\"staff\", \"faculty\"]}}}}";
+
+    private HttpServer server;
+
+    private volatile String response;
+
+    private String casServerUrlPrefix;
+
+    @Before
+    public void setUp() throws Exception {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/cas", exchange -> {
+            final var body = this.response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        this.server.start();
+        this.casServerUrlPrefix = "http://127.0.0.1:" + this.server.getAddress().getPort() + "/cas";
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+    }
+
+    @Test
+    public void testXmlResponseIsStreamed() throws Exception {
+        this.response = XML_RESPONSE;
+        final var validator = newValidator(new Cas30ServiceTicketValidator(this.casServerUrlPrefix));
+        final var principal = validator.validate("ST-1", "https://service").getPrincipal();
+        assertEquals("casuser", principal.getName());
+        assertEquals(List.of("staff", "faculty"), principal.getAttributes().get("memberOf"));
+        assertEquals("casuser@example.org", principal.getAttributes().get("mail"));
+    }
+
+    @Test
+    public void testXmlResponseIsStreamedThroughHttpClient() throws Exception {
+        this.response = XML_RESPONSE;
+        final var validator = newValidator(new Cas30ServiceTicketValidator(this.casServerUrlPrefix));
+        validator.setHttpClientTransport(new HttpClientTransport());
+        assertEquals("casuser", validator.validate("ST-1", "https://service").getPrincipal().getName());
+    }
+
+    @Test
+    public void testJsonResponseIsStreamed() throws Exception {
+        this.response = "\n  " + JSON_RESPONSE;
+        final var validator = newValidator(new Cas30JsonServiceTicketValidator(this.casServerUrlPrefix));
+        final var principal = validator.validate("ST-1", "https://service").getPrincipal();
+        assertEquals("casuser", principal.getName());
+        assertEquals(List.of("staff", "faculty"), principal.getAttributes().get("memberOf"));
+    }
+
+    @Test
+    public void testJsonValidatorFallsBackToXml() throws Exception {
+        this.response = XML_RESPONSE;
+        final var validator = newValidator(new Cas30JsonServiceTicketValidator(this.casServerUrlPrefix));
+        assertEquals("casuser", validator.validate("ST-1", "https://service").getPrincipal().getName());
+    }
+
+    @Test
+    public void testStringParserIsUsedByDefault() throws Exception {
+        this.response = "yes\ncasuser\n";
+        final var validator = newValidator(new Cas10TicketValidator(this.casServerUrlPrefix));
+        assertEquals("casuser", validator.validate("ST-1", "https://service").getPrincipal().getName());
+    }
+
+    @Test
+    public void testResponseLargerThanMaxSizeIsRejected() throws Exception {
+        this.response = XML_RESPONSE;
+        final var streamed = newValidator(new Cas30ServiceTicketValidator(this.casServerUrlPrefix));
+        streamed.setMaxResponseSize(64);
+        assertRejected(streamed);
+
+        final var buffered = new Cas30ServiceTicketValidator(this.casServerUrlPrefix);
+        buffered.setMaxResponseSize(64);
+        assertRejected(buffered);
+    }
+
+    @Test
+    public void testResponseLargerThanMaxSizeIsRejectedWhileItIsRead() throws Exception {
+        this.response = XML_RESPONSE;
+        final var validator = new Cas30ServiceTicketValidator(this.casServerUrlPrefix) {
+            @Override
+            protected Assertion parseResponseFromServer(final String response) {
+                throw new AssertionError("The response should have been rejected before it was parsed");
+            }
+        };
+        validator.setMaxResponseSize(64);
+        assertRejected(validator);
+
+        validator.setHttpClientTransport(new HttpClientTransport());
+        assertRejected(validator);
+        try {
+            validator.validateAsync("ST-1", "https://service").join();
+            fail("Expected the response to be rejected");
+        } catch (final CompletionException e) {
+            assertTrue(e.getCause() instanceof TicketValidationException);
+            assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains("maximum size"));
+        }
+    }
+
+    @Test
+    public void testStreamThatCannotBeOpenedIsReportedAsValidationFailure() {
+        final var validator = newValidator(new AbstractUrlBasedTicketValidator(this.casServerUrlPrefix) {
+            @Override
+            protected String getUrlSuffix() {
+                return "serviceValidate";
+            }
+
+            @Override
+            protected Assertion parseResponseFromServer(final String response) {
+                throw new AssertionError("The response should not have been read");
+            }
+
+            @Override
+            protected String retrieveResponseFromServer(final URL validationUrl, final String ticket) {
+                throw new AssertionError("The response should have been streamed");
+            }
+
+            @Override
+            protected InputStream openResponseStreamFromServer(final URL validationUrl, final String ticket)
+                throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+        try {
+            validator.validate("ST-1", "https://service");
+            fail("Expected the validation to fail");
+        } catch (final TicketValidationException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static <T extends AbstractUrlBasedTicketValidator> T newValidator(final T validator) {
+        validator.setStreamResponses(true);
+        return validator;
+    }
+
+    private static void assertRejected(final TicketValidator validator) {
+        try {
+            validator.validate("ST-1", "https://service");
+            fail("Expected the response to be rejected");
+        } catch (final TicketValidationException e) {
+            Throwable cause = e;
+            while (cause.getCause() != null && !cause.getMessage().contains("maximum size")) {
+                cause = cause.getCause();
+            }
+            assertTrue(e.getMessage(), cause.getMessage().contains("maximum size"));
+        }
+    }
+}
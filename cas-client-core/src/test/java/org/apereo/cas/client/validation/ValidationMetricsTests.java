@@ -0,0 +1,140 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.apereo.cas.client.metrics.CasClientMetrics;
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
+import org.apereo.cas.client.metrics.InMemoryCasClientMetrics;
+import org.apereo.cas.client.metrics.LogLinearHistogram;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the metrics reported by {@link AbstractUrlBasedTicketValidator}.
+ *
+ * @since 4.0.4
+ */
+public final class ValidationMetricsTests {
+
+    private InMemoryCasClientMetrics metrics;
+
+    @Before
+    public void setUp() {
+        this.metrics = new InMemoryCasClientMetrics();
+        CasClientMetricsHolder.setDefault(this.metrics);
+    }
+
+    @After
+    public void tearDown() {
+        CasClientMetricsHolder.setDefault(null);
+    }
+
+    @Test
+    public void testOutcomesAndResponseSizes() throws Exception {
+        final var validator = new TestValidator();
+        validator.validate("yes", "https://service");
+        try {
+            validator.validate("no", "https://service");
+            fail("Expected the ticket to be rejected");
+        } catch (final TicketValidationException e) {
+            assertEquals("INVALID_TICKET", e.getCode());
+        }
+        try {
+            validator.validate("error", "https://service");
+            fail("Expected the call to fail");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+
+        assertEquals(1, latencies(CasClientMetrics.Outcome.SUCCESS).getCount());
+        assertEquals(1, latencies(CasClientMetrics.Outcome.FAILURE).getCount());
+        assertEquals(1, latencies(CasClientMetrics.Outcome.ERROR).getCount());
+        assertEquals(Long.valueOf(1), this.metrics.getErrorCodeCounts().get("INVALID_TICKET"));
+        assertEquals(2, this.metrics.getResponseSizes(TestValidator.class).getCount());
+        assertEquals(3, this.metrics.getResponseSizes(TestValidator.class).getMax());
+    }
+
+    @Test
+    public void testAsyncValidationIsRecorded() {
+        final var validator = new TestValidator();
+        validator.validateAsync("yes", "https://service").join();
+        try {
+            validator.validateAsync("no", "https://service").join();
+            fail("Expected the ticket to be rejected");
+        } catch (final CompletionException e) {
+            assertTrue(e.getCause() instanceof TicketValidationException);
+        }
+        assertEquals(1, latencies(CasClientMetrics.Outcome.SUCCESS).getCount());
+        assertEquals(1, latencies(CasClientMetrics.Outcome.FAILURE).getCount());
+        assertEquals(Long.valueOf(1), this.metrics.getErrorCodeCounts().get("INVALID_TICKET"));
+    }
+
+    @Test
+    public void testCas20FailureCarriesCode() {
+        final var validator = new Cas20ServiceTicketValidator("https://localhost/cas");
+        try {
+            validator.parseResponseFromServer("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'>"
+                + "<cas:authenticationFailure code=\"INVALID_SERVICE\">Service mismatch</cas:authenticationFailure>"
+                + "</cas:serviceResponse>");
+            fail("Expected the ticket to be rejected");
+        } catch (final TicketValidationException e) {
+            assertEquals("INVALID_SERVICE", e.getCode());
+            assertEquals("Service mismatch", e.getMessage());
+        }
+    }
+
+    private LogLinearHistogram latencies(final CasClientMetrics.Outcome outcome) {
+        return this.metrics.getValidationLatencies(TestValidator.class, outcome);
+    }
+
+    private static final class TestValidator extends AbstractUrlBasedTicketValidator {
+
+        TestValidator() {
+            super("https://cas.example.org/cas");
+        }
+
+        @Override
+        protected String getUrlSuffix() {
+            return "test";
+        }
+
+        @Override
+        protected Assertion parseResponseFromServer(final String response) throws TicketValidationException {
+            if ("yes".equals(response)) {
+                return new AssertionImpl("casuser");
+            }
+            throw new TicketValidationException("Ticket not recognized", "INVALID_TICKET");
+        }
+
+        @Override
+        protected String retrieveResponseFromServer(final URL validationUrl, final String ticket) {
+            if ("error".equals(ticket)) {
+                throw new IllegalStateException("CAS server unreachable");
+            }
+            return ticket;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the validation URLs built by {@link AbstractUrlBasedTicketValidator}.
+ *
+ * @since 4.0.4
+ */
+public final class ValidationUrlTemplateTests {
+
+    @Test
+    public void testParametersInStableOrder() {
+        final var validator = new Cas20ServiceTicketValidator("https://cas.example.org/cas");
+        validator.setRenew(true);
+        validator.setProxyCallbackUrl("https://app.example.org/pgt?a=b");
+        final Map<String, String> customParameters = new LinkedHashMap<>();
+        customParameters.put("locale", "fr CA");
+        customParameters.put("method", "POST");
+        validator.setCustomParameters(customParameters);
+
+        assertEquals("https://cas.example.org/cas/serviceValidate?ticket=ST-1%261&service=https%3A%2F%2Fapp%2F%3Fx%3D%C3%A9"
+                     + "&renew=true&pgtUrl=https%3A%2F%2Fapp.example.org%2Fpgt%3Fa%3Db&locale=fr+CA&method=POST",
+            validator.constructValidationUrl("ST-1&1", "https://app/?x=é"));
+        assertEquals("https://cas.example.org/cas/serviceValidate?ticket=ST-2&service=https%3A%2F%2Fother"
+                     + "&renew=true&pgtUrl=https%3A%2F%2Fapp.example.org%2Fpgt%3Fa%3Db&locale=fr+CA&method=POST",
+            validator.constructValidationUrl("ST-2", "https://other"));
+    }
+
+    @Test
+    public void testNullValuesAreOmitted() {
+        final var validator = new Cas20ServiceTicketValidator("https://cas.example.org/cas");
+        assertEquals("https://cas.example.org/cas/serviceValidate?service=https%3A%2F%2Fapp",
+            validator.constructValidationUrl(null, "https://app"));
+        assertEquals("https://cas.example.org/cas/serviceValidate", validator.constructValidationUrl(null, null));
+    }
+
+    @Test
+    public void testTemplateIsBuiltOnce() {
+        final var validator = new TestValidator(urlParameters -> urlParameters.put("extra", "1"));
+        validator.constructValidationUrl("ST-1", "https://app");
+        validator.constructValidationUrl("ST-2", "https://app");
+        assertEquals(1, validator.populated.get());
+
+        validator.setRenew(true);
+        assertEquals("https://cas.example.org/cas/test?ticket=ST-3&service=https%3A%2F%2Fapp&renew=true&extra=1",
+            validator.constructValidationUrl("ST-3", "https://app"));
+        assertEquals(2, validator.populated.get());
+    }
+
+    @Test
+    public void testSettingsChangedAfterFirstUse() {
+        final var validator = new Cas20ServiceTicketValidator("https://cas.example.org/cas");
+        assertEquals("https://cas.example.org/cas/serviceValidate?ticket=ST-1&service=s",
+            validator.constructValidationUrl("ST-1", "s"));
+
+        validator.setProxyCallbackUrl("https://app/pgt");
+        validator.setCustomParameters(Map.of("k", "v"));
+        assertEquals("https://cas.example.org/cas/serviceValidate?ticket=ST-1&service=s&pgtUrl=https%3A%2F%2Fapp%2Fpgt&k=v",
+            validator.constructValidationUrl("ST-1", "s"));
+    }
+
+    @Test
+    public void testParameterMovedByPopulate() {
+        final var validator = new TestValidator(urlParameters -> {
+            final var service = urlParameters.remove("service");
+            urlParameters.remove("ticket");
+            urlParameters.put("TARGET", service);
+        });
+        assertEquals("https://cas.example.org/cas/test?TARGET=https%3A%2F%2Fapp%2F1",
+            validator.constructValidationUrl("ST-1", "https://app/1"));
+        assertEquals("https://cas.example.org/cas/test?TARGET=https%3A%2F%2Fapp%2F2",
+            validator.constructValidationUrl("ST-2", "https://app/2"));
+        assertEquals(1, validator.populated.get());
+    }
+
+    @Test
+    public void testParameterDerivedFromTicketIsBuiltPerRequest() {
+        final var validator = new TestValidator(urlParameters -> urlParameters.put("hash", "h-" + urlParameters.get("ticket")));
+        assertEquals("https://cas.example.org/cas/test?ticket=ST-1&service=s&hash=h-ST-1",
+            validator.constructValidationUrl("ST-1", "s"));
+        assertEquals("https://cas.example.org/cas/test?ticket=ST-2&service=s&hash=h-ST-2",
+            validator.constructValidationUrl("ST-2", "s"));
+    }
+
+    private static final class TestValidator extends AbstractUrlBasedTicketValidator {
+
+        private final AtomicInteger populated = new AtomicInteger();
+
+        private final Consumer<Map<String, String>> populator;
+
+        TestValidator(final Consumer<Map<String, String>> populator) {
+            super("https://cas.example.org/cas");
+            this.populator = populator;
+        }
+
+        @Override
+        protected void populateUrlAttributeMap(final Map<String, String> urlParameters) {
+            this.populated.incrementAndGet();
+            this.populator.accept(urlParameters);
+        }
+
+        @Override
+        protected String getUrlSuffix() {
+            return "test";
+        }
+
+        @Override
+        protected Assertion parseResponseFromServer(final String response) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected String retrieveResponseFromServer(final URL validationUrl, final String ticket) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.json;
+
+import org.apereo.cas.client.proxy.ProxyGrantingTicketStorageImpl;
+import org.apereo.cas.client.validation.TicketValidationException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link JsonValidationResponseParser}.
+ *
+ * @since 4.0.4
+ */
+public final class JsonValidationResponseParserTests {
+
+    private static final String SUCCESS = "{\"serviceResponse\": {\"authenticationSuccess\": {"
+        + "\"user\": \"casuser\", \"proxyGrantingTicket\": \"PGTIOU-1\", \"proxies\": [\"https://proxy1\"],"
+        + "\"attributes\": {\"cn\": [\"Name\"], \"mail\": \"casuser@example.org\", \"age\": 42,"
+        + "\"score\": 1.5, \"enabled\": true, \"nested\": {\"key\": [1, 2]}, \"empty\": null}}},"
+        + "\"ignored\": {\"deep\": [{}]}}";
+
+    @Test
+    public void testAttributesAreReadAsDataBindingWould() throws Exception {
+        final var principal = JsonValidationResponseParser.parse(SUCCESS, null, null).getPrincipal();
+        assertEquals("casuser", principal.getName());
+        final var attributes = principal.getAttributes();
+        assertEquals(List.of("Name"), attributes.get("cn"));
+        assertEquals("casuser@example.org", attributes.get("mail"));
+        assertEquals(42, attributes.get("age"));
+        assertEquals(1.5, attributes.get("score"));
+        assertEquals(Boolean.TRUE, attributes.get("enabled"));
+        assertEquals(Map.of("key", Arrays.asList(1, 2)), attributes.get("nested"));
+        assertTrue(attributes.containsKey("empty"));
+        assertNull(attributes.get("empty"));
+    }
+
+    @Test
+    public void testReaderIsReadDirectly() throws Exception {
+        final var storage = new ProxyGrantingTicketStorageImpl();
+        storage.save("PGTIOU-1", "PGT-1");
+        final var assertion = JsonValidationResponseParser.parse(new StringReader(SUCCESS), storage, (pgt, service) -> "PT-1");
+        assertEquals("casuser", assertion.getPrincipal().getName());
+        assertEquals("PT-1", assertion.getPrincipal().getProxyTicketFor("https://service"));
+        assertNull(storage.retrieve("PGTIOU-1"));
+    }
+
+    @Test
+    public void testAuthenticationFailure() throws Exception {
+        try {
+            JsonValidationResponseParser.parse("{\"serviceResponse\": {\"authenticationFailure\": "
+                + "{\"code\": \"INVALID_TICKET\", \"description\": \"Ticket not recognized\"}}}", null, null);
+            fail("Expected authentication failure");
+        } catch (final TicketValidationException e) {
+            assertEquals("INVALID_TICKET - Ticket not recognized", e.getMessage());
+        }
+    }
+
+    @Test(expected = TicketValidationException.class)
+    public void testSuccessAndFailure() throws Exception {
+        JsonValidationResponseParser.parse("{\"serviceResponse\": {\"authenticationSuccess\": {\"user\": \"casuser\"},"
+            + "\"authenticationFailure\": {\"code\": \"INVALID_TICKET\"}}}", null, null);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedRecordsBindTheSameAssertion() throws Exception {
+        // data binding fails on the properties the records do not declare
+        final var response = SUCCESS.replace(",\"ignored\": {\"deep\": [{}]}", "");
+        final var bound = new ObjectMapper().readValue(response, TicketValidationJsonResponse.class)
+            .getAssertion(null, null).getPrincipal();
+        final var parsed = JsonValidationResponseParser.parse(response, null, null).getPrincipal();
+        assertEquals(parsed.getName(), bound.getName());
+        assertEquals(parsed.getAttributes(), bound.getAttributes());
+    }
+
+    @Test(expected = TicketValidationException.class)
+    public void testMissingPrincipal() throws Exception {
+        JsonValidationResponseParser.parse("{\"serviceResponse\": {\"authenticationSuccess\": {\"attributes\": {}}}}",
+            null, null);
+    }
+
+    @Test(expected = JsonProcessingException.class)
+    public void testXmlIsNotJson() throws Exception {
+        JsonValidationResponseParser.parse("<cas:serviceResponse xmlns:cas='http://www.yale.edu/tp/cas'/>", null, null);
+    }
+
+    @Test(expected = JsonProcessingException.class)
+    public void testNonObjectIsNotAResponse() throws Exception {
+        JsonValidationResponseParser.parse("[\"casuser\"]", null, null);
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterConfig;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests {@link CasJWTTicketValidationFilter}.
+ *
+ * @since 4.0.4
+ */
+public class CasJWTTicketValidationFilterTests {
+
+    @Test
+    public void configuredReplayCacheIsDestroyedWithFilter() throws Exception {
+        final var config = new MockFilterConfig();
+        config.addInitParameter("service", "https://localhost/service");
+        config.addInitParameter("encryptionKey", "GR7E6uL9djKBSH59BN8boYQ68gQgzwehIIp6s1QicPc");
+        config.addInitParameter("signingKey", "vTRQaUu8oDlMrsuhsgNgtk6yie2O6XwRsnDS1POstAQkA1_5TI8-mwrqo1wQ1VahGXLgjCtOb9PLOplmvFzvQA");
+        config.addInitParameter("base64SigningKey", "false");
+        config.addInitParameter("replayCacheClass", DestroyCountingReplayCache.class.getName());
+        DestroyCountingReplayCache.DESTROYED.set(0);
+
+        final var filter = new CasJWTTicketValidationFilter();
+        filter.init(config);
+        filter.destroy();
+        filter.destroy();
+        assertEquals(1, DestroyCountingReplayCache.DESTROYED.get());
+    }
+
+    public static final class DestroyCountingReplayCache implements JWTReplayCache {
+
+        private static final AtomicInteger DESTROYED = new AtomicInteger();
+
+        @Override
+        public boolean putIfAbsent(final String tokenId, final long expirationTime) {
+            return true;
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+
+        @Override
+        public void destroy() {
+            DESTROYED.incrementAndGet();
+        }
+    }
+}
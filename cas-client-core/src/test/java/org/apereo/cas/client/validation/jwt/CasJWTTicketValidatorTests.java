@@ -1,11 +1,49 @@
 package org.apereo.cas.client.validation.jwt;
 
+import org.apereo.cas.client.validation.TicketValidationException;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.Test;
 
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.Assert.*;
 
 public class CasJWTTicketValidatorTests {
 
+    private static final String ENCRYPTION_KEY = "GR7E6uL9djKBSH59BN8boYQ68gQgzwehIIp6s1QicPc";
+
+    private static final String ISSUER = "https://cas.example.org:8443/cas";
+
+    private static final String AUDIENCE = "https://github.com/apereo/cas";
+
+    private static final RSAKey RSA_KEY = newRsaKey();
+
     @Test
     public void verifyAesKeyWithSignedAndEncryptedJWT() throws Exception {
         var validator = new CasJWTTicketValidator();
@@ -23,4 +61,213 @@ public class CasJWTTicketValidatorTests {
         assertEquals("Static Credentials", assertion.getPrincipal().getAttributes().get("authenticationMethod"));
         assertEquals("0:0:0:0:0:0:0:1", assertion.getPrincipal().getAttributes().get("clientIpAddress"));
     }
+
+    @Test
+    public void verifyEncryptedOnlyJWT() throws Exception {
+        final var validator = newValidator();
+        validator.setSigningKey("unused-signing-key");
+        final var assertion = validator.validate(newEncryptedOnlyToken(ISSUER), "https://example.org");
+        assertEquals("casuser", assertion.getPrincipal().getName());
+    }
+
+    @Test
+    public void verifyEncryptedOnlyJWTFromOtherIssuerIsRejected() throws Exception {
+        final var validator = newValidator();
+        validator.setSigningKey("unused-signing-key");
+        try {
+            validator.validate(newEncryptedOnlyToken("https://other.example.org/cas"), "https://example.org");
+            fail("Expected JWT from another issuer to be rejected");
+        } catch (final TicketValidationException e) {
+            assertEquals(0, validator.getEarlyRejections());
+        }
+    }
+
+    @Test
+    public void verifyExpiredJWTIsRejectedBeforeSignatureVerification() throws Exception {
+        final var validator = newValidator();
+        validator.setSigningKey("wrong-signing-key");
+        final var jwt = newToken(RSA_KEY, -3600);
+        try {
+            validator.validate(jwt, "https://example.org");
+            fail("Expected expired JWT to be rejected");
+        } catch (final TicketValidationException e) {
+            assertEquals(1, validator.getEarlyRejections());
+        }
+    }
+
+    @Test
+    public void verifyForeignAudienceIsRejectedBeforeSignatureVerification() throws Exception {
+        final var validator = newValidator();
+        validator.setExpectedAudience("https://other.example.org");
+        validator.setSigningKey("wrong-signing-key");
+        try {
+            validator.validate(newToken(RSA_KEY, 3600), "https://example.org");
+            fail("Expected JWT for another audience to be rejected");
+        } catch (final TicketValidationException e) {
+            assertEquals(1, validator.getEarlyRejections());
+        }
+    }
+
+    @Test
+    public void verifyJwkSetFromFile() throws Exception {
+        final var file = Files.createTempFile("jwks", ".json");
+        try {
+            Files.writeString(file, new JWKSet(RSA_KEY.toPublicJWK()).toString(), StandardCharsets.UTF_8);
+            final var validator = newValidator();
+            validator.setJwkSetUrl(file.toUri().toString());
+            validator.initialize();
+            try {
+                assertEquals("casuser", validator.validate(newToken(RSA_KEY, 3600), "https://example.org")
+                    .getPrincipal().getName());
+            } finally {
+                validator.destroy();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void verifyJwkSetIsCachedAndFollowsKeyRotation() throws Exception {
+        final var rotatedKey = new RSAKeyGenerator(2048).keyID("rotated").generate();
+        final var jwks = new AtomicReference<>(new JWKSet(RSA_KEY.toPublicJWK()).toString());
+        final var fetches = new AtomicInteger();
+        final var server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/jwks", exchange -> {
+            fetches.incrementAndGet();
+            final var body = jwks.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        final var validator = newValidator();
+        try {
+            validator.setJwkSetUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/jwks");
+            validator.initialize();
+
+            final var executor = Executors.newFixedThreadPool(4);
+            try {
+                final var tasks = new ArrayList<Callable<String>>();
+                for (var i = 0; i < 16; i++) {
+                    final var jwt = newToken(RSA_KEY, 3600);
+                    tasks.add(() -> validator.validate(jwt, "https://example.org").getPrincipal().getName());
+                }
+                for (final var result : executor.invokeAll(tasks)) {
+                    assertEquals("casuser", result.get());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            assertEquals(1, fetches.get());
+
+            jwks.set(new JWKSet(rotatedKey.toPublicJWK()).toString());
+            assertEquals("casuser", validator.validate(newToken(rotatedKey, 3600), "https://example.org")
+                .getPrincipal().getName());
+            assertEquals(2, fetches.get());
+        } finally {
+            validator.destroy();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void verifyReplayedJWTIsRejected() throws Exception {
+        final var file = Files.createTempFile("jwks", ".json");
+        try {
+            Files.writeString(file, new JWKSet(RSA_KEY.toPublicJWK()).toString(), StandardCharsets.UTF_8);
+            final var validator = newValidator();
+            validator.setJwkSetUrl(file.toUri().toString());
+            final var jwt = newToken(RSA_KEY, 3600);
+            try {
+                validator.validate(jwt, "https://example.org");
+                validator.validate(jwt, "https://example.org");
+                fail("Expected replayed JWT to be rejected");
+            } catch (final TicketValidationException e) {
+                assertEquals(1, validator.getReplays());
+            } finally {
+                validator.destroy();
+            }
+
+            final var unprotected = newValidator();
+            unprotected.setJwkSetUrl(file.toUri().toString());
+            unprotected.setReplayCache(null);
+            try {
+                unprotected.validate(jwt, "https://example.org");
+                unprotected.validate(jwt, "https://example.org");
+            } finally {
+                unprotected.destroy();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void verifyForgedJWTDoesNotBurnTokenId() throws Exception {
+        final var validator = newValidator();
+        validator.setSigningKey("wrong-signing-key");
+        final var replayCache = new InMemoryJWTReplayCache();
+        validator.setReplayCache(replayCache);
+        try {
+            validator.validate(newToken(RSA_KEY, 3600), "https://example.org");
+            fail("Expected JWT with an invalid signature to be rejected");
+        } catch (final TicketValidationException e) {
+            assertEquals(0, replayCache.size());
+        } finally {
+            validator.destroy();
+        }
+    }
+
+    private static RSAKey newRsaKey() {
+        try {
+            return new RSAKeyGenerator(2048).keyID("initial").generate();
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CasJWTTicketValidator newValidator() {
+        final var validator = new CasJWTTicketValidator();
+        validator.setEncryptionKey(ENCRYPTION_KEY);
+        validator.setExpectedIssuer(ISSUER);
+        validator.setExpectedAudience(AUDIENCE);
+        return validator;
+    }
+
+    private static String newEncryptedOnlyToken(final String issuer) throws Exception {
+        final var now = System.currentTimeMillis();
+        final var claims = new JWTClaimsSet.Builder()
+            .subject("casuser")
+            .issuer(issuer)
+            .audience(AUDIENCE)
+            .issueTime(new Date(now))
+            .expirationTime(new Date(now + 3600_000L))
+            .jwtID(UUID.randomUUID().toString())
+            .build();
+        final var jwe = new JWEObject(new JWEHeader.Builder(JWEAlgorithm.DIR, EncryptionMethod.A128CBC_HS256)
+            .type(JOSEObjectType.JWT).build(), new Payload(claims.toJSONObject()));
+        jwe.encrypt(new DirectEncrypter(Base64.getDecoder().decode(ENCRYPTION_KEY)));
+        return jwe.serialize();
+    }
+
+    private static String newToken(final RSAKey signingKey, final int expiresInSeconds) throws Exception {
+        final var now = System.currentTimeMillis();
+        final var claims = new JWTClaimsSet.Builder()
+            .subject("casuser")
+            .issuer(ISSUER)
+            .audience(AUDIENCE)
+            .issueTime(new Date(now))
+            .expirationTime(new Date(now + expiresInSeconds * 1000L))
+            .jwtID(UUID.randomUUID().toString())
+            .build();
+        final var signedJwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256)
+            .type(JOSEObjectType.JWT).keyID(signingKey.getKeyID()).build(), claims);
+        signedJwt.sign(new RSASSASigner(signingKey));
+        final var jwe = new JWEObject(new JWEHeader.Builder(JWEAlgorithm.DIR, EncryptionMethod.A128CBC_HS256)
+            .contentType("JWT").build(), new Payload(signedJwt));
+        jwe.encrypt(new DirectEncrypter(Base64.getDecoder().decode(ENCRYPTION_KEY)));
+        return jwe.serialize();
+    }
 }
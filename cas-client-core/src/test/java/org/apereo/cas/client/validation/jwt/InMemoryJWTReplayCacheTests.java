@@ -0,0 +1,98 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link InMemoryJWTReplayCache}.
+ *
+ * @since 4.0.4
+ */
+public final class InMemoryJWTReplayCacheTests {
+
+    @Test
+    public void testTokenIdIsAcceptedOnlyOnce() {
+        final var cache = new InMemoryJWTReplayCache();
+        final var expirationTime = System.currentTimeMillis() + 60_000;
+        assertTrue(cache.putIfAbsent("jti-1", expirationTime));
+        assertFalse(cache.putIfAbsent("jti-1", expirationTime));
+        assertTrue(cache.putIfAbsent("jti-2", expirationTime));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getReplays());
+    }
+
+    @Test
+    public void testCleanUpForgetsExpiredTokenIds() {
+        final var cache = new InMemoryJWTReplayCache(4);
+        final var now = System.currentTimeMillis();
+        for (var i = 0; i < 100; i++) {
+            cache.putIfAbsent("expired-" + i, now - 1);
+            cache.putIfAbsent("valid-" + i, now + 60_000);
+        }
+        cache.cleanUp();
+        assertEquals(100, cache.size());
+        assertFalse(cache.putIfAbsent("valid-1", now + 60_000));
+        assertTrue(cache.putIfAbsent("expired-1", now + 60_000));
+    }
+
+    @Test
+    public void testExpiredTokenIdMayBeReusedBeforeCleanUp() {
+        final var cache = new InMemoryJWTReplayCache();
+        assertTrue(cache.putIfAbsent("jti-1", System.currentTimeMillis() - 1));
+        assertTrue(cache.putIfAbsent("jti-1", System.currentTimeMillis() + 60_000));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testShardCountIsRoundedToPowerOfTwo() {
+        assertEquals(1, new InMemoryJWTReplayCache(1).getShardCount());
+        assertEquals(8, new InMemoryJWTReplayCache(5).getShardCount());
+        assertEquals(Integer.bitCount(InMemoryJWTReplayCache.DEFAULT_SHARDS), 1);
+    }
+
+    @Test
+    public void testConcurrentReplaysAreAcceptedOnce() throws Exception {
+        final var cache = new InMemoryJWTReplayCache();
+        final var expirationTime = System.currentTimeMillis() + 60_000;
+        final var executor = Executors.newFixedThreadPool(8);
+        try {
+            final var tasks = new ArrayList<Callable<Boolean>>();
+            for (var i = 0; i < 64; i++) {
+                tasks.add(() -> cache.putIfAbsent("jti-concurrent", expirationTime));
+            }
+            var accepted = 0;
+            for (final var result : executor.invokeAll(tasks)) {
+                if (result.get()) {
+                    accepted++;
+                }
+            }
+            assertEquals(1, accepted);
+            assertEquals(63, cache.getReplays());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -18,14 +18,40 @@
  */
 package org.apereo.cas.client.proxy;
 
+import org.apereo.cas.client.metrics.CasClientMetricsHolder;
+import org.apereo.cas.client.util.CommonUtils;
+
 import org.ehcache.Cache;
+import org.ehcache.CacheManager;
 import org.ehcache.config.builders.CacheConfigurationBuilder;
 import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
 import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.event.CacheEvent;
+import org.ehcache.event.EventFiring;
+import org.ehcache.event.EventOrdering;
+import org.ehcache.event.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
+ * Implementation of the {@link ProxyGrantingTicketStorage} interface that is backed by an Ehcache {@link Cache}.
+ * <p>
+ * The default cache keeps {@link #DEFAULT_MAX_HEAP_ENTRIES} tickets on the heap and overflows to
+ * {@link #DEFAULT_MAX_OFF_HEAP_BYTES} bytes of off-heap memory, which holds tens of thousands of unclaimed tickets
+ * without adding to garbage collection.  Tickets expire after {@link #DEFAULT_TIME_TO_LIVE} milliseconds, the
+ * time the CAS server is expected to take between calling back the proxy receptor and answering the validation
+ * request, and are removed as soon as they are retrieved.
+ * <p>
+ * Expired tickets are removed by Ehcache itself, so {@link #cleanUp()} has nothing to do.  Tickets evicted or expired
+ * before they were retrieved are counted, as a sign that the cache is too small or the time to live too short.
+ *
  * @author Scott Battaglia
  * @version $Revision$ $Date$
  * @since 3.1.9
@@ -34,19 +60,67 @@ public final class EhcacheBackedProxyGrantingTicketStorageImpl extends AbstractE
 
     public static final String EHCACHE_CACHE_NAME = "org.apereocas.client.proxy.EhcacheBackedProxyGrantingTicketStorageImpl.cache";
 
+    /** Default maximum number of tickets kept on the heap. */
+    public static final long DEFAULT_MAX_HEAP_ENTRIES = 10_000L;
+
+    /** Default maximum size of the off-heap tier, in bytes. */
+    public static final long DEFAULT_MAX_OFF_HEAP_BYTES = 32L * 1024 * 1024;
+
+    /** Default time to live of an unclaimed ticket, in milliseconds. */
+    public static final long DEFAULT_TIME_TO_LIVE = 60_000L;
+
     private static final Logger logger = LoggerFactory.getLogger(EhcacheBackedProxyGrantingTicketStorageImpl.class);
 
-    private final Cache cache;
+    private final Cache<String, String> cache;
+
+    private final CacheManager cacheManager;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
 
     public EhcacheBackedProxyGrantingTicketStorageImpl() {
-        final var cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build();
-        cacheManager.init();
-        cache = cacheManager.createCache(EHCACHE_CACHE_NAME,
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, String.class,
-                ResourcePoolsBuilder.heap(1000)));
+        this(DEFAULT_MAX_HEAP_ENTRIES, DEFAULT_MAX_OFF_HEAP_BYTES, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * @param maxHeapEntries maximum number of tickets kept on the heap.
+     * @param maxOffHeapBytes maximum size of the off-heap tier in bytes, or zero to keep tickets on the heap only.
+     * @param timeToLive time after which an unclaimed ticket expires, in milliseconds.
+     */
+    public EhcacheBackedProxyGrantingTicketStorageImpl(final long maxHeapEntries, final long maxOffHeapBytes,
+                                                       final long timeToLive) {
+        CommonUtils.assertTrue(maxHeapEntries > 0, "maxHeapEntries must be greater than zero.");
+        CommonUtils.assertTrue(maxOffHeapBytes >= 0, "maxOffHeapBytes cannot be negative.");
+        CommonUtils.assertTrue(timeToLive > 0, "timeToLive must be greater than zero.");
+
+        var resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder().heap(maxHeapEntries, EntryUnit.ENTRIES);
+        if (maxOffHeapBytes > 0) {
+            resourcePools = resourcePools.offheap(maxOffHeapBytes, MemoryUnit.B);
+        }
+        this.cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build();
+        this.cacheManager.init();
+        this.cache = this.cacheManager.createCache(EHCACHE_CACHE_NAME,
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, String.class, resourcePools)
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMillis(timeToLive))));
+        registerListener();
         logger.info("Created cache with name: {}", EHCACHE_CACHE_NAME);
     }
 
+    /**
+     * @param cache the cache holding the tickets, whose configuration determines their expiry.
+     */
+    public EhcacheBackedProxyGrantingTicketStorageImpl(final Cache<String, String> cache) {
+        CommonUtils.assertNotNull(cache, "cache cannot be null.");
+        this.cacheManager = null;
+        this.cache = cache;
+        registerListener();
+    }
+
     @Override
     public void saveInternal(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
         try {
@@ -58,10 +132,73 @@ public final class EhcacheBackedProxyGrantingTicketStorageImpl extends AbstractE
 
     @Override
     public String retrieveInternal(final String proxyGrantingTicketIou) {
-        return proxyGrantingTicketIou == null ? null : (String) this.cache.get(proxyGrantingTicketIou);
+        if (proxyGrantingTicketIou == null) {
+            return null;
+        }
+        final var proxyGrantingTicket = this.cache.get(proxyGrantingTicketIou);
+        // only the caller that removes the ticket gets it
+        if (proxyGrantingTicket == null || !this.cache.remove(proxyGrantingTicketIou, proxyGrantingTicket)) {
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        return proxyGrantingTicket;
     }
 
     @Override
     public void cleanUp() {
+        // expired tickets are removed by Ehcache
+    }
+
+    /**
+     * Closes the cache manager created by this storage, if any.
+     */
+    public void destroy() {
+        if (this.cacheManager != null) {
+            this.cacheManager.close();
+        }
+    }
+
+    /**
+     * @return the number of tickets retrieved.
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of retrievals for which no ticket was found.
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return the number of tickets evicted to make room for others before they were retrieved.
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return the number of tickets that expired before they were retrieved.
+     */
+    public long getExpirations() {
+        return this.expirations.sum();
+    }
+
+    private void registerListener() {
+        this.cache.getRuntimeConfiguration().registerCacheEventListener(this::onEvent,
+            EventOrdering.UNORDERED, EventFiring.ASYNCHRONOUS, EnumSet.of(EventType.EVICTED, EventType.EXPIRED));
+    }
+
+    private void onEvent(final CacheEvent<? extends String, ? extends String> event) {
+        if (event.getType() == EventType.EVICTED) {
+            this.evictions.increment();
+            logger.debug("Ticket for [{}] was evicted before it was retrieved", event.getKey());
+        } else {
+            this.expirations.increment();
+            CasClientMetricsHolder.getDefault().recordProxyGrantingTicketExpiry(getClass(), 1);
+        }
     }
 }
@@ -0,0 +1,140 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link AbstractDistributedSessionMappingStorage} backed by an Ehcache {@link Cache}.
+ * <p>
+ * To share mappings between nodes the cache must be clustered, for instance through a Terracotta server; the
+ * default constructor creates a local heap cache, which is only useful for a single node or for testing.  The
+ * expiry of mappings is that of the cache.  Invalidations for a node are held, newline separated, under a single
+ * key per node, which is updated with compare-and-swap operations.
+ *
+ * @since 4.0.4
+ */
+public final class EhcacheBackedSessionMappingStorage extends AbstractDistributedSessionMappingStorage {
+
+    public static final String EHCACHE_CACHE_NAME = "org.apereo.cas.client.session.EhcacheBackedSessionMappingStorage.cache";
+
+    private static final String INVALIDATIONS_PREFIX = "invalidations:";
+
+    private static final String MAPPING_PREFIX = "session:";
+
+    private static final int MAX_ATTEMPTS = 10;
+
+    private final CacheManager cacheManager;
+
+    private final Cache<String, String> cache;
+
+    public EhcacheBackedSessionMappingStorage() {
+        this.cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build();
+        this.cacheManager.init();
+        this.cache = this.cacheManager.createCache(EHCACHE_CACHE_NAME,
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, String.class, ResourcePoolsBuilder.heap(100_000))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMillis(DEFAULT_TIME_TO_LIVE))));
+        logger.info("Created cache with name: {}", EHCACHE_CACHE_NAME);
+    }
+
+    /**
+     * @param cache the cache, typically clustered, holding the mappings.
+     */
+    public EhcacheBackedSessionMappingStorage(final Cache<String, String> cache) {
+        this.cacheManager = null;
+        this.cache = cache;
+    }
+
+    /**
+     * Stops the background thread and closes the cache manager created by this storage, if any.
+     */
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (this.cacheManager != null) {
+            this.cacheManager.close();
+        }
+    }
+
+    @Override
+    protected void storeMappings(final Map<String, String> mappings, final long timeToLive) {
+        final Map<String, String> entries = new HashMap<>(mappings.size() * 2);
+        for (final var entry : mappings.entrySet()) {
+            entries.put(MAPPING_PREFIX + entry.getKey(), entry.getValue());
+        }
+        this.cache.putAll(entries);
+    }
+
+    @Override
+    protected String retrieveMapping(final String mappingId) {
+        return this.cache.get(MAPPING_PREFIX + mappingId);
+    }
+
+    @Override
+    protected void removeMapping(final String mappingId) {
+        this.cache.remove(MAPPING_PREFIX + mappingId);
+    }
+
+    @Override
+    protected void publishInvalidation(final String nodeId, final String mappingId) {
+        final var key = INVALIDATIONS_PREFIX + nodeId;
+        final var value = mappingId + '\n';
+        for (var attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            final var existing = this.cache.putIfAbsent(key, value);
+            if (existing == null || this.cache.replace(key, existing, existing + value)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Unable to publish invalidation to node " + nodeId);
+    }
+
+    @Override
+    protected Collection<String> takeInvalidations(final String nodeId) {
+        final var key = INVALIDATIONS_PREFIX + nodeId;
+        for (var attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            final var existing = this.cache.get(key);
+            if (existing == null) {
+                return Collections.emptyList();
+            }
+            if (this.cache.remove(key, existing)) {
+                final List<String> mappingIds = new ArrayList<>();
+                for (final var mappingId : existing.split("\n")) {
+                    if (!mappingId.isEmpty()) {
+                        mappingIds.add(mappingId);
+                    }
+                }
+                return mappingIds;
+            }
+        }
+        return Collections.emptyList();
+    }
+}
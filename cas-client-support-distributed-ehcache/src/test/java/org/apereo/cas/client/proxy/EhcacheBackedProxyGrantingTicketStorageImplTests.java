@@ -0,0 +1,98 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link EhcacheBackedProxyGrantingTicketStorageImpl}.
+ *
+ * @since 4.0.4
+ */
+public final class EhcacheBackedProxyGrantingTicketStorageImplTests {
+
+    @Test
+    public void testTicketIsRemovedOnRetrieve() {
+        final var storage = new EhcacheBackedProxyGrantingTicketStorageImpl(100, 0, 60_000);
+        try {
+            storage.save("PGTIOU-1", "PGT-1");
+            assertEquals("PGT-1", storage.retrieve("PGTIOU-1"));
+            assertNull(storage.retrieve("PGTIOU-1"));
+            assertEquals(1, storage.getHits());
+            assertEquals(1, storage.getMisses());
+        } finally {
+            storage.destroy();
+        }
+    }
+
+    @Test
+    public void testHoldsFiftyThousandTicketsWithOffHeapTier() {
+        final var storage = new EhcacheBackedProxyGrantingTicketStorageImpl();
+        try {
+            for (var i = 0; i < 50_000; i++) {
+                storage.save("PGTIOU-" + i, "PGT-" + i);
+            }
+            for (var i = 0; i < 50_000; i++) {
+                assertEquals("PGT-" + i, storage.retrieve("PGTIOU-" + i));
+            }
+            assertEquals(0, storage.getEvictions());
+        } finally {
+            storage.destroy();
+        }
+    }
+
+    @Test
+    public void testEvictionsAreCounted() throws Exception {
+        final var storage = new EhcacheBackedProxyGrantingTicketStorageImpl(10, 0, 60_000);
+        try {
+            for (var i = 0; i < 100; i++) {
+                storage.save("PGTIOU-" + i, "PGT-" + i);
+            }
+            awaitPositive(storage::getEvictions);
+        } finally {
+            storage.destroy();
+        }
+    }
+
+    @Test
+    public void testExpiredTicketIsNotRetrieved() throws Exception {
+        final var storage = new EhcacheBackedProxyGrantingTicketStorageImpl(100, 0, 50);
+        try {
+            storage.save("PGTIOU-1", "PGT-1");
+            Thread.sleep(100);
+            assertNull(storage.retrieve("PGTIOU-1"));
+            awaitPositive(storage::getExpirations);
+        } finally {
+            storage.destroy();
+        }
+    }
+
+    private static void awaitPositive(final LongSupplier counter) throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter.getAsLong() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(counter.getAsLong() > 0);
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.CleanUpScheduler;
+
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link EhcacheBackedSessionMappingStorage}, with two nodes sharing one cache as they would
+ * share a clustered cache.
+ *
+ * @since 4.0.4
+ */
+public final class EhcacheBackedSessionMappingStorageTests {
+
+    private CacheManager cacheManager;
+
+    private EhcacheBackedSessionMappingStorage nodeA;
+
+    private EhcacheBackedSessionMappingStorage nodeB;
+
+    @Before
+    public void setUp() {
+        cacheManager = CacheManagerBuilder.newCacheManagerBuilder().build(true);
+        final Cache<String, String> cache = cacheManager.createCache("sessions",
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, String.class, ResourcePoolsBuilder.heap(100)));
+        nodeA = new EhcacheBackedSessionMappingStorage(cache);
+        nodeA.setNodeId("node-a");
+        nodeB = new EhcacheBackedSessionMappingStorage(cache);
+        nodeB.setNodeId("node-b");
+    }
+
+    @After
+    public void tearDown() {
+        nodeA.destroy();
+        nodeB.destroy();
+        cacheManager.close();
+    }
+
+    @Test
+    public void testLogoutIsForwardedToOwningNode() {
+        final var first = new MockHttpSession();
+        final var second = new MockHttpSession();
+        nodeA.addSessionById("ST-1", first);
+        nodeA.addSessionById("ST-2", second);
+        nodeA.flush();
+
+        assertNull(nodeB.removeSessionByMappingId("ST-1"));
+        assertNull(nodeB.removeSessionByMappingId("ST-2"));
+        assertEquals(2, nodeB.getInvalidationsSent());
+
+        nodeA.pollInvalidations();
+        assertTrue(first.isInvalid());
+        assertTrue(second.isInvalid());
+        assertEquals(2, nodeA.getInvalidationsReceived());
+    }
+
+    @Test
+    public void testLogoutOnOwningNode() {
+        final var session = new MockHttpSession();
+        nodeA.addSessionById("ST-1", session);
+        nodeA.flush();
+
+        assertSame(session, nodeA.removeSessionByMappingId("ST-1"));
+        assertNull(nodeB.removeSessionByMappingId("ST-1"));
+        assertEquals(0, nodeB.getInvalidationsSent());
+    }
+
+    @Test
+    public void testBackgroundTasksAreCancelledOnDestroy() {
+        final var scheduler = AbstractDistributedSessionMappingStorage.getScheduler();
+        final var scheduled = scheduler.getScheduledTaskCount();
+        final var cleanUps = CleanUpScheduler.getDefault().getScheduledTaskCount();
+        nodeA.addSessionById("ST-1", new MockHttpSession());
+        assertEquals(scheduled + 2, scheduler.getScheduledTaskCount());
+        assertEquals(cleanUps, CleanUpScheduler.getDefault().getScheduledTaskCount());
+
+        nodeA.destroy();
+        assertEquals(scheduled, scheduler.getScheduledTaskCount());
+        assertEquals(1, nodeA.getWrites());
+    }
+
+    @Test
+    public void testNoBackgroundTasksAfterDestroy() {
+        final var scheduler = AbstractDistributedSessionMappingStorage.getScheduler();
+        final var scheduled = scheduler.getScheduledTaskCount();
+        nodeA.destroy();
+        nodeA.addSessionById("ST-1", new MockHttpSession());
+        assertEquals(scheduled, scheduler.getScheduledTaskCount());
+    }
+}
@@ -18,19 +18,36 @@
  */
 package org.apereo.cas.client.proxy;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.InetSocketAddress;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.Future;
-import net.spy.memcached.MemcachedClient;
+import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.util.MemcachedClients;
+
+import net.spy.memcached.CASResponse;
 import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.internal.OperationFuture;
+import net.spy.memcached.ops.StatusCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Implementation of the {@link ProxyGrantingTicketStorage} interface that is backed by
  * Memcache for distributed web applications.
+ * <p>
+ * By default a save waits for the server to acknowledge it, so that the ticket can be retrieved from any node once
+ * the proxy callback of the CAS server has returned.  If {@link #setWaitForSave(boolean) waiting is disabled}, saves
+ * are sent without waiting for the server, and a ticket is only guaranteed to be found on the node that saved it, as
+ * operations on the same key are sent over the same connection in order.  Either way, at most
+ * {@link #setMaxInFlightSaves(int)} saves are pending at a time; beyond that, saving waits up to the operation timeout
+ * for an earlier save to complete.
+ * <p>
+ * A ticket is claimed atomically on retrieval, by swapping its value for an empty one with a compare-and-swap, and
+ * then deleted, so that it can be retrieved only once.  Unclaimed tickets expire after {@link #setTimeToLive(long)}.
  *
  * @author Scott Battaglia
  * @version $Revision$ $Date$
@@ -39,59 +56,123 @@ import net.spy.memcached.MemcachedClientIF;
 public final class MemcachedBackedProxyGrantingTicketStorageImpl extends
         AbstractEncryptedProxyGrantingTicketStorageImpl {
 
+    /** Default time to live of an unclaimed ticket, in milliseconds. */
+    public static final long DEFAULT_TIME_TO_LIVE = 120_000L;
+
+    /** Default timeout of an operation on the memcached server, in milliseconds. */
+    public static final long DEFAULT_OPERATION_TIMEOUT = MemcachedClients.DEFAULT_OPERATION_TIMEOUT;
+
+    /** Default maximum number of saves waiting for the memcached server. */
+    public static final int DEFAULT_MAX_IN_FLIGHT_SAVES = 1_000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemcachedBackedProxyGrantingTicketStorageImpl.class);
+
     private final MemcachedClientIF client;
 
+    /** Whether the client was created by this storage, which then shuts it down on destroy. */
+    private final boolean ownsClient;
+
+    private final LongAdder successes = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+    private long operationTimeout = DEFAULT_OPERATION_TIMEOUT;
+
+    private int maxInFlightSaves = DEFAULT_MAX_IN_FLIGHT_SAVES;
+
+    private boolean waitForSave = true;
+
+    private Semaphore inFlightSaves = new Semaphore(DEFAULT_MAX_IN_FLIGHT_SAVES);
+
     /**
      * Default constructor reads from the /casclient_memcached_hosts.txt in the classpath.  Each line should be a host:port
      * combination of memcached servers.
      */
     public MemcachedBackedProxyGrantingTicketStorageImpl() {
-        this(getHostsFromClassPath());
+        this(MemcachedClients.getHostsFromClassPath());
     }
 
-    private static String[] getHostsFromClassPath() {
-        final var inputStream = MemcachedBackedProxyGrantingTicketStorageImpl.class
-                .getResourceAsStream("/cas/casclient_memcached_hosts.txt");
-        final var hosts = new ArrayList<String>();
-
-        String line;
-        try (final var reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            while ((line = reader.readLine()) != null) {
-                hosts.add(line);
-            }
-
-            return hosts.toArray(new String[hosts.size()]);
-        } catch (final IOException e) {
-            throw new RuntimeException(e);
-        }
-        // nothing to do
+    public MemcachedBackedProxyGrantingTicketStorageImpl(final String[] hostnamesAndPorts) {
+        this(MemcachedClients.newClient(hostnamesAndPorts), true);
+    }
 
-        // do nothing
+    /**
+     * @param client the memcached client, which may be shared with other components and is not shut down on destroy.
+     */
+    public MemcachedBackedProxyGrantingTicketStorageImpl(final MemcachedClientIF client) {
+        this(client, false);
     }
 
-    public MemcachedBackedProxyGrantingTicketStorageImpl(final String[] hostnamesAndPorts) {
-        final List<InetSocketAddress> addresses = new ArrayList<>();
+    private MemcachedBackedProxyGrantingTicketStorageImpl(final MemcachedClientIF client, final boolean ownsClient) {
+        CommonUtils.assertNotNull(client, "client cannot be null.");
+        this.client = client;
+        this.ownsClient = ownsClient;
+    }
 
-        for (final var hostname : hostnamesAndPorts) {
-            final var hostPort = hostname.split(":");
-            addresses.add(new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1])));
+    @Override
+    public void saveInternal(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
+        final var permits = this.inFlightSaves;
+        try {
+            if (!permits.tryAcquire(this.operationTimeout, TimeUnit.MILLISECONDS)) {
+                this.timeouts.increment();
+                LOGGER.warn("Too many saves waiting for memcached; dropping ticket for [{}]", proxyGrantingTicketIou);
+                return;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failures.increment();
+            return;
         }
 
+        final Future<Boolean> result;
         try {
-            this.client = new MemcachedClient(addresses);
-        } catch (final IOException e) {
-            throw new IllegalStateException(e);
+            result = this.client.add(proxyGrantingTicketIou, toExpiration(this.timeToLive), proxyGrantingTicket);
+        } catch (final RuntimeException e) {
+            permits.release();
+            this.failures.increment();
+            LOGGER.warn("Unable to save ticket for [{}]: {}", proxyGrantingTicketIou, e.getMessage(), e);
+            return;
         }
-    }
 
-    @Override
-    public void saveInternal(final String proxyGrantingTicketIou, final String proxyGrantingTicket) {
-        handleSynchronousRequest(this.client.add(proxyGrantingTicketIou, 120, proxyGrantingTicket));
+        if (!this.waitForSave && result instanceof OperationFuture) {
+            ((OperationFuture<Boolean>) result).addListener(future -> {
+                permits.release();
+                recordStatus(proxyGrantingTicketIou, future.getStatus().getStatusCode());
+            });
+        } else {
+            try {
+                awaitSave(proxyGrantingTicketIou, result);
+            } finally {
+                permits.release();
+            }
+        }
     }
 
     @Override
     public String retrieveInternal(final String proxyGrantingTicketIou) {
-        return (String) this.client.get(proxyGrantingTicketIou);
+        if (proxyGrantingTicketIou == null) {
+            return null;
+        }
+        try {
+            final var value = await(this.client.asyncGets(proxyGrantingTicketIou));
+            if (value == null || "".equals(value.getValue())) {
+                return null;
+            }
+            // only the caller that swaps the value for an empty one gets the ticket
+            if (await(this.client.asyncCAS(proxyGrantingTicketIou, value.getCas(), toExpiration(this.timeToLive), "")) != CASResponse.OK) {
+                LOGGER.debug("Ticket for [{}] was claimed concurrently", proxyGrantingTicketIou);
+                return null;
+            }
+            this.client.delete(proxyGrantingTicketIou);
+            return (String) value.getValue();
+        } catch (final RuntimeException e) {
+            LOGGER.warn("Unable to retrieve ticket for [{}]: {}", proxyGrantingTicketIou, e.getMessage());
+            return null;
+        }
     }
 
     @Override
@@ -99,11 +180,146 @@ public final class MemcachedBackedProxyGrantingTicketStorageImpl extends
         // we actually don't have anything to do here, yay!
     }
 
-    private static void handleSynchronousRequest(final Future<?> f) {
+    /**
+     * Shuts down the memcached client created by this storage, if any.
+     */
+    public void destroy() {
+        if (this.ownsClient) {
+            this.client.shutdown();
+        }
+    }
+
+    /**
+     * @param timeToLive time after which an unclaimed ticket expires, in milliseconds.
+     */
+    public void setTimeToLive(final long timeToLive) {
+        CommonUtils.assertTrue(timeToLive >= 1000, "timeToLive must be at least one second.");
+        this.timeToLive = timeToLive;
+    }
+
+    public long getTimeToLive() {
+        return this.timeToLive;
+    }
+
+    /**
+     * @param operationTimeout time to wait for the memcached server to answer, in milliseconds.
+     */
+    public void setOperationTimeout(final long operationTimeout) {
+        CommonUtils.assertTrue(operationTimeout > 0, "operationTimeout must be greater than zero.");
+        this.operationTimeout = operationTimeout;
+    }
+
+    public long getOperationTimeout() {
+        return this.operationTimeout;
+    }
+
+    /**
+     * @param maxInFlightSaves maximum number of saves waiting for the memcached server.
+     */
+    public void setMaxInFlightSaves(final int maxInFlightSaves) {
+        CommonUtils.assertTrue(maxInFlightSaves > 0, "maxInFlightSaves must be greater than zero.");
+        this.maxInFlightSaves = maxInFlightSaves;
+        this.inFlightSaves = new Semaphore(maxInFlightSaves);
+    }
+
+    public int getMaxInFlightSaves() {
+        return this.maxInFlightSaves;
+    }
+
+    /**
+     * @param waitForSave whether saving waits for the memcached server to store the ticket, so that it can be
+     * retrieved from any node once the proxy callback returns.  Defaults to true.
+     */
+    public void setWaitForSave(final boolean waitForSave) {
+        this.waitForSave = waitForSave;
+    }
+
+    public boolean isWaitForSave() {
+        return this.waitForSave;
+    }
+
+    /**
+     * @return the number of saves waiting for the memcached server.
+     */
+    public int getInFlightSaves() {
+        return this.maxInFlightSaves - this.inFlightSaves.availablePermits();
+    }
+
+    /**
+     * @return the number of operations answered by the memcached server.
+     */
+    public long getSuccesses() {
+        return this.successes.sum();
+    }
+
+    /**
+     * @return the number of operations that failed, including saves of a ticket that was already saved.
+     */
+    public long getFailures() {
+        return this.failures.sum();
+    }
+
+    /**
+     * @return the number of operations that timed out.
+     */
+    public long getTimeouts() {
+        return this.timeouts.sum();
+    }
+
+    private void recordStatus(final String proxyGrantingTicketIou, final StatusCode statusCode) {
+        if (statusCode == StatusCode.SUCCESS) {
+            this.successes.increment();
+        } else if (statusCode == StatusCode.TIMEDOUT) {
+            this.timeouts.increment();
+            LOGGER.warn("Saving ticket for [{}] timed out", proxyGrantingTicketIou);
+        } else {
+            this.failures.increment();
+            LOGGER.warn("Unable to save ticket for [{}]: {}", proxyGrantingTicketIou, statusCode);
+        }
+    }
+
+    private void awaitSave(final String proxyGrantingTicketIou, final Future<Boolean> future) {
+        try {
+            if (Boolean.TRUE.equals(future.get(this.operationTimeout, TimeUnit.MILLISECONDS))) {
+                this.successes.increment();
+            } else {
+                this.failures.increment();
+                LOGGER.warn("Unable to save ticket for [{}]: already saved", proxyGrantingTicketIou);
+            }
+        } catch (final TimeoutException e) {
+            future.cancel(false);
+            this.timeouts.increment();
+            LOGGER.warn("Saving ticket for [{}] timed out", proxyGrantingTicketIou);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failures.increment();
+        } catch (final ExecutionException | RuntimeException e) {
+            this.failures.increment();
+            LOGGER.warn("Unable to save ticket for [{}]: {}", proxyGrantingTicketIou, e.getMessage());
+        }
+    }
+
+    private <T> T await(final Future<T> future) {
         try {
-            f.get();
-        } catch (final Exception e) {
-            // ignore these.
+            final var result = future.get(this.operationTimeout, TimeUnit.MILLISECONDS);
+            this.successes.increment();
+            return result;
+        } catch (final TimeoutException e) {
+            future.cancel(false);
+            this.timeouts.increment();
+            throw new IllegalStateException("Memcached operation timed out", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failures.increment();
+            throw new IllegalStateException(e);
+        } catch (final ExecutionException | RuntimeException e) {
+            this.failures.increment();
+            throw new IllegalStateException(e);
         }
     }
+
+    private static int toExpiration(final long timeToLive) {
+        // memcached treats expirations above 30 days as absolute timestamps
+        return (int) Math.min(TimeUnit.MILLISECONDS.toSeconds(timeToLive), TimeUnit.DAYS.toSeconds(30));
+    }
 }
@@ -0,0 +1,203 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.MemcachedClients;
+
+import net.spy.memcached.CASResponse;
+import net.spy.memcached.CachedData;
+import net.spy.memcached.MemcachedClientIF;
+import net.spy.memcached.transcoders.Transcoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link AbstractDistributedSessionMappingStorage} backed by memcached.
+ * <p>
+ * Mappings are stored under their service ticket.  Invalidations for a node are appended, newline separated, to a
+ * single key per node, which the node takes atomically with a compare-and-swap.  That key is written as raw UTF-8
+ * text, never compressed, since appending to a value compressed by the default transcoder would corrupt it.
+ *
+ * @since 4.0.4
+ */
+public final class MemcachedBackedSessionMappingStorage extends AbstractDistributedSessionMappingStorage {
+
+    private static final String MAPPING_PREFIX = "cas-client:session:";
+
+    private static final String INVALIDATIONS_PREFIX = "cas-client:invalidations:";
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final long OPERATION_TIMEOUT = 5000L;
+
+    private static final Transcoder<String> INVALIDATIONS_TRANSCODER = new InvalidationsTranscoder();
+
+    private final MemcachedClientIF client;
+
+    /** Whether the client was created by this storage, which then shuts it down on destroy. */
+    private final boolean ownsClient;
+
+    /**
+     * Reads the memcached servers from /cas/casclient_memcached_hosts.txt in the classpath.  Each line should be a
+     * host:port combination of memcached servers.
+     */
+    public MemcachedBackedSessionMappingStorage() {
+        this(MemcachedClients.getHostsFromClassPath());
+    }
+
+    public MemcachedBackedSessionMappingStorage(final String[] hostnamesAndPorts) {
+        this(MemcachedClients.newClient(hostnamesAndPorts), true);
+    }
+
+    /**
+     * @param client the memcached client, which may be shared with other components and is not shut down on destroy.
+     */
+    public MemcachedBackedSessionMappingStorage(final MemcachedClientIF client) {
+        this(client, false);
+    }
+
+    private MemcachedBackedSessionMappingStorage(final MemcachedClientIF client, final boolean ownsClient) {
+        this.client = client;
+        this.ownsClient = ownsClient;
+    }
+
+    @Override
+    protected void storeMappings(final Map<String, String> mappings, final long timeToLive) {
+        final var expiration = toExpiration(timeToLive);
+        final List<Future<Boolean>> results = new ArrayList<>(mappings.size());
+        // operations are pipelined by the client, so the batch costs about one round trip
+        for (final var entry : mappings.entrySet()) {
+            results.add(this.client.set(MAPPING_PREFIX + entry.getKey(), expiration, entry.getValue()));
+        }
+        for (final var result : results) {
+            await(result);
+        }
+    }
+
+    @Override
+    protected String retrieveMapping(final String mappingId) {
+        return (String) this.client.get(MAPPING_PREFIX + mappingId);
+    }
+
+    @Override
+    protected void removeMapping(final String mappingId) {
+        await(this.client.delete(MAPPING_PREFIX + mappingId));
+    }
+
+    @Override
+    protected void publishInvalidation(final String nodeId, final String mappingId) {
+        final var key = INVALIDATIONS_PREFIX + nodeId;
+        final var value = mappingId + '\n';
+        for (var attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (Boolean.TRUE.equals(await(this.client.append(key, value, INVALIDATIONS_TRANSCODER)))
+                || Boolean.TRUE.equals(await(this.client.add(key, toExpiration(getTimeToLive()), value,
+                INVALIDATIONS_TRANSCODER)))) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Unable to publish invalidation to node " + nodeId);
+    }
+
+    @Override
+    protected Collection<String> takeInvalidations(final String nodeId) {
+        final var key = INVALIDATIONS_PREFIX + nodeId;
+        for (var attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            final var value = this.client.gets(key, INVALIDATIONS_TRANSCODER);
+            if (value == null || value.getValue().isEmpty()) {
+                return Collections.emptyList();
+            }
+            // the key is emptied rather than deleted, as the text protocol has no compare-and-delete
+            if (this.client.cas(key, value.getCas(), toExpiration(getTimeToLive()), "", INVALIDATIONS_TRANSCODER)
+                == CASResponse.OK) {
+                return parseInvalidations(value.getValue());
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (this.ownsClient) {
+            this.client.shutdown();
+        }
+    }
+
+    private static Collection<String> parseInvalidations(final String value) {
+        final List<String> mappingIds = new ArrayList<>();
+        for (final var mappingId : value.split("\n")) {
+            if (!mappingId.isEmpty()) {
+                mappingIds.add(mappingId);
+            }
+        }
+        return mappingIds;
+    }
+
+    private static int toExpiration(final long timeToLive) {
+        // memcached treats expirations above 30 days as absolute timestamps
+        return (int) Math.min(TimeUnit.MILLISECONDS.toSeconds(timeToLive), TimeUnit.DAYS.toSeconds(30));
+    }
+
+    private static <T> T await(final Future<T> future) {
+        try {
+            return future.get(OPERATION_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (final ExecutionException | TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads and writes the invalidations of a node as plain UTF-8 text, without the flags or compression of the
+     * default transcoder, so that appended values are simply concatenated.
+     */
+    private static final class InvalidationsTranscoder implements Transcoder<String> {
+
+        @Override
+        public boolean asyncDecode(final CachedData data) {
+            return false;
+        }
+
+        @Override
+        public CachedData encode(final String value) {
+            return new CachedData(0, value.getBytes(StandardCharsets.UTF_8), getMaxSize());
+        }
+
+        @Override
+        public String decode(final CachedData data) {
+            return new String(data.getData(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int getMaxSize() {
+            return CachedData.MAX_SIZE;
+        }
+    }
+}
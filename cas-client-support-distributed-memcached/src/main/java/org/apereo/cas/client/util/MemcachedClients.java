@@ -0,0 +1,84 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.util;
+
+import net.spy.memcached.ConnectionFactoryBuilder;
+import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.MemcachedClientIF;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the memcached clients of the memcached backed storages from a list of servers.
+ *
+ * @since 4.0.4
+ */
+public final class MemcachedClients {
+
+    /** Default timeout of an operation on the memcached server, in milliseconds. */
+    public static final long DEFAULT_OPERATION_TIMEOUT = 2_500L;
+
+    private static final String HOSTS_RESOURCE = "/cas/casclient_memcached_hosts.txt";
+
+    private MemcachedClients() {
+        // static utility methods only
+    }
+
+    /**
+     * @param hostnamesAndPorts the memcached servers, as host:port combinations.
+     * @return a new client connected to the servers, to be shut down by the caller.
+     */
+    public static MemcachedClientIF newClient(final String[] hostnamesAndPorts) {
+        CommonUtils.assertNotNull(hostnamesAndPorts, "hostnamesAndPorts cannot be null.");
+        final List<InetSocketAddress> addresses = new ArrayList<>();
+
+        for (final var hostname : hostnamesAndPorts) {
+            final var hostPort = hostname.split(":");
+            addresses.add(new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1])));
+        }
+
+        try {
+            return new MemcachedClient(new ConnectionFactoryBuilder().setOpTimeout(DEFAULT_OPERATION_TIMEOUT).build(), addresses);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads the memcached servers from /cas/casclient_memcached_hosts.txt in the classpath.  Each line should be a
+     * host:port combination of memcached servers.
+     *
+     * @return the memcached servers.
+     */
+    public static String[] getHostsFromClassPath() {
+        final var inputStream = MemcachedClients.class.getResourceAsStream(HOSTS_RESOURCE);
+        CommonUtils.assertNotNull(inputStream, HOSTS_RESOURCE + " not found in the classpath.");
+        try (final var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            return reader.lines().filter(line -> !line.isBlank()).toArray(String[]::new);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
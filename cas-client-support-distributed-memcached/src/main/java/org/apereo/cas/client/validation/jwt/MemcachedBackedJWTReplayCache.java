@@ -0,0 +1,186 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+import org.apereo.cas.client.util.CommonUtils;
+import org.apereo.cas.client.util.MemcachedClients;
+
+import net.spy.memcached.MemcachedClientIF;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link JWTReplayCache} backed by Memcache, so that a JWT service ticket validated by one node of a cluster is
+ * rejected by all of them.
+ * <p>
+ * An identifier is recorded with a single atomic <code>add</code>, which fails if the identifier is already present,
+ * and memcached forgets it when the ticket expires.  If the memcached server cannot be reached in time, the ticket is
+ * treated as a replay: a ticket is never accepted without its use being recorded.
+ *
+ * @since 4.0.4
+ */
+public final class MemcachedBackedJWTReplayCache implements JWTReplayCache {
+
+    /** Default timeout of an operation on the memcached server, in milliseconds. */
+    public static final long DEFAULT_OPERATION_TIMEOUT = MemcachedClients.DEFAULT_OPERATION_TIMEOUT;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MemcachedBackedJWTReplayCache.class);
+
+    private static final String KEY_PREFIX = "cas-jti:";
+
+    private static final int MAX_KEY_LENGTH = 250;
+
+    private final MemcachedClientIF client;
+
+    /** Whether the client was created by this cache, which then shuts it down on destroy. */
+    private final boolean ownsClient;
+
+    private final LongAdder replays = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private long operationTimeout = DEFAULT_OPERATION_TIMEOUT;
+
+    /**
+     * Default constructor reads from the /casclient_memcached_hosts.txt in the classpath.  Each line should be a host:port
+     * combination of memcached servers.
+     */
+    public MemcachedBackedJWTReplayCache() {
+        this(MemcachedClients.getHostsFromClassPath());
+    }
+
+    public MemcachedBackedJWTReplayCache(final String[] hostnamesAndPorts) {
+        this(MemcachedClients.newClient(hostnamesAndPorts), true);
+    }
+
+    /**
+     * @param client the memcached client, which may be shared with other components and is not shut down on destroy.
+     */
+    public MemcachedBackedJWTReplayCache(final MemcachedClientIF client) {
+        this(client, false);
+    }
+
+    private MemcachedBackedJWTReplayCache(final MemcachedClientIF client, final boolean ownsClient) {
+        CommonUtils.assertNotNull(client, "client cannot be null.");
+        this.client = client;
+        this.ownsClient = ownsClient;
+    }
+
+    @Override
+    public boolean putIfAbsent(final String tokenId, final long expirationTime) {
+        final var key = toKey(tokenId);
+        final var future = this.client.add(key, toExpiration(expirationTime), "1");
+        try {
+            if (future.get(this.operationTimeout, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            this.replays.increment();
+            return false;
+        } catch (final TimeoutException e) {
+            future.cancel(false);
+            this.timeouts.increment();
+            LOGGER.warn("Recording JWT [{}] timed out", tokenId);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failures.increment();
+        } catch (final ExecutionException | RuntimeException e) {
+            this.failures.increment();
+            LOGGER.warn("Unable to record JWT [{}]: {}", tokenId, e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public void cleanUp() {
+        // memcached expires the identifiers itself
+    }
+
+    /**
+     * Shuts down the memcached client created by this cache, if any.
+     */
+    @Override
+    public void destroy() {
+        if (this.ownsClient) {
+            this.client.shutdown();
+        }
+    }
+
+    /**
+     * @param operationTimeout time to wait for the memcached server to answer, in milliseconds.
+     */
+    public void setOperationTimeout(final long operationTimeout) {
+        CommonUtils.assertTrue(operationTimeout > 0, "operationTimeout must be greater than zero.");
+        this.operationTimeout = operationTimeout;
+    }
+
+    public long getOperationTimeout() {
+        return this.operationTimeout;
+    }
+
+    /**
+     * @return the number of replayed tickets detected.
+     */
+    public long getReplays() {
+        return this.replays.sum();
+    }
+
+    /**
+     * @return the number of tickets whose use could not be recorded.
+     */
+    public long getFailures() {
+        return this.failures.sum();
+    }
+
+    /**
+     * @return the number of operations that timed out.
+     */
+    public long getTimeouts() {
+        return this.timeouts.sum();
+    }
+
+    private static String toKey(final String tokenId) {
+        if (KEY_PREFIX.length() + tokenId.length() <= MAX_KEY_LENGTH && tokenId.chars().allMatch(c -> c > ' ' && c < 127)) {
+            return KEY_PREFIX + tokenId;
+        }
+        // memcached keys are limited to 250 printable characters
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256").digest(tokenId.getBytes(StandardCharsets.UTF_8));
+            return KEY_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int toExpiration(final long expirationTime) {
+        final var seconds = TimeUnit.MILLISECONDS.toSeconds(expirationTime - System.currentTimeMillis()) + 1;
+        // memcached treats expirations above 30 days as absolute timestamps
+        return (int) Math.max(1, Math.min(seconds, TimeUnit.DAYS.toSeconds(30)));
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.proxy;
+
+import org.apereo.cas.client.session.InProcessMemcachedServer;
+import org.apereo.cas.client.util.MemcachedClients;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link MemcachedBackedProxyGrantingTicketStorageImpl}, against an in-process memcached stand-in.
+ *
+ * @since 4.0.4
+ */
+public final class MemcachedBackedProxyGrantingTicketStorageImplTests {
+
+    private InProcessMemcachedServer server;
+
+    private MemcachedBackedProxyGrantingTicketStorageImpl storage;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new InProcessMemcachedServer();
+        storage = new MemcachedBackedProxyGrantingTicketStorageImpl(new String[]{server.getAddress()});
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        storage.destroy();
+        server.close();
+    }
+
+    @Test
+    public void testTicketIsRetrievedOnlyOnce() throws Exception {
+        storage.save("PGTIOU-1", "PGT-1");
+        assertEquals("PGT-1", storage.retrieve("PGTIOU-1"));
+        assertNull(storage.retrieve("PGTIOU-1"));
+        assertNull(storage.retrieve("PGTIOU-2"));
+
+        awaitSaves(storage);
+        assertEquals(0, storage.getFailures());
+        assertEquals(0, storage.getTimeouts());
+        assertTrue(storage.getSuccesses() > 0);
+    }
+
+    @Test
+    public void testSaveIsVisibleToOtherNodesOnReturn() {
+        final var otherNode = new MemcachedBackedProxyGrantingTicketStorageImpl(new String[]{server.getAddress()});
+        try {
+            storage.save("PGTIOU-1", "PGT-1");
+            assertEquals(0, storage.getInFlightSaves());
+            assertEquals(1, storage.getSuccesses());
+            assertEquals("PGT-1", otherNode.retrieve("PGTIOU-1"));
+        } finally {
+            otherNode.destroy();
+        }
+    }
+
+    @Test
+    public void testSavesArePipelined() throws Exception {
+        storage.setWaitForSave(false);
+        storage.setMaxInFlightSaves(8);
+        for (var i = 0; i < 100; i++) {
+            storage.save("PGTIOU-" + i, "PGT-" + i);
+        }
+        for (var i = 0; i < 100; i++) {
+            assertEquals("PGT-" + i, storage.retrieve("PGTIOU-" + i));
+        }
+        awaitSaves(storage);
+        assertEquals(0, storage.getFailures());
+    }
+
+    @Test
+    public void testDuplicateSaveIsCountedAsFailure() throws Exception {
+        storage.save("PGTIOU-1", "PGT-1");
+        storage.save("PGTIOU-1", "PGT-2");
+        awaitSaves(storage);
+        assertEquals(1, storage.getFailures());
+        assertEquals("PGT-1", storage.retrieve("PGTIOU-1"));
+    }
+
+    @Test
+    public void testRetrieveTimesOutOnUnresponsiveServer() throws Exception {
+        try (var unresponsive = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            final var slowStorage = new MemcachedBackedProxyGrantingTicketStorageImpl(
+                new String[]{"127.0.0.1:" + unresponsive.getLocalPort()});
+            slowStorage.setOperationTimeout(200);
+            try {
+                assertNull(slowStorage.retrieve("PGTIOU-1"));
+                assertEquals(1, slowStorage.getTimeouts());
+            } finally {
+                slowStorage.destroy();
+            }
+        }
+    }
+
+    @Test
+    public void testSharedClientIsNotShutDown() throws Exception {
+        final var client = MemcachedClients.newClient(new String[]{server.getAddress()});
+        try {
+            final var sharedStorage = new MemcachedBackedProxyGrantingTicketStorageImpl(client);
+            sharedStorage.save("PGTIOU-1", "PGT-1");
+            sharedStorage.destroy();
+
+            assertTrue(client.set("key", 60, "value").get());
+            assertEquals("value", client.get("key"));
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    private static void awaitSaves(final MemcachedBackedProxyGrantingTicketStorageImpl storage) throws InterruptedException {
+        final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (storage.getInFlightSaves() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, storage.getInFlightSaves());
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal in-process stand-in for a memcached server, speaking the subset of the text protocol used by the
+ * client: <code>get</code>, <code>gets</code>, <code>set</code>, <code>add</code>, <code>append</code>,
+ * <code>cas</code> and <code>delete</code>.  Expiration times are ignored.
+ *
+ * @since 4.0.4
+ */
+public final class InProcessMemcachedServer implements Closeable {
+
+    private final Map<String, Item> items = new HashMap<>();
+
+    private final ServerSocket serverSocket;
+
+    private long casCounter;
+
+    public InProcessMemcachedServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        final var acceptor = new Thread(this::accept, "in-process-memcached");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public String getAddress() {
+        return "127.0.0.1:" + this.serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.serverSocket.close();
+    }
+
+    private void accept() {
+        while (!this.serverSocket.isClosed()) {
+            try {
+                final var socket = this.serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                final var handler = new Thread(() -> serve(socket), "in-process-memcached-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (final IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(final Socket socket) {
+        try (socket; final var in = socket.getInputStream(); final var out = socket.getOutputStream()) {
+            for (var line = readLine(in); line != null; line = readLine(in)) {
+                final var tokens = line.split(" ");
+                final String response;
+                switch (tokens[0]) {
+                    case "get", "gets" -> response = get(tokens, "gets".equals(tokens[0]));
+                    case "set", "add", "append", "cas" -> response = store(tokens, readData(in, Integer.parseInt(tokens[4])));
+                    case "delete" -> response = delete(tokens[1]);
+                    case "version" -> response = "VERSION 1.6.0\r\n";
+                    default -> response = "ERROR\r\n";
+                }
+                write(out, response);
+            }
+        } catch (final IOException e) {
+            // connection closed
+        }
+    }
+
+    private synchronized String get(final String[] tokens, final boolean withCas) {
+        final var response = new StringBuilder();
+        for (var i = 1; i < tokens.length; i++) {
+            final var item = this.items.get(tokens[i]);
+            if (item != null) {
+                response.append("VALUE ").append(tokens[i]).append(' ').append(item.flags).append(' ').append(item.data.length);
+                if (withCas) {
+                    response.append(' ').append(item.cas);
+                }
+                response.append("\r\n").append(new String(item.data, StandardCharsets.ISO_8859_1)).append("\r\n");
+            }
+        }
+        return response.append("END\r\n").toString();
+    }
+
+    private synchronized String store(final String[] tokens, final byte[] data) {
+        final var command = tokens[0];
+        final var key = tokens[1];
+        final var flags = Integer.parseInt(tokens[2]);
+        final var existing = this.items.get(key);
+        switch (command) {
+            case "add" -> {
+                if (existing != null) {
+                    return "NOT_STORED\r\n";
+                }
+            }
+            case "append" -> {
+                if (existing == null) {
+                    return "NOT_STORED\r\n";
+                }
+                final var combined = new byte[existing.data.length + data.length];
+                System.arraycopy(existing.data, 0, combined, 0, existing.data.length);
+                System.arraycopy(data, 0, combined, existing.data.length, data.length);
+                this.items.put(key, new Item(existing.flags, combined, ++this.casCounter));
+                return "STORED\r\n";
+            }
+            case "cas" -> {
+                if (existing == null) {
+                    return "NOT_FOUND\r\n";
+                }
+                if (existing.cas != Long.parseLong(tokens[5])) {
+                    return "EXISTS\r\n";
+                }
+            }
+            default -> {
+                // set
+            }
+        }
+        this.items.put(key, new Item(flags, data, ++this.casCounter));
+        return "STORED\r\n";
+    }
+
+    private synchronized String delete(final String key) {
+        return this.items.remove(key) != null ? "DELETED\r\n" : "NOT_FOUND\r\n";
+    }
+
+    private static byte[] readData(final InputStream in, final int length) throws IOException {
+        final var data = in.readNBytes(length);
+        in.readNBytes(2);
+        return data;
+    }
+
+    private static String readLine(final InputStream in) throws IOException {
+        final var line = new ByteArrayOutputStream();
+        for (var b = in.read(); b >= 0; b = in.read()) {
+            if (b == '\n') {
+                final var bytes = line.toByteArray();
+                return new String(bytes, 0, bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length,
+                    StandardCharsets.ISO_8859_1);
+            }
+            line.write(b);
+        }
+        return null;
+    }
+
+    private static void write(final OutputStream out, final String response) throws IOException {
+        out.write(response.getBytes(StandardCharsets.ISO_8859_1));
+        out.flush();
+    }
+
+    private static final class Item {
+
+        private final int flags;
+
+        private final byte[] data;
+
+        private final long cas;
+
+        private Item(final int flags, final byte[] data, final long cas) {
+            this.flags = flags;
+            this.data = data;
+            this.cas = cas;
+        }
+    }
+}
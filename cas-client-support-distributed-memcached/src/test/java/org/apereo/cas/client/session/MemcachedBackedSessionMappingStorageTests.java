@@ -0,0 +1,171 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.session;
+
+import org.apereo.cas.client.util.MemcachedClients;
+
+import net.spy.memcached.AddrUtil;
+import net.spy.memcached.ConnectionFactoryBuilder;
+import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.transcoders.SerializingTranscoder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpSession;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link MemcachedBackedSessionMappingStorage}, against an in-process memcached stand-in.
+ *
+ * @since 4.0.4
+ */
+public final class MemcachedBackedSessionMappingStorageTests {
+
+    private InProcessMemcachedServer server;
+
+    private MemcachedBackedSessionMappingStorage nodeA;
+
+    private MemcachedBackedSessionMappingStorage nodeB;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new InProcessMemcachedServer();
+        nodeA = new MemcachedBackedSessionMappingStorage(new String[]{server.getAddress()});
+        nodeA.setNodeId("node-a");
+        nodeB = new MemcachedBackedSessionMappingStorage(new String[]{server.getAddress()});
+        nodeB.setNodeId("node-b");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        nodeA.destroy();
+        nodeB.destroy();
+        server.close();
+    }
+
+    @Test
+    public void testLogoutOnOwningNode() {
+        final var session = new MockHttpSession();
+        nodeA.addSessionById("ST-1", session);
+        nodeA.flush();
+        assertEquals(1, nodeA.getWrites());
+
+        assertSame(session, nodeA.removeSessionByMappingId("ST-1"));
+        assertNull(nodeB.removeSessionByMappingId("ST-1"));
+        assertEquals(0, nodeB.getInvalidationsSent());
+    }
+
+    @Test
+    public void testLogoutIsForwardedToOwningNode() {
+        final var session = new MockHttpSession();
+        nodeA.addSessionById("ST-1", session);
+        nodeA.flush();
+
+        assertNull(nodeB.removeSessionByMappingId("ST-1"));
+        assertEquals(1, nodeB.getInvalidationsSent());
+        assertFalse(session.isInvalid());
+
+        nodeA.pollInvalidations();
+        assertTrue(session.isInvalid());
+        assertEquals(1, nodeA.getInvalidationsReceived());
+
+        nodeA.pollInvalidations();
+        assertEquals(1, nodeA.getInvalidationsReceived());
+    }
+
+    @Test
+    public void testInvalidationsAreBatchedPerNode() {
+        final var first = new MockHttpSession();
+        final var second = new MockHttpSession();
+        nodeA.addSessionById("ST-1", first);
+        nodeA.addSessionById("ST-2", second);
+        nodeA.flush();
+
+        nodeB.removeSessionByMappingId("ST-1");
+        nodeB.removeSessionByMappingId("ST-2");
+        nodeA.pollInvalidations();
+
+        assertTrue(first.isInvalid());
+        assertTrue(second.isInvalid());
+    }
+
+    @Test
+    public void testInvalidationsAreNotCompressed() throws Exception {
+        // a client compressing every value that shrinks, as the default transcoder does for values above 16 KB
+        final var compressibleMappingId = "ST-" + "2".repeat(200);
+        final var transcoder = new SerializingTranscoder();
+        transcoder.setCompressionThreshold(1);
+        final var client = new MemcachedClient(new ConnectionFactoryBuilder().setTranscoder(transcoder).build(),
+            AddrUtil.getAddresses(server.getAddress()));
+        try {
+            final var compressingNode = new MemcachedBackedSessionMappingStorage(client);
+            compressingNode.setNodeId("node-c");
+            final var first = new MockHttpSession();
+            final var second = new MockHttpSession();
+            nodeA.addSessionById("ST-1", first);
+            nodeA.addSessionById(compressibleMappingId, second);
+            nodeA.flush();
+
+            // appended to an invalidation written without compression
+            nodeB.removeSessionByMappingId("ST-1");
+            compressingNode.removeSessionByMappingId(compressibleMappingId);
+            assertEquals(1, compressingNode.getInvalidationsSent());
+            nodeA.pollInvalidations();
+
+            assertTrue(first.isInvalid());
+            assertTrue(second.isInvalid());
+            compressingNode.destroy();
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void testBackgroundFlushAndPoll() throws Exception {
+        nodeA.setFlushInterval(10);
+        nodeA.setPollInterval(10);
+        final var session = new MockHttpSession();
+        nodeA.addSessionById("ST-1", session);
+
+        for (var i = 0; i < 200 && nodeA.getWrites() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertNull(nodeB.removeSessionByMappingId("ST-1"));
+        for (var i = 0; i < 200 && !session.isInvalid(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(session.isInvalid());
+    }
+
+    @Test
+    public void testSharedClientIsNotShutDown() throws Exception {
+        final var client = MemcachedClients.newClient(new String[]{server.getAddress()});
+        try {
+            final var storage = new MemcachedBackedSessionMappingStorage(client);
+            storage.addSessionById("ST-1", new MockHttpSession());
+            storage.destroy();
+
+            assertTrue(client.set("key", 60, "value").get());
+            assertEquals("value", client.get("key"));
+        } finally {
+            client.shutdown();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Licensed to Apereo under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work
+ * for additional information regarding copyright ownership.
+ * Apereo licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License.  You may obtain a
+ * copy of the License at the following location:
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apereo.cas.client.validation.jwt;
+
+import org.apereo.cas.client.session.InProcessMemcachedServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the {@link MemcachedBackedJWTReplayCache}, against an in-process memcached stand-in.
+ *
+ * @since 4.0.4
+ */
+public final class MemcachedBackedJWTReplayCacheTests {
+
+    private InProcessMemcachedServer server;
+
+    private MemcachedBackedJWTReplayCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new InProcessMemcachedServer();
+        cache = new MemcachedBackedJWTReplayCache(new String[]{server.getAddress()});
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cache.destroy();
+        server.close();
+    }
+
+    @Test
+    public void testTokenIdIsAcceptedOnlyOnce() {
+        final var expirationTime = System.currentTimeMillis() + 60_000;
+        assertTrue(cache.putIfAbsent("jti-1", expirationTime));
+        assertFalse(cache.putIfAbsent("jti-1", expirationTime));
+        assertTrue(cache.putIfAbsent("jti-2", expirationTime));
+        assertEquals(1, cache.getReplays());
+        assertEquals(0, cache.getFailures());
+    }
+
+    @Test
+    public void testLongTokenIdsAreHashed() {
+        final var tokenId = "jti with spaces " + "x".repeat(300);
+        final var expirationTime = System.currentTimeMillis() + 60_000;
+        assertTrue(cache.putIfAbsent(tokenId, expirationTime));
+        assertFalse(cache.putIfAbsent(tokenId, expirationTime));
+        assertTrue(cache.putIfAbsent(tokenId + "y", expirationTime));
+        assertEquals(0, cache.getFailures());
+    }
+
+    @Test
+    public void testConcurrentReplaysAreAcceptedOnce() throws Exception {
+        final var expirationTime = System.currentTimeMillis() + 60_000;
+        final var executor = Executors.newFixedThreadPool(8);
+        try {
+            final var tasks = new ArrayList<Callable<Boolean>>();
+            for (var i = 0; i < 32; i++) {
+                tasks.add(() -> cache.putIfAbsent("jti-concurrent", expirationTime));
+            }
+            var accepted = 0;
+            for (final var result : executor.invokeAll(tasks)) {
+                if (result.get()) {
+                    accepted++;
+                }
+            }
+            assertEquals(1, accepted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testUnresponsiveServerRejectsToken() throws Exception {
+        try (var unresponsive = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            final var slowCache = new MemcachedBackedJWTReplayCache(new String[]{"127.0.0.1:" + unresponsive.getLocalPort()});
+            slowCache.setOperationTimeout(200);
+            try {
+                assertFalse(slowCache.putIfAbsent("jti-1", System.currentTimeMillis() + 60_000));
+                assertEquals(1, slowCache.getTimeouts());
+            } finally {
+                slowCache.destroy();
+            }
+        }
+    }
+}
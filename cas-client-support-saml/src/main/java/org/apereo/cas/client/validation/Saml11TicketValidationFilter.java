@@ -19,7 +19,6 @@
 package org.apereo.cas.client.validation;
 
 import org.apereo.cas.client.Protocol;
-import org.apereo.cas.client.ssl.HttpURLConnectionFactory;
 
 import jakarta.servlet.FilterConfig;
 
@@ -50,8 +49,9 @@ public class Saml11TicketValidationFilter extends AbstractTicketValidationFilter
         validator.setTolerance(tolerance);
         validator.setRenew(getBoolean(ConfigurationKeys.RENEW));
 
-        final HttpURLConnectionFactory factory = new HttpsURLConnectionFactory(getHostnameVerifier(), getSSLConfig());
+        final var factory = new HttpsURLConnectionFactory(getHostnameVerifier(), getSSLConfig());
         validator.setURLConnectionFactory(factory);
+        validator.setHttpClientTransport(getHttpClientTransport(factory));
 
         validator.setEncoding(getString(ConfigurationKeys.ENCODING));
         return validator;
@@ -45,6 +45,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * TicketValidator that can understand validating a SAML artifact.  This includes the SOAP request/response.
@@ -89,6 +90,10 @@ public final class Saml11TicketValidator extends AbstractUrlBasedTicketValidator
 
     private static final String HEX_CHARS = "0123456789abcdef";
 
+    private static final Map<String, String> SAML_REQUEST_HEADERS = Map.of(
+        "Content-Type", "text/xml",
+        "SOAPAction", "http://www.oasis-open.org/committees/security");
+
     /** Time tolerance to allow for time drifting. */
     private long tolerance = 1000L;
 
@@ -200,13 +205,27 @@ public final class Saml11TicketValidator extends AbstractUrlBasedTicketValidator
         return false;
     }
 
+    @Override
+    protected CompletableFuture<String> retrieveResponseFromServerAsync(final URL validationUrl, final String ticket) {
+        if (getHttpClientTransport() == null) {
+            return super.retrieveResponseFromServerAsync(validationUrl, ticket);
+        }
+        final var charset = getCharset();
+        return callServerAsync(() -> getHttpClientTransport().postAsync(validationUrl, SAML_REQUEST_HEADERS,
+            buildSamlRequest(ticket).getBytes(charset), charset));
+    }
+
     @Override
     protected String retrieveResponseFromServer(final URL validationUrl, final String ticket) {
-        final var request = String.format(
-                SAML_REQUEST_TEMPLATE,
-                generateId(),
-                SamlUtils.formatForUtcTime(new Date()),
-                ticket);
+        final var request = buildSamlRequest(ticket);
+        final var charset = getCharset();
+        if (getHttpClientTransport() != null) {
+            try {
+                return getHttpClientTransport().post(validationUrl, SAML_REQUEST_HEADERS, request.getBytes(charset), charset);
+            } catch (final IOException e) {
+                throw new RuntimeException("IO error sending HTTP request to /samlValidate", e);
+            }
+        }
         HttpURLConnection conn = null;
         try {
             conn = this.getURLConnectionFactory().buildHttpURLConnection(validationUrl.openConnection());
@@ -217,9 +236,6 @@ public final class Saml11TicketValidator extends AbstractUrlBasedTicketValidator
             conn.setDoInput(true);
             conn.setDoOutput(true);
 
-
-            final var charset = CommonUtils.isNotBlank(getEncoding()) ?
-                    Charset.forName(getEncoding()) : IOUtils.UTF8;
             conn.getOutputStream().write(request.getBytes(charset));
             return IOUtils.readString(conn.getInputStream(), charset);
         } catch (final IOException e) {
@@ -231,6 +247,18 @@ public final class Saml11TicketValidator extends AbstractUrlBasedTicketValidator
         }
     }
 
+    private String buildSamlRequest(final String ticket) {
+        return String.format(
+                SAML_REQUEST_TEMPLATE,
+                generateId(),
+                SamlUtils.formatForUtcTime(new Date()),
+                ticket);
+    }
+
+    private Charset getCharset() {
+        return CommonUtils.isNotBlank(getEncoding()) ? Charset.forName(getEncoding()) : IOUtils.UTF8;
+    }
+
     public void setTolerance(final long tolerance) {
         this.tolerance = tolerance;
     }
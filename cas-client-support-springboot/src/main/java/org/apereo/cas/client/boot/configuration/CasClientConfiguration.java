@@ -29,6 +29,7 @@ import org.apereo.cas.client.validation.Cas20ProxyReceivingTicketValidationFilte
 import org.apereo.cas.client.validation.Cas30ProxyReceivingTicketValidationFilter;
 import org.apereo.cas.client.validation.Saml11TicketValidationFilter;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.Filter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -117,6 +118,74 @@ public class CasClientConfiguration {
         if (this.configProps.getUseSession() != null) {
             validationFilter.getInitParameters().put(ConfigurationKeys.USE_SESSION.getName(), String.valueOf(this.configProps.getUseSession()));
         }
+        if (this.configProps.getAsyncValidation() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.ASYNC_VALIDATION.getName(),
+                String.valueOf(this.configProps.getAsyncValidation()));
+            if (this.configProps.getAsyncValidation()) {
+                validationFilter.setAsyncSupported(true);
+                validationFilter.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+            }
+        }
+        if (this.configProps.getAsyncValidationTimeout() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.ASYNC_VALIDATION_TIMEOUT.getName(),
+                String.valueOf(this.configProps.getAsyncValidationTimeout()));
+        }
+        if (this.configProps.getUseHttpClient() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.USE_HTTP_CLIENT.getName(),
+                String.valueOf(this.configProps.getUseHttpClient()));
+        }
+        if (this.configProps.getConnectTimeout() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.CONNECT_TIMEOUT.getName(),
+                String.valueOf(this.configProps.getConnectTimeout()));
+        }
+        if (this.configProps.getReadTimeout() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.READ_TIMEOUT.getName(),
+                String.valueOf(this.configProps.getReadTimeout()));
+        }
+        if (this.configProps.getUseVirtualThreads() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.USE_VIRTUAL_THREADS.getName(),
+                String.valueOf(this.configProps.getUseVirtualThreads()));
+        }
+        if (this.configProps.getMaxConcurrentRequests() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.MAX_CONCURRENT_REQUESTS.getName(),
+                String.valueOf(this.configProps.getMaxConcurrentRequests()));
+        }
+        if (this.configProps.getMaxConcurrentRequestsWaitTimeout() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.MAX_CONCURRENT_REQUESTS_WAIT_TIMEOUT.getName(),
+                String.valueOf(this.configProps.getMaxConcurrentRequestsWaitTimeout()));
+        }
+        if (!this.configProps.getServerUrlPrefixes().isEmpty()) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.CAS_SERVER_URL_PREFIXES.getName(),
+                StringUtils.collectionToCommaDelimitedString(this.configProps.getServerUrlPrefixes()));
+        }
+        if (this.configProps.getServerHealthCheckInterval() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.CAS_SERVER_HEALTH_CHECK_INTERVAL.getName(),
+                String.valueOf(this.configProps.getServerHealthCheckInterval()));
+        }
+        if (this.configProps.getStreamResponses() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.STREAM_RESPONSES.getName(),
+                String.valueOf(this.configProps.getStreamResponses()));
+        }
+        if (this.configProps.getMaxResponseSize() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.MAX_RESPONSE_SIZE.getName(),
+                String.valueOf(this.configProps.getMaxResponseSize()));
+        }
+        if (this.configProps.getMetricsClass() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.METRICS_CLASS.getName(),
+                this.configProps.getMetricsClass().getName());
+        }
+        if (this.configProps.getCacheValidatedAssertions() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.CACHE_VALIDATED_ASSERTIONS.getName(),
+                String.valueOf(this.configProps.getCacheValidatedAssertions()));
+        }
+        if (this.configProps.getValidatedAssertionCacheMaxSize() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.VALIDATED_ASSERTION_CACHE_MAX_SIZE.getName(),
+                String.valueOf(this.configProps.getValidatedAssertionCacheMaxSize()));
+        }
+        if (this.configProps.getValidatedAssertionCacheTimeToLive() != null) {
+            validationFilter.getInitParameters().put(ConfigurationKeys.VALIDATED_ASSERTION_CACHE_TIME_TO_LIVE.getName(),
+                String.valueOf(this.configProps.getValidatedAssertionCacheTimeToLive()));
+        }
         if (this.configProps.getRedirectAfterValidation() != null) {
             validationFilter.getInitParameters().put(ConfigurationKeys.REDIRECT_AFTER_VALIDATION.getName(),
                 String.valueOf(this.configProps.getRedirectAfterValidation()));
@@ -224,8 +293,28 @@ public class CasClientConfiguration {
     public FilterRegistrationBean casSingleSignOutFilter() {
         final var singleSignOutFilter = new FilterRegistrationBean();
         singleSignOutFilter.setFilter(new SingleSignOutFilter());
-        final Map<String, String> initParameters = new HashMap<>(1);
+        final Map<String, String> initParameters = new HashMap<>(4);
         initParameters.put(ConfigurationKeys.CAS_SERVER_URL_PREFIX.getName(), configProps.getServerUrlPrefix());
+        final var singleLogout = configProps.getSingleLogout();
+        if (singleLogout.getSessionMappingStorageClass() != null) {
+            initParameters.put(ConfigurationKeys.SESSION_MAPPING_STORAGE_CLASS.getName(),
+                singleLogout.getSessionMappingStorageClass().getName());
+        }
+        if (singleLogout.getSessionMappingMaxSize() != null) {
+            initParameters.put(ConfigurationKeys.SESSION_MAPPING_MAX_SIZE.getName(),
+                String.valueOf(singleLogout.getSessionMappingMaxSize()));
+        }
+        if (singleLogout.getSessionMappingReaperInterval() != null) {
+            initParameters.put(ConfigurationKeys.SESSION_MAPPING_REAPER_INTERVAL.getName(),
+                String.valueOf(singleLogout.getSessionMappingReaperInterval()));
+        }
+        if (singleLogout.getSessionLookupClass() != null) {
+            initParameters.put(ConfigurationKeys.SESSION_LOOKUP_CLASS.getName(),
+                singleLogout.getSessionLookupClass().getName());
+        }
+        if (configProps.getMetricsClass() != null) {
+            initParameters.put(ConfigurationKeys.METRICS_CLASS.getName(), configProps.getMetricsClass().getName());
+        }
         singleSignOutFilter.setInitParameters(initParameters);
         singleSignOutFilter.setOrder(Ordered.HIGHEST_PRECEDENCE);
         return singleSignOutFilter;
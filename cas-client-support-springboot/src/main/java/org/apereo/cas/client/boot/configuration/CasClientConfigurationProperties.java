@@ -18,6 +18,10 @@
  */
 package org.apereo.cas.client.boot.configuration;
 
+import org.apereo.cas.client.metrics.CasClientMetrics;
+import org.apereo.cas.client.session.SessionLookup;
+import org.apereo.cas.client.session.SessionMappingStorage;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.lang.NonNull;
 
@@ -87,6 +91,90 @@ public class CasClientConfigurationProperties {
      */
     private Boolean useSession = Boolean.TRUE;
 
+    /**
+     * Validation filter asyncValidation parameter.
+     */
+    private Boolean asyncValidation;
+
+    /**
+     * Validation filter asyncValidationTimeout parameter.
+     */
+    private Long asyncValidationTimeout;
+
+    /**
+     * Validation filter useHttpClient parameter.
+     */
+    private Boolean useHttpClient;
+
+    /**
+     * Validation filter connectTimeout parameter, in milliseconds.
+     */
+    private Long connectTimeout;
+
+    /**
+     * Validation filter readTimeout parameter, in milliseconds.
+     */
+    private Long readTimeout;
+
+    /**
+     * Validation filter useVirtualThreads parameter.  Only the back-channel executor running the blocking calls of
+     * asynchronous validations uses virtual threads; synchronous validation and proxy ticket retrieval still call the
+     * CAS server on the caller's thread.
+     */
+    private Boolean useVirtualThreads;
+
+    /**
+     * Validation filter maxConcurrentRequests parameter, the limit of concurrent calls to the CAS server.
+     */
+    private Integer maxConcurrentRequests;
+
+    /**
+     * Validation filter maxConcurrentRequestsWaitTimeout parameter, the time a synchronous call waits for the limit of
+     * concurrent calls, in milliseconds.
+     */
+    private Long maxConcurrentRequestsWaitTimeout;
+
+    /**
+     * Validation filter casServerUrlPrefixes parameter, further URL prefixes of the CAS server to fail over to.
+     */
+    private List<String> serverUrlPrefixes = new ArrayList<>();
+
+    /**
+     * Validation filter casServerHealthCheckInterval parameter, the time between two health checks of the CAS server
+     * URL prefixes, in milliseconds.
+     */
+    private Long serverHealthCheckInterval;
+
+    /**
+     * Validation filter streamResponses parameter, whether responses are parsed as they are read.
+     */
+    private Boolean streamResponses;
+
+    /**
+     * Validation filter maxResponseSize parameter, the maximum size of a response from the CAS server in bytes.
+     */
+    private Long maxResponseSize;
+
+    /**
+     * Validation and SingleSignOutFilter metricsClass parameter, the metrics the client reports to.
+     */
+    private Class<? extends CasClientMetrics> metricsClass;
+
+    /**
+     * Validation filter cacheValidatedAssertions parameter.
+     */
+    private Boolean cacheValidatedAssertions;
+
+    /**
+     * Validation filter validatedAssertionCacheMaxSize parameter.
+     */
+    private Integer validatedAssertionCacheMaxSize;
+
+    /**
+     * Validation filter validatedAssertionCacheTimeToLive parameter, in milliseconds.
+     */
+    private Long validatedAssertionCacheTimeToLive;
+
     /**
      * Validation filter redirectAfterValidation.
      */
@@ -133,6 +221,26 @@ public class CasClientConfigurationProperties {
          */
         private boolean enabled = false;
 
+        /**
+         * SingleSignOutFilter sessionMappingStorageClass parameter.
+         */
+        private Class<? extends SessionMappingStorage> sessionMappingStorageClass;
+
+        /**
+         * SingleSignOutFilter sessionMappingMaxSize parameter.
+         */
+        private Integer sessionMappingMaxSize;
+
+        /**
+         * SingleSignOutFilter sessionMappingReaperInterval parameter, in milliseconds.
+         */
+        private Long sessionMappingReaperInterval;
+
+        /**
+         * SingleSignOutFilter sessionLookupClass parameter.
+         */
+        private Class<? extends SessionLookup> sessionLookupClass;
+
         public boolean isEnabled() {
             return enabled;
         }
@@ -140,6 +248,38 @@ public class CasClientConfigurationProperties {
         public void setEnabled(final boolean enabled) {
             this.enabled = enabled;
         }
+
+        public Class<? extends SessionMappingStorage> getSessionMappingStorageClass() {
+            return sessionMappingStorageClass;
+        }
+
+        public void setSessionMappingStorageClass(final Class<? extends SessionMappingStorage> sessionMappingStorageClass) {
+            this.sessionMappingStorageClass = sessionMappingStorageClass;
+        }
+
+        public Integer getSessionMappingMaxSize() {
+            return sessionMappingMaxSize;
+        }
+
+        public void setSessionMappingMaxSize(final Integer sessionMappingMaxSize) {
+            this.sessionMappingMaxSize = sessionMappingMaxSize;
+        }
+
+        public Long getSessionMappingReaperInterval() {
+            return sessionMappingReaperInterval;
+        }
+
+        public void setSessionMappingReaperInterval(final Long sessionMappingReaperInterval) {
+            this.sessionMappingReaperInterval = sessionMappingReaperInterval;
+        }
+
+        public Class<? extends SessionLookup> getSessionLookupClass() {
+            return sessionLookupClass;
+        }
+
+        public void setSessionLookupClass(final Class<? extends SessionLookup> sessionLookupClass) {
+            this.sessionLookupClass = sessionLookupClass;
+        }
     }
 
     public String getServerUrlPrefix() {
@@ -214,6 +354,134 @@ public class CasClientConfigurationProperties {
         this.useSession = useSession;
     }
 
+    public Boolean getAsyncValidation() {
+        return asyncValidation;
+    }
+
+    public void setAsyncValidation(final Boolean asyncValidation) {
+        this.asyncValidation = asyncValidation;
+    }
+
+    public Long getAsyncValidationTimeout() {
+        return asyncValidationTimeout;
+    }
+
+    public void setAsyncValidationTimeout(final Long asyncValidationTimeout) {
+        this.asyncValidationTimeout = asyncValidationTimeout;
+    }
+
+    public Boolean getUseHttpClient() {
+        return useHttpClient;
+    }
+
+    public void setUseHttpClient(final Boolean useHttpClient) {
+        this.useHttpClient = useHttpClient;
+    }
+
+    public Long getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(final Long connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Long getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(final Long readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Boolean getUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    public void setUseVirtualThreads(final Boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
+    public Integer getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(final Integer maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public Long getMaxConcurrentRequestsWaitTimeout() {
+        return maxConcurrentRequestsWaitTimeout;
+    }
+
+    public void setMaxConcurrentRequestsWaitTimeout(final Long maxConcurrentRequestsWaitTimeout) {
+        this.maxConcurrentRequestsWaitTimeout = maxConcurrentRequestsWaitTimeout;
+    }
+
+    public List<String> getServerUrlPrefixes() {
+        return serverUrlPrefixes;
+    }
+
+    public void setServerUrlPrefixes(final List<String> serverUrlPrefixes) {
+        this.serverUrlPrefixes = serverUrlPrefixes;
+    }
+
+    public Long getServerHealthCheckInterval() {
+        return serverHealthCheckInterval;
+    }
+
+    public void setServerHealthCheckInterval(final Long serverHealthCheckInterval) {
+        this.serverHealthCheckInterval = serverHealthCheckInterval;
+    }
+
+    public Boolean getStreamResponses() {
+        return streamResponses;
+    }
+
+    public void setStreamResponses(final Boolean streamResponses) {
+        this.streamResponses = streamResponses;
+    }
+
+    public Long getMaxResponseSize() {
+        return maxResponseSize;
+    }
+
+    public void setMaxResponseSize(final Long maxResponseSize) {
+        this.maxResponseSize = maxResponseSize;
+    }
+
+    public Class<? extends CasClientMetrics> getMetricsClass() {
+        return metricsClass;
+    }
+
+    public void setMetricsClass(final Class<? extends CasClientMetrics> metricsClass) {
+        this.metricsClass = metricsClass;
+    }
+
+    public Boolean getCacheValidatedAssertions() {
+        return cacheValidatedAssertions;
+    }
+
+    public void setCacheValidatedAssertions(final Boolean cacheValidatedAssertions) {
+        this.cacheValidatedAssertions = cacheValidatedAssertions;
+    }
+
+    public Integer getValidatedAssertionCacheMaxSize() {
+        return validatedAssertionCacheMaxSize;
+    }
+
+    public void setValidatedAssertionCacheMaxSize(final Integer validatedAssertionCacheMaxSize) {
+        this.validatedAssertionCacheMaxSize = validatedAssertionCacheMaxSize;
+    }
+
+    public Long getValidatedAssertionCacheTimeToLive() {
+        return validatedAssertionCacheTimeToLive;
+    }
+
+    public void setValidatedAssertionCacheTimeToLive(final Long validatedAssertionCacheTimeToLive) {
+        this.validatedAssertionCacheTimeToLive = validatedAssertionCacheTimeToLive;
+    }
+
     public Boolean getRedirectAfterValidation() {
         return redirectAfterValidation;
     }